@@ -0,0 +1,467 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import util.GeneralFileFilter;
+
+import dxf.DxfCache;
+import dxf.DxfData;
+import dxf.DxfProgressListener;
+import dxf.DxfReader;
+import dxf.DxfSnapshot;
+import dxf.checker.CheckResult;
+import dxf.checker.DimensionChecker;
+import dxf.checker.DxfChecker;
+import dxf.checker.PositionChecker;
+import dxf.checker.ScrewChecker;
+
+/**
+ * 画面を表示せずにDXFファイルをまとめてチェックするためのクラス
+ *
+ * ディレクトリはサイドバーの一覧と同じ条件（.dxf、.dxf.gz、.zip）でサブディレクトリまでたどり、zipファイルはエントリごとにチェックします。
+ * ファイルごとに読み込み、最適化、チェックを行い、ファイルどうしはコア数のスレッドで並行して処理します。
+ * 結果は1ファイルにつき1行のJSON（JSON Lines）で、ファイルをたどった順に出力します。
+ * チェッカーなどが標準出力に出すデバッグ出力は、結果と混ざらないように標準エラー出力に移します。
+ * 最適化したデータは{@link DxfCache#getDefault()}のキャッシュに保存し、内容の変わらないファイルは次回からキャッシュから読み込みます（-nで使わない）。
+ *
+ * <pre>
+ * java -Djava.awt.headless=true BatchMain [-o 結果のファイル] [-j スレッド数] [-n] [-c ScrewChecker,DimensionChecker,PositionChecker] ファイルまたはディレクトリ...
+ * </pre>
+ *
+ * 終了コードは、すべて異常がなければ0、チェックで異常を検出したファイルがあれば1、読み込めなかったファイルがあれば2、引数が誤っていれば3です。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class BatchMain {
+
+	/**
+	 * 引数が誤っている場合の終了コード
+	 */
+	private static final int EXIT_ARGUMENT = 3;
+
+	/**
+	 * 読み込めなかったファイルがある場合の終了コード
+	 */
+	private static final int EXIT_ERROR = 2;
+
+	/**
+	 * チェックで異常を検出したファイルがある場合の終了コード
+	 */
+	private static final int EXIT_FAILED = 1;
+
+	/**
+	 * 異常を検出しなかった状態
+	 */
+	private static final String STATUS_PASSED = "passed";
+
+	/**
+	 * チェックで異常を検出した状態
+	 */
+	private static final String STATUS_FAILED = "failed";
+
+	/**
+	 * 読み込めなかった状態
+	 */
+	private static final String STATUS_ERROR = "error";
+
+	/**
+	 * チェックするファイルを集めるメソッド
+	 * ディレクトリはサブディレクトリまで名前の順にたどり、zipファイルはエントリごとに集めます。
+	 *
+	 * @param file
+	 *            ファイルまたはディレクトリ
+	 * @param filter
+	 *            ディレクトリから集めるファイルの条件
+	 * @param checkers
+	 *            チェッカー
+	 * @param cache
+	 *            最適化したデータのキャッシュ、使わなければnull
+	 * @param tasks
+	 *            集めたファイルをチェックする処理
+	 */
+	private static void collect(File file, GeneralFileFilter filter, List<DxfChecker> checkers, DxfCache cache, List<Task> tasks) {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles(filter);
+			if (files != null) {
+				Arrays.sort(files);
+				for (File f : files) {
+					BatchMain.collect(f, filter, checkers, cache, tasks);
+				}
+			}
+		} else if (file.getName().toLowerCase(Locale.ENGLISH).endsWith(".zip")) {
+			try {
+				for (String entry : DxfReader.getEntries(file)) {
+					tasks.add(new Task(checkers, cache, file, entry));
+				}
+			} catch (IOException e) {
+				// エントリを読めなければファイルとして読み込み、その異常を結果に出力する
+				tasks.add(new Task(checkers, cache, file, null));
+			}
+		} else {
+			tasks.add(new Task(checkers, cache, file, null));
+		}
+	}
+
+	/**
+	 * 名前からチェッカーを生成するメソッド
+	 *
+	 * @param name
+	 *            チェッカーのクラスの名前（大文字と小文字は区別しない）
+	 * @return チェッカー、該当するチェッカーがなければnull
+	 */
+	private static DxfChecker createChecker(String name) {
+		switch (name.toLowerCase(Locale.ENGLISH)) {
+		case "screwchecker":
+			return new ScrewChecker();
+		case "dimensionchecker":
+			return new DimensionChecker();
+		case "positionchecker":
+			return new PositionChecker();
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * 文字列をJSONの文字列に変換するメソッド
+	 *
+	 * @param sb
+	 *            追加先
+	 * @param value
+	 *            文字列、nullであればnullを追加します
+	 */
+	private static void quote(StringBuilder sb, String value) {
+		if (value == null) {
+			sb.append("null");
+			return;
+		}
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+
+	/**
+	 * 使い方を表示するメソッド
+	 */
+	private static void usage() {
+		System.err.println("usage: BatchMain [-o report.jsonl] [-j threads] [-n] [-c ScrewChecker,DimensionChecker,PositionChecker] path...");
+	}
+
+	/**
+	 * 一括チェックのメインメソッド
+	 *
+	 * @param args
+	 *            オプションとチェックするファイルまたはディレクトリ
+	 * @throws IOException
+	 *             結果を出力できない場合
+	 * @throws InterruptedException
+	 *             チェックの待機中に割り込まれた場合
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (System.getProperty("java.awt.headless") == null) {
+			System.setProperty("java.awt.headless", "true");
+		}
+		String output = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean cache = true;
+		List<DxfChecker> checkers = new ArrayList<DxfChecker>();
+		List<File> files = new ArrayList<File>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if ("-o".equals(args[i])) {
+					output = args[++i];
+				} else if ("-j".equals(args[i])) {
+					threads = Integer.parseInt(args[++i]);
+				} else if ("-n".equals(args[i])) {
+					cache = false;
+				} else if ("-c".equals(args[i])) {
+					for (String name : args[++i].split(",")) {
+						DxfChecker checker = BatchMain.createChecker(name.trim());
+						if (checker == null) {
+							System.err.println(name + ": チェッカーが存在しません。");
+							BatchMain.usage();
+							System.exit(BatchMain.EXIT_ARGUMENT);
+						}
+						checkers.add(checker);
+					}
+				} else {
+					files.add(new File(args[i]));
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+			BatchMain.usage();
+			System.exit(BatchMain.EXIT_ARGUMENT);
+		}
+		if (files.isEmpty() || threads < 1) {
+			BatchMain.usage();
+			System.exit(BatchMain.EXIT_ARGUMENT);
+		}
+		if (checkers.isEmpty()) {
+			checkers.add(new ScrewChecker());
+			checkers.add(new DimensionChecker());
+			checkers.add(new PositionChecker());
+		}
+
+		// 結果を出力する前に、デバッグ出力を標準エラー出力へ移す
+		PrintStream stdout = System.out;
+		System.setOut(System.err);
+
+		GeneralFileFilter filter = new GeneralFileFilter(new String[] { "dxf", "dxf.gz", "zip" }, "DXF", true);
+		List<Task> tasks = new ArrayList<Task>();
+		for (File file : files) {
+			BatchMain.collect(file, filter, checkers, cache ? DxfCache.getDefault() : null, tasks);
+		}
+
+		int status = 0;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		OutputStream out = output == null ? stdout : new FileOutputStream(output);
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		try {
+			List<Future<String>> futures = new ArrayList<Future<String>>(tasks.size());
+			for (Task task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (int i = 0; i < tasks.size(); i++) {
+				Task task = tasks.get(i);
+				String line;
+				try {
+					line = futures.get(i).get();
+				} catch (ExecutionException e) {
+					// OutOfMemoryErrorなど、ファイルごとの処理で捕捉しないエラー
+					line = task.toErrorLine(e.getCause());
+				}
+				writer.println(line);
+				writer.flush();
+				if (BatchMain.STATUS_ERROR.equals(task.getStatus())) {
+					status = BatchMain.EXIT_ERROR;
+				} else if (BatchMain.STATUS_FAILED.equals(task.getStatus()) && status == 0) {
+					status = BatchMain.EXIT_FAILED;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			writer.close();
+		}
+		System.exit(status);
+	}
+
+	/**
+	 * 1つのDXFファイルを読み込んでチェックし、結果を1行のJSONにする処理
+	 *
+	 * 読み込みの進捗から最適化を始めた時刻を受け取り、読み込みと最適化の時間を分けて計測します。
+	 * キャッシュから読み込んだ場合は、読み込みと最適化の時間をすべて読み込みの時間とします。
+	 *
+	 * @author FUJIWARA Masayasu
+	 * @since 0.03
+	 */
+	private static class Task implements Callable<String>, DxfProgressListener {
+
+		/**
+		 * 経過時間をミリ秒で求めるメソッド
+		 *
+		 * @param begin
+		 *            開始した時刻（ナノ秒）
+		 * @param end
+		 *            終了した時刻（ナノ秒）
+		 * @return 経過時間（ミリ秒）
+		 */
+		private static long millis(long begin, long end) {
+			return (end - begin) / 1000000;
+		}
+
+		/**
+		 * 最適化したデータのキャッシュ、使わなければnull
+		 */
+		private final DxfCache cache;
+
+		/**
+		 * キャッシュから読み込んだかどうか
+		 */
+		private boolean cached;
+
+		/**
+		 * チェッカー
+		 */
+		private final List<DxfChecker> checkers;
+
+		/**
+		 * zipファイルのエントリ名、zipファイルでなければnull
+		 */
+		private final String entry;
+
+		/**
+		 * DXFファイルまたはzipファイル
+		 */
+		private final File file;
+
+		/**
+		 * 最適化を始めた時刻（ナノ秒）、始めていなければ0
+		 */
+		private long optimize;
+
+		/**
+		 * チェックの状態
+		 */
+		private String status;
+
+		/**
+		 * @param checkers
+		 *            チェッカー
+		 * @param cache
+		 *            最適化したデータのキャッシュ、使わなければnull
+		 * @param file
+		 *            DXFファイルまたはzipファイル
+		 * @param entry
+		 *            zipファイルのエントリ名、zipファイルでなければnull
+		 */
+		Task(List<DxfChecker> checkers, DxfCache cache, File file, String entry) {
+			this.checkers = checkers;
+			this.cache = cache;
+			this.file = file;
+			this.entry = entry;
+		}
+
+		/**
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public String call() {
+			long start = System.nanoTime();
+			StringBuilder sb = new StringBuilder();
+			this.appendName(sb);
+			try {
+				DxfReader reader = new DxfReader();
+				reader.setProgressListener(this);
+				reader.setCache(this.cache);
+				DxfData dxf = this.entry == null ? reader.readDXF(this.file) : reader.readDXF(this.file, this.entry);
+				long optimized = System.nanoTime();
+				long read = this.optimize == 0 ? optimized : this.optimize;
+
+				DxfSnapshot snapshot = dxf.getSnapshot();
+				boolean passed = true;
+				int errors = 0;
+				StringBuilder results = new StringBuilder();
+				for (DxfChecker checker : this.checkers) {
+					long begin = System.nanoTime();
+					CheckResult result = checker.check(snapshot);
+					long end = System.nanoTime();
+					passed &= result.isPassed();
+					errors += result.getErrorEntities().size();
+					results.append(results.length() == 0 ? "{\"checker\":" : ",{\"checker\":");
+					BatchMain.quote(results, checker.getClass().getSimpleName());
+					results.append(",\"name\":");
+					BatchMain.quote(results, result.getName());
+					results.append(",\"passed\":").append(result.isPassed());
+					results.append(",\"errors\":").append(result.getErrorEntities().size());
+					results.append(",\"ms\":").append(Task.millis(begin, end));
+					results.append('}');
+				}
+				long finish = System.nanoTime();
+				this.status = passed ? BatchMain.STATUS_PASSED : BatchMain.STATUS_FAILED;
+
+				sb.append(",\"status\":\"").append(this.status).append('"');
+				sb.append(",\"cached\":").append(this.cached);
+				sb.append(",\"errors\":").append(errors);
+				sb.append(",\"read_errors\":").append(snapshot.getErrorEntities().size());
+				sb.append(",\"read_ms\":").append(Task.millis(start, read));
+				sb.append(",\"optimize_ms\":").append(Task.millis(read, optimized));
+				sb.append(",\"check_ms\":").append(Task.millis(optimized, finish));
+				sb.append(",\"total_ms\":").append(Task.millis(start, finish));
+				sb.append(",\"checkers\":[").append(results).append("]}");
+				return sb.toString();
+			} catch (Exception e) {
+				return this.toErrorLine(e);
+			}
+		}
+
+		/**
+		 * ファイルの名前を追加するメソッド
+		 *
+		 * @param sb
+		 *            追加先
+		 */
+		private void appendName(StringBuilder sb) {
+			sb.append("{\"file\":");
+			BatchMain.quote(sb, this.entry == null ? this.file.getPath() : this.file.getPath() + File.separatorChar + this.entry);
+		}
+
+		/**
+		 * チェックの状態を取得するメソッド
+		 *
+		 * @return passed、failed、error のいずれか
+		 */
+		String getStatus() {
+			return this.status;
+		}
+
+		/**
+		 * 処理できなかったファイルの結果を1行のJSONにするメソッド
+		 *
+		 * @param cause
+		 *            処理できなかった原因
+		 * @return 1行のJSON
+		 */
+		String toErrorLine(Throwable cause) {
+			this.status = BatchMain.STATUS_ERROR;
+			StringBuilder sb = new StringBuilder();
+			this.appendName(sb);
+			sb.append(",\"status\":\"").append(this.status).append('"');
+			sb.append(",\"message\":");
+			BatchMain.quote(sb, String.valueOf(cause));
+			sb.append('}');
+			return sb.toString();
+		}
+
+		/**
+		 * @see dxf.DxfProgressListener#progress(java.lang.String, double)
+		 */
+		@Override
+		public void progress(String stage, double ratio) {
+			if (this.optimize == 0 && DxfReader.STAGE_OPTIMIZE.equals(stage)) {
+				this.optimize = System.nanoTime();
+			} else if (DxfReader.STAGE_CACHE.equals(stage)) {
+				this.cached = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,647 @@
+import java.awt.geom.Line2D;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import dxf.DxfData;
+import dxf.DxfReader;
+import dxf.DxfSnapshot;
+import dxf.DxfVisitor;
+import dxf.checker.CheckResult;
+import dxf.checker.DimensionChecker;
+import dxf.checker.DimensionNode;
+import dxf.checker.ProjectionView;
+import dxf.section.entities.DxfEntity;
+import dxf.section.entities.DxfLine;
+import dxf.section.entities.LineStore;
+
+/**
+ * 読み込みやチェックの時間とメモリの割り当てを測るためのクラス
+ *
+ * 線分と円をそれぞれ指定した数だけ含む図面を一時ファイルに生成し、同じ図面で処理を繰り返して測ります。
+ * 図面は乱数の種を固定して生成するため、同じ数を指定すれば何度実行しても同じ図面になります。
+ * 結果は1回の計測につき1行で標準出力に出力し、読み込みなどのデバッグ出力は標準エラー出力に移します。
+ *
+ * <pre>
+ * java -Djava.awt.headless=true BenchMain alloc|binary|store|dimension [-n 数,...] [-r 回数]
+ * </pre>
+ *
+ * <dl>
+ * <dt>alloc</dt>
+ * <dd>図面を逐次読み込み（{@link DxfReader#readDXF(File, DxfVisitor)}）、図形1つあたりに割り当てたバイト数を測ります。</dd>
+ * <dt>binary</dt>
+ * <dd>同じ図面をASCII形式とバイナリ形式で生成し、交互に読み込んで時間を比べます。</dd>
+ * <dt>store</dt>
+ * <dd>読み込んだ図面が保持するヒープの大きさと、線分を{@link LineStore}の配列で走査する時間とビューで走査する時間を測ります。</dd>
+ * <dt>dimension</dt>
+ * <dd>寸法のチェックに使うノードの数ごとに、{@link DimensionChecker#check(DxfSnapshot)}の時間を測ります。</dd>
+ * </dl>
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class BenchMain {
+
+	/**
+	 * 引数が誤っている場合の終了コード
+	 */
+	private static final int EXIT_ARGUMENT = 3;
+
+	/**
+	 * 逐次読み込みで図形1つあたりに割り当てたバイト数を測るメソッド 割り当てを数えるため、読み込みは呼び出したスレッドで行います。
+	 *
+	 * @param out
+	 *            結果の出力先
+	 * @param count
+	 *            線分と円の数
+	 * @param rounds
+	 *            繰り返す回数
+	 * @throws IOException
+	 *             図面を生成または読み込みできない場合
+	 */
+	private static void alloc(PrintStream out, int count, int rounds) throws IOException {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			System.err.println("このJava仮想マシンではスレッドごとの割り当てを測ることができません。");
+			return;
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		long thread = Thread.currentThread().getId();
+		File file = BenchMain.generate(count, false);
+		DxfReader reader = new DxfReader();
+		for (int i = 0; i < rounds; i++) {
+			long[] entities = new long[1];
+			long allocated = threads.getThreadAllocatedBytes(thread);
+			long begin = System.nanoTime();
+			reader.readDXF(file, new DxfVisitor() {
+				@Override
+				public void onEntity(DxfEntity entity) {
+					entities[0]++;
+				}
+			});
+			long end = System.nanoTime();
+			allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+			out.printf(Locale.ENGLISH, "alloc n=%d round=%d entities=%d ms=%.1f bytes=%d bytes/entity=%.1f%n", count, i + 1, entities[0],
+					(end - begin) / 1e6, allocated, (double) allocated / Math.max(1, entities[0]));
+		}
+	}
+
+	/**
+	 * 同じ図面をASCII形式とバイナリ形式で読み込む時間を比べるメソッド
+	 * 読み込みはキャッシュを使わず、最適化まで含めて測ります。読み込んだ線分と円の数が一致するかどうかも出力します。
+	 *
+	 * @param out
+	 *            結果の出力先
+	 * @param count
+	 *            線分と円の数
+	 * @param rounds
+	 *            繰り返す回数
+	 * @throws IOException
+	 *             図面を生成または読み込みできない場合
+	 */
+	private static void binary(PrintStream out, int count, int rounds) throws IOException {
+		File ascii = BenchMain.generate(count, false);
+		File binary = BenchMain.generate(count, true);
+		DxfReader reader = new DxfReader();
+		for (int i = 0; i < rounds; i++) {
+			long begin = System.nanoTime();
+			DxfData a = reader.readDXF(ascii);
+			long middle = System.nanoTime();
+			DxfData b = reader.readDXF(binary);
+			long end = System.nanoTime();
+			boolean same = a.getDxfLines().size() == b.getDxfLines().size() && a.getDxfCircles().size() == b.getDxfCircles().size();
+			out.printf(Locale.ENGLISH, "binary n=%d round=%d ascii_bytes=%d binary_bytes=%d ascii_ms=%.1f binary_ms=%.1f same=%b%n", count, i + 1,
+					ascii.length(), binary.length(), (middle - begin) / 1e6, (end - middle) / 1e6, same);
+		}
+	}
+
+	/**
+	 * 寸法のチェックにかかる時間を測るメソッド 同じ回数だけ測らずに実行した後、繰り返した中で最も短い時間を出力します。
+	 * ノードの数は、投影図の図形から求めたX方向とY方向のチェック点の数の合計です。
+	 *
+	 * @param out
+	 *            結果の出力先
+	 * @param count
+	 *            線分と円の数
+	 * @param rounds
+	 *            繰り返す回数
+	 * @throws IOException
+	 *             図面を生成または読み込みできない場合
+	 */
+	private static void dimension(PrintStream out, int count, int rounds) throws IOException {
+		DxfSnapshot snapshot = new DxfReader().readDXF(BenchMain.generate(count, false)).getSnapshot();
+		List<DimensionNode> nodesX = new ArrayList<DimensionNode>();
+		List<DimensionNode> nodesY = new ArrayList<DimensionNode>();
+		Map<String, ProjectionView> views = snapshot.getProjectionViewMap();
+		if (views != null) {
+			for (ProjectionView view : views.values()) {
+				for (DxfEntity entity : view.getEntities()) {
+					entity.getCheckPoints(nodesX, nodesY);
+				}
+			}
+		}
+		// 最初の数回はコンパイルを待つ時間が含まれるため、同じ回数だけ測らずに実行する
+		for (int i = 0; i < rounds; i++) {
+			new DimensionChecker().check(snapshot);
+		}
+		long best = Long.MAX_VALUE;
+		CheckResult result = null;
+		for (int i = 0; i < rounds; i++) {
+			DimensionChecker checker = new DimensionChecker();
+			long begin = System.nanoTime();
+			result = checker.check(snapshot);
+			best = Math.min(best, System.nanoTime() - begin);
+		}
+		out.printf(Locale.ENGLISH, "dimension n=%d nodes=%d passed=%b errors=%d best_ms=%.1f%n", count, nodesX.size() + nodesY.size(), result.isPassed(),
+				result.getErrorEntities().size(), best / 1e6);
+	}
+
+	/**
+	 * ベンチマーク用の図面を一時ファイルに生成するメソッド
+	 * 寸法と引き出し線を含む2つの投影図に、指定した数の線分と円を加えます。ファイルは終了時に削除します。
+	 *
+	 * @param count
+	 *            加える線分と円の数
+	 * @param binary
+	 *            バイナリ形式で生成する場合true
+	 * @return 生成したファイル
+	 * @throws IOException
+	 *             書き出せない場合
+	 */
+	private static File generate(int count, boolean binary) throws IOException {
+		File file = File.createTempFile("bench" + count, binary ? ".bin.dxf" : ".dxf");
+		file.deleteOnExit();
+		DrawingWriter out = new DrawingWriter(new BufferedOutputStream(new FileOutputStream(file)), binary);
+		try {
+			Random random = new Random(1);
+			out.write(0, "SECTION");
+			out.write(2, "HEADER");
+			out.write(9, "$ACADVER");
+			out.write(1, "AC1015");
+			out.write(9, "$EXTMIN");
+			out.write(10, 0.0);
+			out.write(20, 0.0);
+			out.write(30, 0.0);
+			out.write(9, "$EXTMAX");
+			out.write(10, 420.0);
+			out.write(20, 297.0);
+			out.write(30, 0.0);
+			out.write(0, "ENDSEC");
+
+			out.write(0, "SECTION");
+			out.write(2, "BLOCKS");
+			for (int b = 0; b < 3; b++) {
+				double x1 = 50 + b * 10;
+				double x2 = x1 + 40;
+				out.write(0, "BLOCK");
+				out.write(8, "0");
+				out.write(2, "*D" + b);
+				out.writeShort(70, 1);
+				out.write(10, 0.0);
+				out.write(20, 0.0);
+				out.line("DIM", null, x1, 150, x2, 150);
+				out.line("DIM", null, x1, 100, x1, 152);
+				out.line("DIM", null, x2, 100, x2, 152);
+				out.write(0, "MTEXT");
+				out.write(8, "DIM");
+				out.write(10, x1 + 20);
+				out.write(20, 151.0);
+				out.write(40, 2.5);
+				out.writeShort(71, 8);
+				out.write(1, "40");
+				out.write(0, "ENDBLK");
+				out.write(8, "0");
+			}
+			out.write(0, "BLOCK");
+			out.write(8, "0");
+			out.write(2, "LEADER");
+			out.writeShort(70, 0);
+			out.write(10, 0.0);
+			out.write(20, 0.0);
+			out.line("0", null, 0, 0, 5, 5);
+			out.line("0", null, 0, 0, -5, 5);
+			out.line("0", null, 0, 0, 0, 8);
+			out.write(0, "TEXT");
+			out.write(8, "0");
+			out.write(10, 5.0);
+			out.write(20, 5.0);
+			out.write(40, 2.5);
+			out.write(1, "4-φ10");
+			out.write(0, "ENDBLK");
+			out.write(0, "ENDSEC");
+
+			out.write(0, "SECTION");
+			out.write(2, "ENTITIES");
+			out.line("FRAME", null, 5, 5, 415, 5);
+			out.line("FRAME", null, 415, 5, 415, 292);
+			out.line("FRAME", null, 415, 292, 5, 292);
+			out.line("FRAME", null, 5, 292, 5, 5);
+			for (int ox = 40; ox <= 200; ox += 160) {
+				int oy = 100;
+				out.line("OUT", "CONTINUOUS", ox, oy, ox + 100, oy);
+				out.line("OUT", "CONTINUOUS", ox + 100, oy, ox + 100, oy + 60);
+				out.line("OUT", "CONTINUOUS", ox + 100, oy + 60, ox, oy + 60);
+				out.line("OUT", "CONTINUOUS", ox, oy + 60, ox, oy);
+				out.line("CEN", "CENTER", ox + 50, oy - 5, ox + 50, oy + 65);
+				out.circle("OUT", ox + 50, oy + 30, 5);
+				out.write(0, "ARC");
+				out.write(8, "OUT");
+				out.write(10, ox + 20.0);
+				out.write(20, oy + 30.0);
+				out.write(40, 8.0);
+				out.write(50, 0.0);
+				out.write(51, 90.0);
+			}
+			for (int i = 0; i < count; i++) {
+				double x = 45 + random.nextDouble() * 90;
+				double y = 105 + random.nextDouble() * 50;
+				out.line("HID", "HIDDEN", x, y, x + 1, y);
+				out.circle("OUT", x + 150, y, 0.5);
+			}
+			out.write(0, "POLYLINE");
+			out.write(8, "0");
+			out.writeShort(66, 1);
+			out.writeShort(70, 1);
+			double[][] vertexes = { { 10, 10 }, { 20, 10 }, { 20, 20 } };
+			for (double[] vertex : vertexes) {
+				out.write(0, "VERTEX");
+				out.write(8, "0");
+				out.write(10, vertex[0]);
+				out.write(20, vertex[1]);
+			}
+			out.write(0, "SEQEND");
+			out.write(0, "TEXT");
+			out.write(8, "TXT");
+			out.write(10, 10.0);
+			out.write(20, 280.0);
+			out.write(40, 3.5);
+			out.writeShort(72, 0);
+			out.write(1, "TITLE");
+			for (int b = 0; b < 3; b++) {
+				out.write(0, "DIMENSION");
+				out.write(8, "DIM");
+				out.write(2, "*D" + b);
+				out.write(10, 0.0);
+				out.write(20, 0.0);
+			}
+			out.write(0, "INSERT");
+			out.write(8, "0");
+			out.write(2, "LEADER");
+			out.write(10, 90.0);
+			out.write(20, 130.0);
+			out.write(0, "ENDSEC");
+			out.write(0, "EOF");
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	/**
+	 * 読み込んだ図面が保持するヒープの大きさと、線分を走査する時間を測るメソッド
+	 * 走査は投影図を分割するときと同じく、ある点に最も近い線分をすべての線分から探します。
+	 * 配列の大きさは座標と属性の列だけを数えたもので、残りは主に図形ごとのビューなどのオブジェクトです。
+	 *
+	 * @param out
+	 *            結果の出力先
+	 * @param count
+	 *            線分と円の数
+	 * @param rounds
+	 *            繰り返す回数
+	 * @throws IOException
+	 *             図面を生成または読み込みできない場合
+	 */
+	private static void store(PrintStream out, int count, int rounds) throws IOException {
+		File file = BenchMain.generate(count, false);
+		long before = BenchMain.usedMemory();
+		DxfData dxf = new DxfReader().readDXF(file);
+		long retained = BenchMain.usedMemory() - before;
+		LineStore store = dxf.getLineStore();
+		List<DxfLine> lines = dxf.getDxfLines();
+		int circles = dxf.getDxfCircles().size();
+		long arrays = store.size() * (4L * Double.BYTES + Integer.BYTES + Byte.BYTES) + circles * (3L * Double.BYTES + Integer.BYTES + Byte.BYTES);
+		out.printf(Locale.ENGLISH, "store n=%d lines=%d circles=%d retained_mb=%.1f arrays_mb=%.1f%n", count, store.size(), circles, retained / 1e6,
+				arrays / 1e6);
+
+		int passes = 20;
+		double x = 100;
+		double y = 130;
+		for (int i = 0; i < rounds; i++) {
+			double nearest = Double.POSITIVE_INFINITY;
+			long begin = System.nanoTime();
+			for (int k = 0; k < passes; k++) {
+				for (int j = 0, size = store.size(); j < size; j++) {
+					nearest = Math.min(nearest, Line2D.ptSegDistSq(store.getX1(j), store.getY1(j), store.getX2(j), store.getY2(j), x, y));
+				}
+			}
+			long middle = System.nanoTime();
+			double viewNearest = Double.POSITIVE_INFINITY;
+			for (int k = 0; k < passes; k++) {
+				for (DxfLine line : lines) {
+					viewNearest = Math.min(viewNearest, line.ptSegDistSq(x, y));
+				}
+			}
+			long end = System.nanoTime();
+			long scanned = (long) passes * Math.max(1, store.size());
+			out.printf(Locale.ENGLISH, "store n=%d round=%d array_ns/line=%.2f view_ns/line=%.2f same=%b%n", count, i + 1, (double) (middle - begin) / scanned,
+					(double) (end - middle) / scanned, nearest == viewNearest);
+		}
+	}
+
+	/**
+	 * ガベージコレクションの後に使っているヒープの大きさを求めるメソッド
+	 *
+	 * @return 使っているヒープの大きさ（バイト）
+	 */
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * 使い方を表示するメソッド
+	 */
+	private static void usage() {
+		System.err.println("usage: BenchMain alloc|binary|store|dimension [-n count,...] [-r rounds]");
+	}
+
+	/**
+	 * ベンチマークのメインメソッド
+	 *
+	 * @param args
+	 *            測る処理の名前とオプション
+	 * @throws IOException
+	 *             図面を生成または読み込みできない場合
+	 */
+	public static void main(String[] args) throws IOException {
+		if (System.getProperty("java.awt.headless") == null) {
+			System.setProperty("java.awt.headless", "true");
+		}
+		List<Integer> counts = new ArrayList<Integer>();
+		int rounds = 5;
+		try {
+			for (int i = 1; i < args.length; i++) {
+				if ("-n".equals(args[i])) {
+					for (String count : args[++i].split(",")) {
+						counts.add(Integer.valueOf(count.trim()));
+					}
+				} else if ("-r".equals(args[i])) {
+					rounds = Integer.parseInt(args[++i]);
+				} else {
+					throw new IllegalArgumentException(args[i]);
+				}
+			}
+		} catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+			BenchMain.usage();
+			System.exit(BenchMain.EXIT_ARGUMENT);
+		}
+		if (args.length == 0 || rounds < 1) {
+			BenchMain.usage();
+			System.exit(BenchMain.EXIT_ARGUMENT);
+		}
+
+		// 結果を出力する前に、デバッグ出力を標準エラー出力へ移す
+		PrintStream out = System.out;
+		System.setOut(System.err);
+
+		switch (args[0]) {
+		case "alloc":
+			if (counts.isEmpty()) {
+				counts.add(100000);
+			}
+			for (int count : counts) {
+				BenchMain.alloc(out, count, rounds);
+			}
+			break;
+		case "binary":
+			if (counts.isEmpty()) {
+				counts.add(100000);
+			}
+			for (int count : counts) {
+				BenchMain.binary(out, count, rounds);
+			}
+			break;
+		case "store":
+			if (counts.isEmpty()) {
+				counts.add(100000);
+			}
+			for (int count : counts) {
+				BenchMain.store(out, count, rounds);
+			}
+			break;
+		case "dimension":
+			if (counts.isEmpty()) {
+				counts.add(500);
+				counts.add(2000);
+				counts.add(5000);
+			}
+			for (int count : counts) {
+				BenchMain.dimension(out, count, rounds);
+			}
+			break;
+		default:
+			BenchMain.usage();
+			System.exit(BenchMain.EXIT_ARGUMENT);
+		}
+		out.flush();
+	}
+
+	/**
+	 * ベンチマーク用の図面をASCII形式またはバイナリ形式で書き出すためのクラス
+	 *
+	 * @author FUJIWARA Masayasu
+	 * @since 0.03
+	 */
+	private static class DrawingWriter {
+
+		/**
+		 * バイナリ形式の先頭に置く識別子
+		 */
+		private static final byte[] SENTINEL = "AutoCAD Binary DXF\r\n\u001a\0".getBytes(StandardCharsets.ISO_8859_1);
+
+		/**
+		 * バイナリ形式の場合true
+		 */
+		private final boolean binary;
+
+		/**
+		 * バイナリ形式のグループコードと値を組み立てるバッファ
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * 出力先
+		 */
+		private final OutputStream out;
+
+		/**
+		 * @param out
+		 *            出力先
+		 * @param binary
+		 *            バイナリ形式で書き出す場合true
+		 * @throws IOException
+		 *             書き出せない場合
+		 */
+		DrawingWriter(OutputStream out, boolean binary) throws IOException {
+			this.out = out;
+			this.binary = binary;
+			this.buffer = ByteBuffer.allocate(10).order(ByteOrder.LITTLE_ENDIAN);
+			if (binary) {
+				out.write(DrawingWriter.SENTINEL);
+			}
+		}
+
+		/**
+		 * 円を書き出すメソッド
+		 *
+		 * @param layer
+		 *            画層
+		 * @param x
+		 *            中心のX座標
+		 * @param y
+		 *            中心のY座標
+		 * @param radius
+		 *            半径
+		 * @throws IOException
+		 *             書き出せない場合
+		 */
+		void circle(String layer, double x, double y, double radius) throws IOException {
+			this.write(0, "CIRCLE");
+			this.write(8, layer);
+			this.write(10, x);
+			this.write(20, y);
+			this.write(40, radius);
+		}
+
+		/**
+		 * 出力先を閉じるメソッド
+		 *
+		 * @throws IOException
+		 *             閉じることができない場合
+		 */
+		void close() throws IOException {
+			this.out.close();
+		}
+
+		/**
+		 * 線分を書き出すメソッド
+		 *
+		 * @param layer
+		 *            画層
+		 * @param lineType
+		 *            線種、なければnull
+		 * @param x1
+		 *            始点のX座標
+		 * @param y1
+		 *            始点のY座標
+		 * @param x2
+		 *            終点のX座標
+		 * @param y2
+		 *            終点のY座標
+		 * @throws IOException
+		 *             書き出せない場合
+		 */
+		void line(String layer, String lineType, double x1, double y1, double x2, double y2) throws IOException {
+			this.write(0, "LINE");
+			this.write(8, layer);
+			if (lineType != null) {
+				this.write(6, lineType);
+			}
+			this.write(10, x1);
+			this.write(20, y1);
+			this.write(11, x2);
+			this.write(21, y2);
+		}
+
+		/**
+		 * 実数の値を書き出すメソッド
+		 *
+		 * @param code
+		 *            グループコード
+		 * @param value
+		 *            値
+		 * @throws IOException
+		 *             書き出せない場合
+		 */
+		void write(int code, double value) throws IOException {
+			if (this.binary) {
+				this.buffer.clear();
+				this.buffer.putShort((short) code).putDouble(value);
+				this.out.write(this.buffer.array(), 0, this.buffer.position());
+			} else {
+				this.writeText(code, String.format(Locale.ENGLISH, "%.6f", value));
+			}
+		}
+
+		/**
+		 * 文字列の値を書き出すメソッド
+		 *
+		 * @param code
+		 *            グループコード
+		 * @param value
+		 *            値
+		 * @throws IOException
+		 *             書き出せない場合
+		 */
+		void write(int code, String value) throws IOException {
+			if (this.binary) {
+				this.buffer.clear();
+				this.buffer.putShort((short) code);
+				this.out.write(this.buffer.array(), 0, this.buffer.position());
+				this.out.write(value.getBytes("SJIS"));
+				this.out.write(0);
+			} else {
+				this.writeText(code, value);
+			}
+		}
+
+		/**
+		 * 16ビット整数の値を書き出すメソッド
+		 *
+		 * @param code
+		 *            グループコード
+		 * @param value
+		 *            値
+		 * @throws IOException
+		 *             書き出せない場合
+		 */
+		void writeShort(int code, int value) throws IOException {
+			if (this.binary) {
+				this.buffer.clear();
+				this.buffer.putShort((short) code).putShort((short) value);
+				this.out.write(this.buffer.array(), 0, this.buffer.position());
+			} else {
+				this.writeText(code, Integer.toString(value));
+			}
+		}
+
+		/**
+		 * ASCII形式でグループコードと値を書き出すメソッド
+		 *
+		 * @param code
+		 *            グループコード
+		 * @param value
+		 *            値
+		 * @throws IOException
+		 *             書き出せない場合
+		 */
+		private void writeText(int code, String value) throws IOException {
+			this.out.write(String.format(Locale.ENGLISH, "%3d\r\n%s\r\n", code, value).getBytes("SJIS"));
+		}
+	}
+}
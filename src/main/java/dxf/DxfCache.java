@@ -0,0 +1,323 @@
+package dxf;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+import dxf.section.entities.EntityCodec;
+
+/**
+ * 最適化したDXFファイルのデータを保存して、開き直すときに再利用するためのキャッシュ
+ *
+ * DXFファイルのパス（zipファイルの場合はエントリ名を含む）ごとに1つのファイルをキャッシュのディレクトリに保存します。
+ * ファイルの大きさ、更新時刻、内容のCRC-32がすべて一致する場合のみキャッシュを使います。
+ * キャッシュはメモリにマッピングして一度に読み込みます。
+ * ディレクトリの合計の大きさが上限を超えると、使った時刻の古いキャッシュから削除します。
+ * 複数のスレッドから同時に使えます。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class DxfCache {
+
+	/**
+	 * キャッシュのファイルの拡張子
+	 */
+	public static final String EXTENSION = ".dxfcache";
+
+	/**
+	 * CRC-32を求めるときに一度にマッピングする大きさ
+	 */
+	private static final long CHUNK_SIZE = 1 << 30;
+
+	/**
+	 * キャッシュのファイルの識別子（DXFC）
+	 */
+	private static final int MAGIC = 0x44584643;
+
+	/**
+	 * キャッシュの形式の版 形式を変えたら増やすこと。
+	 */
+	private static final int VERSION = 3;
+
+	/**
+	 * ファイルの内容のCRC-32を求めるメソッド
+	 *
+	 * @param file
+	 *            ファイル
+	 * @return CRC-32
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	private static long checksum(File file) throws IOException {
+		CRC32 crc = new CRC32();
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			for (long position = 0; position < size; position += DxfCache.CHUNK_SIZE) {
+				crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(DxfCache.CHUNK_SIZE, size - position)));
+			}
+		} finally {
+			in.close();
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * 標準の設定のキャッシュを生成するメソッド
+	 * ディレクトリはシステムプロパティdxf.cache.dir（なければホームディレクトリの.dxfcache）、
+	 * 上限はシステムプロパティdxf.cache.limit（MB単位、なければ1024MB）とします。
+	 *
+	 * @return キャッシュ
+	 */
+	public static DxfCache getDefault() {
+		String directory = System.getProperty("dxf.cache.dir");
+		if (directory == null) {
+			directory = System.getProperty("user.home") + File.separator + ".dxfcache";
+		}
+		return new DxfCache(new File(directory), Long.getLong("dxf.cache.limit", 1024) << 20);
+	}
+
+	/**
+	 * パスから64ビットのFNV-1aハッシュ値を求めるメソッド
+	 *
+	 * @param path
+	 *            パス
+	 * @return 16桁の16進数
+	 */
+	private static String hash(String path) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : path.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		return String.format("%016x", hash);
+	}
+
+	/**
+	 * キャッシュのディレクトリ
+	 */
+	private final File directory;
+
+	/**
+	 * キャッシュの合計の大きさの上限
+	 */
+	private final long limit;
+
+	/**
+	 * @param directory
+	 *            キャッシュのディレクトリ、なければ保存するときに作成します
+	 * @param limit
+	 *            キャッシュの合計の大きさの上限（バイト）
+	 */
+	public DxfCache(File directory, long limit) {
+		this.directory = directory;
+		this.limit = limit;
+	}
+
+	/**
+	 * 上限を超えた分のキャッシュを、使った時刻の古い順に削除するメソッド
+	 */
+	private synchronized void evict() {
+		File[] files = this.directory.listFiles((FileFilter) file -> file.isFile() && file.getName().endsWith(DxfCache.EXTENSION));
+		if (files == null) {
+			return;
+		}
+		long total = 0;
+		for (int i = 0; i < files.length; i++) {
+			total += files[i].length();
+		}
+		if (total <= this.limit) {
+			return;
+		}
+		long[] modified = new long[files.length];
+		Integer[] order = new Integer[files.length];
+		for (int i = 0; i < files.length; i++) {
+			order[i] = i;
+			modified[i] = files[i].lastModified();
+		}
+		Arrays.sort(order, Comparator.comparingLong(i -> modified[i]));
+		for (int i = 0; i < order.length && total > this.limit; i++) {
+			File file = files[order[i]];
+			long length = file.length();
+			if (file.delete()) {
+				total -= length;
+			}
+		}
+	}
+
+	/**
+	 * キャッシュから図面を読み込むメソッド キャッシュが壊れていれば削除してnullを返します。
+	 *
+	 * @param key
+	 *            キャッシュのキー
+	 * @return 最適化した図面、キャッシュがないか一致しなければnull
+	 */
+	public DxfData get(Key key) {
+		File file = this.getFile(key);
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			ByteBuffer buffer;
+			FileInputStream in = new FileInputStream(file);
+			try {
+				FileChannel channel = in.getChannel();
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				in.close();
+			}
+			if (!key.matches(buffer)) {
+				return null;
+			}
+			DxfData dxf = DxfData.read(buffer);
+			file.setLastModified(System.currentTimeMillis());
+			return dxf;
+		} catch (IOException | RuntimeException e) {
+			// 壊れたキャッシュは削除して、DXFファイルから読み込み直させる
+			file.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * キャッシュのファイルを取得するメソッド
+	 *
+	 * @param key
+	 *            キャッシュのキー
+	 * @return キャッシュのファイル
+	 */
+	private File getFile(Key key) {
+		return new File(this.directory, DxfCache.hash(key.path) + DxfCache.EXTENSION);
+	}
+
+	/**
+	 * DXFファイルのキャッシュのキーを求めるメソッド ファイルの内容をすべて読んでCRC-32を求めます。
+	 *
+	 * @param file
+	 *            DXFファイルまたはzipファイル
+	 * @param name
+	 *            zipファイルのエントリ名、zipファイルでなければnull
+	 * @return キャッシュのキー
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	public Key getKey(File file, String name) throws IOException {
+		String path = file.getCanonicalPath();
+		if (name != null) {
+			path += '!' + name;
+		}
+		long length = file.length();
+		long modified = file.lastModified();
+		return new Key(path, length, modified, DxfCache.checksum(file));
+	}
+
+	/**
+	 * 最適化した図面をキャッシュに保存するメソッド
+	 * 一時ファイルに書き出してから置き換えるため、保存中のキャッシュを他のスレッドが読み込むことはありません。
+	 * 保存に失敗してもキャッシュを使わないだけで、例外は投げません。
+	 *
+	 * @param key
+	 *            キャッシュのキー
+	 * @param dxf
+	 *            {@link DxfData#optimization()}の後、チェックする前の図面
+	 */
+	public void put(Key key, DxfData dxf) {
+		File temp = null;
+		try {
+			this.directory.mkdirs();
+			temp = File.createTempFile("dxf", ".tmp", this.directory);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16));
+			try {
+				key.write(out);
+				dxf.write(out);
+			} finally {
+				out.close();
+			}
+			Files.move(temp.toPath(), this.getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			temp = null;
+		} catch (IOException e) {
+			// 保存できなくても次に開くときにキャッシュを使わないだけなので無視する
+		} finally {
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+		this.evict();
+	}
+
+	/**
+	 * キャッシュのキー キャッシュのファイルの先頭に書き出し、読み込むときにすべて一致するか確認します。
+	 */
+	public static final class Key {
+
+		/**
+		 * ファイルの内容のCRC-32
+		 */
+		private final long checksum;
+
+		/**
+		 * ファイルの大きさ
+		 */
+		private final long length;
+
+		/**
+		 * ファイルの更新時刻
+		 */
+		private final long modified;
+
+		/**
+		 * 正規化したパス
+		 */
+		private final String path;
+
+		Key(String path, long length, long modified, long checksum) {
+			this.path = path;
+			this.length = length;
+			this.modified = modified;
+			this.checksum = checksum;
+		}
+
+		/**
+		 * キャッシュのファイルの先頭がこのキーと一致するか確認するメソッド 一致すればバッファの位置を図面の先頭に進めます。
+		 *
+		 * @param in
+		 *            キャッシュのファイルのバッファ
+		 * @return 一致すればtrue
+		 */
+		boolean matches(ByteBuffer in) {
+			return in.getInt() == DxfCache.MAGIC && in.getInt() == DxfCache.VERSION && this.path.equals(EntityCodec.getString(in))
+					&& in.getLong() == this.length && in.getLong() == this.modified && in.getLong() == this.checksum;
+		}
+
+		/**
+		 * キーをキャッシュのファイルの先頭に書き出すメソッド
+		 *
+		 * @param out
+		 *            出力先
+		 * @throws IOException
+		 *             書き出しに失敗した場合
+		 */
+		void write(DataOutputStream out) throws IOException {
+			out.writeInt(DxfCache.MAGIC);
+			out.writeInt(DxfCache.VERSION);
+			EntityCodec.putString(out, this.path);
+			out.writeLong(this.length);
+			out.writeLong(this.modified);
+			out.writeLong(this.checksum);
+		}
+	}
+}
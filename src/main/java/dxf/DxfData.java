@@ -6,13 +6,19 @@ import gui.ViewingEnvironment;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.Stroke;
 import java.awt.geom.Area;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
 import java.awt.geom.QuadCurve2D;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -27,12 +33,16 @@ import util.MapList;
 import util.NodePair;
 import util.RoundNumber;
 
+import dxf.checker.DimensionGraph;
 import dxf.checker.DimensionNode;
 import dxf.checker.DxfSelections;
 import dxf.checker.ProjectionView;
+import dxf.section.SymbolTable;
+import dxf.section.entities.CircleStore;
 import dxf.section.entities.DxfEntities;
 import dxf.section.entities.DxfAbstText;
 import dxf.section.entities.DxfArc;
+import dxf.section.entities.DxfBlock;
 import dxf.section.entities.DxfCircle;
 import dxf.section.entities.DxfDimension;
 import dxf.section.entities.DxfInsert;
@@ -40,6 +50,9 @@ import dxf.section.entities.DxfLine;
 import dxf.section.entities.DxfEntity;
 import dxf.section.entities.DxfMtext;
 import dxf.section.entities.DxfText;
+import dxf.section.entities.EntityBatch;
+import dxf.section.entities.EntityCodec;
+import dxf.section.entities.LineStore;
 
 /**
  * DXFファイルのデータを扱うクラス 描画のための変数も保持します。
@@ -49,6 +62,11 @@ import dxf.section.entities.DxfText;
  */
 public class DxfData {
 
+	/**
+	 * 描画するときにクリップを広げる幅（ピクセル） 最も太い線の幅より大きくすること。
+	 */
+	private static final double CLIP_MARGIN = 4;
+
 	/**
 	 * 正面図のラベル
 	 */
@@ -79,16 +97,137 @@ public class DxfData {
 	 */
 	public static final String LABEL_RIGHT_SIDE_VIEW = "右側面図";
 
-	private static final int SPLIT_PROJECTION = 50;
+	/**
+	 * 線分の外接長方形を1つの軸に射影した区間をつなぐメソッド
+	 * 最小値と最大値をそれぞれ昇順に並べて走査し、重なる区間と誤差の範囲で接する区間をつなぎます。
+	 * つないだ区間の間が、その軸で線分が途切れる隙間になります。
+	 * 
+	 * @param min
+	 *            区間の最小値、並べ替えます
+	 * @param max
+	 *            区間の最大値、並べ替えます
+	 * @return つないだ区間の最小値と最大値を交互に昇順に並べた配列
+	 */
+	private static double[] mergeIntervals(double[] min, double[] max) {
+		Arrays.sort(min);
+		Arrays.sort(max);
+		double[] segments = new double[2];
+		int count = 0;
+		int depth = 0;
+		for (int i = 0, j = 0; i < min.length;) {
+			if (depth == 0) {
+				if (count == segments.length) {
+					segments = Arrays.copyOf(segments, count * 2);
+				}
+				segments[count++] = min[i++];
+				depth++;
+			} else if (min[i] <= max[j] || RoundNumber.nearlyEquals(min[i], max[j])) {
+				depth++;
+				i++;
+			} else if (--depth == 0) {
+				segments[count++] = max[j++];
+			} else {
+				j++;
+			}
+		}
+		if (depth > 0) {
+			segments[count++] = max[max.length - 1];
+		}
+		return Arrays.copyOf(segments, count);
+	}
+
+	/**
+	 * {@link #write(DataOutput)}で書き出したバイト列から図面を復元するメソッド
+	 * 図形の補完と縮尺は読み込んだ後に求め直し、投影図などは書き出した値をそのまま使います。
+	 * 
+	 * @param in
+	 *            バイト列
+	 * @return DXFファイルのデータ
+	 */
+	static DxfData read(ByteBuffer in) {
+		DxfData dxf = new DxfData();
+		dxf.screen = new Rectangle(in.getInt(), in.getInt(), in.getInt(), in.getInt());
+		int symbols = in.getInt();
+		for (int i = SymbolTable.PREDEFINED_SIZE; i < symbols; i++) {
+			dxf.symbols.intern(EntityCodec.getString(in));
+		}
+		EntityCodec blockCodec = new EntityCodec();
+		int blocks = in.getInt();
+		for (int i = 0; i < blocks; i++) {
+			String name = EntityCodec.getString(in);
+			dxf.blocks.put(name, new DxfBlock(name, blockCodec.read(in)));
+		}
+		EntityCodec codec = new EntityCodec();
+		List<DxfEntity> entities = new ArrayList<DxfEntity>();
+		int keys = in.getInt();
+		for (int i = 0; i < keys; i++) {
+			String key = EntityCodec.getString(in);
+			List<DxfEntity> list = codec.read(in);
+			dxf.entityMap.putAll(key, list);
+			entities.addAll(list);
+		}
+		dxf.lineStore = codec.getLineStore();
+		dxf.circleStore = codec.getCircleStore();
+		dxf.linkEntities();
+
+		int size = in.getInt();
+		dxf.lines = new ArrayList<DxfLine>(size);
+		for (int i = 0; i < size; i++) {
+			dxf.lines.add((DxfLine) entities.get(in.getInt()));
+		}
+		int areas = in.getInt();
+		for (int i = 0; i < areas; i++) {
+			dxf.selections.getSelections().add(new Area(EntityCodec.getPath(in)));
+		}
+		dxf.views = new HashMap<String, ProjectionView>();
+		int views = in.getInt();
+		for (int i = 0; i < views; i++) {
+			ProjectionView view = new ProjectionView();
+			String label = EntityCodec.getString(in);
+			view.setLabel(label);
+			view.setLayout(in.getInt());
+			size = in.getInt();
+			for (int j = 0; j < size; j++) {
+				view.add(entities.get(in.getInt()));
+			}
+			dxf.views.put(label, view);
+		}
+		return dxf;
+	}
+
+	/**
+	 * 表示領域内の選択できる円弧（{@link #getDxfArcs()}で生成）
+	 */
+	private List<DxfArc> arcs;
+
+	/**
+	 * 線分などを線種ごとにまとめたもの（{@link #getBatch()}で生成）
+	 */
+	private EntityBatch batch;
 
 	/**
 	 * ブロックセクションのデータ
 	 */
-	private MapList<String, DxfEntity> blocks;
+	private Map<String, DxfBlock> blocks;
+
+	/**
+	 * エンティティセクションの円を保持する配列
+	 */
+	private CircleStore circleStore;
 
-	private boolean[][] edgesX;
+	/**
+	 * 投影図に含まれる中心線（{@link #getCenterLines()}で生成）
+	 */
+	private List<DxfLine> centerLines;
 
-	private boolean[][] edgesY;
+	/**
+	 * 線分などのまとめて描画しない図形を描画するときの索引（{@link #getDrawIndex()}で生成）
+	 */
+	private EntityIndex drawIndex;
+
+	private DimensionGraph edgesX;
+
+	private DimensionGraph edgesY;
 
 	/**
 	 * DXFファイルの図形リスト
@@ -100,8 +239,18 @@ public class DxfData {
 	 */
 	private Collection<DxfEntity> error;
 
+	/**
+	 * 図形の外接長方形の索引（{@link #getIndex()}で生成）
+	 */
+	private EntityIndex index;
+
 	private List<DxfLine> lines;
 
+	/**
+	 * エンティティセクションの線分を保持する配列
+	 */
+	private LineStore lineStore;
+
 	private Set<NodePair> loaX;
 
 	private Set<NodePair> loaY;
@@ -117,11 +266,21 @@ public class DxfData {
 	 */
 	private Rectangle screen;
 
+	/**
+	 * 図形の種類ごとのリスト（{@link #getRegistry()}で生成）
+	 */
+	private EntityRegistry registry;
+
 	/**
 	 * 図面を包含する選択範囲
 	 */
 	private DxfSelections selections;
 
+	/**
+	 * 線種などの名前の識別番号
+	 */
+	private final SymbolTable symbols;
+
 	private Map<String, ProjectionView> views;
 
 	private boolean[] vpX;
@@ -130,16 +289,17 @@ public class DxfData {
 
 	public DxfData() {
 		this.entityMap = new MapList<String, DxfEntity>();
-		this.blocks = new MapList<String, DxfEntity>();
+		this.blocks = new HashMap<String, DxfBlock>();
 		this.error = new ArrayList<DxfEntity>();
 		this.selections = new DxfSelections();
+		this.symbols = new SymbolTable();
 	}
 	public void addBounds(Rectangle2D rect) {
 		this.selections.add(rect);
 		this.updateBounds();
 	}
 
-	public void addCheck(List<DimensionNode> nodesX, List<DimensionNode> nodesY, boolean[][] edgesX, boolean[][] edgesY, boolean[] vpX, boolean[] vpY,
+	public void addCheck(List<DimensionNode> nodesX, List<DimensionNode> nodesY, DimensionGraph edgesX, DimensionGraph edgesY, boolean[] vpX, boolean[] vpY,
 			Set<NodePair> loaX, Set<NodePair> loaY) {
 		this.nodesX = nodesX;
 		this.nodesY = nodesY;
@@ -285,27 +445,19 @@ public class DxfData {
 		g.setColor(Color.BLACK);
 		g.setStroke(env.getNarrowStroke());
 		if (this.edgesX != null) {
-			for (int i = 0; i < this.edgesX.length; i++) {
-				for (int j = i + 1; j < this.edgesX.length; j++) {
-					if (this.edgesX[i][j]) {
-						RoundNumber node1 = this.nodesX.get(i);
-						RoundNumber node2 = this.nodesX.get(j);
-						g.draw(new QuadCurve2D.Double(node1.getValue(), 0, (node1.getValue() + node2.getValue()) / 2, -Math.abs(node1.getValue()
-								- node2.getValue()) / 1.5, node2.getValue(), 0));
-					}
-				}
+			for (int k = 0; k < this.edgesX.getEdgeCount(); k++) {
+				RoundNumber node1 = this.nodesX.get(this.edgesX.getIndex1(k));
+				RoundNumber node2 = this.nodesX.get(this.edgesX.getIndex2(k));
+				g.draw(new QuadCurve2D.Double(node1.getValue(), 0, (node1.getValue() + node2.getValue()) / 2, -Math.abs(node1.getValue()
+						- node2.getValue()) / 1.5, node2.getValue(), 0));
 			}
 		}
 		if (this.edgesY != null) {
-			for (int i = 0; i < this.edgesY.length; i++) {
-				for (int j = i + 1; j < this.edgesY.length; j++) {
-					if (this.edgesY[i][j]) {
-						RoundNumber node1 = this.nodesY.get(i);
-						RoundNumber node2 = this.nodesY.get(j);
-						g.draw(new QuadCurve2D.Double(0, node1.getValue(), -Math.abs(node1.getValue() - node2.getValue()) / 1.5, (node1.getValue() + node2
-								.getValue()) / 2, 0, node2.getValue()));
-					}
-				}
+			for (int k = 0; k < this.edgesY.getEdgeCount(); k++) {
+				RoundNumber node1 = this.nodesY.get(this.edgesY.getIndex1(k));
+				RoundNumber node2 = this.nodesY.get(this.edgesY.getIndex2(k));
+				g.draw(new QuadCurve2D.Double(0, node1.getValue(), -Math.abs(node1.getValue() - node2.getValue()) / 1.5, (node1.getValue() + node2
+						.getValue()) / 2, 0, node2.getValue()));
 			}
 		}
 		g.setStroke(stroke);
@@ -313,26 +465,56 @@ public class DxfData {
 
 	/**
 	 * 図面の構成要素を描画するメソッド
+	 * クリップが設定されていれば、クリップを図面の座標に戻した範囲と重なる図形だけを描画します。
+	 * 線分、円、円弧、ポリラインは線種ごとにまとめて先に描画し、文字列などはその上に描画します。
 	 * 
 	 * @param g
 	 * @param env
 	 *            描画する環境
 	 */
 	public void drawEntities(Graphics2D g, ViewingEnvironment env) {
-		for (Collection<DxfEntity> entities : this.entityMap.values()) {
-			for (DxfEntity entity : entities) {
-				if (entity instanceof DxfDimension) {
-					if (env.getParam(ViewingEnvironment.labelDimension) == 0) {
-						continue;
-					}
-				} else if (entity instanceof DxfInsert) {
-					if (env.getParam(ViewingEnvironment.labelInsert) == 0) {
-						continue;
+		Shape clip = g.getClip();
+		if (clip == null) {
+			this.getBatch().draw(g, env, null);
+			for (Collection<DxfEntity> entities : this.entityMap.values()) {
+				for (DxfEntity entity : entities) {
+					if (!EntityBatch.isBatched(entity)) {
+						this.drawEntity(g, env, entity);
 					}
 				}
-				entity.draw(g, env);
+			}
+		} else {
+			// 線の太さの分だけクリップを広げる
+			Rectangle2D rect = clip.getBounds2D();
+			double margin = DxfData.CLIP_MARGIN / Math.sqrt(Math.abs(g.getTransform().getDeterminant()));
+			rect.setRect(rect.getX() - margin, rect.getY() - margin, rect.getWidth() + margin * 2, rect.getHeight() + margin * 2);
+			this.getBatch().draw(g, env, rect);
+			for (DxfEntity entity : this.getDrawIndex().search(rect)) {
+				this.drawEntity(g, env, entity);
+			}
+		}
+	}
+
+	/**
+	 * 図面の構成要素を1つ描画するメソッド 表示しない設定の寸法と挿入は描画しません。
+	 * 
+	 * @param g
+	 * @param env
+	 *            描画する環境
+	 * @param entity
+	 *            図形
+	 */
+	private void drawEntity(Graphics2D g, ViewingEnvironment env, DxfEntity entity) {
+		if (entity instanceof DxfDimension) {
+			if (env.getParam(ViewingEnvironment.labelDimension) == 0) {
+				return;
+			}
+		} else if (entity instanceof DxfInsert) {
+			if (env.getParam(ViewingEnvironment.labelInsert) == 0) {
+				return;
 			}
 		}
+		entity.draw(g, env);
 	}
 
 	public void drawSelections(Graphics2D g) {
@@ -340,13 +522,13 @@ public class DxfData {
 	}
 
 	/**
-	 * ブロックエントリーを取得するメソッド
+	 * ブロックの定義を取得するメソッド
 	 * 
 	 * @param name
 	 *            ブロック名
-	 * @return ブロックエントリー
+	 * @return ブロックの定義、定義されていなければnull
 	 */
-	public Collection<DxfEntity> getBlock(String name) {
+	public DxfBlock getBlockDefinition(String name) {
 		return this.blocks.get(name);
 	}
 
@@ -375,19 +557,16 @@ public class DxfData {
 	 * @return 表示領域内の線分データ
 	 */
 	public List<DxfArc> getDxfArcs() {
-		Collection<DxfEntity> entities = this.entityMap.get(DxfArc.class.getName());
-		List<DxfArc> arcs = new ArrayList<DxfArc>();
-		if (entities != null) {
-			for (DxfEntity entity : entities) {
-				if (entity instanceof DxfArc) {
-					DxfArc arc = (DxfArc) entity;
-					if (arc.isSelectable() && arc.isContained(this.screen)) {
-						arcs.add(arc);
-					}
+		if (this.arcs == null) {
+			List<DxfArc> arcs = new ArrayList<DxfArc>();
+			for (DxfArc arc : this.getRegistry().getArcs()) {
+				if (arc.isSelectable() && arc.isContained(this.screen)) {
+					arcs.add(arc);
 				}
 			}
+			this.arcs = Collections.unmodifiableList(arcs);
 		}
-		return arcs;
+		return this.arcs;
 	}
 
 	/**
@@ -396,20 +575,11 @@ public class DxfData {
 	 * @return DXFファイルの円を取得するメソッド
 	 */
 	public Collection<DxfCircle> getDxfCircles() {
-		Collection<DxfEntity> entities = this.entityMap.get(DxfCircle.class.getName());
-		Collection<DxfCircle> circles = new ArrayList<DxfCircle>();
-		if (entities != null) {
-			for (DxfEntity entity : entities) {
-				if (entity instanceof DxfCircle) {
-					circles.add((DxfCircle) entity);
-				}
-			}
-		}
-		return circles;
+		return this.getRegistry().getCircles();
 	}
 
 	/**
-	 * DXFファイルのデータを取得するメソッド
+	 * DXFファイルのデータを取得するメソッド 種類ごとの図形は{@link #getDxfDimensions()}などで取得できます。
 	 * 
 	 * @return DXFファイルのデータ
 	 */
@@ -417,6 +587,60 @@ public class DxfData {
 		return this.entityMap;
 	}
 
+	/**
+	 * DXFファイルの寸法を取得するメソッド
+	 * 
+	 * @return 変更できない寸法のリスト
+	 */
+	public List<DxfDimension> getDxfDimensions() {
+		return this.getRegistry().getDimensions();
+	}
+
+	/**
+	 * DXFファイルの引き出し線を取得するメソッド
+	 * 
+	 * @return 変更できない引き出し線のリスト
+	 */
+	public List<DxfInsert> getDxfInserts() {
+		return this.getRegistry().getInserts();
+	}
+
+	/**
+	 * 投影図に含まれる中心線を取得するメソッド
+	 * 
+	 * @return 変更できない中心線のリスト（{@link #optimization()}の後に有効）
+	 */
+	public List<DxfLine> getCenterLines() {
+		if (this.centerLines == null) {
+			List<DxfLine> centerLines = new ArrayList<DxfLine>();
+			for (DxfLine line : this.lines) {
+				if (line.getStyle() == SymbolTable.CENTER) {
+					centerLines.add(line);
+				}
+			}
+			this.centerLines = Collections.unmodifiableList(centerLines);
+		}
+		return this.centerLines;
+	}
+
+	/**
+	 * エンティティセクションの円を保持する配列を取得するメソッド
+	 * 
+	 * @return 円を保持する配列（{@link #optimization()}の後に有効）
+	 */
+	public CircleStore getCircleStore() {
+		return this.circleStore;
+	}
+
+	/**
+	 * エンティティセクションの線分を保持する配列を取得するメソッド
+	 * 
+	 * @return 線分を保持する配列（{@link #optimization()}の後に有効）
+	 */
+	public LineStore getLineStore() {
+		return this.lineStore;
+	}
+
 	/**
 	 * 表示領域内の線分データを取得するメソッド
 	 * 
@@ -435,19 +659,36 @@ public class DxfData {
 	 */
 	public Collection<DxfEntity> getEntities(MouseSelection selection) {
 		Collection<DxfEntity> contains = new ArrayList<DxfEntity>();
-		for (Collection<DxfEntity> entities : this.entityMap.values()) {
-			for (DxfEntity entity : entities) {
-				if (entity instanceof DxfInsert || entity instanceof DxfDimension || entity instanceof DxfMtext) {
-					continue;
-				}
-				if (selection.contains(entity)) {
-					contains.add(entity);
-				}
+		for (DxfEntity entity : this.getIndex().search(selection.getRectangle2D())) {
+			if (entity instanceof DxfInsert || entity instanceof DxfDimension || entity instanceof DxfMtext) {
+				continue;
+			}
+			if (selection.contains(entity)) {
+				contains.add(entity);
 			}
 		}
 		return contains;
 	}
 
+	/**
+	 * 外接長方形が長方形と重なる図形を取得するメソッド
+	 * 
+	 * @param rect
+	 *            長方形
+	 * @param c
+	 *            取得する図形のクラス
+	 * @return 図形のリスト（{@link #getDxfData()}を順に調べた場合と同じ順）
+	 */
+	public <T extends DxfEntity> List<T> getEntities(Rectangle2D rect, Class<T> c) {
+		List<T> entities = new ArrayList<T>();
+		for (DxfEntity entity : this.getIndex().search(rect)) {
+			if (c.isInstance(entity)) {
+				entities.add(c.cast(entity));
+			}
+		}
+		return entities;
+	}
+
 	/**
 	 * 異常を検出した寸法などを返します。
 	 * 
@@ -459,25 +700,72 @@ public class DxfData {
 
 	public Collection<DxfEntity> getIntersectsTexts(Rectangle2D rect) {
 		List<DxfEntity> texts = new ArrayList<DxfEntity>();
-		List<DxfEntity> entities = this.entityMap.get(DxfText.class.getName());
-		if (entities != null) {
-			for (DxfEntity entity : entities) {
-				if (entity.intersects(rect)) {
-					texts.add(entity);
-				}
+		for (DxfEntity entity : this.getEntities(rect, DxfText.class)) {
+			if (entity.intersects(rect)) {
+				texts.add(entity);
 			}
 		}
-		entities = this.entityMap.get(DxfMtext.class.getName());
-		if (entities != null) {
-			for (DxfEntity entity : entities) {
-				if (entity.intersects(rect)) {
-					texts.add(entity);
-				}
+		for (DxfEntity entity : this.getEntities(rect, DxfMtext.class)) {
+			if (entity.intersects(rect)) {
+				texts.add(entity);
 			}
 		}
 		return texts;
 	}
 
+	/**
+	 * 線分などを線種ごとにまとめたものを取得するメソッド 図形を追加するまでは同じものを返します。
+	 * 区画ごとに別のスレッドで描画できるように同期します。
+	 * 
+	 * @return 線種ごとにまとめたもの
+	 */
+	private synchronized EntityBatch getBatch() {
+		if (this.batch == null) {
+			List<DxfEntity> entities = new ArrayList<DxfEntity>();
+			for (Collection<DxfEntity> list : this.entityMap.values()) {
+				entities.addAll(list);
+			}
+			this.batch = new EntityBatch(entities);
+		}
+		return this.batch;
+	}
+
+	/**
+	 * 描画するときの索引を取得するメソッド 図形を追加するまでは同じ索引を返します。
+	 * 
+	 * @return まとめて描画しない図形を、文字列を描画したときに収まる範囲で登録した索引
+	 */
+	private synchronized EntityIndex getDrawIndex() {
+		if (this.drawIndex == null) {
+			List<DxfEntity> entities = new ArrayList<DxfEntity>();
+			for (Collection<DxfEntity> list : this.entityMap.values()) {
+				for (DxfEntity entity : list) {
+					if (!EntityBatch.isBatched(entity)) {
+						entities.add(entity);
+					}
+				}
+			}
+			this.drawIndex = new EntityIndex(entities, true);
+		}
+		return this.drawIndex;
+	}
+
+	/**
+	 * 外接長方形の索引を取得するメソッド 図形を追加するまでは同じ索引を返します。
+	 * 
+	 * @return 外接長方形の索引
+	 */
+	private EntityIndex getIndex() {
+		if (this.index == null) {
+			List<DxfEntity> entities = new ArrayList<DxfEntity>();
+			for (Collection<DxfEntity> list : this.entityMap.values()) {
+				entities.addAll(list);
+			}
+			this.index = new EntityIndex(entities);
+		}
+		return this.index;
+	}
+
 	/**
 	 * 図面に対応する名前を返します。
 	 * 
@@ -522,39 +810,50 @@ public class DxfData {
 	 */
 	private List<DxfLine> getProjectionLines(Rectangle2D bounds) {
 
-		Collection<DxfEntity> entities = this.entityMap.get(DxfLine.class.getName());
-
-		List<DxfLine> borders = new ArrayList<DxfLine>();
-		List<DxfLine> lines = new ArrayList<DxfLine>(entities.size());
+		LineStore store = this.lineStore;
+		int size = store.size();
+		if (size == 0) {
+			return new ArrayList<DxfLine>();
+		}
 
-		for (DxfEntity entity : entities) {
-			DxfLine line = (DxfLine) entity;
-			if (this.isContact(bounds, line)) {
-				if (!this.isOverLine(bounds, line)) {
-					borders.add(line);
-					line.setSelectable(false);
+		// 線分のオブジェクトを参照せずに座標の配列を走査する
+		int[] indexes = new int[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			double x1 = store.getX1(i);
+			double y1 = store.getY1(i);
+			double x2 = store.getX2(i);
+			double y2 = store.getY2(i);
+			if (this.isContact(bounds, x1, y1, x2, y2)) {
+				if (!this.isOverLine(bounds, x1, y1, x2, y2)) {
+					store.setSelectable(i, false);
 				}
-			} else if (line.isContained(this.screen)) {
-				lines.add(line);
+			} else if (this.screen.contains(x1, y1) && this.screen.contains(x2, y2)) {
+				indexes[count++] = i;
 			}
 		}
 
 		double x = bounds.getMinX();
 		double y = bounds.getMaxY();
 		double minDist = Double.POSITIVE_INFINITY;
-		int index = -1;
-		for (int i = 0; i < lines.size(); i++) {
-			DxfLine line = lines.get(i);
-			double dist = line.ptSegDistSq(x, y);
+		int nearest = -1;
+		for (int i = 0; i < count; i++) {
+			int index = indexes[i];
+			double dist = Line2D.ptSegDistSq(store.getX1(index), store.getY1(index), store.getX2(index), store.getY2(index), x, y);
 			if (dist < minDist) {
 				minDist = dist;
-				index = i;
+				nearest = i;
 			}
 		}
-		if (index >= 0) {
-			lines.remove(index).setSelectable(false);
-		}
 
+		List<DxfLine> lines = new ArrayList<DxfLine>(count);
+		for (int i = 0; i < count; i++) {
+			if (i == nearest) {
+				store.setSelectable(indexes[i], false);
+			} else {
+				lines.add(store.getLine(indexes[i]));
+			}
+		}
 		return lines;
 	}
 
@@ -670,7 +969,18 @@ public class DxfData {
 				ProjectionView view = tmp[i][j];
 				if (view != null) {
 					String label = this.getLabel(i, j, indexX, indexY);
+					if (map.containsKey(label)) {
+						// 背面図の候補が2つある場合など、名前が重なる投影図は位置で区別する
+						label = i + ", " + j;
+					}
 					view.setLabel(label);
+					if (i == indexX && j != indexY) {
+						// 平面図や下面図は正面図とX方向の範囲がそろう
+						view.setLayout(ProjectionView.LAYOUT_X);
+					} else if (j == indexY && i != indexX) {
+						// 側面図や背面図は正面図とY方向の範囲がそろう
+						view.setLayout(ProjectionView.LAYOUT_Y);
+					}
 					map.put(label, view);
 				}
 			}
@@ -678,6 +988,31 @@ public class DxfData {
 		return map;
 	}
 
+	/**
+	 * 図形の種類ごとのリストを取得するメソッド 図形を追加するまでは同じリストを返します。
+	 * 
+	 * @return 図形の種類ごとのリスト
+	 */
+	private EntityRegistry getRegistry() {
+		if (this.registry == null) {
+			this.registry = new EntityRegistry(this.entityMap);
+		}
+		return this.registry;
+	}
+
+	/**
+	 * 点に最も近い図形を取得するメソッド 距離は図形の外接長方形までの距離とします。
+	 * 
+	 * @param point
+	 *            点
+	 * @param c
+	 *            取得する図形のクラス
+	 * @return 最も近い図形、図形がなければnull
+	 */
+	public <T extends DxfEntity> T getNearestEntity(Point2D point, Class<T> c) {
+		return this.getIndex().nearest(point.getX(), point.getY(), c);
+	}
+
 	public Map<String, ProjectionView> getProjectionViewMap() {
 		return this.views;
 	}
@@ -690,23 +1025,38 @@ public class DxfData {
 		return this.selections.getSelections();
 	}
 
+	/**
+	 * チェッカーに渡す読み取り専用のビューを生成するメソッド このデータを所有するスレッドで呼び出すこと。
+	 * 
+	 * @return 現在のデータを写したビュー
+	 */
+	public DxfSnapshot getSnapshot() {
+		return new DxfSnapshot(this);
+	}
+
+	/**
+	 * 図面の名前の表を取得するメソッド 図形が保持する線種の識別番号は、この表で名前に変換できます。
+	 * 
+	 * @return 名前の表
+	 */
+	public SymbolTable getSymbolTable() {
+		return this.symbols;
+	}
+
 	private void initScale() {
-		List<DxfEntity> dimensions = this.entityMap.get(DxfDimension.class.getName());
-		if (dimensions != null) {
+		List<DxfDimension> dimensions = this.getRegistry().getDimensions();
+		if (!dimensions.isEmpty()) {
 			Map<Double, Counter> scaleMap = new HashMap<Double, Counter>();
-			for (DxfEntity entity : dimensions) {
-				if (entity instanceof DxfDimension) {
-					DxfDimension d = (DxfDimension) entity;
-					if (d.hasScale()) {
-						double scale = d.getScale();
-						if (Double.compare(scale, 0) > 0) {
-							Counter count = scaleMap.get(scale);
-							if (count == null) {
-								count = new Counter();
-								scaleMap.put(scale, count);
-							}
-							count.up();
+			for (DxfDimension d : dimensions) {
+				if (d.hasScale()) {
+					double scale = d.getScale();
+					if (Double.compare(scale, 0) > 0) {
+						Counter count = scaleMap.get(scale);
+						if (count == null) {
+							count = new Counter();
+							scaleMap.put(scale, count);
 						}
+						count.up();
 					}
 				}
 			}
@@ -729,41 +1079,52 @@ public class DxfData {
 	 * 直線が長方形と接しているかどうかをチェックする
 	 * 
 	 * @param rect
-	 * @param line
+	 * @param x1
+	 *            始点のX座標
+	 * @param y1
+	 *            始点のY座標
+	 * @param x2
+	 *            終点のX座標
+	 * @param y2
+	 *            終点のY座標
 	 * @return
 	 */
-	private boolean isContact(Rectangle2D rect, DxfLine line) {
-		return RoundNumber.nearlyEquals(rect.getMinX(), line.getX1()) || RoundNumber.nearlyEquals(rect.getMinX(), line.getX2())
-				|| RoundNumber.nearlyEquals(rect.getMaxX(), line.getX1()) || RoundNumber.nearlyEquals(rect.getMaxX(), line.getX2())
-				|| RoundNumber.nearlyEquals(rect.getMinY(), line.getY1()) || RoundNumber.nearlyEquals(rect.getMinY(), line.getY2())
-				|| RoundNumber.nearlyEquals(rect.getMaxY(), line.getY1()) || RoundNumber.nearlyEquals(rect.getMaxY(), line.getY2())
-				|| line.intersectsLine(rect.getMinX(), rect.getMinY(), rect.getMinX(), rect.getMaxY())
-				|| line.intersectsLine(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMinY())
-				|| line.intersectsLine(rect.getMaxX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY())
-				|| line.intersectsLine(rect.getMinX(), rect.getMaxY(), rect.getMaxX(), rect.getMaxY());
+	private boolean isContact(Rectangle2D rect, double x1, double y1, double x2, double y2) {
+		return RoundNumber.nearlyEquals(rect.getMinX(), x1) || RoundNumber.nearlyEquals(rect.getMinX(), x2)
+				|| RoundNumber.nearlyEquals(rect.getMaxX(), x1) || RoundNumber.nearlyEquals(rect.getMaxX(), x2)
+				|| RoundNumber.nearlyEquals(rect.getMinY(), y1) || RoundNumber.nearlyEquals(rect.getMinY(), y2)
+				|| RoundNumber.nearlyEquals(rect.getMaxY(), y1) || RoundNumber.nearlyEquals(rect.getMaxY(), y2)
+				|| Line2D.linesIntersect(rect.getMinX(), rect.getMinY(), rect.getMinX(), rect.getMaxY(), x1, y1, x2, y2)
+				|| Line2D.linesIntersect(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMinY(), x1, y1, x2, y2)
+				|| Line2D.linesIntersect(rect.getMaxX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY(), x1, y1, x2, y2)
+				|| Line2D.linesIntersect(rect.getMinX(), rect.getMaxY(), rect.getMaxX(), rect.getMaxY(), x1, y1, x2, y2);
 	}
 
 	/**
 	 * 直線が長方形を構成する線分どうかをチェックする
 	 * 
 	 * @param rect
-	 * @param line
+	 * @param x1
+	 *            始点のX座標
+	 * @param y1
+	 *            始点のY座標
+	 * @param x2
+	 *            終点のX座標
+	 * @param y2
+	 *            終点のY座標
 	 * @return
 	 */
-	private boolean isOverLine(Rectangle2D rect, DxfLine line) {
-		return (RoundNumber.nearlyEquals(rect.getMinX(), line.getX1()) && RoundNumber.nearlyEquals(rect.getMinX(), line.getX2()))
-				|| (RoundNumber.nearlyEquals(rect.getMaxX(), line.getX1()) && RoundNumber.nearlyEquals(rect.getMaxX(), line.getX2()))
-				|| (RoundNumber.nearlyEquals(rect.getMinY(), line.getY1()) && RoundNumber.nearlyEquals(rect.getMinY(), line.getY2()))
-				|| (RoundNumber.nearlyEquals(rect.getMaxY(), line.getY1()) && RoundNumber.nearlyEquals(rect.getMaxY(), line.getY2()));
+	private boolean isOverLine(Rectangle2D rect, double x1, double y1, double x2, double y2) {
+		return (RoundNumber.nearlyEquals(rect.getMinX(), x1) && RoundNumber.nearlyEquals(rect.getMinX(), x2))
+				|| (RoundNumber.nearlyEquals(rect.getMaxX(), x1) && RoundNumber.nearlyEquals(rect.getMaxX(), x2))
+				|| (RoundNumber.nearlyEquals(rect.getMinY(), y1) && RoundNumber.nearlyEquals(rect.getMinY(), y2))
+				|| (RoundNumber.nearlyEquals(rect.getMaxY(), y1) && RoundNumber.nearlyEquals(rect.getMaxY(), y2));
 	}
 
 	/**
-	 * 図面を最適化するためのメソッド
-	 * 
-	 * まず、図面の枠を除いて、X軸、Y軸方向へ図面を分割できる直線を探し、 その直線を元に、投影図を切り出します。
-	 * 同時に，スケールを計算して寸法線などに適応させたり，寸法線にテキストがない場合は，最近傍のテキストを適用させます．
+	 * 図形を他のセクションのデータにより補完して、縮尺を求めるメソッド
 	 */
-	public void optimization() {
+	private void linkEntities() {
 		List<DxfEntity> list = new ArrayList<DxfEntity>();
 		List<DxfAbstText> texts = new ArrayList<DxfAbstText>();
 		for (Map.Entry<String, List<DxfEntity>> entry : this.entityMap.entrySet()) {
@@ -777,6 +1138,10 @@ public class DxfData {
 				}
 			}
 		}
+		// 挿入の外接長方形はブロックを補完してから決まるため、索引は補完の後に生成する
+		this.index = null;
+		this.drawIndex = null;
+		this.batch = null;
 		initScale();
 		for (List<DxfEntity> entities : this.entityMap.values()) {
 			for (DxfEntity entity : entities) {
@@ -797,81 +1162,36 @@ public class DxfData {
 				}
 			}
 		}
+	}
 
-		Rectangle2D bounds = null;
-		for (Collection<DxfEntity> entities : this.entityMap.values()) {
-			for (DxfEntity entity : entities) {
-				if (entity.isSelectable() && entity.isContained(this.screen)) {
-					if (bounds == null) {
-						bounds = entity.getBounds2D();
-					} else {
-						bounds.add(entity.getBounds2D());
-					}
-				}
-			}
-		}
-
-		this.lines = this.getProjectionLines(bounds);
+	/**
+	 * 図面を最適化するためのメソッド
+	 * 
+	 * まず、図面の枠を除いて、X軸、Y軸方向へ図面を分割できる直線を探し、 その直線を元に、投影図を切り出します。
+	 * 同時に，スケールを計算して寸法線などに適応させたり，寸法線にテキストがない場合は，最近傍のテキストを適用させます．
+	 */
+	public void optimization() {
+		EntityRegistry registry = this.getRegistry();
+		this.lineStore = LineStore.pack(registry.getLines());
+		this.circleStore = CircleStore.pack(registry.getCircles());
+		this.linkEntities();
 
-		boolean[] flagsX = new boolean[SPLIT_PROJECTION];
-		boolean[] flagsY = new boolean[SPLIT_PROJECTION];
-		for (int i = 0; i < SPLIT_PROJECTION; i++) {
-			double x = this.screen.x + this.screen.width * i / (double) SPLIT_PROJECTION;
-			double y = this.screen.y + this.screen.height * i / (double) SPLIT_PROJECTION;
-			Line2D spliterX = new Line2D.Double(x, this.screen.getMinY(), x, this.screen.getMaxY());
-			Line2D spliterY = new Line2D.Double(this.screen.getMinX(), y, this.screen.getMaxX(), y);
-			for (DxfLine line : this.lines) {
-				if (line.intersectsLine(spliterX)) {
-					flagsX[i] = true;
-					if (flagsY[i]) {
-						break;
-					}
-				}
-				if (line.intersectsLine(spliterY)) {
-					flagsY[i] = true;
-					if (flagsX[i]) {
-						break;
-					}
+		Rectangle2D bounds = null;
+		for (DxfEntity entity : this.getIndex().search(this.screen)) {
+			if (entity.isSelectable() && entity.isContained(this.screen)) {
+				if (bounds == null) {
+					bounds = entity.getBounds2D();
+				} else {
+					bounds.add(entity.getBounds2D());
 				}
 			}
 		}
 
-		int[] startX = new int[10];
-		int[] startY = new int[10];
-		int[] endX = new int[10];
-		int[] endY = new int[10];
-		int indexX = 0;
-		int indexY = 0;
-		for (int i = 1; i < SPLIT_PROJECTION; i++) {
-			if (flagsX[i]) {
-				if (startX[indexX] == 0) {
-					startX[indexX] = i;
-				}
-			} else if (startX[indexX] > 0) {
-				endX[indexX] = i;
-				indexX++;
-			}
-		}
-		for (int i = 1; i < SPLIT_PROJECTION; i++) {
-			if (flagsY[i]) {
-				if (startY[indexY] == 0) {
-					startY[indexY] = i;
-				}
-			} else if (startY[indexY] > 0) {
-				endY[indexY] = i;
-				indexY++;
-			}
-		}
+		// 選択条件で選択できる図形がすべて除外された場合は投影図を分割しない
+		this.lines = bounds == null ? new ArrayList<DxfLine>() : this.getProjectionLines(bounds);
+		this.centerLines = null;
 
-		for (int i = 0; i < indexX; i++) {
-			double x = this.screen.x + this.screen.width * (startX[i] - 1) / (double) SPLIT_PROJECTION;
-			double width = (endX[i] - startX[i] + 1) * this.screen.width / (double) SPLIT_PROJECTION;
-			for (int j = 0; j < indexY; j++) {
-				double y = this.screen.y + this.screen.height * (startY[j] - 1) / (double) SPLIT_PROJECTION;
-				double height = (endY[j] - startY[j] + 1) * this.screen.height / (double) SPLIT_PROJECTION;
-				this.selections.add(new Rectangle2D.Double(x, y, width, height));
-			}
-		}
+		this.splitProjection();
 		this.updateBounds();
 	}
 
@@ -886,6 +1206,11 @@ public class DxfData {
 			String key = entry.getKey();
 			this.entityMap.putAll(key, entry.getValue());
 		}
+		this.registry = null;
+		this.index = null;
+		this.drawIndex = null;
+		this.batch = null;
+		this.arcs = null;
 	}
 
 	public void removeBounds(Rectangle2D rect) {
@@ -900,7 +1225,9 @@ public class DxfData {
 	 *            読み込んだブロックセクションのデータ
 	 */
 	public void setBlocks(MapList<String, DxfEntity> blocks) {
-		this.blocks.putAll(blocks);
+		for (Map.Entry<String, List<DxfEntity>> entry : blocks.entrySet()) {
+			this.blocks.put(entry.getKey(), new DxfBlock(entry.getKey(), entry.getValue()));
+		}
 	}
 
 	/**
@@ -911,6 +1238,101 @@ public class DxfData {
 	 */
 	public void setDefaultScreen(Rectangle screen) {
 		this.screen = screen;
+		this.arcs = null;
+	}
+
+	/**
+	 * 投影図を切り出して選択範囲に追加するメソッド
+	 * 投影図の線分をX軸、Y軸へ射影し、線分が途切れる隙間で図面を再帰的に分割します。
+	 * 円や文字などは線分で決めた範囲に含まれるかどうかで投影図に振り分けます。
+	 */
+	private void splitProjection() {
+		int size = this.lines.size();
+		if (size == 0) {
+			return;
+		}
+		double[][] bounds = new double[4][size];
+		int[] indexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			DxfLine line = this.lines.get(i);
+			bounds[0][i] = Math.min(line.getX1(), line.getX2());
+			bounds[1][i] = Math.min(line.getY1(), line.getY2());
+			bounds[2][i] = Math.max(line.getX1(), line.getX2());
+			bounds[3][i] = Math.max(line.getY1(), line.getY2());
+			indexes[i] = i;
+		}
+		double[] region = new double[] { this.screen.getMinX(), this.screen.getMinY(), this.screen.getMaxX(), this.screen.getMaxY() };
+		this.splitProjection(bounds, indexes, region, new double[2][]);
+	}
+
+	/**
+	 * 範囲を線分が途切れる隙間で分割して、分割できなくなった範囲を選択範囲に追加するメソッド
+	 * X軸方向、Y軸方向の順に隙間を探し、隙間があればその軸で分割した範囲ごとに繰り返します。
+	 * 分割した範囲はその軸では隙間がないため、もう一方の軸だけを調べます。
+	 * 分割した範囲は隙間の4分の1まで広げ、隣の範囲と接しないようにします。
+	 * 
+	 * @param bounds
+	 *            線分の外接長方形の最小のX座標、最小のY座標、最大のX座標、最大のY座標の配列
+	 * @param indexes
+	 *            範囲に含まれる線分の番号
+	 * @param region
+	 *            範囲の最小のX座標、最小のY座標、最大のX座標、最大のY座標
+	 * @param segments
+	 *            軸ごとの線分をつないだ区間、隙間がないとわかっていなければnull
+	 */
+	private void splitProjection(double[][] bounds, int[] indexes, double[] region, double[][] segments) {
+		for (int axis = 0; axis < 2; axis++) {
+			if (segments[axis] != null) {
+				continue;
+			}
+			double[] min = new double[indexes.length];
+			double[] max = new double[indexes.length];
+			for (int i = 0; i < indexes.length; i++) {
+				min[i] = bounds[axis][indexes[i]];
+				max[i] = bounds[axis + 2][indexes[i]];
+			}
+			double[] segment = DxfData.mergeIntervals(min, max);
+			int count = segment.length / 2;
+			if (count > 1) {
+				// 区間の最小値で線分を振り分ける
+				double[] starts = new double[count];
+				for (int k = 0; k < count; k++) {
+					starts[k] = segment[k * 2];
+				}
+				int[] cells = new int[indexes.length];
+				int[] sizes = new int[count];
+				for (int i = 0; i < indexes.length; i++) {
+					int k = Arrays.binarySearch(starts, bounds[axis][indexes[i]]);
+					cells[i] = k >= 0 ? k : -k - 2;
+					sizes[cells[i]]++;
+				}
+				int[][] children = new int[count][];
+				for (int k = 0; k < count; k++) {
+					children[k] = new int[sizes[k]];
+					sizes[k] = 0;
+				}
+				for (int i = 0; i < indexes.length; i++) {
+					children[cells[i]][sizes[cells[i]]++] = indexes[i];
+				}
+				for (int k = 0; k < count; k++) {
+					double[] child = region.clone();
+					double lower = segment[k * 2];
+					double upper = segment[k * 2 + 1];
+					child[axis] = k == 0 ? (region[axis] + lower) / 2 : lower - (lower - segment[k * 2 - 1]) / 4;
+					child[axis + 2] = k == count - 1 ? (upper + region[axis + 2]) / 2 : upper + (segment[k * 2 + 2] - upper) / 4;
+					double[][] known = new double[2][];
+					known[axis] = new double[] { lower, upper };
+					this.splitProjection(bounds, children[k], child, known);
+				}
+				return;
+			}
+			segments[axis] = segment;
+		}
+		double x = (region[0] + segments[0][0]) / 2;
+		double y = (region[1] + segments[1][0]) / 2;
+		double width = (segments[0][1] + region[2]) / 2 - x;
+		double height = (segments[1][1] + region[3]) / 2 - y;
+		this.selections.add(new Rectangle2D.Double(x, y, width, height));
 	}
 
 	/**
@@ -926,11 +1348,9 @@ public class DxfData {
 		while (itr.hasNext()) {
 			Area area = itr.next();
 			ProjectionView view = new ProjectionView();
-			for (Collection<DxfEntity> entities : this.entityMap.values()) {
-				for (DxfEntity entity : entities) {
-					if (entity.isSelectable() && entity.isContained(area)) {
-						view.add(entity);
-					}
+			for (DxfEntity entity : this.getIndex().search(area.getBounds2D())) {
+				if (entity.isSelectable() && entity.isContained(area)) {
+					view.add(entity);
 				}
 			}
 			if (!view.isEmpty()) {
@@ -941,4 +1361,87 @@ public class DxfData {
 		}
 		this.views = this.getProjectionMap(views);
 	}
+
+	/**
+	 * 最適化した図面をバイト列に書き出すメソッド {@link #optimization()}の後、チェックする前に呼び出すこと。
+	 * 投影図などに含まれる図形は、エンティティーセクションの図形の通し番号で書き出します。
+	 * 
+	 * @param out
+	 *            出力先
+	 * @throws IOException
+	 *             書き出しに失敗した場合、または書き出せない図形を含む場合
+	 */
+	void write(DataOutput out) throws IOException {
+		if (this.lines == null || this.views == null) {
+			throw new IOException("最適化していない図面は書き出せません");
+		}
+		out.writeInt(this.screen.x);
+		out.writeInt(this.screen.y);
+		out.writeInt(this.screen.width);
+		out.writeInt(this.screen.height);
+		out.writeInt(this.symbols.size());
+		for (int i = SymbolTable.PREDEFINED_SIZE; i < this.symbols.size(); i++) {
+			EntityCodec.putString(out, this.symbols.getName(i));
+		}
+		EntityCodec codec = new EntityCodec();
+		out.writeInt(this.blocks.size());
+		for (DxfBlock block : this.blocks.values()) {
+			EntityCodec.putString(out, block.getName());
+			codec.write(out, block.getEntities());
+		}
+		out.writeInt(this.entityMap.entrySet().size());
+		for (Map.Entry<String, List<DxfEntity>> entry : this.entityMap.entrySet()) {
+			EntityCodec.putString(out, entry.getKey());
+			codec.write(out, entry.getValue());
+		}
+
+		// 索引の検索結果は図形の順に並ぶため、図形を一度走査するだけで通し番号が求まる
+		List<ProjectionView> views = new ArrayList<ProjectionView>(this.views.values());
+		List<List<? extends DxfEntity>> lists = new ArrayList<List<? extends DxfEntity>>();
+		lists.add(this.lines);
+		for (ProjectionView view : views) {
+			lists.add(view.getEntities());
+		}
+		int[][] ordinals = new int[lists.size()][];
+		for (int i = 0; i < ordinals.length; i++) {
+			ordinals[i] = new int[lists.get(i).size()];
+		}
+		int[] positions = new int[lists.size()];
+		int ordinal = 0;
+		for (List<DxfEntity> entities : this.entityMap.values()) {
+			for (DxfEntity entity : entities) {
+				for (int i = 0; i < ordinals.length; i++) {
+					if (positions[i] < ordinals[i].length && lists.get(i).get(positions[i]) == entity) {
+						ordinals[i][positions[i]++] = ordinal;
+					}
+				}
+				ordinal++;
+			}
+		}
+		for (int i = 0; i < ordinals.length; i++) {
+			if (positions[i] < ordinals[i].length) {
+				throw new IOException("投影図の図形がエンティティーセクションの順に並んでいません");
+			}
+		}
+
+		out.writeInt(ordinals[0].length);
+		for (int i : ordinals[0]) {
+			out.writeInt(i);
+		}
+		Collection<Area> areas = this.selections.getSelections();
+		out.writeInt(areas.size());
+		for (Area area : areas) {
+			EntityCodec.putPath(out, area);
+		}
+		out.writeInt(views.size());
+		for (int i = 0; i < views.size(); i++) {
+			ProjectionView view = views.get(i);
+			EntityCodec.putString(out, view.getLabel());
+			out.writeInt(view.getLayout());
+			out.writeInt(ordinals[i + 1].length);
+			for (int j : ordinals[i + 1]) {
+				out.writeInt(j);
+			}
+		}
+	}
 }
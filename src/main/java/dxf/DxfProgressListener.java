@@ -0,0 +1,22 @@
+package dxf;
+
+/**
+ * DXFファイルの読み込みの進捗を受け取るためのインターフェース
+ *
+ * 通知は読み込んでいるスレッドから行われます。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public interface DxfProgressListener {
+
+	/**
+	 * 進捗を通知するメソッド
+	 *
+	 * @param stage
+	 *            処理の段階（{@link DxfReader#STAGE_READ}など）
+	 * @param ratio
+	 *            段階内の進捗（0から1）、進捗がわからない場合は負の値
+	 */
+	public void progress(String stage, double ratio);
+}
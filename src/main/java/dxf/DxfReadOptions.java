@@ -0,0 +1,206 @@
+package dxf;
+
+import java.awt.geom.Rectangle2D;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import dxf.section.DxfValue;
+import dxf.section.entities.DxfEntities;
+import dxf.section.entities.DxfEntity;
+
+/**
+ * エンティティセクションを読み込むときの図形の選択条件
+ *
+ * 図形の種類、画層（グループコード8）、線種（グループコード6）、範囲で図形を選択します。
+ * 条件を設定しない項目はすべての図形を選択します。
+ * 種類、画層、線種で除外した図形は、読み込み途中のデータごと破棄して図形を生成しません。
+ * ブロックセクションの図形は選択の対象外です。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class DxfReadOptions {
+
+	private static final Charset CHARSET = Charset.forName("SJIS");
+
+	/**
+	 * 文字列をDXFファイルの文字コードのバイト列に変換するメソッド
+	 *
+	 * @param names
+	 *            文字列
+	 * @return バイト列のリスト、文字列がなければnull
+	 */
+	private static List<byte[]> encode(String... names) {
+		if (names == null || names.length == 0) {
+			return null;
+		}
+		List<byte[]> list = new ArrayList<byte[]>(names.length);
+		for (String name : names) {
+			list.add(name.getBytes(DxfReadOptions.CHARSET));
+		}
+		return list;
+	}
+
+	/**
+	 * データがいずれかのバイト列に一致するか確認するメソッド
+	 *
+	 * @param list
+	 *            バイト列のリスト、nullであればすべてに一致する
+	 * @param value
+	 *            データ
+	 * @return 一致すればtrue
+	 */
+	private static boolean matches(List<byte[]> list, DxfValue value) {
+		if (list == null) {
+			return true;
+		}
+		for (byte[] bytes : list) {
+			if (value.contentEquals(bytes)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 線種を指定していない図形を選択するかどうか
+	 */
+	private boolean byLayer;
+
+	/**
+	 * 選択する画層名
+	 */
+	private List<byte[]> layers;
+
+	/**
+	 * 選択する線種名
+	 */
+	private List<byte[]> linetypes;
+
+	/**
+	 * 選択する図形の種類
+	 */
+	private List<byte[]> types;
+
+	/**
+	 * 選択する範囲
+	 */
+	private Rectangle2D window;
+
+	/**
+	 * 読み込んだ図形が範囲の条件を満たすか確認するメソッド
+	 * ブロック挿入や寸法など、関連付けをするまで大きさが決まらない図形は常に選択します。
+	 *
+	 * @param entity
+	 *            図形
+	 * @return 選択する場合true
+	 */
+	public boolean accept(DxfEntity entity) {
+		if (this.window == null || entity instanceof DxfEntities) {
+			return true;
+		}
+		Rectangle2D bounds = entity.getBounds2D();
+		return bounds == null
+				|| (bounds.getMaxX() >= this.window.getMinX() && bounds.getMinX() <= this.window.getMaxX() && bounds.getMaxY() >= this.window.getMinY() && bounds
+						.getMinY() <= this.window.getMaxY());
+	}
+
+	/**
+	 * 線種を指定していない図形が条件を満たすか確認するメソッド
+	 *
+	 * @return 選択する場合true
+	 */
+	public boolean acceptByLayer() {
+		return this.linetypes == null || this.byLayer;
+	}
+
+	/**
+	 * 画層名が条件を満たすか確認するメソッド
+	 *
+	 * @param value
+	 *            グループコード8のデータ
+	 * @return 選択する場合true
+	 */
+	public boolean acceptLayer(DxfValue value) {
+		return DxfReadOptions.matches(this.layers, value);
+	}
+
+	/**
+	 * 線種名が条件を満たすか確認するメソッド
+	 *
+	 * @param value
+	 *            グループコード6のデータ
+	 * @return 選択する場合true
+	 */
+	public boolean acceptLinetype(DxfValue value) {
+		return DxfReadOptions.matches(this.linetypes, value);
+	}
+
+	/**
+	 * 図形の種類が条件を満たすか確認するメソッド
+	 *
+	 * @param value
+	 *            分離符号のデータ
+	 * @return 選択する場合true
+	 */
+	public boolean acceptType(DxfValue value) {
+		return DxfReadOptions.matches(this.types, value);
+	}
+
+	/**
+	 * 選択する画層を設定するメソッド
+	 *
+	 * @param layers
+	 *            画層名、指定しなければすべての画層を選択する
+	 * @return この選択条件
+	 */
+	public DxfReadOptions setLayers(String... layers) {
+		this.layers = DxfReadOptions.encode(layers);
+		return this;
+	}
+
+	/**
+	 * 選択する線種を設定するメソッド 線種を指定していない図形（BYLAYER）は、"BYLAYER"を含めた場合のみ選択します。
+	 *
+	 * @param linetypes
+	 *            線種名、指定しなければすべての線種を選択する
+	 * @return この選択条件
+	 */
+	public DxfReadOptions setLinetypes(String... linetypes) {
+		this.linetypes = DxfReadOptions.encode(linetypes);
+		this.byLayer = false;
+		if (linetypes != null) {
+			for (String linetype : linetypes) {
+				if ("BYLAYER".equalsIgnoreCase(linetype)) {
+					this.byLayer = true;
+				}
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * 選択する図形の種類を設定するメソッド
+	 *
+	 * @param types
+	 *            分離符号の名前（LINE、CIRCLEなど）、指定しなければすべての種類を選択する
+	 * @return この選択条件
+	 */
+	public DxfReadOptions setTypes(String... types) {
+		this.types = DxfReadOptions.encode(types);
+		return this;
+	}
+
+	/**
+	 * 選択する範囲を設定するメソッド 範囲と交差する図形を選択します。
+	 *
+	 * @param window
+	 *            範囲、nullであればすべての図形を選択する
+	 * @return この選択条件
+	 */
+	public DxfReadOptions setWindow(Rectangle2D window) {
+		this.window = window;
+		return this;
+	}
+}
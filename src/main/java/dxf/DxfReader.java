@@ -1,17 +1,39 @@
 package dxf;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import dxf.section.BlocksReader;
+import dxf.section.DxfStreamTokenizer;
+import dxf.section.DxfTokenizer;
+import dxf.section.DxfValue;
 import dxf.section.EntitiesReader;
 import dxf.section.HeaderReader;
 import dxf.section.SectionReader;
+import dxf.section.SectionTask;
+import dxf.section.SymbolTable;
+import dxf.section.entities.DxfEntity;
 
 /**
  * DXF Reader
@@ -21,26 +43,377 @@ import dxf.section.SectionReader;
  */
 public class DxfReader {
 
-	private final static String CHARSET = "SJIS";
+	/**
+	 * キャッシュから読み込んだ段階
+	 */
+	public static final String STAGE_CACHE = "キャッシュ";
+
+	/**
+	 * 最適化の段階
+	 */
+	public static final String STAGE_OPTIMIZE = "最適化";
+
+	/**
+	 * 読み込みの段階
+	 */
+	public static final String STAGE_READ = "読み込み";
+
+	private final static Charset CHARSET = Charset.forName("SJIS");
 	private final static int TYPE_SECTION = 1;
 
 	/**
-	 * セクションリーダー
+	 * 最適化したデータのキャッシュ
+	 */
+	private DxfCache cache;
+
+	/**
+	 * 進捗を受け取るリスナ
 	 */
-	private final Map<String, SectionReader> readerSwitcher;
+	private DxfProgressListener listener;
+
+	/**
+	 * 図形の選択条件
+	 */
+	private DxfReadOptions options;
+
+	/**
+	 * セクションを並列に読み込むかどうか
+	 */
+	private boolean parallel;
+
+	/**
+	 * セクションリーダーの生成方法
+	 */
+	private final Map<String, Function<SymbolTable, SectionReader>> readerSwitcher;
 
 	/**
 	 * ファイルを指定してオブジェクトを生成します。
 	 */
 	public DxfReader() {
-		this.readerSwitcher = new HashMap<String, SectionReader>();
-		this.readerSwitcher.put("HEADER", new HeaderReader());
-		this.readerSwitcher.put("BLOCKS", new BlocksReader());
-		this.readerSwitcher.put("ENTITIES", new EntitiesReader());
+		this.readerSwitcher = new HashMap<String, Function<SymbolTable, SectionReader>>();
+		this.readerSwitcher.put("HEADER", symbols -> new HeaderReader());
+		this.readerSwitcher.put("BLOCKS", BlocksReader::new);
+		this.readerSwitcher.put("ENTITIES", symbols -> new EntitiesReader(this.options, symbols));
+	}
+
+	/**
+	 * キャッシュを取得するメソッド
+	 * 
+	 * @return キャッシュ、設定していなければnull
+	 */
+	public DxfCache getCache() {
+		return this.cache;
+	}
+
+	/**
+	 * 図形の選択条件を取得するメソッド
+	 * 
+	 * @return 図形の選択条件、設定していなければnull
+	 */
+	public DxfReadOptions getOptions() {
+		return this.options;
+	}
+
+	/**
+	 * セクションを並列に読み込むかどうかを取得するメソッド
+	 * 
+	 * @return 並列に読み込む場合true
+	 */
+	public boolean isParallel() {
+		return this.parallel;
+	}
+
+	/**
+	 * バッファの先頭がgzip形式またはzip形式の識別子か確認するメソッド
+	 * 
+	 * @param buffer
+	 *            バッファ
+	 * @return 圧縮されていればtrue
+	 */
+	private static boolean isCompressed(ByteBuffer buffer) {
+		if (buffer.remaining() >= 2 && buffer.get(0) == (byte) 0x1F && buffer.get(1) == (byte) 0x8B) {
+			return true;
+		}
+		return buffer.remaining() >= 4 && buffer.get(0) == 'P' && buffer.get(1) == 'K' && buffer.get(2) == 3 && buffer.get(3) == 4;
+	}
+
+	/**
+	 * zipファイルのエントリがDXFファイルか確認するメソッド
+	 * 
+	 * @param entry
+	 *            エントリ
+	 * @return 拡張子が.dxfまたは.dxf.gzであればtrue
+	 */
+	private static boolean isDxfEntry(ZipEntry entry) {
+		String name = entry.getName().toLowerCase();
+		return !entry.isDirectory() && (name.endsWith(".dxf") || name.endsWith(".dxf.gz"));
+	}
+
+	/**
+	 * ファイルをメモリにマッピングするメソッド
+	 * 
+	 * @param file
+	 *            マッピングするファイル
+	 * @return マッピングしたバッファ、マッピングできなければnull
+	 */
+	private static ByteBuffer map(File file) {
+		if (file.length() > Integer.MAX_VALUE) {
+			return null;
+		}
+		FileInputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			FileChannel channel = in.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			// マッピングできなければ呼び出し元がストリームから読み込む
+			return null;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 圧縮された入力ストリームを展開するメソッド
+	 * gzip形式であれば展開し、zip形式であれば最初のDXFファイルのエントリを展開します。どちらでもなければそのまま返します。
+	 * 
+	 * @param in
+	 *            入力ストリーム
+	 * @return 展開した入力ストリーム
+	 * @throws IOException
+	 *             入出力エラー、またはzipファイルにDXFファイルが含まれていない場合
+	 */
+	private static InputStream decode(InputStream in) throws IOException {
+		BufferedInputStream bin = new BufferedInputStream(in, 1 << 16);
+		bin.mark(4);
+		byte[] magic = new byte[4];
+		int length = 0;
+		int n;
+		while (length < magic.length && (n = bin.read(magic, length, magic.length - length)) > 0) {
+			length += n;
+		}
+		bin.reset();
+		if (length >= 2 && magic[0] == (byte) 0x1F && magic[1] == (byte) 0x8B) {
+			return DxfReader.decode(new GZIPInputStream(bin, 1 << 16));
+		} else if (length == 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+			ZipInputStream zin = new ZipInputStream(bin, CHARSET);
+			ZipEntry entry;
+			while ((entry = zin.getNextEntry()) != null) {
+				if (DxfReader.isDxfEntry(entry)) {
+					return DxfReader.decode(zin);
+				}
+			}
+			throw new IOException("zipファイルにDXFファイルが含まれていません。");
+		}
+		return bin;
+	}
+
+	/**
+	 * zipファイルに含まれるDXFファイルのエントリ名を取得するメソッド
+	 * 
+	 * @param file
+	 *            zipファイル
+	 * @return DXFファイルのエントリ名のリスト（拡張子が.dxfまたは.dxf.gzのもの）
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	public static List<String> getEntries(File file) throws IOException {
+		List<String> entries = new ArrayList<String>();
+		ZipFile zip = new ZipFile(file, CHARSET);
+		try {
+			Enumeration<? extends ZipEntry> e = zip.entries();
+			while (e.hasMoreElements()) {
+				ZipEntry entry = e.nextElement();
+				if (DxfReader.isDxfEntry(entry)) {
+					entries.add(entry.getName());
+				}
+			}
+		} finally {
+			zip.close();
+		}
+		return entries;
+	}
+
+	/**
+	 * ビジタに図形を通知するセクションリーダの生成方法を取得するメソッド
+	 * 
+	 * @param visitor
+	 *            ビジタ
+	 * @param options
+	 *            図形の選択条件
+	 * @return セクション名に対するセクションリーダの生成方法
+	 */
+	private static Map<String, Function<SymbolTable, SectionReader>> getVisitorReaders(final DxfVisitor visitor, final DxfReadOptions options) {
+		Map<String, Function<SymbolTable, SectionReader>> readers = new HashMap<String, Function<SymbolTable, SectionReader>>();
+		readers.put("BLOCKS", symbols -> new BlocksReader(symbols) {
+			@Override
+			protected void addEntity(String name, DxfEntity figure) {
+				visitor.onEntity(figure);
+			}
+
+			@Override
+			protected void endBlock(String name) {
+				visitor.onBlockEnd(name);
+			}
+
+			@Override
+			protected void linkData(DxfData dxf) {
+			}
+
+			@Override
+			protected void startBlock(String name) {
+				visitor.onBlockStart(name);
+			}
+		});
+		readers.put("ENTITIES", symbols -> new EntitiesReader(options, symbols) {
+			@Override
+			protected void addEntity(DxfEntity entity) {
+				if (entity != null) {
+					visitor.onEntity(entity);
+				}
+			}
+
+			@Override
+			protected void linkData(DxfData dxf) {
+			}
+		});
+		return readers;
+	}
+
+	/**
+	 * キャッシュのキーを求めるメソッド
+	 * 図形の選択条件を設定している場合は、読み込む図形が変わるためキャッシュを使いません。
+	 * 
+	 * @param file
+	 *            DXFファイルまたはzipファイル
+	 * @param name
+	 *            zipファイルのエントリ名、zipファイルでなければnull
+	 * @return キャッシュのキー、キャッシュを使わなければnull
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	private DxfCache.Key getCacheKey(File file, String name) throws IOException {
+		if (this.cache == null || this.options != null) {
+			return null;
+		}
+		return this.cache.getKey(file, name);
+	}
+
+	/**
+	 * キャッシュから最適化したデータを読み込むメソッド
+	 * 
+	 * @param key
+	 *            キャッシュのキー、nullであれば読み込まない
+	 * @return 最適化したデータ、キャッシュになければnull
+	 */
+	private DxfData loadCache(DxfCache.Key key) {
+		if (key == null) {
+			return null;
+		}
+		DxfData dxf = this.cache.get(key);
+		if (dxf != null && this.listener != null) {
+			this.listener.progress(DxfReader.STAGE_CACHE, 1);
+		}
+		return dxf;
+	}
+
+	/**
+	 * 読み込んだデータを最適化するメソッド
+	 * 
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 */
+	private void optimize(DxfData dxf) {
+		if (this.listener != null) {
+			this.listener.progress(DxfReader.STAGE_OPTIMIZE, -1);
+		}
+		dxf.optimization();
+	}
+
+	/**
+	 * DXFファイルを読み込むメソッド 分離符号により各セクションリーダへトークナイザを渡しています。
+	 * 
+	 * @param in
+	 *            入力のトークナイザ
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 * @param readers
+	 *            セクション名に対するセクションリーダの生成方法
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	private static void readDXF(DxfTokenizer in, DxfData dxf, Map<String, Function<SymbolTable, SectionReader>> readers) throws IOException {
+		// ビジタに通知する場合は、走査ごとに名前の表を用意する
+		SymbolTable symbols = dxf == null ? new SymbolTable() : dxf.getSymbolTable();
+		int type = 0;
+		while (in.next()) {
+			DxfValue value = in.getValue();
+			switch (in.getGroupCode()) {
+			case 0: // 分離符号
+				if (value.contentEquals("SECTION")) {
+					type = DxfReader.TYPE_SECTION;
+				} else if (value.contentEquals("ENDSEC")) {
+					type = 0;
+				}
+				break;
+			case 2: // 名前
+				if (type == DxfReader.TYPE_SECTION) {
+					Function<SymbolTable, SectionReader> factory = SectionReader.select(readers, value);
+					if (factory != null) {
+						factory.apply(symbols).readSection(in, dxf);
+					}
+				}
+				break;
+			}
+		}
 	}
 
 	/**
-	 * DXFファイルを読み込むメソッド 分離符号により各セクションリーダへBufferedReaderを渡しています。
+	 * DXFファイルを並列に読み込むメソッド
+	 * セクションの位置を走査してから、各セクションをフォークジョインプールで読み込み、ファイルの順に関連付けます。
+	 * 
+	 * @param buffer
+	 *            DXFファイルのバッファ
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	private void readParallel(ByteBuffer buffer, DxfData dxf) throws IOException {
+		List<SectionTask> tasks = SectionTask.scan(buffer, this.readerSwitcher, dxf.getSymbolTable());
+		for (SectionTask task : tasks) {
+			task.fork();
+		}
+		for (SectionTask task : tasks) {
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				for (SectionTask t : tasks) {
+					t.cancel(true);
+				}
+				throw new InterruptedIOException("読み込みを中止しました。");
+			} catch (ExecutionException e) {
+				throw new IOException(e.getCause());
+			}
+			if (this.listener != null) {
+				this.listener.progress(DxfReader.STAGE_READ, task.getEnd() / (double) buffer.limit());
+			}
+		}
+		for (SectionTask task : tasks) {
+			task.linkData(dxf);
+		}
+	}
+
+	/**
+	 * DXFファイルを読み込むメソッド
+	 * ファイルをメモリにマッピングしてトークナイザで読み込みます。ASCII形式とバイナリ形式のどちらも読み込めます。
+	 * gzip形式またはzip形式で圧縮されたファイルと、マッピングできないファイルは入力ストリームとして読み込みます。
 	 * 
 	 * @param file
 	 *            読み込むDXFファイル
@@ -49,40 +422,170 @@ public class DxfReader {
 	 *             入出力エラー
 	 */
 	public DxfData readDXF(File file) throws IOException {
+		DxfCache.Key key = this.getCacheKey(file, null);
+		DxfData dxf = this.loadCache(key);
+		if (dxf != null) {
+			return dxf;
+		}
+		dxf = new DxfData();
+		ByteBuffer buffer = DxfReader.map(file);
+		if (buffer != null && this.parallel && !DxfReader.isCompressed(buffer)) {
+			this.readParallel(buffer, dxf);
+		} else {
+			this.readDXF(file, buffer, dxf, this.readerSwitcher);
+		}
+		this.optimize(dxf);
+		if (key != null) {
+			this.cache.put(key, dxf);
+		}
+		return dxf;
+	}
+
+	/**
+	 * DXFファイルを逐次読み込むメソッド
+	 * DXFファイルのデータを構成せずに、ブロックセクションとエンティティセクションの図形を1つずつビジタに通知します。
+	 * 図形は通知した後に保持しないため、ヒープより大きなファイルも走査できます。
+	 * エンティティセクションの図形には、設定した選択条件を適用します。
+	 * 
+	 * @param file
+	 *            読み込むDXFファイル
+	 * @param visitor
+	 *            図形を通知するビジタ
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	public void readDXF(File file, DxfVisitor visitor) throws IOException {
+		this.readDXF(file, DxfReader.map(file), null, DxfReader.getVisitorReaders(visitor, this.options));
+	}
+
+	/**
+	 * zipファイルに含まれるDXFファイルを読み込むメソッド
+	 * 
+	 * @param file
+	 *            zipファイル
+	 * @param name
+	 *            DXFファイルのエントリ名
+	 * @return 読み込んだDXFファイルのデータ
+	 * @throws IOException
+	 *             入出力エラー、またはエントリが存在しない場合
+	 */
+	public DxfData readDXF(File file, String name) throws IOException {
+		DxfCache.Key key = this.getCacheKey(file, name);
+		DxfData dxf = this.loadCache(key);
+		if (dxf != null) {
+			return dxf;
+		}
+		ZipFile zip = new ZipFile(file, CHARSET);
+		try {
+			ZipEntry entry = zip.getEntry(name);
+			if (entry == null) {
+				throw new IOException(name + ": エントリが存在しません。");
+			}
+			dxf = this.readDXF(zip.getInputStream(entry));
+		} finally {
+			zip.close();
+		}
+		if (key != null) {
+			this.cache.put(key, dxf);
+		}
+		return dxf;
+	}
+
+	/**
+	 * DXFファイルを入力ストリームから読み込むメソッド
+	 * gzip形式またはzip形式で圧縮されていれば展開しながら読み込みます。展開は別のスレッドで行います。
+	 * 入力ストリームは閉じません。
+	 * 
+	 * @param in
+	 *            入力ストリーム
+	 * @return 読み込んだDXFファイルのデータ
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	public DxfData readDXF(InputStream in) throws IOException {
 		DxfData dxf = new DxfData();
-		BufferedReader in = null;
+		this.readDXF(in, dxf, this.readerSwitcher, () -> -1);
+		this.optimize(dxf);
+		return dxf;
+	}
+
+	/**
+	 * DXFファイルを入力ストリームから読み込むメソッド
+	 * 
+	 * @param in
+	 *            入力ストリーム
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 * @param readers
+	 *            セクション名に対するセクションリーダの生成方法
+	 * @param ratio
+	 *            進捗の取得方法
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	private void readDXF(InputStream in, DxfData dxf, Map<String, Function<SymbolTable, SectionReader>> readers, DoubleSupplier ratio) throws IOException {
+		DxfStreamTokenizer tokenizer = new DxfStreamTokenizer(DxfReader.decode(in));
+		this.setMonitor(tokenizer, ratio);
 		try {
-			in = new BufferedReader(new InputStreamReader(new FileInputStream(file), CHARSET));
-			String line1;
-			String line2;
-			int type = 0;
-			while ((line1 = in.readLine()) != null && (line2 = in.readLine()) != null) {
-				int groupCode = SectionReader.getGroupCode(line1);
-				switch (groupCode) {
-				case 0: // 分離符号
-					if ("SECTION".equals(line2)) {
-						type = DxfReader.TYPE_SECTION;
-					} else if ("ENDSEC".equals(line2)) {
-						type = 0;
-					}
-					break;
-				case 2: // 名前
-					if (type == DxfReader.TYPE_SECTION) {
-						SectionReader reader = this.readerSwitcher.get(line2);
-						if (reader != null) {
-							reader.readSection(in, dxf);
-						}
+			DxfReader.readDXF(tokenizer, dxf, readers);
+		} finally {
+			tokenizer.close();
+		}
+	}
+
+	/**
+	 * DXFファイルをチャネルから読み込むメソッド
+	 * 
+	 * @param channel
+	 *            チャネル
+	 * @return 読み込んだDXFファイルのデータ
+	 * @throws IOException
+	 *             入出力エラー
+	 * @see #readDXF(InputStream)
+	 */
+	public DxfData readDXF(ReadableByteChannel channel) throws IOException {
+		return this.readDXF(Channels.newInputStream(channel));
+	}
+
+	/**
+	 * DXFファイルを順に読み込むメソッド
+	 * 圧縮されていないバッファがあればトークナイザで読み込み、なければ入力ストリームとして読み込みます。
+	 * 
+	 * @param file
+	 *            読み込むDXFファイル
+	 * @param buffer
+	 *            DXFファイルをマッピングしたバッファ、マッピングできなかった場合はnull
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 * @param readers
+	 *            セクション名に対するセクションリーダの生成方法
+	 * @throws IOException
+	 *             入出力エラー
+	 */
+	private void readDXF(File file, final ByteBuffer buffer, DxfData dxf, Map<String, Function<SymbolTable, SectionReader>> readers) throws IOException {
+		if (buffer != null && !DxfReader.isCompressed(buffer)) {
+			final DxfTokenizer in = DxfTokenizer.open(buffer);
+			this.setMonitor(in, () -> in.position() / (double) buffer.limit());
+			DxfReader.readDXF(in, dxf, readers);
+		} else {
+			FileInputStream in = null;
+			try {
+				in = new FileInputStream(file);
+				final FileChannel channel = in.getChannel();
+				final long size = Math.max(1, channel.size());
+				this.readDXF(in, dxf, readers, () -> {
+					try {
+						return channel.position() / (double) size;
+					} catch (IOException e) {
+						return -1;
 					}
-					break;
+				});
+			} finally {
+				if (in != null) {
+					in.close();
 				}
 			}
-		} finally {
-			if (in != null) {
-				in.close();
-			}
 		}
-		dxf.optimization();
-		return dxf;
 	}
 
 	/**
@@ -97,4 +600,62 @@ public class DxfReader {
 	public DxfData readDXF(String path) throws IOException {
 		return this.readDXF(new File(path));
 	}
+
+	/**
+	 * トークナイザに進捗を通知する処理を設定するメソッド
+	 * 
+	 * @param in
+	 *            トークナイザ
+	 * @param ratio
+	 *            進捗の取得方法
+	 */
+	private void setMonitor(DxfTokenizer in, final DoubleSupplier ratio) {
+		final DxfProgressListener listener = this.listener;
+		if (listener != null) {
+			in.setMonitor(() -> listener.progress(DxfReader.STAGE_READ, ratio.getAsDouble()));
+		}
+	}
+
+	/**
+	 * 最適化したデータのキャッシュを設定するメソッド
+	 * 設定すると、ファイルを指定して読み込むときに内容が同じであればキャッシュから読み込み、なければ読み込んだ後に保存します。
+	 * 
+	 * @param cache
+	 *            キャッシュ、nullであればキャッシュを使わない
+	 */
+	public void setCache(DxfCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * エンティティセクションの図形の選択条件を設定するメソッド 条件を満たさない図形は読み込みません。
+	 * 
+	 * @param options
+	 *            図形の選択条件、nullであればすべての図形を読み込む
+	 */
+	public void setOptions(DxfReadOptions options) {
+		this.options = options;
+	}
+
+	/**
+	 * 読み込みの進捗を受け取るリスナを設定するメソッド
+	 * 読み込み中のスレッドに割り込むと、読み込みを中止して{@link InterruptedIOException}を投げます。
+	 * 
+	 * @param listener
+	 *            リスナ、nullであれば通知しない
+	 */
+	public void setProgressListener(DxfProgressListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * セクションを並列に読み込むかどうかを設定するメソッド
+	 * 並列に読み込む場合は、ファイルをメモリにマッピングできる場合のみ有効です。
+	 * 
+	 * @param parallel
+	 *            並列に読み込む場合true
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
 }
@@ -0,0 +1,232 @@
+package dxf;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dxf.checker.ProjectionView;
+import dxf.section.entities.DxfArc;
+import dxf.section.entities.DxfCircle;
+import dxf.section.entities.DxfDimension;
+import dxf.section.entities.DxfEntity;
+import dxf.section.entities.DxfInsert;
+import dxf.section.entities.DxfLine;
+
+/**
+ * チェッカーに渡すDXFファイルのデータの読み取り専用のビュー
+ *
+ * 生成したときの{@link DxfData}の図形のリストなどを変更できないリストに写し、投影図は複製して保持します。
+ * {@link DxfData}は遅延して値を求めるため複数のスレッドから同時に参照できませんが、
+ * このクラスは生成した後に値を変えないため、複数のチェッカーから同時に参照できます。
+ * 生成は{@link DxfData}を所有するスレッドで行うこと。図形そのものは複製しないため、チェッカーは図形を変更しないこと。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public final class DxfSnapshot {
+
+	/**
+	 * 変更できないリストに写すメソッド
+	 *
+	 * @param entities
+	 *            図形、nullであれば空のリストとして扱います
+	 * @return 変更できないリスト
+	 */
+	private static <T> List<T> copy(Collection<? extends T> entities) {
+		if (entities == null || entities.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(new ArrayList<T>(entities));
+	}
+
+	/**
+	 * 表示領域内の円弧
+	 */
+	private final List<DxfArc> arcs;
+
+	/**
+	 * 投影図を包含する最小の長方形
+	 */
+	private final List<Rectangle2D> bounds;
+
+	/**
+	 * 投影図に含まれる中心線
+	 */
+	private final List<DxfLine> centerLines;
+
+	/**
+	 * 円
+	 */
+	private final List<DxfCircle> circles;
+
+	/**
+	 * 寸法
+	 */
+	private final List<DxfDimension> dimensions;
+
+	/**
+	 * 読み込みの際に異常を検出した図形
+	 */
+	private final List<DxfEntity> errors;
+
+	/**
+	 * 引き出し線
+	 */
+	private final List<DxfInsert> inserts;
+
+	/**
+	 * 線分
+	 */
+	private final List<DxfLine> lines;
+
+	/**
+	 * 縮尺
+	 */
+	private final double scale;
+
+	/**
+	 * 図面の領域
+	 */
+	private final Rectangle screen;
+
+	/**
+	 * 投影図の名前をキーとする投影図
+	 */
+	private final Map<String, ProjectionView> views;
+
+	/**
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 */
+	DxfSnapshot(DxfData dxf) {
+		this.arcs = DxfSnapshot.copy(dxf.getDxfArcs());
+		this.centerLines = DxfSnapshot.copy(dxf.getCenterLines());
+		this.circles = DxfSnapshot.copy(dxf.getDxfCircles());
+		this.dimensions = DxfSnapshot.copy(dxf.getDxfDimensions());
+		this.errors = DxfSnapshot.copy(dxf.getErrorEntities());
+		this.inserts = DxfSnapshot.copy(dxf.getDxfInserts());
+		this.lines = DxfSnapshot.copy(dxf.getDxfLines());
+		this.scale = dxf.getScale();
+		Rectangle screen = dxf.getDefaultScreen();
+		this.screen = screen == null ? null : new Rectangle(screen);
+		List<Rectangle2D> bounds = new ArrayList<Rectangle2D>();
+		for (Rectangle2D rect : dxf.getBounds()) {
+			bounds.add(rect == null ? null : (Rectangle2D) rect.clone());
+		}
+		this.bounds = Collections.unmodifiableList(bounds);
+		Map<String, ProjectionView> views = dxf.getProjectionViewMap();
+		if (views == null) {
+			this.views = null;
+		} else {
+			Map<String, ProjectionView> copy = new LinkedHashMap<String, ProjectionView>();
+			for (Map.Entry<String, ProjectionView> entry : views.entrySet()) {
+				copy.put(entry.getKey(), new ProjectionView(entry.getValue()));
+			}
+			this.views = Collections.unmodifiableMap(copy);
+		}
+	}
+
+	/**
+	 * 投影図を包含する最小の長方形を取得するメソッド
+	 *
+	 * @return 変更できない長方形のリスト
+	 */
+	public List<Rectangle2D> getBounds() {
+		return this.bounds;
+	}
+
+	/**
+	 * 投影図に含まれる中心線を取得するメソッド
+	 *
+	 * @return 変更できない中心線のリスト
+	 */
+	public List<DxfLine> getCenterLines() {
+		return this.centerLines;
+	}
+
+	/**
+	 * 図面の領域を取得するメソッド
+	 *
+	 * @return 図面の領域の複製
+	 */
+	public Rectangle getDefaultScreen() {
+		return this.screen == null ? null : new Rectangle(this.screen);
+	}
+
+	/**
+	 * 表示領域内の円弧を取得するメソッド
+	 *
+	 * @return 変更できない円弧のリスト
+	 */
+	public List<DxfArc> getDxfArcs() {
+		return this.arcs;
+	}
+
+	/**
+	 * 円を取得するメソッド
+	 *
+	 * @return 変更できない円のリスト
+	 */
+	public List<DxfCircle> getDxfCircles() {
+		return this.circles;
+	}
+
+	/**
+	 * 寸法を取得するメソッド
+	 *
+	 * @return 変更できない寸法のリスト
+	 */
+	public List<DxfDimension> getDxfDimensions() {
+		return this.dimensions;
+	}
+
+	/**
+	 * 引き出し線を取得するメソッド
+	 *
+	 * @return 変更できない引き出し線のリスト
+	 */
+	public List<DxfInsert> getDxfInserts() {
+		return this.inserts;
+	}
+
+	/**
+	 * 線分を取得するメソッド
+	 *
+	 * @return 変更できない線分のリスト
+	 */
+	public List<DxfLine> getDxfLines() {
+		return this.lines;
+	}
+
+	/**
+	 * 読み込みの際に異常を検出した図形を取得するメソッド
+	 *
+	 * @return 変更できない図形のリスト
+	 */
+	public List<DxfEntity> getErrorEntities() {
+		return this.errors;
+	}
+
+	/**
+	 * 投影図を取得するメソッド
+	 *
+	 * @return 投影図の名前をキーとする変更できない複製のマップ、投影図を求めていなければnull
+	 */
+	public Map<String, ProjectionView> getProjectionViewMap() {
+		return this.views;
+	}
+
+	/**
+	 * 縮尺を取得するメソッド
+	 *
+	 * @return 縮尺
+	 */
+	public double getScale() {
+		return this.scale;
+	}
+}
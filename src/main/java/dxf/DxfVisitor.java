@@ -0,0 +1,128 @@
+package dxf;
+
+import dxf.section.entities.DxfAbstText;
+import dxf.section.entities.DxfArc;
+import dxf.section.entities.DxfCircle;
+import dxf.section.entities.DxfDimension;
+import dxf.section.entities.DxfEntity;
+import dxf.section.entities.DxfInsert;
+import dxf.section.entities.DxfLine;
+import dxf.section.entities.DxfPolyline;
+
+/**
+ * DXFファイルを逐次読み込むためのビジタ
+ *
+ * {@link DxfReader#readDXF(java.io.File, DxfVisitor)}で読み込んだ図形を1つずつ通知します。
+ * 図形は保持されないため、DXFファイルのデータを構成せずにファイル全体を走査できます。
+ * 通知される図形は他のセクションのデータとの関連付け（{@link DxfEntity#link(DxfData)}）を行っていません。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public interface DxfVisitor {
+
+	/**
+	 * 円弧を読み込んだときに呼び出されるメソッド
+	 *
+	 * @param arc
+	 *            円弧
+	 */
+	public default void onArc(DxfArc arc) {
+	}
+
+	/**
+	 * ブロックの終わりを読み込んだときに呼び出されるメソッド
+	 *
+	 * @param name
+	 *            ブロック名
+	 */
+	public default void onBlockEnd(String name) {
+	}
+
+	/**
+	 * ブロックの始まりを読み込んだときに呼び出されるメソッド 次の{@link #onBlockEnd(String)}までの図形はブロックの図形です。
+	 *
+	 * @param name
+	 *            ブロック名
+	 */
+	public default void onBlockStart(String name) {
+	}
+
+	/**
+	 * 円を読み込んだときに呼び出されるメソッド
+	 *
+	 * @param circle
+	 *            円
+	 */
+	public default void onCircle(DxfCircle circle) {
+	}
+
+	/**
+	 * 寸法を読み込んだときに呼び出されるメソッド
+	 *
+	 * @param dimension
+	 *            寸法
+	 */
+	public default void onDimension(DxfDimension dimension) {
+	}
+
+	/**
+	 * 図形を読み込んだときに呼び出されるメソッド 図形の種類に対応するメソッドを呼び出します。
+	 *
+	 * @param entity
+	 *            図形
+	 */
+	public default void onEntity(DxfEntity entity) {
+		if (entity instanceof DxfLine) {
+			this.onLine((DxfLine) entity);
+		} else if (entity instanceof DxfCircle) {
+			this.onCircle((DxfCircle) entity);
+		} else if (entity instanceof DxfArc) {
+			this.onArc((DxfArc) entity);
+		} else if (entity instanceof DxfAbstText) {
+			this.onText((DxfAbstText) entity);
+		} else if (entity instanceof DxfInsert) {
+			this.onInsert((DxfInsert) entity);
+		} else if (entity instanceof DxfDimension) {
+			this.onDimension((DxfDimension) entity);
+		} else if (entity instanceof DxfPolyline) {
+			this.onPolyline((DxfPolyline) entity);
+		}
+	}
+
+	/**
+	 * ブロック挿入を読み込んだときに呼び出されるメソッド
+	 *
+	 * @param insert
+	 *            ブロック挿入
+	 */
+	public default void onInsert(DxfInsert insert) {
+	}
+
+	/**
+	 * 線分を読み込んだときに呼び出されるメソッド
+	 *
+	 * @param line
+	 *            線分
+	 */
+	public default void onLine(DxfLine line) {
+	}
+
+	/**
+	 * ポリラインを読み込んだときに呼び出されるメソッド
+	 *
+	 * @param polyline
+	 *            ポリライン
+	 */
+	public default void onPolyline(DxfPolyline polyline) {
+	}
+
+	/**
+	 * 文字（TEXTまたはMTEXT）を読み込んだときに呼び出されるメソッド
+	 *
+	 * @param text
+	 *            文字
+	 */
+	public default void onText(DxfAbstText text) {
+	}
+}
@@ -0,0 +1,410 @@
+package dxf;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import dxf.section.entities.DxfAbstText;
+import dxf.section.entities.DxfEntity;
+import dxf.section.entities.DxfMtext;
+
+/**
+ * 図形の外接長方形を検索するための R-tree
+ *
+ * 読み込みが終わった図形からSTR（Sort-Tile-Recursive）法で一度に構築し、以降は変更しません。
+ * 長方形と重なる図形の検索と、点に最も近い図形の検索ができます。
+ * 検索結果は構築したときの図形の順に並べるため、すべての図形を順に調べた場合と同じ順になります。
+ * 外接長方形を持たない文字列は挿入位置の点として登録し、それ以外の外接長方形を持たない図形は常に検索結果の候補に含めます。
+ * 描画用の索引では、文字列を描画したときに収まる範囲を文字の高さと文字数から大きめに見積もって登録します。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+class EntityIndex {
+
+	/**
+	 * 節点が持つ子の最大数
+	 */
+	private static final int CAPACITY = 16;
+
+	/**
+	 * 文字列を描画したときに挿入位置から離れうる距離を見積もるメソッド
+	 * 配置や行数によらず収まるように、1文字の幅を文字の高さの2倍として、文字数と行数の多い方を掛けます。
+	 *
+	 * @param text
+	 *            文字列
+	 * @return 挿入位置からの距離
+	 */
+	private static double getTextExtent(DxfAbstText text) {
+		int length = text.getText().length();
+		if (text instanceof DxfMtext) {
+			length = Math.max(length, ((DxfMtext) text).getMultiTexts().length);
+		}
+		return text.getHeight() * 2 * Math.max(length, 1);
+	}
+
+	/**
+	 * 外接長方形の中心のX座標で縦の帯に分け、帯ごとに中心のY座標で並べるメソッド
+	 *
+	 * @param ids
+	 *            並べ替える番号
+	 */
+	private static void pack(int[] ids, double[] minX, double[] minY, double[] maxX, double[] maxY) {
+		int count = ids.length;
+		double[] centerX = new double[minX.length];
+		double[] centerY = new double[minY.length];
+		for (int id : ids) {
+			centerX[id] = (minX[id] + maxX[id]) / 2;
+			centerY[id] = (minY[id] + maxY[id]) / 2;
+		}
+		int leaves = (count + EntityIndex.CAPACITY - 1) / EntityIndex.CAPACITY;
+		int slices = (int) Math.ceil(Math.sqrt(leaves));
+		int sliceSize = slices * EntityIndex.CAPACITY;
+		EntityIndex.sort(ids, 0, count, centerX);
+		for (int from = 0; from < count; from += sliceSize) {
+			EntityIndex.sort(ids, from, Math.min(from + sliceSize, count), centerY);
+		}
+	}
+
+	/**
+	 * 番号の順に値を取り出すメソッド
+	 *
+	 * @return 取り出した値
+	 */
+	private static double[] select(double[] values, int[] ids) {
+		double[] selected = new double[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			selected[i] = values[ids[i]];
+		}
+		return selected;
+	}
+
+	/**
+	 * 配列の一部を値の昇順に並べ替えるメソッド
+	 * 値の下位ビットを番号に置き換えた整数を並べ替えるため、ごく近い値どうしの順序は保証しません。
+	 *
+	 * @param ids
+	 *            並べ替える番号
+	 * @param from
+	 *            開始位置
+	 * @param to
+	 *            終了位置（この位置を含まない）
+	 * @param keys
+	 *            番号に対応する値
+	 */
+	private static void sort(int[] ids, int from, int to, double[] keys) {
+		long mask = Long.highestOneBit(Math.max(1, keys.length - 1)) * 2 - 1;
+		long[] sorted = new long[to - from];
+		for (int i = from; i < to; i++) {
+			long bits = Double.doubleToLongBits(keys[ids[i]]);
+			// 符号付き整数として比較したときに値の順になるように変換する
+			bits ^= (bits >> 63) & Long.MAX_VALUE;
+			sorted[i - from] = (bits & ~mask) | ids[i];
+		}
+		Arrays.sort(sorted);
+		for (int i = from; i < to; i++) {
+			ids[i] = (int) (sorted[i - from] & mask);
+		}
+	}
+
+	/**
+	 * 節点の子の範囲（階層ごと、葉の階層はnull） 節点iの子は1つ下の階層の[children[2i], children[2i+1])です。
+	 */
+	private final int[][] children;
+
+	/**
+	 * 索引に登録した図形
+	 */
+	private final DxfEntity[] entities;
+
+	/**
+	 * 葉の階層の並び順に対応する図形の番号
+	 */
+	private final int[] ids;
+
+	/**
+	 * 外接長方形の最大のX座標（階層ごと）
+	 */
+	private final double[][] maxX;
+
+	/**
+	 * 外接長方形の最大のY座標（階層ごと）
+	 */
+	private final double[][] maxY;
+
+	/**
+	 * 外接長方形の最小のX座標（階層ごと）
+	 */
+	private final double[][] minX;
+
+	/**
+	 * 外接長方形の最小のY座標（階層ごと）
+	 */
+	private final double[][] minY;
+
+	/**
+	 * 外接長方形を持たない図形の番号
+	 */
+	private final int[] unbounded;
+
+	/**
+	 * @param entities
+	 *            登録する図形
+	 */
+	EntityIndex(List<DxfEntity> entities) {
+		this(entities, false);
+	}
+
+	/**
+	 * @param entities
+	 *            登録する図形
+	 * @param drawing
+	 *            描画用の索引であればtrue、文字列を描画したときに収まる範囲で登録します
+	 */
+	EntityIndex(List<DxfEntity> entities, boolean drawing) {
+		int size = entities.size();
+		this.entities = entities.toArray(new DxfEntity[size]);
+		double[] minX = new double[size];
+		double[] minY = new double[size];
+		double[] maxX = new double[size];
+		double[] maxY = new double[size];
+		int[] ids = new int[size];
+		int count = 0;
+		int[] unbounded = new int[size];
+		int countUnbounded = 0;
+		for (int i = 0; i < size; i++) {
+			DxfEntity entity = this.entities[i];
+			Rectangle2D rect = entity.getBounds2D();
+			if (rect != null) {
+				minX[i] = rect.getMinX();
+				minY[i] = rect.getMinY();
+				maxX[i] = rect.getMaxX();
+				maxY[i] = rect.getMaxY();
+				ids[count++] = i;
+			} else if (entity instanceof DxfAbstText) {
+				DxfAbstText text = (DxfAbstText) entity;
+				double extent = drawing ? EntityIndex.getTextExtent(text) : 0;
+				minX[i] = text.getX() - extent;
+				minY[i] = text.getY() - extent;
+				maxX[i] = text.getX() + extent;
+				maxY[i] = text.getY() + extent;
+				ids[count++] = i;
+			} else {
+				unbounded[countUnbounded++] = i;
+			}
+		}
+		this.unbounded = Arrays.copyOf(unbounded, countUnbounded);
+
+		List<double[]> levelMinX = new ArrayList<double[]>();
+		List<double[]> levelMinY = new ArrayList<double[]>();
+		List<double[]> levelMaxX = new ArrayList<double[]>();
+		List<double[]> levelMaxY = new ArrayList<double[]>();
+		List<int[]> levelChildren = new ArrayList<int[]>();
+
+		// 葉の階層は図形の番号を並べ替え、外接長方形をその順に詰め直す
+		ids = Arrays.copyOf(ids, count);
+		EntityIndex.pack(ids, minX, minY, maxX, maxY);
+		this.ids = ids;
+		levelMinX.add(EntityIndex.select(minX, ids));
+		levelMinY.add(EntityIndex.select(minY, ids));
+		levelMaxX.add(EntityIndex.select(maxX, ids));
+		levelMaxY.add(EntityIndex.select(maxY, ids));
+		levelChildren.add(null);
+
+		while (count > 1) {
+			double[] childMinX = levelMinX.get(levelMinX.size() - 1);
+			double[] childMinY = levelMinY.get(levelMinY.size() - 1);
+			double[] childMaxX = levelMaxX.get(levelMaxX.size() - 1);
+			double[] childMaxY = levelMaxY.get(levelMaxY.size() - 1);
+			int nodes = (count + EntityIndex.CAPACITY - 1) / EntityIndex.CAPACITY;
+			double[] nodeMinX = new double[nodes];
+			double[] nodeMinY = new double[nodes];
+			double[] nodeMaxX = new double[nodes];
+			double[] nodeMaxY = new double[nodes];
+			int[] nodeChildren = new int[nodes * 2];
+			for (int n = 0; n < nodes; n++) {
+				int from = n * EntityIndex.CAPACITY;
+				int to = Math.min(from + EntityIndex.CAPACITY, count);
+				nodeChildren[n * 2] = from;
+				nodeChildren[n * 2 + 1] = to;
+				nodeMinX[n] = childMinX[from];
+				nodeMinY[n] = childMinY[from];
+				nodeMaxX[n] = childMaxX[from];
+				nodeMaxY[n] = childMaxY[from];
+				for (int i = from + 1; i < to; i++) {
+					nodeMinX[n] = Math.min(nodeMinX[n], childMinX[i]);
+					nodeMinY[n] = Math.min(nodeMinY[n], childMinY[i]);
+					nodeMaxX[n] = Math.max(nodeMaxX[n], childMaxX[i]);
+					nodeMaxY[n] = Math.max(nodeMaxY[n], childMaxY[i]);
+				}
+			}
+			if (nodes > 1) {
+				// 上の階層も節点の外接長方形で詰め直す
+				int[] order = new int[nodes];
+				for (int i = 0; i < nodes; i++) {
+					order[i] = i;
+				}
+				EntityIndex.pack(order, nodeMinX, nodeMinY, nodeMaxX, nodeMaxY);
+				int[] packed = new int[nodes * 2];
+				for (int i = 0; i < nodes; i++) {
+					packed[i * 2] = nodeChildren[order[i] * 2];
+					packed[i * 2 + 1] = nodeChildren[order[i] * 2 + 1];
+				}
+				nodeChildren = packed;
+				nodeMinX = EntityIndex.select(nodeMinX, order);
+				nodeMinY = EntityIndex.select(nodeMinY, order);
+				nodeMaxX = EntityIndex.select(nodeMaxX, order);
+				nodeMaxY = EntityIndex.select(nodeMaxY, order);
+			}
+			levelMinX.add(nodeMinX);
+			levelMinY.add(nodeMinY);
+			levelMaxX.add(nodeMaxX);
+			levelMaxY.add(nodeMaxY);
+			levelChildren.add(nodeChildren);
+			count = nodes;
+		}
+		this.minX = levelMinX.toArray(new double[levelMinX.size()][]);
+		this.minY = levelMinY.toArray(new double[levelMinY.size()][]);
+		this.maxX = levelMaxX.toArray(new double[levelMaxX.size()][]);
+		this.maxY = levelMaxY.toArray(new double[levelMaxY.size()][]);
+		this.children = levelChildren.toArray(new int[levelChildren.size()][]);
+	}
+
+	/**
+	 * 点に最も近い図形を検索するメソッド 距離は外接長方形までの距離とします。
+	 *
+	 * @param x
+	 *            X座標
+	 * @param y
+	 *            Y座標
+	 * @param c
+	 *            検索する図形のクラス
+	 * @return 最も近い図形、見つからなければnull
+	 */
+	<T extends DxfEntity> T nearest(double x, double y, Class<T> c) {
+		if (this.ids.length == 0) {
+			return null;
+		}
+		// 距離の近い順に節点を展開する
+		PriorityQueue<double[]> queue = new PriorityQueue<double[]>(64, new Comparator<double[]>() {
+			public int compare(double[] o1, double[] o2) {
+				return Double.compare(o1[0], o2[0]);
+			}
+		});
+		int top = this.minX.length - 1;
+		for (int n = 0; n < this.minX[top].length; n++) {
+			queue.add(new double[] { this.distSq(top, n, x, y), top, n });
+		}
+		while (!queue.isEmpty()) {
+			double[] entry = queue.poll();
+			int level = (int) entry[1];
+			int node = (int) entry[2];
+			if (level == 0) {
+				DxfEntity entity = this.entities[this.ids[node]];
+				if (c.isInstance(entity)) {
+					return c.cast(entity);
+				}
+			} else {
+				for (int i = this.children[level][node * 2]; i < this.children[level][node * 2 + 1]; i++) {
+					queue.add(new double[] { this.distSq(level - 1, i, x, y), level - 1, i });
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 点から外接長方形までの距離の2乗を求めるメソッド
+	 */
+	private double distSq(int level, int node, double x, double y) {
+		double dx = Math.max(0, Math.max(this.minX[level][node] - x, x - this.maxX[level][node]));
+		double dy = Math.max(0, Math.max(this.minY[level][node] - y, y - this.maxY[level][node]));
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * 長方形と外接長方形が重なる図形を検索するメソッド 外接長方形を持たない図形も候補として含めます。
+	 *
+	 * @param rect
+	 *            長方形
+	 * @return 登録した順に並べた図形
+	 */
+	List<DxfEntity> search(Rectangle2D rect) {
+		double x1 = rect.getMinX();
+		double y1 = rect.getMinY();
+		double x2 = rect.getMaxX();
+		double y2 = rect.getMaxY();
+		int[] found = new int[64];
+		int count = 0;
+		if (this.ids.length > 0) {
+			int[] stack = new int[this.minX.length * EntityIndex.CAPACITY * 2];
+			int sp = 0;
+			int top = this.minX.length - 1;
+			for (int n = 0; n < this.minX[top].length; n++) {
+				stack[sp++] = top;
+				stack[sp++] = n;
+			}
+			while (sp > 0) {
+				int node = stack[--sp];
+				int level = stack[--sp];
+				if (this.minX[level][node] > x2 || this.maxX[level][node] < x1 || this.minY[level][node] > y2 || this.maxY[level][node] < y1) {
+					continue;
+				}
+				if (level == 0) {
+					if (count == found.length) {
+						found = Arrays.copyOf(found, count * 2);
+					}
+					found[count++] = this.ids[node];
+				} else {
+					int from = this.children[level][node * 2];
+					int to = this.children[level][node * 2 + 1];
+					if (sp + (to - from) * 2 > stack.length) {
+						stack = Arrays.copyOf(stack, Math.max(stack.length * 2, sp + (to - from) * 2));
+					}
+					for (int i = from; i < to; i++) {
+						stack[sp++] = level - 1;
+						stack[sp++] = i;
+					}
+				}
+			}
+		}
+		if (this.unbounded.length > 0) {
+			found = Arrays.copyOf(found, count + this.unbounded.length);
+			System.arraycopy(this.unbounded, 0, found, count, this.unbounded.length);
+			count += this.unbounded.length;
+		}
+		List<DxfEntity> entities = new ArrayList<DxfEntity>(count);
+		if (count < this.entities.length >> 6) {
+			Arrays.sort(found, 0, count);
+			for (int i = 0; i < count; i++) {
+				entities.add(this.entities[found[i]]);
+			}
+		} else {
+			// 候補が多い場合は並べ替えずにビット列で登録した順に取り出す
+			long[] bits = new long[(this.entities.length + 63) >> 6];
+			for (int i = 0; i < count; i++) {
+				bits[found[i] >> 6] |= 1L << found[i];
+			}
+			for (int i = 0; i < bits.length; i++) {
+				long word = bits[i];
+				while (word != 0) {
+					entities.add(this.entities[(i << 6) + Long.numberOfTrailingZeros(word)]);
+					word &= word - 1;
+				}
+			}
+		}
+		return entities;
+	}
+
+	/**
+	 * 登録した図形の数を取得するメソッド
+	 *
+	 * @return 図形の数
+	 */
+	int size() {
+		return this.entities.length;
+	}
+}
@@ -0,0 +1,122 @@
+package dxf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import util.MapList;
+
+import dxf.section.entities.DxfAbstText;
+import dxf.section.entities.DxfArc;
+import dxf.section.entities.DxfCircle;
+import dxf.section.entities.DxfDimension;
+import dxf.section.entities.DxfEntity;
+import dxf.section.entities.DxfInsert;
+import dxf.section.entities.DxfLine;
+import dxf.section.entities.DxfMtext;
+import dxf.section.entities.DxfText;
+
+/**
+ * 図形の種類ごとのリストを保持するためのクラス
+ *
+ * 読み込みが終わった図形のリストから一度だけ生成し、リストは変更できません。
+ * チェックのたびにクラス名で検索したり、instanceofで振り分けたりせずに済みます。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+class EntityRegistry {
+
+	/**
+	 * 図形の種類ごとのリストを取得するメソッド
+	 *
+	 * @param entityMap
+	 *            クラス名をキーとする図形のリスト
+	 * @param c
+	 *            図形のクラス
+	 * @return 変更できない図形のリスト、図形がなければ空のリスト
+	 */
+	private static <T extends DxfEntity> List<T> get(MapList<String, DxfEntity> entityMap, Class<T> c) {
+		List<DxfEntity> entities = entityMap.get(c.getName());
+		if (entities == null || entities.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<T> list = new ArrayList<T>(entities.size());
+		for (DxfEntity entity : entities) {
+			list.add(c.cast(entity));
+		}
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * 円弧
+	 */
+	private final List<DxfArc> arcs;
+
+	/**
+	 * 円
+	 */
+	private final List<DxfCircle> circles;
+
+	/**
+	 * 寸法
+	 */
+	private final List<DxfDimension> dimensions;
+
+	/**
+	 * 引き出し線
+	 */
+	private final List<DxfInsert> inserts;
+
+	/**
+	 * 線分
+	 */
+	private final List<DxfLine> lines;
+
+	/**
+	 * 文字列（TEXTとMTEXT）
+	 */
+	private final List<DxfAbstText> texts;
+
+	/**
+	 * @param entityMap
+	 *            クラス名をキーとする図形のリスト
+	 */
+	EntityRegistry(MapList<String, DxfEntity> entityMap) {
+		this.arcs = EntityRegistry.get(entityMap, DxfArc.class);
+		this.circles = EntityRegistry.get(entityMap, DxfCircle.class);
+		this.dimensions = EntityRegistry.get(entityMap, DxfDimension.class);
+		this.inserts = EntityRegistry.get(entityMap, DxfInsert.class);
+		this.lines = EntityRegistry.get(entityMap, DxfLine.class);
+		List<DxfText> text = EntityRegistry.get(entityMap, DxfText.class);
+		List<DxfMtext> mtext = EntityRegistry.get(entityMap, DxfMtext.class);
+		List<DxfAbstText> texts = new ArrayList<DxfAbstText>(text.size() + mtext.size());
+		texts.addAll(text);
+		texts.addAll(mtext);
+		this.texts = Collections.unmodifiableList(texts);
+	}
+
+	List<DxfArc> getArcs() {
+		return this.arcs;
+	}
+
+	List<DxfCircle> getCircles() {
+		return this.circles;
+	}
+
+	List<DxfDimension> getDimensions() {
+		return this.dimensions;
+	}
+
+	List<DxfInsert> getInserts() {
+		return this.inserts;
+	}
+
+	List<DxfLine> getLines() {
+		return this.lines;
+	}
+
+	List<DxfAbstText> getTexts() {
+		return this.texts;
+	}
+}
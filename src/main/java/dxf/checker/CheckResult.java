@@ -0,0 +1,183 @@
+package dxf.checker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import dxf.DxfData;
+import dxf.section.entities.DxfCircle;
+import dxf.section.entities.DxfEntity;
+
+/**
+ * チェッカーが図面をチェックした結果
+ *
+ * チェッカーは図形のフラグを変更せず、異常を検出した図形やチェック済みの円をこのクラスで返します。
+ * フラグは表示するスレッドで{@link #apply(DxfData)}により反映します。
+ * 生成した後は変更できないため、チェッカーのスレッドから表示するスレッドにそのまま渡せます。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class CheckResult {
+
+	/**
+	 * 変更できないリストに写すメソッド
+	 *
+	 * @param entities
+	 *            図形、nullであれば空のリストとして扱います
+	 * @return 変更できないリスト
+	 */
+	private static <T> List<T> copy(Collection<? extends T> entities) {
+		if (entities == null || entities.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(new ArrayList<T>(entities));
+	}
+
+	/**
+	 * 補助線のデータ
+	 */
+	private final DimensionAssist assist;
+
+	/**
+	 * チェック済みの円
+	 */
+	private final List<DxfCircle> checked;
+
+	/**
+	 * 異常を検出した図形
+	 */
+	private final List<DxfEntity> errors;
+
+	/**
+	 * 異常を表すフラグを設定する図形
+	 */
+	private final List<DxfEntity> marks;
+
+	/**
+	 * エラーメッセージ
+	 */
+	private final String message;
+
+	/**
+	 * チェッカーの名前
+	 */
+	private final String name;
+
+	/**
+	 * 異常がなかったかどうか
+	 */
+	private final boolean passed;
+
+	/**
+	 * チェッカーが例外を投げてチェックできなかったことを表す結果を生成します。
+	 *
+	 * @param checker
+	 *            チェックしたチェッカー
+	 * @param cause
+	 *            チェッカーが投げた例外
+	 */
+	public CheckResult(DxfChecker checker, Throwable cause) {
+		this.name = checker.toString();
+		this.message = checker + "で図面をチェックできませんでした。" + cause.getMessage();
+		this.passed = false;
+		this.errors = Collections.emptyList();
+		this.marks = Collections.emptyList();
+		this.checked = Collections.emptyList();
+		this.assist = null;
+	}
+
+	/**
+	 * @param checker
+	 *            チェックしたチェッカー
+	 * @param passed
+	 *            異常がなければtrue
+	 * @param errors
+	 *            異常を検出した図形
+	 * @param marks
+	 *            異常を表すフラグを設定する図形
+	 */
+	public CheckResult(DxfChecker checker, boolean passed, Collection<? extends DxfEntity> errors, Collection<? extends DxfEntity> marks) {
+		this(checker, passed, errors, marks, null, null);
+	}
+
+	/**
+	 * @param checker
+	 *            チェックしたチェッカー
+	 * @param passed
+	 *            異常がなければtrue
+	 * @param errors
+	 *            異常を検出した図形
+	 * @param marks
+	 *            異常を表すフラグを設定する図形
+	 * @param checked
+	 *            チェック済みの円
+	 * @param assist
+	 *            補助線のデータ、なければnull
+	 */
+	public CheckResult(DxfChecker checker, boolean passed, Collection<? extends DxfEntity> errors, Collection<? extends DxfEntity> marks,
+			Collection<DxfCircle> checked, DimensionAssist assist) {
+		this.name = checker.toString();
+		this.message = checker.getErrorMessage();
+		this.passed = passed;
+		this.errors = CheckResult.copy(errors);
+		this.marks = CheckResult.copy(marks);
+		this.checked = CheckResult.copy(checked);
+		this.assist = assist;
+	}
+
+	/**
+	 * チェックの結果を図形のフラグと図面の補助線に反映するメソッド 図面を所有するスレッドで呼び出すこと。
+	 *
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 */
+	public void apply(DxfData dxf) {
+		for (DxfEntity entity : this.marks) {
+			entity.setError();
+		}
+		for (DxfCircle circle : this.checked) {
+			circle.checked();
+		}
+		if (this.assist != null && dxf != null) {
+			this.assist.addTo(dxf);
+		}
+	}
+
+	/**
+	 * 異常を検出した図形を取得するメソッド
+	 *
+	 * @return 変更できない図形のリスト
+	 */
+	public List<DxfEntity> getErrorEntities() {
+		return this.errors;
+	}
+
+	/**
+	 * エラーメッセージを取得するメソッド
+	 *
+	 * @return エラーメッセージ
+	 */
+	public String getErrorMessage() {
+		return this.message;
+	}
+
+	/**
+	 * チェッカーの名前を取得するメソッド
+	 *
+	 * @return チェッカーの名前
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * 異常がなかったかどうかを取得するメソッド
+	 *
+	 * @return 異常がなければtrue
+	 */
+	public boolean isPassed() {
+		return this.passed;
+	}
+}
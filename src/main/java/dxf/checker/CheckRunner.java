@@ -0,0 +1,90 @@
+package dxf.checker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dxf.DxfSnapshot;
+
+/**
+ * 複数のチェッカーを並行して実行するためのクラス
+ *
+ * チェッカーごとにスレッドを割り当て、同じ{@link DxfSnapshot}を同時にチェックします。
+ * チェックにかかる時間は、各チェッカーの時間の合計ではなく最も遅いチェッカーの時間になります。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class CheckRunner {
+
+	/**
+	 * チェッカー
+	 */
+	private final List<DxfChecker> checkers;
+
+	/**
+	 * チェックを行うスレッド
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * @param checkers
+	 *            図面をチェックするチェッカー
+	 */
+	public CheckRunner(List<DxfChecker> checkers) {
+		this.checkers = Collections.unmodifiableList(new ArrayList<DxfChecker>(checkers));
+		this.executor = Executors.newFixedThreadPool(Math.max(1, checkers.size()), r -> {
+			Thread thread = new Thread(r, "DxfChecker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * すべてのチェッカーで図面をチェックするメソッド
+	 * 割り込まれた場合は実行中のチェックを中止します。
+	 * 例外を投げたチェッカーは失敗した結果を返し、他のチェッカーの結果はそのまま返します。
+	 *
+	 * @param dxf
+	 *            チェックする図面
+	 * @return チェッカーの順の結果
+	 * @throws InterruptedException
+	 *             待機中に割り込まれた場合
+	 */
+	public List<CheckResult> check(DxfSnapshot dxf) throws InterruptedException {
+		List<Future<CheckResult>> futures = new ArrayList<Future<CheckResult>>(this.checkers.size());
+		try {
+			for (DxfChecker checker : this.checkers) {
+				futures.add(this.executor.submit(() -> checker.check(dxf)));
+			}
+			List<CheckResult> results = new ArrayList<CheckResult>(futures.size());
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					cause.printStackTrace();
+					results.add(new CheckResult(this.checkers.get(i), cause));
+				}
+			}
+			return results;
+		} finally {
+			for (Future<CheckResult> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * チェッカーを取得するメソッド
+	 *
+	 * @return 変更できないチェッカーのリスト
+	 */
+	public List<DxfChecker> getCheckers() {
+		return this.checkers;
+	}
+}
@@ -0,0 +1,81 @@
+package dxf.checker;
+
+import java.util.List;
+import java.util.Set;
+
+import util.NodePair;
+
+import dxf.DxfData;
+
+/**
+ * 寸法抜けのチェックの経過を表示するための補助線のデータ
+ *
+ * {@link DimensionChecker}がチェックの結果として返し、表示するスレッドで{@link #addTo(DxfData)}により図面に設定します。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class DimensionAssist {
+
+	/**
+	 * 寸法線チェックのためのグラフ(横)
+	 */
+	private final DimensionGraph edgesX;
+
+	/**
+	 * 寸法線チェックのためのグラフ(縦)
+	 */
+	private final DimensionGraph edgesY;
+
+	/**
+	 * 全長の寸法が見つからない投影図の範囲(横)
+	 */
+	private final Set<NodePair> loaX;
+
+	/**
+	 * 全長の寸法が見つからない投影図の範囲(縦)
+	 */
+	private final Set<NodePair> loaY;
+
+	/**
+	 * 寸法線チェックのためのノード(横)
+	 */
+	private final List<DimensionNode> nodesX;
+
+	/**
+	 * 寸法線チェックのためのノード(縦)
+	 */
+	private final List<DimensionNode> nodesY;
+
+	/**
+	 * チェック済みのノード(横)
+	 */
+	private final boolean[] vpX;
+
+	/**
+	 * チェック済みのノード(縦)
+	 */
+	private final boolean[] vpY;
+
+	DimensionAssist(List<DimensionNode> nodesX, List<DimensionNode> nodesY, DimensionGraph edgesX, DimensionGraph edgesY, boolean[] vpX, boolean[] vpY,
+			Set<NodePair> loaX, Set<NodePair> loaY) {
+		this.nodesX = nodesX;
+		this.nodesY = nodesY;
+		this.edgesX = edgesX;
+		this.edgesY = edgesY;
+		this.vpX = vpX;
+		this.vpY = vpY;
+		this.loaX = loaX;
+		this.loaY = loaY;
+	}
+
+	/**
+	 * 補助線のデータを図面に設定するメソッド
+	 *
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 */
+	public void addTo(DxfData dxf) {
+		dxf.addCheck(this.nodesX, this.nodesY, this.edgesX, this.edgesY, this.vpX, this.vpY, this.loaX, this.loaY);
+	}
+}
@@ -13,12 +13,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import util.ListSet;
 import util.MapList;
 import util.NodePair;
+import util.RoundIndex;
+import util.RoundListSet;
 import util.RoundNumber;
 
 import dxf.DxfData;
+import dxf.DxfSnapshot;
 import dxf.section.entities.DxfArc;
 import dxf.section.entities.DxfCircle;
 import dxf.section.entities.DxfDimension;
@@ -34,29 +36,18 @@ import dxf.section.entities.DxfLine;
  */
 public class DimensionChecker implements DxfChecker {
 
-	private Collection<DxfEntity> errors;
-
-	public DimensionChecker() {
-		this.errors = new ArrayList<DxfEntity>();
-	}
-
 	/**
-	 * @see dxf.checker.DxfChecker#check(dxf.DxfData)
+	 * @see dxf.checker.DxfChecker#check(dxf.DxfSnapshot)
 	 */
-	public boolean check(DxfData dxf) {
-		this.clearErrorEntities();
-		this.errors.addAll(dxf.getErrorEntities());
+	public CheckResult check(DxfSnapshot dxf) {
+		Collection<DxfEntity> errors = new ArrayList<DxfEntity>(dxf.getErrorEntities());
+		Collection<DxfEntity> marks = new ArrayList<DxfEntity>();
+		Collection<DxfCircle> checked = new ArrayList<DxfCircle>();
 
 		List<DxfLine> lines = dxf.getDxfLines();
-		List<DxfLine> centerLines = new ArrayList<DxfLine>(); // 中心線のみ
-		for (DxfLine line : lines) {
-			if ("CENTER".equals(line.getStyle())) {
-				centerLines.add(line);
-			}
-		}
-		MapList<String, DxfEntity> map = dxf.getDxfData();
-		ListSet<DimensionNode> nodesX = new ListSet<DimensionNode>();
-		ListSet<DimensionNode> nodesY = new ListSet<DimensionNode>();
+		List<DxfLine> centerLines = dxf.getCenterLines(); // 中心線のみ
+		RoundListSet<DimensionNode> nodesX = new RoundListSet<DimensionNode>();
+		RoundListSet<DimensionNode> nodesY = new RoundListSet<DimensionNode>();
 
 		/**
 		 * 投影図から寸法線が必要なノードを取得するための処理
@@ -81,7 +72,7 @@ public class DimensionChecker implements DxfChecker {
 		 */
 		Set<RoundNumber> centersX = new HashSet<RoundNumber>();
 		Set<RoundNumber> centersY = new HashSet<RoundNumber>();
-		this.getCenterLinePoints(lines, centersX, centersY);
+		this.getCenterLinePoints(centerLines, centersX, centersY);
 		for (RoundNumber n : centersX) {
 			nodesX.add(new DimensionNode(n.getValue(), false));
 		}
@@ -102,8 +93,8 @@ public class DimensionChecker implements DxfChecker {
 		Collection<DxfCircle> circles = dxf.getDxfCircles();
 		List<DxfArc> arcs = dxf.getDxfArcs();
 
-		boolean[][] edgesX = new boolean[nodesX.size()][nodesX.size()];
-		boolean[][] edgesY = new boolean[nodesY.size()][nodesY.size()];
+		DimensionGraph edgesX = new DimensionGraph(nodesX.size());
+		DimensionGraph edgesY = new DimensionGraph(nodesY.size());
 
 		/*
 		 * 寸法線の端点にあたるノード間を辺で結ぶ 寸法線に対応する中心線が存在する場合、その中心線を経由してノード間に辺を結ぶ
@@ -115,70 +106,64 @@ public class DimensionChecker implements DxfChecker {
 		List<DxfDimension> dimOthers = new ArrayList<DxfDimension>();
 		MapList<RoundNumber, DxfDimension> centerMapX = new MapList<RoundNumber, DxfDimension>();
 		MapList<RoundNumber, DxfDimension> centerMapY = new MapList<RoundNumber, DxfDimension>();
-		for (List<DxfEntity> entities : map.values()) {
-			for (DxfEntity entity : entities) {
-				if (!(entity instanceof DxfDimension)) {
-					break;
-				}
-				DxfDimension dim = (DxfDimension) entity;
-				if ((dim.getType() & DxfDimension.TYPE_ARC) > 0) {
-					dimArc.add(dim);
-				}
-				if ((dim.getType() & DxfDimension.TYPE_CIRCLE) > 0) {
-					dimCircle.add(dim);
-				}
-				if (dim.hasDimension()) {
-					RoundNumber node1 = dim.getCheckPoint1();
-					RoundNumber node2 = dim.getCheckPoint2();
-					if (node1 != null && node2 != null) {
-						boolean[][] edges = null;
-						ListSet<DimensionNode> nodes = null;
-						Set<RoundNumber> centers = null;
-						RoundNumber center = new RoundNumber((node1.getValue() + node2.getValue()) / 2);
-						MapList<RoundNumber, DxfDimension> centerMap = null;
-						if (dim.getDirection() == DxfLine.DIRECTION_X) {
-							edges = edgesX;
-							nodes = nodesX;
-							centers = centersX;
-							centerMap = centerMapX;
-							dimensionsX.add(dim);
-							// 全長の有無のチェック
-							setLoaX.remove(new NodePair(dim));
-						} else if (dim.getDirection() == DxfLine.DIRECTION_Y) {
-							edges = edgesY;
-							nodes = nodesY;
-							centers = centersY;
-							centerMap = centerMapY;
-							dimensionsY.add(dim);
-							// 全長の有無のチェック
-							setLoaY.remove(new NodePair(dim));
-						} else {
-							new RuntimeException();
-						}
-						if (edges != null && nodes != null) {
-							int index1 = nodes.indexOf(node1);
-							int index2 = nodes.indexOf(node2);
-							if (index1 >= 0 && index2 >= 0) {
-								if (centers.contains(center)) {
-									centerMap.put(center, dim);
-									int index3 = nodes.indexOf(center);
-									if (index3 >= 0) {
-										this.linkEdge(edges, index1, index2, index3);
-									} else {
-										dim.setError();
-										this.errors.add(dim);
-									}
+		for (DxfDimension dim : dxf.getDxfDimensions()) {
+			if ((dim.getType() & DxfDimension.TYPE_ARC) > 0) {
+				dimArc.add(dim);
+			}
+			if ((dim.getType() & DxfDimension.TYPE_CIRCLE) > 0) {
+				dimCircle.add(dim);
+			}
+			if (dim.hasDimension()) {
+				RoundNumber node1 = dim.getCheckPoint1();
+				RoundNumber node2 = dim.getCheckPoint2();
+				if (node1 != null && node2 != null) {
+					DimensionGraph edges = null;
+					RoundListSet<DimensionNode> nodes = null;
+					Set<RoundNumber> centers = null;
+					RoundNumber center = new RoundNumber((node1.getValue() + node2.getValue()) / 2);
+					MapList<RoundNumber, DxfDimension> centerMap = null;
+					if (dim.getDirection() == DxfLine.DIRECTION_X) {
+						edges = edgesX;
+						nodes = nodesX;
+						centers = centersX;
+						centerMap = centerMapX;
+						dimensionsX.add(dim);
+						// 全長の有無のチェック
+						setLoaX.remove(new NodePair(dim));
+					} else if (dim.getDirection() == DxfLine.DIRECTION_Y) {
+						edges = edgesY;
+						nodes = nodesY;
+						centers = centersY;
+						centerMap = centerMapY;
+						dimensionsY.add(dim);
+						// 全長の有無のチェック
+						setLoaY.remove(new NodePair(dim));
+					} else {
+						new RuntimeException();
+					}
+					if (edges != null && nodes != null) {
+						int index1 = nodes.indexOf(node1.getValue());
+						int index2 = nodes.indexOf(node2.getValue());
+						if (index1 >= 0 && index2 >= 0) {
+							if (centers.contains(center)) {
+								centerMap.put(center, dim);
+								int index3 = nodes.indexOf(center);
+								if (index3 >= 0) {
+									this.linkEdge(edges, index1, index2, index3);
 								} else {
-									this.linkEdge(edges, index1, index2);
+									marks.add(dim);
+									errors.add(dim);
 								}
 							} else {
-								dim.setError();
-								this.errors.add(dim);
+								this.linkEdge(edges, index1, index2);
 							}
+						} else {
+							marks.add(dim);
+							errors.add(dim);
 						}
-					} else {
-						dimOthers.add(dim);
 					}
+				} else {
+					dimOthers.add(dim);
 				}
 			}
 		}
@@ -196,11 +181,11 @@ public class DimensionChecker implements DxfChecker {
 				if (dimensions1 != null) {
 					for (DxfDimension dim1 : dimensions1) {
 						double length = dim1.length() / 2;
-						RoundNumber node4 = new RoundNumber(node2.getValue() - length);
-						RoundNumber node5 = new RoundNumber(node2.getValue() + length);
+						double node4 = node2.getValue() - length;
+						double node5 = node2.getValue() + length;
 						int index3 = nodesX.indexOf(node4);
 						int index4 = nodesX.indexOf(node5);
-						int index5 = nodesX.indexOf(node2);
+						int index5 = nodesX.indexOf(node2.getValue());
 						if (index3 >= 0 && index4 >= 0) {
 							this.linkEdge(edgesX, index3, index4, index5);
 						}
@@ -209,11 +194,11 @@ public class DimensionChecker implements DxfChecker {
 				if (dimensions2 != null) {
 					for (DxfDimension dim2 : dimensions2) {
 						double length = dim2.length() / 2;
-						RoundNumber node4 = new RoundNumber(node1.getValue() - length);
-						RoundNumber node5 = new RoundNumber(node1.getValue() + length);
+						double node4 = node1.getValue() - length;
+						double node5 = node1.getValue() + length;
 						int index3 = nodesX.indexOf(node4);
 						int index4 = nodesX.indexOf(node5);
-						int index5 = nodesX.indexOf(node1);
+						int index5 = nodesX.indexOf(node1.getValue());
 						if (index3 >= 0 && index4 >= 0) {
 							this.linkEdge(edgesX, index3, index4, index5);
 						}
@@ -232,11 +217,11 @@ public class DimensionChecker implements DxfChecker {
 				if (dimensions1 != null) {
 					for (DxfDimension dim1 : dimensions1) {
 						double length = dim1.length() / 2;
-						RoundNumber node4 = new RoundNumber(node2.getValue() - length);
-						RoundNumber node5 = new RoundNumber(node2.getValue() + length);
+						double node4 = node2.getValue() - length;
+						double node5 = node2.getValue() + length;
 						int index3 = nodesY.indexOf(node4);
 						int index4 = nodesY.indexOf(node5);
-						int index5 = nodesY.indexOf(node2);
+						int index5 = nodesY.indexOf(node2.getValue());
 						if (index3 >= 0 && index4 >= 0) {
 							this.linkEdge(edgesY, index3, index4, index5);
 						}
@@ -245,11 +230,11 @@ public class DimensionChecker implements DxfChecker {
 				if (dimensions2 != null) {
 					for (DxfDimension dim2 : dimensions2) {
 						double length = dim2.length() / 2;
-						RoundNumber node4 = new RoundNumber(node1.getValue() - length);
-						RoundNumber node5 = new RoundNumber(node1.getValue() + length);
+						double node4 = node1.getValue() - length;
+						double node5 = node1.getValue() + length;
 						int index3 = nodesY.indexOf(node4);
 						int index4 = nodesY.indexOf(node5);
-						int index5 = nodesY.indexOf(node1);
+						int index5 = nodesY.indexOf(node1.getValue());
 						if (index3 >= 0 && index4 >= 0) {
 							this.linkEdge(edgesY, index3, index4, index5);
 						}
@@ -264,8 +249,8 @@ public class DimensionChecker implements DxfChecker {
 			}
 			double centerX = dim.getCenterX();
 			double centerY = dim.getCenterY();
-			int indexX = nodesX.indexOf(new RoundNumber(centerX));
-			int indexY = nodesY.indexOf(new RoundNumber(centerY));
+			int indexX = nodesX.indexOf(centerX);
+			int indexY = nodesY.indexOf(centerY);
 			double length = dim.length();
 
 			// TODO この辺何してるのかいまいち忘れてしまった．
@@ -276,19 +261,19 @@ public class DimensionChecker implements DxfChecker {
 			if (cs != null) {
 				for (int i = 0; i < cs.length; i++) {
 					DxfCircle c1 = cs[i];
-					int indexX1 = nodesX.indexOf(new RoundNumber(c1.getX()));
-					int indexY1 = nodesY.indexOf(new RoundNumber(c1.getY()));
+					int indexX1 = nodesX.indexOf(c1.getX());
+					int indexY1 = nodesY.indexOf(c1.getY());
 					if (c0 != null) {
 						if (indexX1 > 0) {
 							this.linkEdge(edgesX, indexX0, indexX1);
 						} else {
-							this.errors.add(c1);
+							errors.add(c1);
 							continue;
 						}
 						if (indexY1 >= 0) {
 							this.linkEdge(edgesY, indexY0, indexY1);
 						} else {
-							this.errors.add(c1);
+							errors.add(c1);
 							continue;
 						}
 						c0 = c1;
@@ -305,22 +290,22 @@ public class DimensionChecker implements DxfChecker {
 				if (RoundNumber.nearlyEquals(circle.getDiameter(), length)) {
 					if (circle.equalsCenter(centerX, centerY)) {
 						this.linkCircle(nodesX, nodesY, edgesX, edgesY, circle);
-						circle.checked();
+						checked.add(circle);
 						// 円に対する寸法線が間接的に入っている場合のチェックを行なう．
 					} else if ((RoundNumber.nearlyEquals(circle.getX(), centerX) && dim.getDirection() == DxfLine.DIRECTION_X)
 							|| (RoundNumber.nearlyEquals(circle.getY(), centerY) && dim.getDirection() == DxfLine.DIRECTION_Y)) {
 						// TODO 三面図対応を考えないと
 						if (dim.getTypeAmount() > 1) {
 							Set<DxfCircle> list = new HashSet<DxfCircle>();
-							if (circle.getSimilarPatternCircles(dim.getTypeAmount(), list, circles, centerLines, this.errors) == DxfCircle.ON_CIRCLE) {
+							if (circle.getSimilarPatternCircles(dim.getTypeAmount(), list, circles, centerLines, errors) == DxfCircle.ON_CIRCLE) {
 								checkEqualsInterval(nodesX, nodesY, edgesX, edgesY, list);
 							}
 							for (DxfCircle c : list) {
-								c.checked();
+								checked.add(c);
 								this.linkCircle(nodesX, nodesY, edgesX, edgesY, circle);
 							}
 						}
-						circle.checked();
+						checked.add(circle);
 						this.linkCircle(nodesX, nodesY, edgesX, edgesY, circle);
 					}
 				}
@@ -334,13 +319,13 @@ public class DimensionChecker implements DxfChecker {
 						&& RoundNumber.nearlyEquals(dim.length(), arc.getDiameter())) {
 					Point2D pt1 = arc.getStartPoint();
 					Point2D pt2 = arc.getEndPoint();
-					int indexX1 = nodesX.indexOf(new RoundNumber(pt1.getX()));
-					int indexX2 = nodesX.indexOf(new RoundNumber(pt2.getX()));
+					int indexX1 = nodesX.indexOf(pt1.getX());
+					int indexX2 = nodesX.indexOf(pt2.getX());
 					if (indexX1 >= 0 && indexX2 >= 0) {
 						this.linkEdge(edgesX, indexX1, indexX2, indexX);
 					}
-					int indexY1 = nodesY.indexOf(new RoundNumber(pt1.getY()));
-					int indexY2 = nodesY.indexOf(new RoundNumber(pt2.getY()));
+					int indexY1 = nodesY.indexOf(pt1.getY());
+					int indexY2 = nodesY.indexOf(pt2.getY());
 					if (indexY1 >= 0 && indexY2 >= 0) {
 						this.linkEdge(edgesY, indexY1, indexY2, indexY);
 					}
@@ -351,151 +336,145 @@ public class DimensionChecker implements DxfChecker {
 		/**
 		 * 面取りと円弧の処理
 		 */
-		List<DxfEntity> entities = map.get(DxfInsert.class.getName());
-		if (entities != null) {
-			// 引き出し線によるおねじの寸法解釈
-			for (DxfEntity entity : entities) {
-				if (entity instanceof DxfInsert) {
-					DxfInsert insert = (DxfInsert) entity;
-					// TODO 面取りのサイズの誤り検出
-					if (insert.getType() == DxfInsert.TYPE_CHAMFER) {
-						System.out.println("INSERT-TEXT: " + insert.getText());
-						int amount = insert.getTypeAmount();
-						Point2D pt = insert.getIndicatedPoint();
-						assert pt != null;
-						double minDist = Double.POSITIVE_INFINITY;
-						double size = insert.getTypeSize() * dxf.getScale();
-						if (size > 0) {
-							int indexX = nodesX.indexOf(new RoundNumber(pt.getX()));
-							int indexY = nodesY.indexOf(new RoundNumber(pt.getY()));
-							if (indexX >= 0) {
-								int indexX1 = nodesX.indexOf(new RoundNumber(pt.getX() + size));
-								int indexX2 = nodesX.indexOf(new RoundNumber(pt.getX() - size));
-								if (indexX1 >= 0) {
-									linkEdge(edgesX, indexX, indexX1);
-								}
-								if (indexX2 >= 0) {
-									linkEdge(edgesX, indexX, indexX2);
-								}
-							}
-							if (indexY >= 0) {
-								int indexY1 = nodesY.indexOf(new RoundNumber(pt.getY() + size));
-								int indexY2 = nodesY.indexOf(new RoundNumber(pt.getY() - size));
-								if (indexY1 >= 0) {
-									linkEdge(edgesY, indexY, indexY1);
-								}
-								if (indexY2 >= 0) {
-									linkEdge(edgesY, indexY, indexY2);
-								}
+		// 引き出し線によるおねじの寸法解釈
+		for (DxfInsert insert : dxf.getDxfInserts()) {
+			// TODO 面取りのサイズの誤り検出
+			if (insert.getType() == DxfInsert.TYPE_CHAMFER) {
+				System.out.println("INSERT-TEXT: " + insert.getText());
+				int amount = insert.getTypeAmount();
+				Point2D pt = insert.getIndicatedPoint();
+				assert pt != null;
+				double minDist = Double.POSITIVE_INFINITY;
+				double size = insert.getTypeSize() * dxf.getScale();
+				if (size > 0) {
+					int indexX = nodesX.indexOf(pt.getX());
+					int indexY = nodesY.indexOf(pt.getY());
+					if (indexX >= 0) {
+						int indexX1 = nodesX.indexOf(pt.getX() + size);
+						int indexX2 = nodesX.indexOf(pt.getX() - size);
+						if (indexX1 >= 0) {
+							linkEdge(edgesX, indexX, indexX1);
+						}
+						if (indexX2 >= 0) {
+							linkEdge(edgesX, indexX, indexX2);
+						}
+					}
+					if (indexY >= 0) {
+						int indexY1 = nodesY.indexOf(pt.getY() + size);
+						int indexY2 = nodesY.indexOf(pt.getY() - size);
+						if (indexY1 >= 0) {
+							linkEdge(edgesY, indexY, indexY1);
+						}
+						if (indexY2 >= 0) {
+							linkEdge(edgesY, indexY, indexY2);
+						}
+					}
+				}
+				DxfLine nearestLine = null;
+				System.out.println("面取り:" + amount);
+				for (DxfLine line : lines) {
+					double distSq = line.ptSegDistSq(pt);
+					if (distSq < minDist) {
+						minDist = distSq;
+						nearestLine = line;
+					}
+				}
+				if (nearestLine != null) {
+					this.linkChamfer(nodesX, nodesY, edgesX, edgesY, nearestLine);
+					amount--;
+					if (amount > 0) {
+						for (DxfLine l : lines) {
+							if (nearestLine != l && nearestLine.equalsShape(l)) {
+								this.linkChamfer(nodesX, nodesY, edgesX, edgesY, l);
+								amount--;
 							}
 						}
-						DxfLine nearestLine = null;
-						System.out.println("面取り:" + amount);
-						for (DxfLine line : lines) {
-							double distSq = line.ptSegDistSq(pt);
-							if (distSq < minDist) {
+					}
+				}
+				if (amount != 0) {
+					if (DxfViewer.debug) {
+						System.out.println("面取り数" + amount);
+					}
+					errors.add(insert);
+				}
+			} else if (insert.getType() > 0) {
+				Point2D pt = insert.getIndicatedPoint();
+				if (pt == null)
+					continue;
+				int amount = insert.getTypeAmount();
+				if ((insert.getType() & DxfInsert.TYPE_CIRCLE) > 0) {
+					double minDist = Double.POSITIVE_INFINITY;
+					DxfCircle nearestCircle = null;
+					for (DxfCircle circle : circles) {
+						double distSq = circle.getDistSq(pt);
+						if (distSq < minDist) {
+							if (RoundNumber.nearlyEquals((circle.getDiameter() * dxf.getScale()), insert.getTypeSize())) {
 								minDist = distSq;
-								nearestLine = line;
+								nearestCircle = circle;
 							}
 						}
-						if (nearestLine != null) {
-							this.linkChamfer(nodesX, nodesY, edgesX, edgesY, nearestLine);
-							amount--;
-							if (amount > 0) {
-								for (DxfLine l : lines) {
-									if (nearestLine != l && nearestLine.equalsShape(l)) {
-										this.linkChamfer(nodesX, nodesY, edgesX, edgesY, l);
-										amount--;
-									}
-								}
-							}
+					}
+					System.out.println("Debug ねじ: " + insert.getText() + ", ねじ: " + amount + " / " + nearestCircle);
+					if (nearestCircle != null) {
+						System.out.println("Debug ねじ: " + insert.getText() + " nearest");
+						Set<DxfCircle> list = new HashSet<DxfCircle>();
+						if (nearestCircle.getSimilarPatternCircles(amount, list, circles, centerLines, errors) == DxfCircle.ON_CIRCLE) {
+							checkEqualsInterval(nodesX, nodesY, edgesX, edgesY, list);
 						}
-						if (amount != 0) {
-							if (DxfViewer.debug) {
-								System.out.println("面取り数" + amount);
-							}
-							this.errors.add(insert);
+						for (DxfCircle c : list) {
+							checked.add(c);
+							this.linkCircle(nodesX, nodesY, edgesX, edgesY, c);
 						}
-					} else if (insert.getType() > 0) {
-						Point2D pt = insert.getIndicatedPoint();
-						if (pt == null)
-							continue;
-						int amount = insert.getTypeAmount();
-						if ((insert.getType() & DxfInsert.TYPE_CIRCLE) > 0) {
-							double minDist = Double.POSITIVE_INFINITY;
-							DxfCircle nearestCircle = null;
-							for (DxfCircle circle : circles) {
-								double distSq = circle.getDistSq(pt);
-								if (distSq < minDist) {
-									if (RoundNumber.nearlyEquals((circle.getDiameter() * dxf.getScale()), insert.getTypeSize())) {
-										minDist = distSq;
-										nearestCircle = circle;
-									}
-								}
-							}
-							System.out.println("Debug ねじ: " + insert.getText() + ", ねじ: " + amount + " / " + nearestCircle);
-							if (nearestCircle != null) {
-								System.out.println("Debug ねじ: " + insert.getText() + " nearest");
-								Set<DxfCircle> list = new HashSet<DxfCircle>();
-								if (nearestCircle.getSimilarPatternCircles(amount, list, circles, centerLines, this.errors) == DxfCircle.ON_CIRCLE) {
-									checkEqualsInterval(nodesX, nodesY, edgesX, edgesY, list);
-								}
-								for (DxfCircle c : list) {
-									c.checked();
-									this.linkCircle(nodesX, nodesY, edgesX, edgesY, c);
-								}
-								continue;
-							}
+						continue;
+					}
+				}
+				if ((insert.getType() & DxfInsert.TYPE_ARC) > 0) {
+					double minDist = Double.POSITIVE_INFINITY;
+					DxfArc nearestArc = null;
+					for (DxfArc arc : arcs) {
+						double distSq = arc.ptSegDistSq(pt);
+						if (distSq < minDist) {
+							minDist = distSq;
+							nearestArc = arc;
 						}
-						if ((insert.getType() & DxfInsert.TYPE_ARC) > 0) {
-							double minDist = Double.POSITIVE_INFINITY;
-							DxfArc nearestArc = null;
-							for (DxfArc arc : arcs) {
-								double distSq = arc.ptSegDistSq(pt);
-								if (distSq < minDist) {
-									minDist = distSq;
-									nearestArc = arc;
-								}
-							}
-							if (nearestArc != null) {
-								for (DxfArc arc : arcs) {
-									if (arc.equalsShape(nearestArc)) {
-										this.linkArc(nodesX, nodesY, edgesX, edgesY, arc);
-									}
-								}
-								if (!this.linkArc(nodesX, nodesY, edgesX, edgesY, nearestArc)) {
-									System.out.println("ARC-MISS1: " + insert.getText());
-									this.errors.add(insert);
-								}
-								continue;
+					}
+					if (nearestArc != null) {
+						for (DxfArc arc : arcs) {
+							if (arc.equalsShape(nearestArc)) {
+								this.linkArc(nodesX, nodesY, edgesX, edgesY, arc);
 							}
 						}
+						if (!this.linkArc(nodesX, nodesY, edgesX, edgesY, nearestArc)) {
+							System.out.println("ARC-MISS1: " + insert.getText());
+							errors.add(insert);
+						}
+						continue;
+					}
+				}
 
-						// (出っ張った)おねじだと仮定する
-						double size = insert.getTypeSize() * dxf.getScale();
-						if (size > 0) {
-							int indexX = nodesX.indexOf(new RoundNumber(pt.getX()));
-							int indexY = nodesY.indexOf(new RoundNumber(pt.getY()));
-							if (indexX >= 0) {
-								int indexX1 = nodesX.indexOf(new RoundNumber(pt.getX() + size));
-								int indexX2 = nodesX.indexOf(new RoundNumber(pt.getX() - size));
-								if (indexX1 >= 0) {
-									linkEdge(edgesX, indexX, indexX1);
-								}
-								if (indexX2 >= 0) {
-									linkEdge(edgesX, indexX, indexX2);
-								}
-							}
-							if (indexY >= 0) {
-								int indexY1 = nodesY.indexOf(new RoundNumber(pt.getY() + size));
-								int indexY2 = nodesY.indexOf(new RoundNumber(pt.getY() - size));
-								if (indexY1 >= 0) {
-									linkEdge(edgesY, indexY, indexY1);
-								}
-								if (indexY2 >= 0) {
-									linkEdge(edgesY, indexY, indexY2);
-								}
-							}
+				// (出っ張った)おねじだと仮定する
+				double size = insert.getTypeSize() * dxf.getScale();
+				if (size > 0) {
+					int indexX = nodesX.indexOf(pt.getX());
+					int indexY = nodesY.indexOf(pt.getY());
+					if (indexX >= 0) {
+						int indexX1 = nodesX.indexOf(pt.getX() + size);
+						int indexX2 = nodesX.indexOf(pt.getX() - size);
+						if (indexX1 >= 0) {
+							linkEdge(edgesX, indexX, indexX1);
+						}
+						if (indexX2 >= 0) {
+							linkEdge(edgesX, indexX, indexX2);
+						}
+					}
+					if (indexY >= 0) {
+						int indexY1 = nodesY.indexOf(pt.getY() + size);
+						int indexY2 = nodesY.indexOf(pt.getY() - size);
+						if (indexY1 >= 0) {
+							linkEdge(edgesY, indexY, indexY1);
+						}
+						if (indexY2 >= 0) {
+							linkEdge(edgesY, indexY, indexY2);
 						}
 					}
 				}
@@ -519,7 +498,7 @@ public class DimensionChecker implements DxfChecker {
 					}
 				}
 				if (nearestArc == null) {
-					this.errors.add(dimension);
+					errors.add(dimension);
 				} else {
 					if (this.linkArc(nodesX, nodesY, edgesX, edgesY, nearestArc)) {
 						for (RoundNumber num : centersX) {
@@ -568,170 +547,37 @@ public class DimensionChecker implements DxfChecker {
 			tableBR[i] = -1;
 		}
 
-		double planeMin = Double.POSITIVE_INFINITY;
-		double bottomMax = Double.NEGATIVE_INFINITY;
-		Map<RoundNumber, Integer> planeNodesY = new HashMap<RoundNumber, Integer>();
-		Map<RoundNumber, Integer> bottomNodesY = new HashMap<RoundNumber, Integer>();
-		for (int i = 0; i < nodesY.size(); i++) {
-			RoundNumber node = nodesY.get(i);
-			if (Double.compare(node.getValue(), frontviewBound.getMaxY()) > 0) {
-				planeNodesY.put(new RoundNumber(node.getValue()), i);
-				if (planeMin > node.getValue()) {
-					planeMin = node.getValue();
-				}
-			} else if (Double.compare(node.getValue(), frontviewBound.getMinY()) < 0) {
-				bottomNodesY.put(new RoundNumber(node.getValue()), i);
-				if (bottomMax < node.getValue()) {
-					bottomMax = node.getValue();
-				}
-			}
-		}
-		for (RoundNumber node : planeNodesY.keySet()) {
-			node.sub(planeMin);
-		}
-		for (RoundNumber node : bottomNodesY.keySet()) {
-			node.sub(bottomMax);
-		}
-		for (Map.Entry<RoundNumber, Integer> entry1 : planeNodesY.entrySet()) {
-			RoundNumber planeNode = entry1.getKey();
-			for (Map.Entry<RoundNumber, Integer> entry2 : bottomNodesY.entrySet()) {
-				RoundNumber bottomNode = entry2.getKey();
-				if (RoundNumber.nearlyAbsEquals(planeNode.getValue(), bottomNode.getValue())) {
-					tableY[entry1.getValue()] = entry2.getValue();
-					tableY[entry2.getValue()] = entry1.getValue();
-					break;
-				}
-			}
-		}
-
-		double rightMin = Double.POSITIVE_INFINITY;
-		double leftMax = Double.NEGATIVE_INFINITY;
-		Map<RoundNumber, Integer> rightNodesX = new HashMap<RoundNumber, Integer>();
-		Map<RoundNumber, Integer> leftNodesX = new HashMap<RoundNumber, Integer>();
-		for (int i = 0; i < nodesX.size(); i++) {
-			RoundNumber node = nodesX.get(i);
-			if (Double.compare(node.getValue(), frontviewBound.getMaxX()) > 0) {
-				rightNodesX.put(new RoundNumber(node.getValue()), i);
-				if (rightMin > node.getValue()) {
-					rightMin = node.getValue();
-				}
-			} else if (Double.compare(node.getValue(), frontviewBound.getMinX()) < 0) {
-				leftNodesX.put(new RoundNumber(node.getValue()), i);
-				if (leftMax < node.getValue()) {
-					leftMax = node.getValue();
-				}
-			}
-		}
-		for (RoundNumber node : rightNodesX.keySet()) {
-			node.sub(rightMin);
-		}
-		for (RoundNumber node : leftNodesX.keySet()) {
-			node.sub(leftMax);
-		}
+		long[] planeKeysY = this.getProjectionKeys(nodesY, frontviewBound.getMaxY(), true);
+		long[] bottomKeysY = this.getProjectionKeys(nodesY, frontviewBound.getMinY(), false);
+		long[] rightKeysX = this.getProjectionKeys(nodesX, frontviewBound.getMaxX(), true);
+		long[] leftKeysX = this.getProjectionKeys(nodesX, frontviewBound.getMinX(), false);
+		RoundIndex bottomNodesY = this.getProjectionIndex(bottomKeysY);
+		RoundIndex rightNodesX = this.getProjectionIndex(rightKeysX);
+		RoundIndex leftNodesX = this.getProjectionIndex(leftKeysX);
+		this.linkProjection(planeKeysY, bottomNodesY, tableY, tableY);
+		this.linkProjection(rightKeysX, leftNodesX, tableX, tableX);
+		this.linkProjection(planeKeysY, leftNodesX, tablePL, tableLP);
+		this.linkProjection(planeKeysY, rightNodesX, tablePR, tableRP);
+		this.linkProjection(bottomKeysY, leftNodesX, tableBL, tableLB);
+		this.linkProjection(bottomKeysY, rightNodesX, tableBR, tableRB);
 
-		for (Map.Entry<RoundNumber, Integer> entry1 : rightNodesX.entrySet()) {
-			RoundNumber planeNode = entry1.getKey();
-			for (Map.Entry<RoundNumber, Integer> entry2 : leftNodesX.entrySet()) {
-				RoundNumber bottomNode = entry2.getKey();
-				if (RoundNumber.nearlyAbsEquals(planeNode.getValue(), bottomNode.getValue())) {
-					tableX[entry1.getValue()] = entry2.getValue();
-					tableX[entry2.getValue()] = entry1.getValue();
-					break;
-				}
-			}
+		for (int k = 0; k < edgesX.getEdgeCount(); k++) {
+			int i = edgesX.getIndex1(k);
+			int j = edgesX.getIndex2(k);
+			this.copyEdge(edgesX, tableX, i, j);
+			this.copyEdge(edgesY, tableLP, i, j);
+			this.copyEdge(edgesY, tableRP, i, j);
+			this.copyEdge(edgesY, tableLB, i, j);
+			this.copyEdge(edgesY, tableRB, i, j);
 		}
-
-		for (Map.Entry<RoundNumber, Integer> entry1 : planeNodesY.entrySet()) {
-			RoundNumber planeNode = entry1.getKey();
-			for (Map.Entry<RoundNumber, Integer> entry2 : leftNodesX.entrySet()) {
-				RoundNumber leftNode = entry2.getKey();
-				if (RoundNumber.nearlyAbsEquals(planeNode.getValue(), leftNode.getValue())) {
-					tablePL[entry1.getValue()] = entry2.getValue();
-					tableLP[entry2.getValue()] = entry1.getValue();
-					break;
-				}
-			}
-			for (Map.Entry<RoundNumber, Integer> entry2 : rightNodesX.entrySet()) {
-				RoundNumber rightNode = entry2.getKey();
-				if (RoundNumber.nearlyAbsEquals(planeNode.getValue(), rightNode.getValue())) {
-					tablePR[entry1.getValue()] = entry2.getValue();
-					tableRP[entry2.getValue()] = entry1.getValue();
-					break;
-				}
-			}
-		}
-
-		for (Map.Entry<RoundNumber, Integer> entry1 : bottomNodesY.entrySet()) {
-			RoundNumber bottomNode = entry1.getKey();
-			for (Map.Entry<RoundNumber, Integer> entry2 : leftNodesX.entrySet()) {
-				RoundNumber leftNode = entry2.getKey();
-				if (RoundNumber.nearlyAbsEquals(bottomNode.getValue(), leftNode.getValue())) {
-					tableBL[entry1.getValue()] = entry2.getValue();
-					tableLB[entry2.getValue()] = entry1.getValue();
-					break;
-				}
-			}
-			for (Map.Entry<RoundNumber, Integer> entry2 : rightNodesX.entrySet()) {
-				RoundNumber rightNode = entry2.getKey();
-				if (RoundNumber.nearlyAbsEquals(bottomNode.getValue(), rightNode.getValue())) {
-					tableBR[entry1.getValue()] = entry2.getValue();
-					tableRB[entry2.getValue()] = entry1.getValue();
-					break;
-				}
-			}
-		}
-
-		for (int i = 0; i < edgesX.length; i++) {
-			for (int j = 0; j < edgesX[i].length; j++) {
-				if (edgesX[i][j]) {
-					if (tableX[i] >= 0 && tableX[j] >= 0) {
-						edgesX[tableX[i]][tableX[j]] = true;
-						edgesX[tableX[j]][tableX[i]] = true;
-					}
-					if (tableLP[i] >= 0 && tableLP[j] >= 0) {
-						edgesY[tableLP[i]][tableLP[j]] = true;
-						edgesY[tableLP[j]][tableLP[i]] = true;
-					}
-					if (tableRP[i] >= 0 && tableRP[j] >= 0) {
-						edgesY[tableRP[i]][tableRP[j]] = true;
-						edgesY[tableRP[j]][tableRP[i]] = true;
-					}
-					if (tableLB[i] >= 0 && tableLB[j] >= 0) {
-						edgesY[tableLB[i]][tableLB[j]] = true;
-						edgesY[tableLB[j]][tableLB[i]] = true;
-					}
-					if (tableRB[i] >= 0 && tableRB[j] >= 0) {
-						edgesY[tableRB[i]][tableRB[j]] = true;
-						edgesY[tableRB[j]][tableRB[i]] = true;
-					}
-				}
-			}
-		}
-		for (int i = 0; i < edgesY.length; i++) {
-			for (int j = 0; j < edgesY[i].length; j++) {
-				if (edgesY[i][j]) {
-					if (tableY[i] >= 0 && tableY[j] >= 0) {
-						edgesY[tableY[i]][tableY[j]] = true;
-						edgesY[tableY[j]][tableY[i]] = true;
-					}
-					if (tablePL[i] >= 0 && tablePL[j] >= 0) {
-						edgesX[tablePL[i]][tablePL[j]] = true;
-						edgesX[tablePL[j]][tablePL[i]] = true;
-					}
-					if (tablePR[i] >= 0 && tablePR[j] >= 0) {
-						edgesX[tablePR[i]][tablePR[j]] = true;
-						edgesX[tablePR[j]][tablePR[i]] = true;
-					}
-					if (tableBL[i] >= 0 && tableBL[j] >= 0) {
-						edgesX[tableBL[i]][tableBL[j]] = true;
-						edgesX[tableBL[j]][tableBL[i]] = true;
-					}
-					if (tableBR[i] >= 0 && tableBR[j] >= 0) {
-						edgesX[tableBR[i]][tableBR[j]] = true;
-						edgesX[tableBR[j]][tableBR[i]] = true;
-					}
-				}
-			}
+		for (int k = 0; k < edgesY.getEdgeCount(); k++) {
+			int i = edgesY.getIndex1(k);
+			int j = edgesY.getIndex2(k);
+			this.copyEdge(edgesY, tableY, i, j);
+			this.copyEdge(edgesX, tablePL, i, j);
+			this.copyEdge(edgesX, tablePR, i, j);
+			this.copyEdge(edgesX, tableBL, i, j);
+			this.copyEdge(edgesX, tableBR, i, j);
 		}
 		
 		Map<DxfLine, Point2D> skewDimsAssist = new HashMap<DxfLine, Point2D>();
@@ -748,11 +594,11 @@ public class DimensionChecker implements DxfChecker {
 					if (!RoundNumber.nearlyAbsEquals(dx1 * dy2, dx2 *dy1)) {
 						Point2D pt = l1.getCrossPoint(l2);
 						if (l1.getDirection() != DxfLine.DIRECTION_X && l1.getDirection() != DxfLine.DIRECTION_Y) {
-							this.errors.add(l1);
+							errors.add(l1);
 							skewDimsAssist.put(l1, pt);
 						}
 						if (l2.getDirection() != DxfLine.DIRECTION_X && l2.getDirection() != DxfLine.DIRECTION_Y) {
-							this.errors.add(l2);
+							errors.add(l2);
 							skewDimsAssist.put(l2, pt);
 						}
 					}
@@ -823,8 +669,8 @@ public class DimensionChecker implements DxfChecker {
 		/**
 		 * 寸法線が存在しないノードをチェックする
 		 */
-		boolean[] vpX = new boolean[edgesX.length];
-		boolean[] vpY = new boolean[edgesY.length];
+		boolean[] vpX = new boolean[edgesX.getNodeCount()];
+		boolean[] vpY = new boolean[edgesY.getNodeCount()];
 
 		Map<RoundNumber, RoundNumber> rectX = new HashMap<RoundNumber, RoundNumber>();
 		Map<RoundNumber, RoundNumber> rectY = new HashMap<RoundNumber, RoundNumber>();
@@ -859,19 +705,17 @@ public class DimensionChecker implements DxfChecker {
 			}
 		}
 
-		dxf.addCheck(nodesX, nodesY, edgesX, edgesY, vpX, vpY, setLoaX, setLoaY);
+		DimensionAssist assist = new DimensionAssist(nodesX, nodesY, edgesX, edgesY, vpX, vpY, setLoaX, setLoaY);
 
-		int error = this.getErrors(nodesX, nodesY, vpX, vpY) + this.errors.size();
+		int error = this.getErrors(nodesX, nodesY, vpX, vpY) + errors.size();
 
-		if (error == 0) {
-			return true;
-		} else {
+		if (error != 0) {
 			System.out.println("DIMENSION CHECKER: " + error);
-			return false;
 		}
+		return new CheckResult(this, error == 0, errors, marks, checked, assist);
 	}
 
-	private void checkEqualsInterval(ListSet<DimensionNode> nodesX, ListSet<DimensionNode> nodesY, boolean[][] edgesX, boolean[][] edgesY, Set<DxfCircle> list) {
+	private void checkEqualsInterval(RoundListSet<DimensionNode> nodesX, RoundListSet<DimensionNode> nodesY, DimensionGraph edgesX, DimensionGraph edgesY, Set<DxfCircle> list) {
 		DxfCircle[] dest = list.toArray(new DxfCircle[]{});
 		System.out.println("EQL" + dest.length);
 		for (int j = 1; j < dest.length - 1; j++) {
@@ -917,15 +761,6 @@ public class DimensionChecker implements DxfChecker {
 		}
 	}
 
-	private void clearErrorEntities() {
-		for (DxfEntity entity : this.errors) {
-			if (entity != null) {
-				entity.clearError();
-			}
-		}
-		this.errors.clear();
-	}
-
 	/**
 	 * 寸法線チェックのためのグラフの辺の接続（曲面）
 	 * 
@@ -936,17 +771,17 @@ public class DimensionChecker implements DxfChecker {
 	 * @param line
 	 * @return
 	 */
-	private boolean linkArc(ListSet<DimensionNode> nodesX, ListSet<DimensionNode> nodesY, boolean[][] edgesX, boolean[][] edgesY, DxfArc arc) {
+	private boolean linkArc(RoundListSet<DimensionNode> nodesX, RoundListSet<DimensionNode> nodesY, DimensionGraph edgesX, DimensionGraph edgesY, DxfArc arc) {
 		Point2D pt1 = arc.getStartPoint();
 		Point2D pt2 = arc.getEndPoint();
-		int indexX1 = nodesX.indexOf(new RoundNumber(pt1.getX()));
-		int indexX2 = nodesX.indexOf(new RoundNumber(pt2.getX()));
-		int indexX3 = nodesX.indexOf(new RoundNumber(arc.getMinX()));
-		int indexX4 = nodesX.indexOf(new RoundNumber(arc.getMaxX()));
-		int indexY1 = nodesY.indexOf(new RoundNumber(pt1.getY()));
-		int indexY2 = nodesY.indexOf(new RoundNumber(pt2.getY()));
-		int indexY3 = nodesY.indexOf(new RoundNumber(arc.getMinY()));
-		int indexY4 = nodesY.indexOf(new RoundNumber(arc.getMaxY()));
+		int indexX1 = nodesX.indexOf(pt1.getX());
+		int indexX2 = nodesX.indexOf(pt2.getX());
+		int indexX3 = nodesX.indexOf(arc.getMinX());
+		int indexX4 = nodesX.indexOf(arc.getMaxX());
+		int indexY1 = nodesY.indexOf(pt1.getY());
+		int indexY2 = nodesY.indexOf(pt2.getY());
+		int indexY3 = nodesY.indexOf(arc.getMinY());
+		int indexY4 = nodesY.indexOf(arc.getMaxY());
 
 		if (indexX1 >= 0 && indexX2 >= 0 && indexY1 >= 0 && indexY2 >= 0) {
 			this.linkEdge(edgesX, indexX1, indexX2);
@@ -974,11 +809,11 @@ public class DimensionChecker implements DxfChecker {
 	 * @param line
 	 * @return
 	 */
-	private boolean linkChamfer(ListSet<DimensionNode> nodesX, ListSet<DimensionNode> nodesY, boolean[][] edgesX, boolean[][] edgesY, DxfLine line) {
-		int indexX1 = nodesX.indexOf(new RoundNumber(line.getX1()));
-		int indexX2 = nodesX.indexOf(new RoundNumber(line.getX2()));
-		int indexY1 = nodesY.indexOf(new RoundNumber(line.getY1()));
-		int indexY2 = nodesY.indexOf(new RoundNumber(line.getY2()));
+	private boolean linkChamfer(RoundListSet<DimensionNode> nodesX, RoundListSet<DimensionNode> nodesY, DimensionGraph edgesX, DimensionGraph edgesY, DxfLine line) {
+		int indexX1 = nodesX.indexOf(line.getX1());
+		int indexX2 = nodesX.indexOf(line.getX2());
+		int indexY1 = nodesY.indexOf(line.getY1());
+		int indexY2 = nodesY.indexOf(line.getY2());
 		if (indexX1 >= 0 && indexX2 >= 0 && indexY1 >= 0 && indexY2 >= 0) {
 			this.linkEdge(edgesX, indexX1, indexX2);
 			this.linkEdge(edgesY, indexY1, indexY2);
@@ -997,13 +832,13 @@ public class DimensionChecker implements DxfChecker {
 	 * @param circle
 	 * @return
 	 */
-	private boolean linkCircle(ListSet<DimensionNode> nodesX, ListSet<DimensionNode> nodesY, boolean[][] edgesX, boolean[][] edgesY, DxfCircle circle) {
-		int indexX1 = nodesX.indexOf(new RoundNumber(circle.getX()));
-		int indexX2 = nodesX.indexOf(new RoundNumber(circle.getMaxX()));
-		int indexX3 = nodesX.indexOf(new RoundNumber(circle.getMinX()));
-		int indexY1 = nodesY.indexOf(new RoundNumber(circle.getY()));
-		int indexY2 = nodesY.indexOf(new RoundNumber(circle.getMaxY()));
-		int indexY3 = nodesY.indexOf(new RoundNumber(circle.getMinY()));
+	private boolean linkCircle(RoundListSet<DimensionNode> nodesX, RoundListSet<DimensionNode> nodesY, DimensionGraph edgesX, DimensionGraph edgesY, DxfCircle circle) {
+		int indexX1 = nodesX.indexOf(circle.getX());
+		int indexX2 = nodesX.indexOf(circle.getMaxX());
+		int indexX3 = nodesX.indexOf(circle.getMinX());
+		int indexY1 = nodesY.indexOf(circle.getY());
+		int indexY2 = nodesY.indexOf(circle.getMaxY());
+		int indexY3 = nodesY.indexOf(circle.getMinY());
 		if (indexX1 >= 0 && indexY1 >= 0) {
 			if (indexX2 >= 0 && indexY2 >= 0) {
 				this.linkEdge(edgesX, indexX1, indexX2);
@@ -1025,19 +860,15 @@ public class DimensionChecker implements DxfChecker {
 	 * @param index1
 	 * @param index2
 	 */
-	private void linkEdge(boolean[][] edge, int index1, int index2) {
-		edge[index1][index2] = true;
-		edge[index2][index1] = true;
+	private void linkEdge(DimensionGraph edge, int index1, int index2) {
+		edge.link(index1, index2);
 	}
 
-	private void linkEdge(ListSet<DimensionNode> nodes, boolean[][] edge, double v1, double v2) {
-		RoundNumber r1 = new RoundNumber(v1);
-		RoundNumber r2 = new RoundNumber(v2);
-		int index1 = nodes.indexOf(r1);
-		int index2 = nodes.indexOf(r2);
+	private void linkEdge(RoundListSet<DimensionNode> nodes, DimensionGraph edge, double v1, double v2) {
+		int index1 = nodes.indexOf(v1);
+		int index2 = nodes.indexOf(v2);
 		if (index2 > 0 && index1 > 0) {
-			edge[index1][index2] = true;
-			edge[index2][index1] = true;
+			edge.link(index1, index2);
 		}
 	}
 
@@ -1049,36 +880,105 @@ public class DimensionChecker implements DxfChecker {
 	 * @param index2
 	 * @param index3
 	 */
-	private void linkEdge(boolean[][] edge, int index1, int index2, int index3) {
-		edge[index1][index3] = true;
-		edge[index3][index1] = true;
-		edge[index2][index3] = true;
-		edge[index3][index2] = true;
+	private void linkEdge(DimensionGraph edge, int index1, int index2, int index3) {
+		edge.link(index1, index3);
+		edge.link(index2, index3);
 	}
 
 	/**
-	 * 中心線の位置を座標別に取得するメソッド
-	 * @param lines 直線のリスト
-	 * @param centersX X座標の中心線の位置をいれる集合
-	 * @param centersY Y座標の中心線の位置をいれる集合
+	 * 投影図の間で対応するノードに辺を写すメソッド
+	 * 
+	 * @param edge 写す先のグラフ
+	 * @param table ノードの対応表
+	 * @param index1 写す元の辺のノードの位置
+	 * @param index2 写す元の辺のノードの位置
+	 */
+	private void copyEdge(DimensionGraph edge, int[] table, int index1, int index2) {
+		if (table[index1] >= 0 && table[index2] >= 0) {
+			edge.link(table[index1], table[index2]);
+		}
+	}
+
+	/**
+	 * 投影図のノードを、正面図に最も近いノードからの距離で表すメソッド
+	 * 
+	 * @param nodes ノード
+	 * @param bound 正面図の範囲の端
+	 * @param isUpper 端より大きいノードを対象とする場合true、小さいノードを対象とする場合false
+	 * @return ノードの位置ごとの距離を丸めたキー、対象外のノードは-1
+	 */
+	private long[] getProjectionKeys(RoundListSet<DimensionNode> nodes, double bound, boolean isUpper) {
+		long[] keys = new long[nodes.size()];
+		double base = isUpper ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < keys.length; i++) {
+			double value = nodes.get(i).getValue();
+			int compare = Double.compare(value, bound);
+			if (isUpper ? compare > 0 : compare < 0) {
+				if (isUpper ? base > value : base < value) {
+					base = value;
+				}
+			} else {
+				keys[i] = -1;
+			}
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == 0) {
+				keys[i] = RoundIndex.key(Math.abs(nodes.get(i).getValue() - base));
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * 投影図のノードの距離からノードの位置を引く索引を作成するメソッド 同じ距離のノードは先にあるものを優先します。
+	 * 
+	 * @param keys {@link #getProjectionKeys(RoundListSet, double, boolean)}で求めたキー
+	 * @return 索引
 	 */
-	private void getCenterLinePoints(List<DxfLine> lines, Set<RoundNumber> centersX, Set<RoundNumber> centersY) {
-		for (DxfLine line : lines) {
-			if ("CENTER".equals(line.getStyle())) {
-				if (line.getDirection() == DxfLine.DIRECTION_X) { // X軸方向の中心線をY軸方向では利用
-					centersY.add(new RoundNumber(line.getY1()));
-				} else if (line.getDirection() == DxfLine.DIRECTION_Y) { // Y軸方向の中心線をX軸方向では利用
-					centersX.add(new RoundNumber(line.getX2()));
+	private RoundIndex getProjectionIndex(long[] keys) {
+		RoundIndex index = new RoundIndex();
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] >= 0) {
+				index.putIfAbsent(keys[i], i);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * 正面図からの距離が等しいノードを投影図の間で対応付けるメソッド
+	 * 
+	 * @param keys 対応付ける元のノードのキー
+	 * @param index 対応付ける先のノードの索引
+	 * @param table 元のノードから先のノードへの対応表
+	 * @param reverse 先のノードから元のノードへの対応表
+	 */
+	private void linkProjection(long[] keys, RoundIndex index, int[] table, int[] reverse) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] >= 0) {
+				int j = index.get(keys[i]);
+				if (j >= 0) {
+					table[i] = j;
+					reverse[j] = i;
 				}
 			}
 		}
 	}
 
 	/**
-	 * @see dxf.checker.DxfChecker#getErrorEntities()
+	 * 中心線の位置を座標別に取得するメソッド
+	 * @param centerLines 中心線のリスト
+	 * @param centersX X座標の中心線の位置をいれる集合
+	 * @param centersY Y座標の中心線の位置をいれる集合
 	 */
-	public Collection<DxfEntity> getErrorEntities() {
-		return this.errors;
+	private void getCenterLinePoints(List<DxfLine> centerLines, Set<RoundNumber> centersX, Set<RoundNumber> centersY) {
+		for (DxfLine line : centerLines) {
+			if (line.getDirection() == DxfLine.DIRECTION_X) { // X軸方向の中心線をY軸方向では利用
+				centersY.add(new RoundNumber(line.getY1()));
+			} else if (line.getDirection() == DxfLine.DIRECTION_Y) { // Y軸方向の中心線をX軸方向では利用
+				centersX.add(new RoundNumber(line.getX2()));
+			}
+		}
 	}
 
 	/**
@@ -1119,16 +1019,11 @@ public class DimensionChecker implements DxfChecker {
 		return error;
 	}
 
-	public void search(boolean[][] edges, boolean[] vp, int index) {
-		for (int i = 0; i < edges.length; i++) {
-			if (i != index && !vp[i] && edges[index][i]) {
-				vp[i] = true;
-				this.search(edges, vp, i);
-			}
-		}
+	public void search(DimensionGraph edges, boolean[] vp, int index) {
+		edges.search(vp, index);
 	}
 
-	public void search(boolean[][] edges, boolean[] vp, int[] start) {
+	public void search(DimensionGraph edges, boolean[] vp, int[] start) {
 		for (int i = 0; i < start.length; i++) {
 			int index = start[i];
 			vp[index] = true;
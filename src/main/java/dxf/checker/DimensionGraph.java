@@ -0,0 +1,191 @@
+package dxf.checker;
+
+import java.util.Arrays;
+
+import util.RoundIndex;
+
+/**
+ * 寸法線チェックのためのノード間の辺を保持するグラフ
+ *
+ * 辺はノードの位置の組を配列に並べて保持し、ノードの数の2乗の隣接行列は持ちません。
+ * 辺を追加するたびにUnion-Findで連結成分をまとめるため、ノードから到達できる範囲を再帰せずに求められます。
+ * 同じノードを結ぶ辺や、既に追加した辺は無視します。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class DimensionGraph {
+
+	/**
+	 * 辺の数
+	 */
+	private int count;
+
+	/**
+	 * 追加済みの辺の索引
+	 */
+	private final RoundIndex edges;
+
+	/**
+	 * 辺の小さいほうのノードの位置
+	 */
+	private int[] index1;
+
+	/**
+	 * 辺の大きいほうのノードの位置
+	 */
+	private int[] index2;
+
+	/**
+	 * Union-Findの親ノードの位置
+	 */
+	private final int[] parents;
+
+	/**
+	 * 連結成分のノードの数（根のノードの位置にのみ有効）
+	 */
+	private final int[] sizes;
+
+	/**
+	 * @param size
+	 *            ノードの数
+	 */
+	public DimensionGraph(int size) {
+		this.edges = new RoundIndex();
+		this.index1 = new int[16];
+		this.index2 = new int[16];
+		this.parents = new int[size];
+		this.sizes = new int[size];
+		for (int i = 0; i < size; i++) {
+			this.parents[i] = i;
+			this.sizes[i] = 1;
+		}
+	}
+
+	/**
+	 * 辺の数を取得するメソッド
+	 *
+	 * @return 辺の数
+	 */
+	public int getEdgeCount() {
+		return this.count;
+	}
+
+	/**
+	 * 辺の小さいほうのノードの位置を取得するメソッド
+	 *
+	 * @param edge
+	 *            追加した順の辺の位置
+	 * @return ノードの位置
+	 */
+	public int getIndex1(int edge) {
+		return this.index1[edge];
+	}
+
+	/**
+	 * 辺の大きいほうのノードの位置を取得するメソッド
+	 *
+	 * @param edge
+	 *            追加した順の辺の位置
+	 * @return ノードの位置
+	 */
+	public int getIndex2(int edge) {
+		return this.index2[edge];
+	}
+
+	/**
+	 * ノードの数を取得するメソッド
+	 *
+	 * @return ノードの数
+	 */
+	public int getNodeCount() {
+		return this.parents.length;
+	}
+
+	/**
+	 * ノード間に辺を追加するメソッド
+	 *
+	 * @param i
+	 *            ノードの位置
+	 * @param j
+	 *            ノードの位置
+	 */
+	public void link(int i, int j) {
+		if (i < 0 || j < 0 || i >= this.parents.length || j >= this.parents.length) {
+			throw new ArrayIndexOutOfBoundsException(i < 0 || i >= this.parents.length ? i : j);
+		}
+		if (i == j) {
+			return;
+		}
+		int min = Math.min(i, j);
+		int max = Math.max(i, j);
+		if (this.edges.putIfAbsent((long) min * this.parents.length + max, this.count) < 0) {
+			if (this.count == this.index1.length) {
+				int capacity = this.count + (this.count >> 1) + 1;
+				this.index1 = Arrays.copyOf(this.index1, capacity);
+				this.index2 = Arrays.copyOf(this.index2, capacity);
+			}
+			this.index1[this.count] = min;
+			this.index2[this.count] = max;
+			this.count++;
+			this.union(min, max);
+		}
+	}
+
+	/**
+	 * ノードから辺をたどって到達できるノードに印をつけるメソッド
+	 * 他のノードと辺で結ばれていないノードには印をつけません。
+	 *
+	 * @param vp
+	 *            ノードの位置ごとの印
+	 * @param index
+	 *            開始するノードの位置
+	 */
+	public void search(boolean[] vp, int index) {
+		int root = this.find(index);
+		if (this.sizes[root] > 1) {
+			for (int i = 0; i < this.parents.length; i++) {
+				if (!vp[i] && this.find(i) == root) {
+					vp[i] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 連結成分の根のノードを求めるメソッド 経路を半分に縮めながらたどります。
+	 *
+	 * @param index
+	 *            ノードの位置
+	 * @return 根のノードの位置
+	 */
+	private int find(int index) {
+		while (this.parents[index] != index) {
+			this.parents[index] = this.parents[this.parents[index]];
+			index = this.parents[index];
+		}
+		return index;
+	}
+
+	/**
+	 * 2つのノードの連結成分をまとめるメソッド
+	 *
+	 * @param i
+	 *            ノードの位置
+	 * @param j
+	 *            ノードの位置
+	 */
+	private void union(int i, int j) {
+		int root1 = this.find(i);
+		int root2 = this.find(j);
+		if (root1 != root2) {
+			if (this.sizes[root1] < this.sizes[root2]) {
+				int tmp = root1;
+				root1 = root2;
+				root2 = tmp;
+			}
+			this.parents[root2] = root1;
+			this.sizes[root1] += this.sizes[root2];
+		}
+	}
+}
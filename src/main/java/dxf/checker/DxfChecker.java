@@ -3,14 +3,13 @@
  */
 package dxf.checker;
 
-import java.util.Collection;
-
-import dxf.DxfData;
-import dxf.section.entities.DxfEntity;
+import dxf.DxfSnapshot;
 
 /**
  * DXFファイルの製図のチェックのためのインターフェース
  * 
+ * 実装は状態を持たず、図形のフラグも変更しないこと。複数のスレッドから同時に呼び出されることがあります。
+ * 
  * @author FUJIWARA Masayasu
  * @since 0.02
  */
@@ -20,17 +19,10 @@ public interface DxfChecker {
 	 * DXFファイルをチェックするメソッド
 	 * 
 	 * @param dxf
-	 *            チェックするDXFファイルのデータ
-	 * @return 異常がなければtrue、あればfalse
-	 */
-	public boolean check(DxfData dxf);
-
-	/**
-	 * 異常を検出したエンティティを取得するメソッド
-	 * 
-	 * @return 異常を検出したエンティティ
+	 *            チェックするDXFファイルのデータの読み取り専用のビュー
+	 * @return チェックの結果
 	 */
-	public Collection<DxfEntity> getErrorEntities();
+	public CheckResult check(DxfSnapshot dxf);
 
 	/**
 	 * エラーメッセージを取得するメソッド
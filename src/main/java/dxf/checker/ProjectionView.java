@@ -11,6 +11,7 @@ import java.awt.font.GlyphVector;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import dxf.section.entities.DxfEntity;
@@ -47,6 +48,20 @@ public class ProjectionView {
 		this.entites = new ArrayList<DxfEntity>();
 	}
 
+	/**
+	 * 投影図を複製します。 複製した投影図の構成要素は変更できません。
+	 * 構成要素そのものは複製しないため、複製した投影図を参照する側は構成要素を変更しないこと。
+	 * 
+	 * @param view
+	 *            複製する投影図
+	 */
+	public ProjectionView(ProjectionView view) {
+		this.bounds = view.bounds == null ? null : (Rectangle2D) view.bounds.clone();
+		this.entites = Collections.unmodifiableList(new ArrayList<DxfEntity>(view.entites));
+		this.label = view.label;
+		this.layout = view.layout;
+	}
+
 	/**
 	 * 図面の構成要素を追加します。
 	 * 
@@ -7,14 +7,12 @@ import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import util.MapList;
-
 import dxf.DxfData;
+import dxf.DxfSnapshot;
 import dxf.section.entities.DxfCircle;
 import dxf.section.entities.DxfEntity;
 import dxf.section.entities.DxfInsert;
@@ -55,51 +53,41 @@ public class ScrewChecker implements DxfChecker {
 	 */
 	private final static Pattern screwPattern = Pattern.compile("^(?:(\\d+)(?:×(\\d+))?-)?(?:φ|M)?(\\d+(?:\\.\\d+)?)(?:$|[^-])");
 
-	/**
-	 * 異常を検出したエンティティ
-	 */
-	private Collection<DxfEntity> errors = new ArrayList<DxfEntity>();
-
 	/**
 	 * ねじのチェックを行うためのメソッド
 	 * 
 	 * @param dxf
 	 *            チェックを行うDXFファイルのデータ
-	 * @return ねじに問題が見つからなければtrue、問題がみつかればfalseを返す。
+	 * @return チェックの結果（異常を検出した円と引き出し線には異常を表すフラグを設定する）
 	 */
-	public boolean check(DxfData dxf) {
-		this.clearErrorEntities();
+	public CheckResult check(DxfSnapshot dxf) {
+		Collection<DxfEntity> errors = new ArrayList<DxfEntity>();
 		boolean flag = true;
 		Map<Double, ScrewEntry> entryMap = new HashMap<Double, ScrewEntry>();
-		MapList<String, DxfEntity> dxfMap = dxf.getDxfData();
 		Rectangle2D screen = dxf.getDefaultScreen();
 		Collection<DxfCircle> circles = dxf.getDxfCircles();
-		List<DxfEntity> entities = dxfMap.get(DxfInsert.class.getName());
-		if (entities != null) {
-			for (DxfEntity entity : entities) {
-				DxfInsert insert = (DxfInsert) entity;
-				String text = insert.getText();
-				if (text != null) {
-					Matcher matcher = ScrewChecker.screwPattern.matcher(text);
-					if (matcher.find()) {
-						String match1 = matcher.group(1);
-						String match2 = matcher.group(2);
-						int count1 = match1 != null ? Integer.parseInt(match1) : 1;
-						int count2 = match2 != null ? Integer.parseInt(match2) : 1;
-						double dimension = Double.parseDouble(matcher.group(3));
-						Point2D indicated = insert.getIndicatedPoint();
-						if (indicated != null) {
-							DxfCircle circle = this.getNearestNeighbor(indicated, circles);
-							if (circle != null) {
-								double diameter = circle.getDiameter();
-								ScrewEntry entry = entryMap.get(diameter);
-								if (entry == null) {
-									entry = new ScrewEntry(dimension, diameter);
-									entryMap.put(diameter, entry);
-								}
-								entry.count += count1 * count2;
-								entry.inserts.add(insert);
+		for (DxfInsert insert : dxf.getDxfInserts()) {
+			String text = insert.getText();
+			if (text != null) {
+				Matcher matcher = ScrewChecker.screwPattern.matcher(text);
+				if (matcher.find()) {
+					String match1 = matcher.group(1);
+					String match2 = matcher.group(2);
+					int count1 = match1 != null ? Integer.parseInt(match1) : 1;
+					int count2 = match2 != null ? Integer.parseInt(match2) : 1;
+					double dimension = Double.parseDouble(matcher.group(3));
+					Point2D indicated = insert.getIndicatedPoint();
+					if (indicated != null) {
+						DxfCircle circle = this.getNearestNeighbor(indicated, circles);
+						if (circle != null) {
+							double diameter = circle.getDiameter();
+							ScrewEntry entry = entryMap.get(diameter);
+							if (entry == null) {
+								entry = new ScrewEntry(dimension, diameter);
+								entryMap.put(diameter, entry);
 							}
+							entry.count += count1 * count2;
+							entry.inserts.add(insert);
 						}
 					}
 				}
@@ -108,8 +96,8 @@ public class ScrewChecker implements DxfChecker {
 		for (ScrewEntry entry : entryMap.values()) {
 			int countCircle = this.countCircles(entry.diameter, circles, screen);
 			if (countCircle != entry.count) {
-				this.errors.addAll(this.getCircles(entry.diameter, circles, screen));
-				this.errors.addAll(entry.inserts);
+				errors.addAll(this.getCircles(entry.diameter, circles, screen));
+				errors.addAll(entry.inserts);
 				System.out.println(DxfData.class.getName() + " # errored Circle(" + entry.dimension + "): " + countCircle);
 				flag = false;
 			} else {
@@ -119,17 +107,7 @@ public class ScrewChecker implements DxfChecker {
 				System.out.println("scale: " + entry.getScale());
 			}
 		}
-		for (DxfEntity entity : this.errors) {
-			entity.setError();
-		}
-		return flag;
-	}
-
-	private void clearErrorEntities() {
-		for (DxfEntity entity : this.errors) {
-			entity.clearError();
-		}
-		this.errors.clear();
+		return new CheckResult(this, flag, errors, errors);
 	}
 
 	/**
@@ -178,15 +156,6 @@ public class ScrewChecker implements DxfChecker {
 		return ret;
 	}
 
-	/**
-	 * 異常を検出したエンティティを取得するメソッド
-	 * 
-	 * @return 異常を検出したエンティティ
-	 */
-	public Collection<DxfEntity> getErrorEntities() {
-		return this.errors;
-	}
-
 	/**
 	 * エラーメッセージを取得するメソッド
 	 * 
@@ -0,0 +1,157 @@
+package dxf.section;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * バイナリ形式のDXFファイルからグループコードとデータの組を順に取り出すためのクラス
+ *
+ * グループコードは2バイト（R13以降）のリトルエンディアンとして読み込みます。
+ * データの形式はグループコードの範囲で決まり、文字列はバッファの範囲として、数値は変換済みの値として扱います。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class BinaryDxfTokenizer extends DxfTokenizer {
+
+	/**
+	 * バイナリ形式の識別子
+	 */
+	private static final byte[] SENTINEL = "AutoCAD Binary DXF\r\n\u001a\0".getBytes(StandardCharsets.ISO_8859_1);
+
+	private static final int TYPE_STRING = 0;
+	private static final int TYPE_BOOLEAN = 1;
+	private static final int TYPE_INT16 = 2;
+	private static final int TYPE_INT32 = 3;
+	private static final int TYPE_INT64 = 4;
+	private static final int TYPE_DOUBLE = 5;
+	private static final int TYPE_BINARY = 6;
+
+	/**
+	 * グループコードに対応するデータの形式を取得するメソッド
+	 *
+	 * @param code
+	 *            グループコード
+	 * @return データの形式
+	 */
+	private static int getType(int code) {
+		if ((code >= 10 && code <= 59) || (code >= 110 && code <= 149) || (code >= 210 && code <= 239) || (code >= 460 && code <= 469)
+				|| (code >= 1010 && code <= 1059)) {
+			return TYPE_DOUBLE;
+		} else if ((code >= 60 && code <= 79) || (code >= 170 && code <= 179) || (code >= 270 && code <= 289) || (code >= 370 && code <= 389)
+				|| (code >= 400 && code <= 409) || (code >= 1060 && code <= 1070)) {
+			return TYPE_INT16;
+		} else if ((code >= 90 && code <= 99) || (code >= 420 && code <= 429) || (code >= 440 && code <= 459) || code == 1071) {
+			return TYPE_INT32;
+		} else if (code >= 160 && code <= 169) {
+			return TYPE_INT64;
+		} else if (code >= 290 && code <= 299) {
+			return TYPE_BOOLEAN;
+		} else if ((code >= 310 && code <= 319) || code == 1004) {
+			return TYPE_BINARY;
+		}
+		return TYPE_STRING;
+	}
+
+	/**
+	 * バッファの現在位置がバイナリ形式の識別子で始まっているか確認するメソッド
+	 *
+	 * @param buffer
+	 *            バッファ
+	 * @return バイナリ形式であればtrue
+	 */
+	public static boolean isBinary(ByteBuffer buffer) {
+		int position = buffer.position();
+		if (buffer.limit() - position < SENTINEL.length) {
+			return false;
+		}
+		for (int i = 0; i < SENTINEL.length; i++) {
+			if (buffer.get(position + i) != SENTINEL[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * バッファの現在位置から上限までを読み込むトークナイザを生成します。
+	 *
+	 * @param buffer
+	 *            読み込むバッファ
+	 * @param sentinel
+	 *            バッファの先頭にバイナリ形式の識別子があればtrue
+	 */
+	public BinaryDxfTokenizer(ByteBuffer buffer, boolean sentinel) {
+		super(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+		if (sentinel) {
+			this.position += SENTINEL.length;
+		}
+	}
+
+	/**
+	 * @see dxf.section.DxfTokenizer#next()
+	 */
+	@Override
+	public boolean next() throws IOException {
+		this.check();
+		int index = this.position;
+		if (index + 2 > this.limit) {
+			this.position = this.limit;
+			return false;
+		}
+		try {
+			int code = this.buffer.getShort(index);
+			index += 2;
+			switch (BinaryDxfTokenizer.getType(code)) {
+			case TYPE_DOUBLE:
+				this.value.set(this.buffer.getDouble(index));
+				index += 8;
+				break;
+			case TYPE_INT16:
+				this.value.set((long) this.buffer.getShort(index));
+				index += 2;
+				break;
+			case TYPE_INT32:
+				this.value.set((long) this.buffer.getInt(index));
+				index += 4;
+				break;
+			case TYPE_INT64:
+				this.value.set(this.buffer.getLong(index));
+				index += 8;
+				break;
+			case TYPE_BOOLEAN:
+				this.value.set((long) this.buffer.get(index));
+				index += 1;
+				break;
+			case TYPE_BINARY:
+				int length = this.buffer.get(index) & 0xFF;
+				index += 1;
+				if (index + length > this.limit) {
+					throw new IndexOutOfBoundsException();
+				}
+				this.value.set(this.buffer, index, length);
+				index += length;
+				break;
+			default:
+				int end = index;
+				while (this.buffer.get(end) != 0) {
+					end++;
+				}
+				this.value.set(this.buffer, index, end - index);
+				index = end + 1;
+				break;
+			}
+			if (index > this.limit) {
+				throw new IndexOutOfBoundsException();
+			}
+			this.groupCode = code;
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("GROUP " + (this.lineNumber / 2 + 1) + ": データを読み込めませんでした。");
+		}
+		this.lineNumber += 2;
+		this.position = index;
+		return true;
+	}
+}
@@ -46,17 +46,37 @@ public class BlocksReader extends SectionReader {
 	private boolean subEntityFlag = false;
 
 	public BlocksReader() {
+		this(new SymbolTable());
+	}
+
+	/**
+	 * @param symbols
+	 *            線種名を登録する名前の表
+	 */
+	public BlocksReader(SymbolTable symbols) {
 		this.map = new HashMap<String, EntityReader>();
-		this.map.put("LINE", new LineReader());
-		this.map.put("CIRCLE", new CircleReader());
+		this.map.put("LINE", new LineReader(symbols));
+		this.map.put("CIRCLE", new CircleReader(symbols));
 		this.map.put("MTEXT", new MtextReader());
 		this.map.put("TEXT", new TextReader());
-		this.map.put("ARC", new ArcReader());
+		this.map.put("ARC", new ArcReader(symbols));
 		this.map.put("POLYLINE", new PolylineReader());
 		this.map.put("INSERT", new InsertReader());
 		this.blocks = new MapList<String, DxfEntity>();
 	}
 
+	/**
+	 * 読み込んだ図形をブロックに追加するメソッド
+	 * 
+	 * @param name
+	 *            ブロック名
+	 * @param figure
+	 *            図形
+	 */
+	protected void addEntity(String name, DxfEntity figure) {
+		this.blocks.put(name, figure);
+	}
+
 	/**
 	 * @see dxf.section.SectionReader#close()
 	 */
@@ -65,12 +85,21 @@ public class BlocksReader extends SectionReader {
 		if (this.reader != null) {
 			DxfEntity figure = this.reader.getEntity();
 			if (figure != null) {
-				this.blocks.put(this.name, figure);
+				this.addEntity(this.name, figure);
 				this.reader = null;
 			}
 		}
 	}
 
+	/**
+	 * ブロックの終わりを読み込んだときの処理
+	 * 
+	 * @param name
+	 *            ブロック名
+	 */
+	protected void endBlock(String name) {
+	}
+
 	/**
 	 * @see dxf.section.SectionReader#linkData(dxf.DxfData)
 	 */
@@ -81,29 +110,43 @@ public class BlocksReader extends SectionReader {
 	}
 
 	/**
-	 * @see dxf.section.SectionReader#readData(int, java.lang.String)
+	 * ブロックの始まりを読み込んだときの処理
+	 * 
+	 * @param name
+	 *            ブロック名
+	 */
+	protected void startBlock(String name) {
+	}
+
+	/**
+	 * @see dxf.section.SectionReader#readData(int, dxf.section.DxfValue)
 	 */
 	@Override
-	protected void readData(int groupCode, String line) {
+	protected void readData(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 0: // 分離符号
 			if (this.subEntityFlag) {
-				if ("SEQEND".equals(line)) {
+				if (value.contentEquals("SEQEND")) {
 					this.subEntityFlag = false;
 					break;
 				}
-				this.reader.readFigure(groupCode, line);
+				this.reader.readFigure(groupCode, value);
 			} else {
 				this.close();
-				if ("BLOCK".equals(line)) {
+				if (value.contentEquals("BLOCK")) {
 					this.name = null;
 					this.reader = null;
+				} else if (value.contentEquals("ENDBLK")) {
+					this.reader = null;
+					if (this.name != null) {
+						this.endBlock(this.name);
+					}
 				} else {
 					this.close();
-					this.reader = this.map.get(line);
+					this.reader = SectionReader.select(this.map, value);
 					if (DxfViewer.debug) {
-						if (this.reader == null && !"ENDBLK".equals(line)) {
-							System.out.println("Unknown Block Tag: " + line);
+						if (this.reader == null) {
+							System.out.println("Unknown Block Tag: " + value);
 						}
 					}
 				}
@@ -111,16 +154,17 @@ public class BlocksReader extends SectionReader {
 			break;
 		case 2: // 名前
 			if (this.name == null) {
-				this.name = line;
+				this.name = value.toString();
+				this.startBlock(this.name);
 				break;
 			}
 		case 66: // 後続図形フラグ
 			if (this.reader != null) {
-				this.subEntityFlag = SectionReader.parseBoolean(line);
+				this.subEntityFlag = value.parseBoolean();
 			}
 		default:
 			if (this.reader != null) {
-				this.reader.readFigure(groupCode, line);
+				this.reader.readFigure(groupCode, value);
 			}
 			break;
 		}
@@ -0,0 +1,179 @@
+package dxf.section;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 入力ストリームをグループの境界で区切ったブロックとして読み込むためのクラス
+ *
+ * 別のスレッドで入力ストリームを読み込み（圧縮ファイルであれば展開し）、容量を制限したキューにブロックを追加します。
+ * ブロックはグループコードとデータの組の途中で区切らないため、それぞれを独立したトークナイザで読み込めます。
+ * 入力の終端または読み込みに失敗した場合は、空のブロックを追加して終了します。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+class DxfBlockReader implements Runnable {
+
+	/**
+	 * 入力の終端を表すブロック
+	 */
+	static final ByteBuffer END = ByteBuffer.allocate(0);
+
+	/**
+	 * ブロックの標準のバイト数
+	 */
+	private static final int BLOCK_SIZE = 1 << 20;
+
+	/**
+	 * キューに保持するブロックの最大数
+	 */
+	private static final int CAPACITY = 4;
+
+	/**
+	 * 読み込み時に発生した例外
+	 */
+	private volatile IOException exception;
+
+	/**
+	 * 入力ストリーム
+	 */
+	private final InputStream in;
+
+	/**
+	 * 読み込んだブロックのキュー
+	 */
+	private final BlockingQueue<ByteBuffer> queue;
+
+	/**
+	 * @param in
+	 *            入力ストリーム
+	 */
+	DxfBlockReader(InputStream in) {
+		this.in = in;
+		this.queue = new ArrayBlockingQueue<ByteBuffer>(DxfBlockReader.CAPACITY);
+	}
+
+	/**
+	 * ASCII形式のブロックを区切る位置を取得するメソッド ブロックの先頭から偶数行目の改行の直後で区切ります。
+	 *
+	 * @param block
+	 *            ブロック
+	 * @param length
+	 *            読み込んだバイト数
+	 * @return 区切る位置、区切れなければ0
+	 */
+	private static int asciiCut(byte[] block, int length) {
+		int cut = 0;
+		boolean even = false;
+		for (int i = 0; i < length; i++) {
+			if (block[i] == '\n') {
+				if (even) {
+					cut = i + 1;
+				}
+				even = !even;
+			}
+		}
+		return cut;
+	}
+
+	/**
+	 * バイナリ形式のブロックを区切る位置を取得するメソッド 最後まで読み込めたグループの直後で区切ります。
+	 *
+	 * @param block
+	 *            ブロック
+	 * @param length
+	 *            読み込んだバイト数
+	 * @param sentinel
+	 *            ブロックの先頭にバイナリ形式の識別子があればtrue
+	 * @return 区切る位置、区切れなければ0
+	 */
+	private static int binaryCut(byte[] block, int length, boolean sentinel) {
+		DxfTokenizer tokenizer = new BinaryDxfTokenizer(ByteBuffer.wrap(block, 0, length), sentinel);
+		int cut = 0;
+		try {
+			while (tokenizer.next()) {
+				cut = tokenizer.position();
+			}
+		} catch (IOException e) {
+			// ブロックの終端で途切れたグループは次のブロックで読み込む
+		}
+		return cut;
+	}
+
+	/**
+	 * 読み込み時に発生した例外を取得するメソッド
+	 *
+	 * @return 例外、発生していなければnull
+	 */
+	IOException getException() {
+		return this.exception;
+	}
+
+	/**
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		try {
+			byte[] block = new byte[DxfBlockReader.BLOCK_SIZE];
+			int length = 0;
+			boolean first = true;
+			boolean binary = false;
+			while (true) {
+				int n = this.in.read(block, length, block.length - length);
+				if (n > 0) {
+					length += n;
+					if (length < block.length) {
+						continue;
+					}
+				}
+				boolean eof = n < 0;
+				if (first) {
+					binary = BinaryDxfTokenizer.isBinary(ByteBuffer.wrap(block, 0, length));
+				}
+				int cut = eof ? length : binary ? DxfBlockReader.binaryCut(block, length, first) : DxfBlockReader.asciiCut(block, length);
+				if (cut == 0 && !eof) {
+					byte[] larger = new byte[block.length * 2];
+					System.arraycopy(block, 0, larger, 0, length);
+					block = larger;
+					continue;
+				}
+				if (cut > 0) {
+					this.queue.put(ByteBuffer.wrap(block, 0, cut));
+				}
+				if (eof) {
+					break;
+				}
+				byte[] next = new byte[Math.max(DxfBlockReader.BLOCK_SIZE, (length - cut) * 2)];
+				System.arraycopy(block, cut, next, 0, length - cut);
+				length -= cut;
+				block = next;
+				first = false;
+			}
+		} catch (IOException e) {
+			this.exception = e;
+		} catch (InterruptedException e) {
+			return;
+		}
+		try {
+			this.queue.put(DxfBlockReader.END);
+		} catch (InterruptedException e) {
+			return;
+		}
+	}
+
+	/**
+	 * 次のブロックを取得するメソッド ブロックを読み込むまで待機します。
+	 *
+	 * @return ブロック、入力の終端であれば{@link #END}
+	 * @throws InterruptedException
+	 *             待機中に割り込まれた場合
+	 */
+	ByteBuffer take() throws InterruptedException {
+		return this.queue.take();
+	}
+}
@@ -0,0 +1,149 @@
+package dxf.section;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 入力ストリームからグループコードとデータの組を順に取り出すためのクラス
+ *
+ * 入力ストリームは{@link DxfBlockReader}が別のスレッドで読み込むため、圧縮ファイルの展開とデータの読み込みが並行して進みます。
+ * 最初のブロックで形式を判定し、ASCII形式とバイナリ形式のどちらも読み込めます。
+ * 範囲を切り出して読み込むことはできないため、並列には読み込めません。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class DxfStreamTokenizer extends DxfTokenizer implements Closeable {
+
+	/**
+	 * バイナリ形式かどうか
+	 */
+	private boolean binary;
+
+	/**
+	 * 読み込み中のブロックのトークナイザ
+	 */
+	private DxfTokenizer current;
+
+	/**
+	 * 入力の終端まで読み込んだかどうか
+	 */
+	private boolean end;
+
+	/**
+	 * 読み込み中のブロックより前に読み込んだ行数
+	 */
+	private int lineOffset;
+
+	/**
+	 * 読み込み中のブロックの入力ストリームでの開始位置
+	 */
+	private int offset;
+
+	/**
+	 * ブロックを読み込むクラス
+	 */
+	private final DxfBlockReader reader;
+
+	/**
+	 * ブロックを読み込むスレッド
+	 */
+	private final Thread thread;
+
+	/**
+	 * 入力ストリームを読み込むトークナイザを生成します。 入力ストリームを読み込むスレッドを開始します。
+	 *
+	 * @param in
+	 *            入力ストリーム（展開済みであること）
+	 */
+	public DxfStreamTokenizer(InputStream in) {
+		super(ByteBuffer.allocate(0));
+		this.reader = new DxfBlockReader(in);
+		this.thread = new Thread(this.reader, "DxfBlockReader");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * 読み込みを中止して、入力ストリームを読み込むスレッドを終了させるメソッド 入力ストリームは閉じません。
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() {
+		this.thread.interrupt();
+	}
+
+	/**
+	 * @see dxf.section.DxfTokenizer#getGroupCode()
+	 */
+	@Override
+	public int getGroupCode() {
+		return this.current.getGroupCode();
+	}
+
+	/**
+	 * @see dxf.section.DxfTokenizer#getLineNumber()
+	 */
+	@Override
+	public int getLineNumber() {
+		return this.current == null ? this.lineOffset : this.lineOffset + this.current.getLineNumber();
+	}
+
+	/**
+	 * @see dxf.section.DxfTokenizer#getValue()
+	 */
+	@Override
+	public DxfValue getValue() {
+		return this.current.getValue();
+	}
+
+	/**
+	 * @see dxf.section.DxfTokenizer#next()
+	 */
+	@Override
+	public boolean next() throws IOException {
+		this.check();
+		if (this.end) {
+			return false;
+		}
+		while (this.current == null || !this.current.next()) {
+			ByteBuffer block;
+			try {
+				block = this.reader.take();
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException("読み込みを中止しました。");
+			}
+			if (block == DxfBlockReader.END) {
+				this.end = true;
+				IOException exception = this.reader.getException();
+				if (exception != null) {
+					throw exception;
+				}
+				return false;
+			}
+			if (this.current == null) {
+				this.current = DxfTokenizer.open(block);
+				this.binary = this.current instanceof BinaryDxfTokenizer;
+			} else {
+				this.lineOffset += this.current.getLineNumber();
+				this.offset += this.current.limit;
+				this.current = this.binary ? new BinaryDxfTokenizer(block, false) : new DxfTokenizer(block);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 入力ストリームで次に読み込む位置を取得するメソッド 展開後のバイト数で数えます。
+	 *
+	 * @see dxf.section.DxfTokenizer#position()
+	 */
+	@Override
+	public int position() {
+		return this.current == null ? 0 : this.offset + this.current.position();
+	}
+}
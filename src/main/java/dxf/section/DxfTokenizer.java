@@ -0,0 +1,237 @@
+package dxf.section;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * バイト列からグループコードとデータの組を順に取り出すためのクラス
+ *
+ * 行ごとに文字列を生成せず、グループコードは整数として、データはバッファの範囲として扱います。
+ * このクラスはASCII形式を読み込みます。バイナリ形式は{@link BinaryDxfTokenizer}で読み込みます。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class DxfTokenizer {
+
+	/**
+	 * 中止の確認と進捗の通知を行う間隔（グループ数）
+	 */
+	private static final int CHECK_INTERVAL = 1 << 12;
+
+	/**
+	 * バッファの形式に合わせてトークナイザを生成するメソッド
+	 * バッファの先頭がバイナリ形式の識別子であれば{@link BinaryDxfTokenizer}を生成します。
+	 *
+	 * @param buffer
+	 *            読み込むバッファ
+	 * @return トークナイザ
+	 */
+	public static DxfTokenizer open(ByteBuffer buffer) {
+		if (BinaryDxfTokenizer.isBinary(buffer)) {
+			return new BinaryDxfTokenizer(buffer, true);
+		}
+		return new DxfTokenizer(buffer);
+	}
+
+	/**
+	 * 読み込むバッファ
+	 */
+	protected final ByteBuffer buffer;
+
+	/**
+	 * 読み込んだグループ数
+	 */
+	private int count;
+
+	/**
+	 * グループコード
+	 */
+	protected int groupCode;
+
+	/**
+	 * 読み込み終了位置
+	 */
+	protected final int limit;
+
+	/**
+	 * 読み込んだ行数
+	 */
+	protected int lineNumber;
+
+	/**
+	 * 進捗を通知する処理
+	 */
+	private Runnable monitor;
+
+	/**
+	 * 次に読み込む位置
+	 */
+	protected int position;
+
+	/**
+	 * グループコードに対応するデータ
+	 */
+	protected final DxfValue value;
+
+	/**
+	 * バッファの現在位置から上限までを読み込むトークナイザを生成します。
+	 *
+	 * @param buffer
+	 *            読み込むバッファ
+	 */
+	public DxfTokenizer(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.position = buffer.position();
+		this.limit = buffer.limit();
+		this.value = new DxfValue();
+	}
+
+	/**
+	 * 一定のグループ数ごとに、読み込みの中止を確認して進捗を通知するメソッド 各形式のnext()の始めに呼び出します。
+	 *
+	 * @throws InterruptedIOException
+	 *             読み込んでいるスレッドが割り込まれた場合
+	 */
+	protected final void check() throws InterruptedIOException {
+		if ((++this.count & (DxfTokenizer.CHECK_INTERVAL - 1)) == 0) {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedIOException("読み込みを中止しました。");
+			}
+			if (this.monitor != null) {
+				this.monitor.run();
+			}
+		}
+	}
+
+	/**
+	 * 現在のグループコードを取得するメソッド
+	 *
+	 * @return グループコード
+	 */
+	public int getGroupCode() {
+		return this.groupCode;
+	}
+
+	/**
+	 * 読み込んだ行数を取得するメソッド
+	 *
+	 * @return 読み込んだ行数
+	 */
+	public int getLineNumber() {
+		return this.lineNumber;
+	}
+
+	/**
+	 * 現在のグループコードに対応するデータを取得するメソッド
+	 *
+	 * @return データ
+	 */
+	public DxfValue getValue() {
+		return this.value;
+	}
+
+	/**
+	 * 次のグループコードとデータの組を読み込むメソッド
+	 *
+	 * @return 読み込めればtrue、ファイルの終端であればfalseを返す。
+	 * @throws IOException
+	 *             グループコードが整数でない場合
+	 */
+	public boolean next() throws IOException {
+		this.check();
+		int index = this.position;
+		if (index >= this.limit) {
+			return false;
+		}
+		int lineEnd = this.lineEnd(index);
+		while (index < lineEnd && this.buffer.get(index) == ' ') {
+			index++;
+		}
+		boolean negative = false;
+		if (index < lineEnd && this.buffer.get(index) == '-') {
+			negative = true;
+			index++;
+		}
+		int code = 0;
+		int start = index;
+		while (index < lineEnd) {
+			byte b = this.buffer.get(index);
+			if (b < '0' || b > '9') {
+				break;
+			}
+			code = code * 10 + (b - '0');
+			index++;
+		}
+		if (index == start) {
+			if (lineEnd == this.limit && this.isBlank(this.position, lineEnd)) {
+				this.position = lineEnd;
+				return false;
+			}
+			throw new IOException("LINE " + (this.lineNumber + 1) + ": グループコードを読み込めませんでした。");
+		}
+		this.lineNumber++;
+		index = this.skipLine(lineEnd);
+		if (index >= this.limit) {
+			this.position = index;
+			return false;
+		}
+		lineEnd = this.lineEnd(index);
+		int end = lineEnd;
+		if (end > index && this.buffer.get(end - 1) == '\r') {
+			end--;
+		}
+		this.value.set(this.buffer, index, end - index);
+		this.groupCode = negative ? -code : code;
+		this.lineNumber++;
+		this.position = this.skipLine(lineEnd);
+		return true;
+	}
+
+	/**
+	 * 次に読み込む位置を取得するメソッド
+	 *
+	 * @return 次に読み込むグループコードの位置
+	 */
+	public int position() {
+		return this.position;
+	}
+
+	/**
+	 * 進捗を通知する処理を設定するメソッド 一定のグループ数ごとに読み込み中のスレッドで呼び出します。
+	 *
+	 * @param monitor
+	 *            進捗を通知する処理
+	 */
+	public void setMonitor(Runnable monitor) {
+		this.monitor = monitor;
+	}
+
+	private boolean isBlank(int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (this.buffer.get(i) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 改行文字の位置を取得するメソッド
+	 *
+	 * @param index
+	 *            行の開始位置
+	 * @return 改行文字の位置、改行文字がなければ読み込み終了位置
+	 */
+	private int lineEnd(int index) {
+		while (index < this.limit && this.buffer.get(index) != '\n') {
+			index++;
+		}
+		return index;
+	}
+
+	private int skipLine(int lineEnd) {
+		return lineEnd < this.limit ? lineEnd + 1 : lineEnd;
+	}
+}
@@ -0,0 +1,344 @@
+package dxf.section;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * グループコードに対応するデータ
+ *
+ * 読み込んだバイト列の範囲を参照するだけで、文字列が必要になったときにのみ変換します。
+ * バイナリ形式のDXFファイルから読み込んだ数値は、変換済みの値として保持します。
+ * インスタンスはトークナイザが使いまわすため、次のグループを読み込むまでの間だけ有効です。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class DxfValue {
+
+	private static final Charset CHARSET = Charset.forName("SJIS");
+
+	/**
+	 * 仮数部を正確に表現できる最大値
+	 */
+	private static final long MAX_MANTISSA = 1L << 53;
+
+	/**
+	 * 正確に表現できる10の累乗
+	 */
+	private static final double[] POWER_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * データを含むバッファ
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * 文字列に変換するための作業領域
+	 */
+	private byte[] bytes = new byte[256];
+
+	/**
+	 * 整数値かどうか
+	 */
+	private boolean integral;
+
+	/**
+	 * データの長さ
+	 */
+	private int length;
+
+	/**
+	 * 変換済みの数値
+	 */
+	private double number;
+
+	/**
+	 * 数値を保持しているかどうか
+	 */
+	private boolean numeric;
+
+	/**
+	 * データの開始位置
+	 */
+	private int offset;
+
+	/**
+	 * 変換済みの文字列
+	 */
+	private String string;
+
+	/**
+	 * データが文字列と一致するかどうか確認するメソッド 比較する文字列はASCII文字のみとします。
+	 *
+	 * @param str
+	 *            比較する文字列
+	 * @return 一致すればtrue
+	 */
+	public boolean contentEquals(String str) {
+		if (this.buffer == null) {
+			return str.equals(this.toString());
+		}
+		if (this.length != str.length()) {
+			return false;
+		}
+		for (int i = 0; i < this.length; i++) {
+			if (this.buffer.get(this.offset + i) != str.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * データがバイト列と一致するかどうか確認するメソッド
+	 *
+	 * @param bytes
+	 *            DXFファイルの文字コードで表したバイト列
+	 * @return 一致すればtrue
+	 */
+	public boolean contentEquals(byte[] bytes) {
+		if (this.buffer == null) {
+			return this.toString().equals(new String(bytes, CHARSET));
+		}
+		if (this.length != bytes.length) {
+			return false;
+		}
+		for (int i = 0; i < this.length; i++) {
+			if (this.buffer.get(this.offset + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	/**
+	 * データの長さを取得するメソッド
+	 *
+	 * @return データのバイト数
+	 */
+	public int length() {
+		if (this.buffer == null) {
+			return this.toString().length();
+		}
+		return this.length;
+	}
+
+	/**
+	 * 論理値として取得するメソッド
+	 *
+	 * @return 0以外の整数であればtrue
+	 */
+	public boolean parseBoolean() {
+		return this.parseInt() != 0;
+	}
+
+	/**
+	 * 実数として取得するメソッド 一般的な10進表記は文字列を生成せずに変換し、それ以外は{@link Double#parseDouble(String)}で変換します。
+	 *
+	 * @return 実数
+	 * @throws NumberFormatException
+	 *             実数として解釈できない場合
+	 */
+	public double parseDouble() {
+		if (this.numeric) {
+			return this.number;
+		}
+		if (this.buffer == null) {
+			return Double.parseDouble(this.string);
+		}
+		int index = this.offset;
+		int end = this.offset + this.length;
+		while (index < end && this.buffer.get(index) <= ' ') {
+			index++;
+		}
+		while (end > index && this.buffer.get(end - 1) <= ' ') {
+			end--;
+		}
+		boolean negative = false;
+		if (index < end) {
+			byte b = this.buffer.get(index);
+			if (b == '-' || b == '+') {
+				negative = b == '-';
+				index++;
+			}
+		}
+		long mantissa = 0;
+		int exponent = 0;
+		boolean hasDigit = false;
+		boolean truncated = false;
+		while (index < end && DxfValue.isDigit(this.buffer.get(index))) {
+			if (mantissa < MAX_MANTISSA) {
+				mantissa = mantissa * 10 + (this.buffer.get(index) - '0');
+			} else {
+				truncated = true;
+				exponent++;
+			}
+			hasDigit = true;
+			index++;
+		}
+		if (index < end && this.buffer.get(index) == '.') {
+			index++;
+			while (index < end && DxfValue.isDigit(this.buffer.get(index))) {
+				if (mantissa < MAX_MANTISSA) {
+					mantissa = mantissa * 10 + (this.buffer.get(index) - '0');
+					exponent--;
+				} else {
+					truncated = true;
+				}
+				hasDigit = true;
+				index++;
+			}
+		}
+		if (hasDigit && index < end && (this.buffer.get(index) == 'e' || this.buffer.get(index) == 'E')) {
+			index++;
+			boolean negativeExponent = false;
+			if (index < end && (this.buffer.get(index) == '-' || this.buffer.get(index) == '+')) {
+				negativeExponent = this.buffer.get(index) == '-';
+				index++;
+			}
+			int value = 0;
+			boolean hasExponent = false;
+			while (index < end && DxfValue.isDigit(this.buffer.get(index))) {
+				if (value < 10000) {
+					value = value * 10 + (this.buffer.get(index) - '0');
+				}
+				hasExponent = true;
+				index++;
+			}
+			if (!hasExponent) {
+				hasDigit = false;
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+		if (hasDigit && index == end && !truncated && mantissa <= MAX_MANTISSA && exponent >= -22 && exponent <= 22) {
+			double value = mantissa;
+			if (exponent > 0) {
+				value *= POWER_OF_TEN[exponent];
+			} else if (exponent < 0) {
+				value /= POWER_OF_TEN[-exponent];
+			}
+			return negative ? -value : value;
+		}
+		return Double.parseDouble(this.toString());
+	}
+
+	/**
+	 * 整数として取得するメソッド 前後の空白は無視します。
+	 *
+	 * @return 整数、整数として解釈できなければ0を返す。
+	 */
+	public int parseInt() {
+		if (this.numeric) {
+			return (int) this.number;
+		}
+		if (this.buffer == null) {
+			return SectionReader.parseInt(this.string);
+		}
+		int index = this.offset;
+		int end = this.offset + this.length;
+		while (index < end && this.buffer.get(index) <= ' ') {
+			index++;
+		}
+		while (end > index && this.buffer.get(end - 1) <= ' ') {
+			end--;
+		}
+		boolean negative = false;
+		if (index < end && (this.buffer.get(index) == '-' || this.buffer.get(index) == '+')) {
+			negative = this.buffer.get(index) == '-';
+			index++;
+		}
+		if (index == end) {
+			return 0;
+		}
+		long value = 0;
+		while (index < end) {
+			byte b = this.buffer.get(index++);
+			if (!DxfValue.isDigit(b)) {
+				return 0;
+			}
+			value = value * 10 + (b - '0');
+			if (value > Integer.MAX_VALUE + 1L) {
+				return 0;
+			}
+		}
+		if (negative) {
+			value = -value;
+		}
+		if (value > Integer.MAX_VALUE) {
+			return 0;
+		}
+		return (int) value;
+	}
+
+	/**
+	 * バッファの範囲を参照するように設定するメソッド
+	 *
+	 * @param buffer
+	 *            バッファ
+	 * @param offset
+	 *            開始位置
+	 * @param length
+	 *            長さ
+	 */
+	void set(ByteBuffer buffer, int offset, int length) {
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+		this.string = null;
+		this.numeric = false;
+	}
+
+	/**
+	 * 実数を保持するように設定するメソッド
+	 *
+	 * @param number
+	 *            実数
+	 */
+	void set(double number) {
+		this.buffer = null;
+		this.string = null;
+		this.numeric = true;
+		this.integral = false;
+		this.number = number;
+	}
+
+	/**
+	 * 整数を保持するように設定するメソッド
+	 *
+	 * @param number
+	 *            整数
+	 */
+	void set(long number) {
+		this.buffer = null;
+		this.string = null;
+		this.numeric = true;
+		this.integral = true;
+		this.number = number;
+	}
+
+	/**
+	 * 文字列として取得するメソッド
+	 *
+	 * @return SJISで変換した文字列、数値の場合はその文字列表現
+	 */
+	@Override
+	public String toString() {
+		if (this.string == null && this.numeric) {
+			this.string = this.integral ? Long.toString((long) this.number) : Double.toString(this.number);
+		} else if (this.string == null) {
+			if (this.bytes.length < this.length) {
+				this.bytes = new byte[this.length];
+			}
+			for (int i = 0; i < this.length; i++) {
+				this.bytes[i] = this.buffer.get(this.offset + i);
+			}
+			this.string = new String(this.bytes, 0, this.length, CHARSET);
+		}
+		return this.string;
+	}
+}
@@ -8,6 +8,7 @@ import java.util.Map;
 import util.MapList;
 
 import dxf.DxfData;
+import dxf.DxfReadOptions;
 import dxf.section.entities.ArcReader;
 import dxf.section.entities.CircleReader;
 import dxf.section.entities.DimensionReader;
@@ -32,6 +33,16 @@ public class EntitiesReader extends SectionReader {
 	 */
 	private MapList<String, DxfEntity> map;
 
+	/**
+	 * 図形の選択条件、nullであればすべての図形を読み込む
+	 */
+	private final DxfReadOptions options;
+
+	/**
+	 * 読み込み中の図形が線種を指定しているかどうか
+	 */
+	private boolean hasLinetype;
+
 	/**
 	 * 現在読み込んでいるセクションに対するReader
 	 */
@@ -39,24 +50,63 @@ public class EntitiesReader extends SectionReader {
 
 	private Map<String, EntityReader> readerSwitcher;
 
+	/**
+	 * 除外した図形を読み飛ばしているかどうか
+	 */
+	private boolean skip;
+
 	private boolean subEntityFlag;
 
 	/**
 	 * コンストラクタ 読み込むFigureReaderをMapに設定する。
 	 */
 	public EntitiesReader() {
+		this(null);
+	}
+
+	/**
+	 * コンストラクタ 読み込むFigureReaderをMapに設定する。
+	 * 
+	 * @param options
+	 *            図形の選択条件、nullであればすべての図形を読み込む
+	 */
+	public EntitiesReader(DxfReadOptions options) {
+		this(options, new SymbolTable());
+	}
+
+	/**
+	 * コンストラクタ 読み込むFigureReaderをMapに設定する。
+	 * 
+	 * @param options
+	 *            図形の選択条件、nullであればすべての図形を読み込む
+	 * @param symbols
+	 *            線種名を登録する名前の表
+	 */
+	public EntitiesReader(DxfReadOptions options, SymbolTable symbols) {
+		this.options = options;
 		this.readerSwitcher = new HashMap<String, EntityReader>();
-		this.readerSwitcher.put("LINE", new LineReader());
-		this.readerSwitcher.put("CIRCLE", new CircleReader());
+		this.readerSwitcher.put("LINE", new LineReader(symbols));
+		this.readerSwitcher.put("CIRCLE", new CircleReader(symbols));
 		this.readerSwitcher.put("MTEXT", new MtextReader());
 		this.readerSwitcher.put("TEXT", new TextReader());
 		this.readerSwitcher.put("INSERT", new InsertReader());
 		this.readerSwitcher.put("DIMENSION", new DimensionReader());
-		this.readerSwitcher.put("ARC", new ArcReader());
+		this.readerSwitcher.put("ARC", new ArcReader(symbols));
 		this.readerSwitcher.put("POLYLINE", new PolylineReader());
 		this.map = new MapList<String, DxfEntity>();
 	}
 
+	/**
+	 * 読み込んだ図形を追加するメソッド
+	 * 
+	 * @param entity
+	 *            図形
+	 */
+	protected void addEntity(DxfEntity entity) {
+		String name = entity.getClass().getName();
+		this.map.put(name, entity);
+	}
+
 	/**
 	 * @see dxf.section.SectionReader#close()
 	 */
@@ -64,12 +114,22 @@ public class EntitiesReader extends SectionReader {
 	protected void close() {
 		if (this.reader != null) {
 			DxfEntity entity = this.reader.getEntity();
-			String name = entity.getClass().getName();
-			this.map.put(name, entity);
+			if (entity != null && (this.options == null || ((this.hasLinetype || this.options.acceptByLayer()) && this.options.accept(entity)))) {
+				this.addEntity(entity);
+			}
 			this.reader = null;
 		}
 	}
 
+	/**
+	 * 読み込み中の図形を除外して、次の分離符号まで読み飛ばすメソッド
+	 */
+	private void skip() {
+		this.reader.clear();
+		this.reader = null;
+		this.skip = true;
+	}
+
 	/**
 	 * DXFファイルから読み込んだリストをDXFファイルのデータに関連付ける。
 	 * 
@@ -83,32 +143,60 @@ public class EntitiesReader extends SectionReader {
 	}
 
 	@Override
-	protected void readData(int groupCode, String line) {
+	protected void readData(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 0: // 分離符号
 			if (this.subEntityFlag) {
-				this.reader.readFigure(groupCode, line);
-				if ("SEQEND".equals(line)) {
+				if (this.reader != null) {
+					this.reader.readFigure(groupCode, value);
+				}
+				if (value.contentEquals("SEQEND")) {
 					this.subEntityFlag = false;
 					break;
 				}
 			} else {
 				this.close();
-				this.reader = this.readerSwitcher.get(line);
+				this.skip = false;
+				this.hasLinetype = false;
+				this.reader = SectionReader.select(this.readerSwitcher, value);
+				if (this.reader != null && this.options != null && !this.options.acceptType(value)) {
+					this.skip();
+				}
 				if (DxfViewer.debug) {
-					if (this.reader == null) {
-						System.out.println("Unknown Entity Tag: " + line);
+					if (this.reader == null && !this.skip) {
+						System.out.println("Unknown Entity Tag: " + value);
 					}
 				}
 			}
 			break;
-		case 66: // 後続図形フラグ
+		case 6: // 線種名
+			if (this.reader != null && !this.subEntityFlag) {
+				this.hasLinetype = true;
+				if (this.options != null && !this.options.acceptLinetype(value)) {
+					this.skip();
+					break;
+				}
+			}
 			if (this.reader != null) {
-				this.subEntityFlag = SectionReader.parseBoolean(line);
+				this.reader.readFigure(groupCode, value);
+			}
+			break;
+		case 8: // 画層名
+			if (this.reader != null && !this.subEntityFlag && this.options != null && !this.options.acceptLayer(value)) {
+				this.skip();
+				break;
+			}
+			if (this.reader != null) {
+				this.reader.readFigure(groupCode, value);
+			}
+			break;
+		case 66: // 後続図形フラグ
+			if (this.reader != null || this.skip) {
+				this.subEntityFlag = value.parseBoolean();
 			}
 		default:
 			if (this.reader != null) {
-				this.reader.readFigure(groupCode, line);
+				this.reader.readFigure(groupCode, value);
 			}
 			break;
 		}
@@ -54,7 +54,7 @@ public class HeaderReader extends SectionReader {
 	}
 
 	@Override
-	protected void readData(int groupCode, String line) {
+	protected void readData(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 9: // 分離符号
 			if (this.reader != null) {
@@ -63,11 +63,11 @@ public class HeaderReader extends SectionReader {
 					this.paramMap.put(this.label, param);
 				}
 			}
-			this.label = line;
-			this.reader = this.map.get(line);
+			this.label = value.toString();
+			this.reader = this.map.get(this.label);
 		default:
 			if (this.reader != null) {
-				this.reader.readParameter(groupCode, line);
+				this.reader.readParameter(groupCode, value);
 			}
 		}
 	}
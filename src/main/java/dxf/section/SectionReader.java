@@ -1,7 +1,8 @@
 package dxf.section;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
 
 import dxf.DxfData;
 
@@ -13,16 +14,6 @@ import dxf.DxfData;
  */
 public abstract class SectionReader {
 
-	/**
-	 * グループコードを取得するメソッド
-	 * 
-	 * @param line
-	 * @return
-	 */
-	public static int getGroupCode(String line) {
-		return Integer.parseInt(line.substring(0, 3).replaceAll(" ", ""));
-	}
-
 	public static boolean parseBoolean(String line) {
 		return line != null && SectionReader.parseInt(line) != 0;
 	}
@@ -50,45 +41,75 @@ public abstract class SectionReader {
 	 */
 	protected abstract void linkData(DxfData dxf);
 
+	/**
+	 * データに一致するキーの値を取得するメソッド キーの文字列を生成せずに比較します。
+	 * 
+	 * @param map
+	 *            検索するマップ
+	 * @param value
+	 *            データ
+	 * @return 一致するキーの値、なければnull
+	 */
+	public static <T> T select(Map<String, T> map, DxfValue value) {
+		for (Map.Entry<String, T> entry : map.entrySet()) {
+			if (value.contentEquals(entry.getKey())) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * DXFファイルからデータを読み込むためのメソッド
 	 * 
 	 * @param groupCode
 	 *            グループコード
-	 * @param line
+	 * @param value
 	 *            データ
 	 */
-	protected abstract void readData(int groupCode, String line);
+	protected abstract void readData(int groupCode, DxfValue value);
 
 	/**
-	 * 各セクションを読み込むためのメソッド
+	 * 各セクションを読み込むためのメソッド 読み込んだデータの関連付けは行いません。
+	 * 分離符号ENDSECまたは入力の終端までを読み込みます。
 	 * 
 	 * @param in
-	 *            入力のリーダ
-	 * @param dxf
-	 *            DXFファイルのデータ
+	 *            入力のトークナイザ
 	 * @throws IOException
 	 *             入出力データ
 	 */
-	public void readSection(BufferedReader in, DxfData dxf) throws IOException {
-		String line1;
-		String line2;
-		int count = 0;
+	public void readSection(DxfTokenizer in) throws IOException {
 		try {
-			while ((line1 = in.readLine()) != null && (line2 = in.readLine()) != null) {
-				int groupCode = SectionReader.getGroupCode(line1);
-				if (groupCode == 0 && "ENDSEC".equals(line2)) {
-					this.close();
+			while (in.next()) {
+				int groupCode = in.getGroupCode();
+				DxfValue value = in.getValue();
+				if (groupCode == 0 && value.contentEquals("ENDSEC")) {
 					break;
 				}
-				this.readData(groupCode, line2);
-				count += 2;
+				this.readData(groupCode, value);
 			}
+			this.close();
+		} catch (InterruptedIOException e) {
+			throw e;
 		} catch (Throwable e) {
-			System.err.println("LINE: " + count);
+			System.err.println("LINE: " + in.getLineNumber());
 			e.printStackTrace();
 			throw new IOException();
 		}
+	}
+
+	/**
+	 * 各セクションを読み込むためのメソッド
+	 * 
+	 * @param in
+	 *            入力のトークナイザ
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 * @throws IOException
+	 *             入出力データ
+	 */
+	public void readSection(DxfTokenizer in, DxfData dxf) throws IOException {
+		this.readSection(in);
 		this.linkData(dxf);
 	}
 }
@@ -0,0 +1,189 @@
+package dxf.section;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+import dxf.DxfData;
+
+/**
+ * セクションを並列に読み込むためのタスク
+ *
+ * セクションごとに新しいセクションリーダを用意し、トークナイザの範囲を読み込みます。
+ * 読み込んだデータの関連付けは、すべてのタスクが終了した後にファイルの順に行います。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class SectionTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 分割して読み込むセクション名
+	 */
+	private static final String ENTITIES = "ENTITIES";
+
+	/**
+	 * 分割する範囲の最小のバイト数
+	 */
+	private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+	private static final int TYPE_SECTION = 1;
+
+	/**
+	 * 分離符号SECTIONからENDSECまでの位置を走査して、読み込むセクションごとにタスクを生成するメソッド
+	 * エンティティセクションは、後続図形（POLYLINEからSEQENDまで）の途中を避けて、分離符号の位置で複数のタスクに分割します。
+	 *
+	 * @param buffer
+	 *            DXFファイルのバッファ
+	 * @param factories
+	 *            セクション名に対するセクションリーダの生成方法
+	 * @param symbols
+	 *            図面の名前の表
+	 * @return セクションを読み込むタスクのリスト（ファイルの順）
+	 * @throws IOException
+	 *             グループコードを読み込めない場合
+	 */
+	public static List<SectionTask> scan(ByteBuffer buffer, Map<String, Function<SymbolTable, SectionReader>> factories, SymbolTable symbols) throws IOException {
+		List<SectionTask> tasks = new ArrayList<SectionTask>();
+		int chunkSize = Math.max(SectionTask.MIN_CHUNK_SIZE, buffer.remaining() / (ForkJoinPool.getCommonPoolParallelism() * 4));
+		DxfTokenizer in = DxfTokenizer.open(buffer);
+		boolean binary = in instanceof BinaryDxfTokenizer;
+		Function<SymbolTable, SectionReader> factory = null;
+		boolean isEntities = false;
+		boolean subEntityFlag = false;
+		int type = 0;
+		int start = 0;
+		int position = in.position();
+		while (in.next()) {
+			DxfValue value = in.getValue();
+			switch (in.getGroupCode()) {
+			case 0: // 分離符号
+				if (subEntityFlag) {
+					if (value.contentEquals("SEQEND")) {
+						subEntityFlag = false;
+					}
+				} else if (value.contentEquals("SECTION")) {
+					type = SectionTask.TYPE_SECTION;
+				} else if (value.contentEquals("ENDSEC")) {
+					if (factory != null) {
+						tasks.add(new SectionTask(factory.apply(symbols), SectionTask.slice(buffer, binary, start, position)));
+						factory = null;
+					}
+					isEntities = false;
+					type = 0;
+				} else if (isEntities && position - start >= chunkSize) {
+					tasks.add(new SectionTask(factory.apply(symbols), SectionTask.slice(buffer, binary, start, position)));
+					start = position;
+				}
+				break;
+			case 2: // 名前
+				if (type == SectionTask.TYPE_SECTION) {
+					factory = SectionReader.select(factories, value);
+					isEntities = factory != null && value.contentEquals(SectionTask.ENTITIES);
+					start = in.position();
+					type = 0;
+				}
+				break;
+			case 66: // 後続図形フラグ
+				if (isEntities) {
+					subEntityFlag = value.parseBoolean();
+				}
+				break;
+			}
+			position = in.position();
+		}
+		if (factory != null) {
+			tasks.add(new SectionTask(factory.apply(symbols), SectionTask.slice(buffer, binary, start, position)));
+		}
+		return tasks;
+	}
+
+	/**
+	 * バッファの範囲を同じ形式で読み込むトークナイザを生成するメソッド
+	 *
+	 * @param buffer
+	 *            DXFファイルのバッファ
+	 * @param binary
+	 *            バイナリ形式であればtrue
+	 * @param start
+	 *            開始位置
+	 * @param end
+	 *            終了位置
+	 * @return トークナイザ
+	 */
+	private static DxfTokenizer slice(ByteBuffer buffer, boolean binary, int start, int end) {
+		ByteBuffer slice = buffer.duplicate();
+		slice.limit(end);
+		slice.position(start);
+		return binary ? new BinaryDxfTokenizer(slice, false) : new DxfTokenizer(slice);
+	}
+
+	/**
+	 * 読み込む範囲のトークナイザ
+	 */
+	private final DxfTokenizer in;
+
+	/**
+	 * 読み込み時に発生した例外
+	 */
+	private IOException exception;
+
+	/**
+	 * セクションリーダ
+	 */
+	private final SectionReader reader;
+
+	/**
+	 * @param reader
+	 *            セクションリーダ
+	 * @param in
+	 *            読み込む範囲のトークナイザ
+	 */
+	public SectionTask(SectionReader reader, DxfTokenizer in) {
+		this.reader = reader;
+		this.in = in;
+	}
+
+	/**
+	 * @see java.util.concurrent.RecursiveAction#compute()
+	 */
+	@Override
+	protected void compute() {
+		try {
+			this.reader.readSection(this.in);
+		} catch (IOException e) {
+			this.exception = e;
+		}
+	}
+
+	/**
+	 * 読み込む範囲の終了位置を取得するメソッド
+	 *
+	 * @return 読み込む範囲の終了位置
+	 */
+	public int getEnd() {
+		return this.in.limit;
+	}
+
+	/**
+	 * 読み込んだデータをDXFファイルのデータに関連付けるメソッド タスクが終了してから呼び出す必要がある。
+	 *
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 * @throws IOException
+	 *             読み込みに失敗していた場合
+	 */
+	public void linkData(DxfData dxf) throws IOException {
+		if (this.exception != null) {
+			throw this.exception;
+		}
+		this.reader.linkData(dxf);
+	}
+}
@@ -0,0 +1,204 @@
+package dxf.section;
+
+import java.nio.charset.Charset;
+
+/**
+ * 図面ごとに名前を識別番号に変換して保持するためのクラス
+ *
+ * 読み込み時に線種などの名前を小さな整数に置き換え、図形は文字列ではなく識別番号を保持します。
+ * 描画やチェックでは識別番号を比較するだけで済み、図形ごとに文字列を生成することもありません。
+ * ビューアが扱う線種はすべての図面で共通の識別番号を予約しており、それ以外の名前には図面ごとに新しい識別番号を割り当てます。
+ * 名前の登録は並列に読み込むセクションリーダから呼び出しても構いません。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class SymbolTable {
+
+	/**
+	 * 線種を指定していない（BYLAYER）
+	 */
+	public static final int BYLAYER = 0;
+
+	/**
+	 * 実線
+	 */
+	public static final int CONTINUOUS = 1;
+
+	/**
+	 * 隠れ線
+	 */
+	public static final int HIDDEN = 2;
+
+	/**
+	 * 中心線
+	 */
+	public static final int CENTER = 3;
+
+	/**
+	 * 想像線
+	 */
+	public static final int PHANTOM = 4;
+
+	/**
+	 * ブロックの線種
+	 */
+	public static final int BYBLOCK = 5;
+
+	/**
+	 * 破線
+	 */
+	public static final int DASHED = 6;
+
+	/**
+	 * 寸法線（独自に設定する線種）
+	 */
+	public static final int DIMENSION = 7;
+
+	/**
+	 * 引き出し線（独自に設定する線種）
+	 */
+	public static final int INSERT = 8;
+
+	/**
+	 * チェック用の補助線（独自に設定する線種）
+	 */
+	public static final int CHECK = 9;
+
+	private static final Charset CHARSET = Charset.forName("SJIS");
+
+	/**
+	 * 予約した識別番号に対応する名前
+	 */
+	private static final String[] PREDEFINED = { null, "CONTINUOUS", "HIDDEN", "CENTER", "PHANTOM", "BYBLOCK", "DASHED", "DIMENSION", "INSERT",
+			"CHECK" };
+
+	/**
+	 * 予約した識別番号の数
+	 */
+	public static final int PREDEFINED_SIZE = SymbolTable.PREDEFINED.length;
+
+	/**
+	 * 予約した線種の識別番号を取得するメソッド
+	 *
+	 * @param name
+	 *            線種名、nullであれば線種を指定していないものとする
+	 * @return 識別番号、予約していない名前であれば-1
+	 */
+	public static int getPredefinedId(String name) {
+		if (name == null) {
+			return SymbolTable.BYLAYER;
+		}
+		for (int i = 1; i < SymbolTable.PREDEFINED_SIZE; i++) {
+			if (name.equals(SymbolTable.PREDEFINED[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 識別番号に対応する名前のバイト列
+	 */
+	private volatile byte[][] encoded;
+
+	/**
+	 * 識別番号に対応する名前
+	 */
+	private volatile String[] names;
+
+	/**
+	 * 予約した線種のみを登録した名前の表を生成します。
+	 */
+	public SymbolTable() {
+		this.names = SymbolTable.PREDEFINED.clone();
+		this.encoded = new byte[SymbolTable.PREDEFINED_SIZE][];
+		for (int i = 1; i < SymbolTable.PREDEFINED_SIZE; i++) {
+			this.encoded[i] = this.names[i].getBytes(SymbolTable.CHARSET);
+		}
+	}
+
+	/**
+	 * 識別番号に対応する名前を取得するメソッド
+	 *
+	 * @param id
+	 *            識別番号
+	 * @return 名前、線種を指定していない場合や登録していない識別番号であればnull
+	 */
+	public String getName(int id) {
+		String[] names = this.names;
+		return id > 0 && id < names.length ? names[id] : null;
+	}
+
+	/**
+	 * 名前を登録して識別番号を取得するメソッド 登録済みの名前であれば、文字列を生成せずに識別番号を返します。
+	 *
+	 * @param value
+	 *            データ
+	 * @return 識別番号
+	 */
+	public int intern(DxfValue value) {
+		byte[][] encoded = this.encoded;
+		for (int i = 1; i < encoded.length; i++) {
+			if (value.contentEquals(encoded[i])) {
+				return i;
+			}
+		}
+		return this.add(value.toString());
+	}
+
+	/**
+	 * 名前を登録して識別番号を取得するメソッド
+	 *
+	 * @param name
+	 *            名前、nullであれば線種を指定していないものとする
+	 * @return 識別番号
+	 */
+	public int intern(String name) {
+		if (name == null) {
+			return SymbolTable.BYLAYER;
+		}
+		String[] names = this.names;
+		for (int i = 1; i < names.length; i++) {
+			if (name.equals(names[i])) {
+				return i;
+			}
+		}
+		return this.add(name);
+	}
+
+	/**
+	 * 登録した名前の数を取得するメソッド
+	 *
+	 * @return 予約した識別番号を含めた名前の数
+	 */
+	public int size() {
+		return this.names.length;
+	}
+
+	/**
+	 * 名前を追加するメソッド 他のスレッドが同じ名前を先に追加していれば、その識別番号を返します。
+	 * 配列は追加のたびに複製するため、参照している配列が変更されることはありません。
+	 *
+	 * @param name
+	 *            名前
+	 * @return 識別番号
+	 */
+	private synchronized int add(String name) {
+		int size = this.names.length;
+		for (int i = 1; i < size; i++) {
+			if (name.equals(this.names[i])) {
+				return i;
+			}
+		}
+		String[] names = new String[size + 1];
+		System.arraycopy(this.names, 0, names, 0, size);
+		names[size] = name;
+		byte[][] encoded = new byte[size + 1][];
+		System.arraycopy(this.encoded, 0, encoded, 0, size);
+		encoded[size] = name.getBytes(SymbolTable.CHARSET);
+		this.names = names;
+		this.encoded = encoded;
+		return size;
+	}
+}
@@ -3,6 +3,9 @@
  */
 package dxf.section.entities;
 
+import dxf.section.DxfValue;
+import dxf.section.SymbolTable;
+
 /**
  * DXFファイルからARCを読み込むためのクラス
  * 
@@ -11,25 +14,59 @@ package dxf.section.entities;
  */
 public class ArcReader implements EntityReader {
 
-	private Number endAngle;
-	private Number radius;
-	private Number startAngle;
-	private String type;
-	private Number x;
+	private static final int X = 1;
+
+	private static final int Y = 2;
+
+	private static final int RADIUS = 4;
+
+	private static final int START_ANGLE = 8;
+
+	private static final int END_ANGLE = 16;
+
+	/**
+	 * 円弧を作るのに必要な、中心の座標と半径、開始角度と終了角度のビット
+	 */
+	private static final int FIGURE = X | Y | RADIUS | START_ANGLE | END_ANGLE;
+
+	/**
+	 * 現在の円弧で読み込んだ中心の座標と半径、角度のビット
+	 */
+	private int flags;
+
+	private double endAngle;
+	private double radius;
+	private double startAngle;
 
-	private Number y;
+	/**
+	 * 線種名を登録する名前の表
+	 */
+	private final SymbolTable symbols;
+
+	/**
+	 * 線種の識別番号
+	 */
+	private int type;
+
+	private double x;
+
+	private double y;
+
+	/**
+	 * @param symbols
+	 *            線種名を登録する名前の表
+	 */
+	public ArcReader(SymbolTable symbols) {
+		this.symbols = symbols;
+	}
 
 	/**
 	 * @see dxf.section.entities.EntityReader#clear()
 	 */
 	@Override
 	public void clear() {
-		this.x = null;
-		this.y = null;
-		this.radius = null;
-		this.startAngle = null;
-		this.endAngle = null;
-		this.type = null;
+		this.flags = 0;
+		this.type = SymbolTable.BYLAYER;
 	}
 
 	/**
@@ -37,7 +74,7 @@ public class ArcReader implements EntityReader {
 	 */
 	@Override
 	public boolean hasFigure() {
-		return this.x != null && this.y != null && this.radius != null && this.startAngle != null && this.endAngle != null;
+		return (this.flags & FIGURE) == FIGURE;
 	}
 
 	/**
@@ -49,28 +86,33 @@ public class ArcReader implements EntityReader {
 	}
 
 	/**
-	 * @see dxf.section.entities.EntityReader#readFigure(int, java.lang.String)
+	 * @see dxf.section.entities.EntityReader#readFigure(int, dxf.section.DxfValue)
 	 */
 	@Override
-	public void readFigure(int groupCode, String line) {
+	public void readFigure(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 6: // 線種
-			this.type = line;
+			this.type = this.symbols.intern(value);
 			break;
 		case 10:
-			this.x = Double.valueOf(line);
+			this.x = value.parseDouble();
+			this.flags |= X;
 			break;
 		case 20:
-			this.y = Double.valueOf(line);
+			this.y = value.parseDouble();
+			this.flags |= Y;
 			break;
 		case 40:
-			this.radius = Double.valueOf(line);
+			this.radius = value.parseDouble();
+			this.flags |= RADIUS;
 			break;
 		case 50:
-			this.startAngle = Double.valueOf(line);
+			this.startAngle = value.parseDouble();
+			this.flags |= START_ANGLE;
 			break;
 		case 51:
-			this.endAngle = Double.valueOf(line);
+			this.endAngle = value.parseDouble();
+			this.flags |= END_ANGLE;
 			break;
 		}
 
@@ -1,5 +1,8 @@
 package dxf.section.entities;
 
+import dxf.section.DxfValue;
+import dxf.section.SymbolTable;
+
 /**
  * DXFファイルから円を読み込むためのクラス
  * 
@@ -8,34 +11,76 @@ package dxf.section.entities;
  */
 public class CircleReader implements EntityReader {
 
+	/**
+	 * 1つの配列に保持する円の数
+	 * 配列が一杯になると新しい配列に追加するため、図形を保持しない場合は古い配列ごと破棄されます。
+	 */
+	private static final int STORE_SIZE = 4096;
+
+	private static final int RADIUS = 1;
+
+	private static final int X = 2;
+
+	private static final int Y = 4;
+
+	/**
+	 * 円を作るのに必要な、中心の座標と半径のビット
+	 */
+	private static final int FIGURE = RADIUS | X | Y;
+
+	/**
+	 * 現在の円で読み込んだ中心の座標と半径のビット
+	 */
+	private int flags;
+
 	/**
 	 * 半径
 	 */
-	private Number radius;
+	private double radius;
 
-	private String type;
+	/**
+	 * 読み込んだ円を保持する配列
+	 */
+	private CircleStore store;
+
+	/**
+	 * 線種名を登録する名前の表
+	 */
+	private final SymbolTable symbols;
+
+	/**
+	 * 線種の識別番号
+	 */
+	private int type;
 
 	/**
 	 * Y座標値
 	 */
-	private Number x;
+	private double x;
 
 	/**
 	 * X座標値
 	 */
-	private Number y;
+	private double y;
+
+	/**
+	 * @param symbols
+	 *            線種名を登録する名前の表
+	 */
+	public CircleReader(SymbolTable symbols) {
+		this.symbols = symbols;
+		this.store = new CircleStore(CircleReader.STORE_SIZE);
+	}
 
 	@Override
 	public void clear() {
-		this.radius = null;
-		this.x = null;
-		this.y = null;
-		this.type = null;
+		this.flags = 0;
+		this.type = SymbolTable.BYLAYER;
 	}
 
 	@Override
 	public boolean hasFigure() {
-		return this.radius != null && this.x != null && this.y != null;
+		return (this.flags & FIGURE) == FIGURE;
 	}
 
 	/**
@@ -43,7 +88,10 @@ public class CircleReader implements EntityReader {
 	 */
 	@Override
 	public DxfEntity makeFigure() {
-		return new DxfCircle(this.radius.doubleValue(), this.x, this.y, this.type);
+		if (this.store.size() == CircleReader.STORE_SIZE) {
+			this.store = new CircleStore(CircleReader.STORE_SIZE);
+		}
+		return this.store.add(this.radius, this.x, this.y, this.type);
 	}
 
 	/**
@@ -51,24 +99,27 @@ public class CircleReader implements EntityReader {
 	 * 
 	 * @param groupCode
 	 *            グループコード
-	 * @param line
-	 *            データライン
+	 * @param value
+	 *            データ
 	 */
 	@Override
-	public void readFigure(int groupCode, String line) {
+	public void readFigure(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 6: // 線種
-			this.type = line;
+			this.type = this.symbols.intern(value);
 			break;
 		case 10:
-			this.x = Double.valueOf(line);
+			this.x = value.parseDouble();
+			this.flags |= X;
 			break;
 		case 20:
-			this.y = Double.valueOf(line);
+			this.y = value.parseDouble();
+			this.flags |= Y;
 			break;
 		// TODO Z座標、Z座標軸を考慮しなければならない。
 		case 40:
-			this.radius = Double.valueOf(line);
+			this.radius = value.parseDouble();
+			this.flags |= RADIUS;
 			break;
 		}
 	}
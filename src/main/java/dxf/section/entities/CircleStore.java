@@ -0,0 +1,225 @@
+package dxf.section.entities;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 円の座標と属性を配列にまとめて保持するためのクラス
+ *
+ * 外接する正方形の左下の座標、直径、線種の識別番号、フラグをそれぞれ配列で保持します。
+ * {@link DxfCircle}はこの配列の1行を参照するビューで、{@link LineStore}と同じく円ごとに1つ作って保持し続けます。
+ * 追加は1つのスレッドから行うこと。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class CircleStore {
+
+	/**
+	 * チェック済みの円を表すフラグ
+	 */
+	static final byte CHECKED = 1;
+
+	/**
+	 * 異常を検出した円を表すフラグ
+	 */
+	static final byte ERROR = 2;
+
+	/**
+	 * 円のリストを1つの配列にまとめるメソッド 各円は新しい配列を参照するビューになります。
+	 *
+	 * @param entities
+	 *            円のリスト
+	 * @return 円をリストの順に保持する配列
+	 */
+	public static CircleStore pack(List<? extends DxfEntity> entities) {
+		CircleStore store = new CircleStore(entities.size());
+		for (DxfEntity entity : entities) {
+			DxfCircle circle = (DxfCircle) entity;
+			CircleStore from = circle.store;
+			int i = circle.index;
+			circle.index = store.append(circle, from.x[i], from.y[i], from.diameters[i], from.styles[i], from.flags[i]);
+			circle.store = store;
+		}
+		return store;
+	}
+
+	/**
+	 * 円のビュー
+	 */
+	private DxfCircle[] circles;
+
+	/**
+	 * 直径
+	 */
+	double[] diameters;
+
+	/**
+	 * フラグ
+	 */
+	byte[] flags;
+
+	/**
+	 * 保持している円の数
+	 */
+	private int size;
+
+	/**
+	 * 線種の識別番号
+	 */
+	int[] styles;
+
+	/**
+	 * 外接する正方形の最小のX座標
+	 */
+	double[] x;
+
+	/**
+	 * 外接する正方形の最小のY座標
+	 */
+	double[] y;
+
+	public CircleStore() {
+		this(16);
+	}
+
+	/**
+	 * @param capacity
+	 *            初期容量
+	 */
+	public CircleStore(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.x = new double[capacity];
+		this.y = new double[capacity];
+		this.diameters = new double[capacity];
+		this.styles = new int[capacity];
+		this.flags = new byte[capacity];
+		this.circles = new DxfCircle[capacity];
+	}
+
+	/**
+	 * 円を追加するメソッド
+	 *
+	 * @param radius
+	 *            半径
+	 * @param x
+	 *            中心のX座標
+	 * @param y
+	 *            中心のY座標
+	 * @param style
+	 *            線種の識別番号
+	 * @return 追加した円のビュー
+	 */
+	public DxfCircle add(double radius, double x, double y, int style) {
+		return new DxfCircle(this, radius, x, y, style);
+	}
+
+	/**
+	 * 配列の末尾に円のデータを追加するメソッド 容量が足りなければ配列を拡張します。
+	 *
+	 * @param circle
+	 *            追加する行を参照するビュー
+	 * @return 追加した位置
+	 */
+	int append(DxfCircle circle, double x, double y, double diameter, int style, byte flag) {
+		if (this.size == this.x.length) {
+			int capacity = this.size + (this.size >> 1) + 1;
+			this.x = Arrays.copyOf(this.x, capacity);
+			this.y = Arrays.copyOf(this.y, capacity);
+			this.diameters = Arrays.copyOf(this.diameters, capacity);
+			this.styles = Arrays.copyOf(this.styles, capacity);
+			this.flags = Arrays.copyOf(this.flags, capacity);
+			this.circles = Arrays.copyOf(this.circles, capacity);
+		}
+		int index = this.size++;
+		this.x[index] = x;
+		this.y[index] = y;
+		this.diameters[index] = diameter;
+		this.styles[index] = style;
+		this.flags[index] = flag;
+		this.circles[index] = circle;
+		return index;
+	}
+
+	/**
+	 * 円のビューを取得するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @return 円
+	 */
+	public DxfCircle getCircle(int index) {
+		return this.circles[index];
+	}
+
+	/**
+	 * 中心のX座標を取得するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @return 中心のX座標
+	 */
+	public double getX(int index) {
+		return this.x[index] + this.diameters[index] / 2;
+	}
+
+	/**
+	 * 中心のY座標を取得するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @return 中心のY座標
+	 */
+	public double getY(int index) {
+		return this.y[index] + this.diameters[index] / 2;
+	}
+
+	/**
+	 * 半径を取得するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @return 半径
+	 */
+	public double getRadius(int index) {
+		return this.diameters[index] / 2;
+	}
+
+	/**
+	 * 線種の識別番号を取得するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @return 線種の識別番号
+	 */
+	public int getStyle(int index) {
+		return this.styles[index];
+	}
+
+	/**
+	 * フラグを設定するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @param mask
+	 *            フラグ
+	 * @param flag
+	 *            設定する場合true、解除する場合false
+	 */
+	void setFlag(int index, byte mask, boolean flag) {
+		if (flag) {
+			this.flags[index] |= mask;
+		} else {
+			this.flags[index] &= ~mask;
+		}
+	}
+
+	/**
+	 * 保持している円の数を取得するメソッド
+	 *
+	 * @return 円の数
+	 */
+	public int size() {
+		return this.size;
+	}
+}
@@ -3,6 +3,8 @@
  */
 package dxf.section.entities;
 
+import dxf.section.DxfValue;
+
 /**
  * DXFファイルからINSERTを読み込むためのクラス
  * 
@@ -11,6 +13,20 @@ package dxf.section.entities;
  */
 public class DimensionReader implements EntityReader {
 
+	private static final int X1 = 1;
+
+	private static final int Y1 = 2;
+
+	/**
+	 * 寸法を作るのに必要な、ブロックの挿入位置のX座標とY座標のビット ブロック名は別に確認します。
+	 */
+	private static final int FIGURE = X1 | Y1;
+
+	/**
+	 * 現在の寸法で読み込んだブロックの挿入位置の座標のビット
+	 */
+	private int flags;
+
 	/**
 	 * 挿入するブロック名
 	 */
@@ -19,21 +35,20 @@ public class DimensionReader implements EntityReader {
 	/**
 	 * ブロックの挿入位置のX座標
 	 */
-	private Number x1;
+	private double x1;
 
 	/**
 	 * ブロックの挿入位置のY座標
 	 */
-	private Number y1;
+	private double y1;
 
 	/**
 	 * @see dxf.section.entities.EntityReader#clear()
 	 */
 	@Override
 	public void clear() {
+		this.flags = 0;
 		this.block = null;
-		this.x1 = null;
-		this.y1 = null;
 	}
 
 	/**
@@ -41,7 +56,7 @@ public class DimensionReader implements EntityReader {
 	 */
 	@Override
 	public boolean hasFigure() {
-		return this.block != null && this.x1 != null && this.y1 != null;
+		return this.block != null && (this.flags & FIGURE) == FIGURE;
 	}
 
 	/**
@@ -53,19 +68,21 @@ public class DimensionReader implements EntityReader {
 	}
 
 	/**
-	 * @see dxf.section.entities.EntityReader#readFigure(int, java.lang.String)
+	 * @see dxf.section.entities.EntityReader#readFigure(int, dxf.section.DxfValue)
 	 */
 	@Override
-	public void readFigure(int groupCode, String line) {
+	public void readFigure(int groupCode, DxfValue value) {
 		switch (groupCode) {
 			case 2: // 名前
-				this.block = line;
+				this.block = value.toString();
 				break;
 			case 10: // X座標値
-				this.x1 = Double.valueOf(line);
+				this.x1 = value.parseDouble();
+				this.flags |= X1;
 				break;
 			case 20: // Y座標値
-				this.y1 = Double.valueOf(line);
+				this.y1 = value.parseDouble();
+				this.flags |= Y1;
 				break;
 		}
 	}
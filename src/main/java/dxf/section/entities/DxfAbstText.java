@@ -1,6 +1,14 @@
 package dxf.section.entities;
 
 public interface DxfAbstText extends DxfEntity {
+
+	/**
+	 * 文字の高さを取得するメソッド
+	 * 
+	 * @return 文字の高さ
+	 */
+	public double getHeight();
+
 	public String getText();
 
 	public double getX();
@@ -9,12 +9,16 @@ import java.awt.Stroke;
 import java.awt.geom.Arc2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 
 import util.RoundNumber;
 
 import dxf.DxfData;
 import dxf.checker.DimensionNode;
+import dxf.section.SymbolTable;
 
 /**
  * DXFファイルのアークを扱うクラス
@@ -32,24 +36,35 @@ public class DxfArc implements DxfEntity {
 	private boolean isError;
 
 	/**
-	 * 線種
+	 * 線種の識別番号
 	 */
-	private String lineType;
+	private int lineType;
 
 	public DxfArc(Arc2D.Double arc) {
-		this.lineType = "CONTINUOUS";
+		this.lineType = SymbolTable.CONTINUOUS;
 		this.arc = arc;
 	}
 
-	public DxfArc(Number x, Number y, Number radius, Number startAngle, Number endAngle, String type) {
+	public DxfArc(double x, double y, double radius, double startAngle, double endAngle, int type) {
 		this.lineType = type;
 		this.arc = new Arc2D.Double(Arc2D.OPEN);
-		this.arc.x = x.doubleValue() - radius.doubleValue();
-		this.arc.y = y.doubleValue() - radius.doubleValue();
-		this.arc.width = radius.doubleValue() * 2;
+		this.arc.x = x - radius;
+		this.arc.y = y - radius;
+		this.arc.width = radius * 2;
 		this.arc.height = this.arc.width;
-		this.arc.start = -endAngle.doubleValue();
-		this.arc.extent = endAngle.doubleValue() - startAngle.doubleValue();
+		this.arc.start = -endAngle;
+		this.arc.extent = endAngle - startAngle;
+	}
+
+	/**
+	 * {@link #write(DataOutput)}で書き出したバイト列から円弧を復元します。
+	 *
+	 * @param in
+	 *            バイト列
+	 */
+	DxfArc(ByteBuffer in) {
+		this.arc = new Arc2D.Double(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getInt());
+		this.lineType = in.getInt();
 	}
 
 	/**
@@ -106,7 +121,7 @@ public class DxfArc implements DxfEntity {
 	 */
 
 	public void getCheckPoints(Collection<DimensionNode> pointsX, Collection<DimensionNode> pointsY) {
-		if ("CONTINUOUS".equals(this.lineType)) {
+		if (this.lineType == SymbolTable.CONTINUOUS) {
 			Point2D p1 = this.arc.getStartPoint();
 			pointsX.add(new DimensionNode(p1.getX()));
 			pointsY.add(new DimensionNode(p1.getY()));
@@ -155,6 +170,15 @@ public class DxfArc implements DxfEntity {
 		return this.arc.getMinY();
 	}
 
+	/**
+	 * 描画に使う円弧を取得するメソッド
+	 * 
+	 * @return 円弧
+	 */
+	Shape getShape() {
+		return this.arc;
+	}
+
 	public Point2D getStartPoint() {
 		return this.arc.getStartPoint();
 	}
@@ -186,7 +210,7 @@ public class DxfArc implements DxfEntity {
 		return new DxfArc(arc);
 	}
 
-	public String getType() {
+	public int getType() {
 		return this.lineType;
 	}
 
@@ -219,12 +243,21 @@ public class DxfArc implements DxfEntity {
 		return shape.contains(this.arc.getBounds2D());
 	}
 
+	/**
+	 * 異常を検出したかどうかを調べるメソッド
+	 * 
+	 * @return 異常を検出した円弧であればtrue
+	 */
+	boolean isError() {
+		return this.isError;
+	}
+
 	/**
 	 * @see dxf.section.entities.DxfEntity#isSelectable()
 	 */
 
 	public boolean isSelectable() {
-		return !"CENTER".equals(this.lineType);
+		return this.lineType != SymbolTable.CENTER;
 	}
 
 	/**
@@ -312,4 +345,23 @@ public class DxfArc implements DxfEntity {
 		this.arc.x += dx;
 		this.arc.y += dy;
 	}
+
+	/**
+	 * 円弧を{@link EntityCodec}のバイト列に書き出すメソッド
+	 * 
+	 * @param out
+	 *            出力先
+	 * @throws IOException
+	 *             書き出しに失敗した場合
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeDouble(this.arc.x);
+		out.writeDouble(this.arc.y);
+		out.writeDouble(this.arc.width);
+		out.writeDouble(this.arc.height);
+		out.writeDouble(this.arc.start);
+		out.writeDouble(this.arc.extent);
+		out.writeInt(this.arc.getArcType());
+		out.writeInt(this.lineType);
+	}
 }
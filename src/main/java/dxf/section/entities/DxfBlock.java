@@ -0,0 +1,108 @@
+package dxf.section.entities;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import dxf.DxfData;
+
+/**
+ * ブロックセクションで定義された図形をまとめて保持するためのクラス
+ *
+ * ブロックの図形はブロックの座標系のまま1つだけ保持し、挿入する側は{@link DxfInsert}のように
+ * この定義への参照と座標変換だけを持ちます。同じブロックを何度挿入しても図形は複製も移動もしません。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class DxfBlock {
+
+	/**
+	 * ブロックの図形を包含する最小の長方形
+	 */
+	private Rectangle2D bounds;
+
+	/**
+	 * ブロックの図形
+	 */
+	private final List<DxfEntity> entities;
+
+	/**
+	 * 図形を補完したかどうか
+	 */
+	private boolean isLinked;
+
+	/**
+	 * ブロック名
+	 */
+	private final String name;
+
+	/**
+	 * @param name
+	 *            ブロック名
+	 * @param entities
+	 *            ブロックの座標系で表した図形
+	 */
+	public DxfBlock(String name, Collection<DxfEntity> entities) {
+		this.name = name;
+		this.entities = Collections.unmodifiableList(new ArrayList<DxfEntity>(entities));
+	}
+
+	/**
+	 * ブロックの図形を包含する最小の長方形を取得するメソッド 初めて呼び出したときに求め、以降は同じ値を返します。
+	 *
+	 * @return ブロックの座標系での長方形、図形がなければnull
+	 */
+	public Rectangle2D getBounds2D() {
+		if (this.bounds == null) {
+			Rectangle2D bounds = null;
+			for (DxfEntity entity : this.entities) {
+				Rectangle2D rect = entity.getBounds2D();
+				if (rect != null) {
+					if (bounds == null) {
+						bounds = new Rectangle2D.Double(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+					} else {
+						bounds.add(rect);
+					}
+				}
+			}
+			this.bounds = bounds;
+		}
+		return this.bounds;
+	}
+
+	/**
+	 * ブロックの図形を取得するメソッド
+	 *
+	 * @return 変更できない図形のリスト
+	 */
+	public List<DxfEntity> getEntities() {
+		return this.entities;
+	}
+
+	/**
+	 * ブロック名を取得するメソッド
+	 *
+	 * @return ブロック名
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * ブロックの図形を他のセクションのデータにより補完するメソッド 何度呼び出しても補完は一度だけ行います。
+	 *
+	 * @param dxf
+	 *            DXFファイルのデータ
+	 */
+	public void link(DxfData dxf) {
+		if (!this.isLinked) {
+			this.isLinked = true;
+			for (DxfEntity entity : this.entities) {
+				entity.link(dxf);
+			}
+		}
+	}
+}
@@ -18,6 +18,7 @@ import util.RoundNumber;
 
 import dxf.DxfData;
 import dxf.checker.DimensionNode;
+import dxf.section.SymbolTable;
 
 /**
  * DXFファイルの円を扱うクラス
@@ -27,26 +28,55 @@ import dxf.checker.DimensionNode;
  */
 public class DxfCircle implements DxfEntity {
 
-	private boolean checked = false;
+	/**
+	 * 円を保持する配列での位置
+	 */
+	int index;
 
-	private Ellipse2D.Double circle;
+	/**
+	 * 円を保持する配列
+	 */
+	CircleStore store;
 
-	private boolean isError;
+	/**
+	 * 円を1つだけ保持する配列を用意して円を生成します。 多数の円を読み込む場合は{@link CircleStore#add(double, double, double, int)}を使うこと。
+	 */
+	public DxfCircle(double radius, double x, double y, int type) {
+		this(new CircleStore(1), radius, x, y, type);
+	}
 
 	/**
-	 * 線種
+	 * 配列に円を追加して、その行を参照する円を生成します。
+	 * 
+	 * @param store
+	 *            円を保持する配列
 	 */
-	private String style;
+	DxfCircle(CircleStore store, double radius, double x, double y, int type) {
+		this.store = store;
+		this.index = store.append(this, x - radius, y - radius, radius * 2, type, (byte) 0);
+	}
 
-	public DxfCircle(Number radius, Number x, Number y, String type) {
-		double r = radius.doubleValue();
-		double diameter = r * 2;
-		this.circle = new Ellipse2D.Double(x.doubleValue() - r, y.doubleValue() - r, diameter, diameter);
-		this.style = type;
+	/**
+	 * 配列の1行の値をそのまま追加して、その行を参照する円を生成します。
+	 *
+	 * @param store
+	 *            円を保持する配列
+	 * @param minX
+	 *            外接する正方形の最小のX座標
+	 * @param minY
+	 *            外接する正方形の最小のY座標
+	 * @param diameter
+	 *            直径
+	 * @param flag
+	 *            フラグ
+	 */
+	DxfCircle(CircleStore store, double minX, double minY, double diameter, int type, byte flag) {
+		this.store = store;
+		this.index = store.append(this, minX, minY, diameter, type, flag);
 	}
 
 	public void checked() {
-		this.checked = true;
+		this.store.setFlag(this.index, CircleStore.CHECKED, true);
 	}
 
 	private boolean checkSymmetry(Collection<DxfCircle> circleX, Collection<DxfCircle> circleY) {
@@ -54,7 +84,7 @@ public class DxfCircle implements DxfEntity {
 			if (this != cx) {
 				for (DxfCircle cy : circleY) {
 					if (this != cy) {
-						if (this.equalsCenter(cx.circle.getCenterX(), cy.circle.getCenterY())) {
+						if (this.equalsCenter(cx.getX(), cy.getY())) {
 							return true;
 						}
 					}
@@ -68,22 +98,23 @@ public class DxfCircle implements DxfEntity {
 	 * @see dxf.section.entities.DxfEntity#clearError()
 	 */
 	public void clearError() {
-		this.isError = false;
+		this.store.setFlag(this.index, CircleStore.ERROR, false);
 	}
 
 	public void draw(Graphics2D g, ViewingEnvironment env) {
 		Color color = g.getColor();
-		if (this.isError || !this.checked) {
+		boolean highlight = this.isHighlighted();
+		if (highlight) {
 			g.setColor(env.getErrorColor());
 		}
-		Stroke stroke = env.getStroke(this.style);
+		Stroke stroke = env.getStroke(this.getStyle());
 		if (stroke != null) {
 			Stroke defaultStroke = g.getStroke();
 			g.setStroke(stroke);
-			g.draw(this.circle);
+			g.draw(this.getShape());
 			g.setStroke(defaultStroke);
 		}
-		if (this.isError || !this.checked) {
+		if (highlight) {
 			g.setColor(color);
 		}
 	}
@@ -92,18 +123,18 @@ public class DxfCircle implements DxfEntity {
 		if (this.hashCode() == obj.hashCode()) {
 			if (obj instanceof DxfCircle) {
 				DxfCircle circle = (DxfCircle) obj;
-				return this.circle.equals(circle.circle);
+				return this.getMinX() == circle.getMinX() && this.getMinY() == circle.getMinY() && this.getDiameter() == circle.getDiameter();
 			}
 		}
 		return false;
 	}
 
 	public boolean equalsCenter(double x, double y) {
-		return RoundNumber.nearlyEquals(this.circle.getCenterX(), x) && RoundNumber.nearlyEquals(this.circle.getCenterY(), y);
+		return RoundNumber.nearlyEquals(this.getX(), x) && RoundNumber.nearlyEquals(this.getY(), y);
 	}
 
 	private boolean equalsScrew(DxfCircle c) {
-		return RoundNumber.nearlyEquals(c.circle.width, this.circle.width);
+		return RoundNumber.nearlyEquals(c.getDiameter(), this.getDiameter());
 	}
 
 	/**
@@ -111,7 +142,8 @@ public class DxfCircle implements DxfEntity {
 	 * @see java.awt.Shape#getBounds2D()
 	 */
 	public Rectangle2D getBounds2D() {
-		return this.circle.getBounds2D();
+		double diameter = this.getDiameter();
+		return new Rectangle2D.Double(this.getMinX(), this.getMinY(), diameter, diameter);
 	}
 
 	public void getCenterLinkCircles(Set<DxfCircle> result, DxfCircle circle, Collection<DxfCircle> circles, Collection<DxfLine> centers) {
@@ -133,13 +165,13 @@ public class DxfCircle implements DxfEntity {
 	 * @see dxf.section.entities.DxfEntity#getCheckPoints(java.util.Collection, java.util.Collection)
 	 */
 	public void getCheckPoints(Collection<DimensionNode> pointsX, Collection<DimensionNode> pointsY) {
-		if (!"CENTER".equals(this.style)) {
-			pointsX.add(new DimensionNode(this.circle.x + this.circle.width / 2));
-			pointsY.add(new DimensionNode(this.circle.y + this.circle.height / 2));
-			pointsX.add(new DimensionNode(this.circle.x, false));
-			pointsX.add(new DimensionNode(this.circle.x + this.circle.width, false));
-			pointsY.add(new DimensionNode(this.circle.y, false));
-			pointsY.add(new DimensionNode(this.circle.y + this.circle.height, false));
+		if (this.getStyle() != SymbolTable.CENTER) {
+			pointsX.add(new DimensionNode(this.getX()));
+			pointsY.add(new DimensionNode(this.getY()));
+			pointsX.add(new DimensionNode(this.getMinX(), false));
+			pointsX.add(new DimensionNode(this.getMaxX(), false));
+			pointsY.add(new DimensionNode(this.getMinY(), false));
+			pointsY.add(new DimensionNode(this.getMaxY(), false));
 		}
 	}
 
@@ -154,9 +186,8 @@ public class DxfCircle implements DxfEntity {
 		double min = Double.POSITIVE_INFINITY;
 		for (DxfCircle c : circles) {
 			if (c != this) {
-				if (RoundNumber.nearlyEquals(c.circle.getCenterX(), this.circle.getCenterX())
-						&& RoundNumber.nearlyEquals(c.circle.getCenterY(), this.circle.getCenterY())) {
-					double diff = Math.abs(c.circle.width - this.circle.width);
+				if (RoundNumber.nearlyEquals(c.getX(), this.getX()) && RoundNumber.nearlyEquals(c.getY(), this.getY())) {
+					double diff = Math.abs(c.getDiameter() - this.getDiameter());
 					if (Double.compare(min, diff) > 0) {
 						min = diff;
 						circle = c;
@@ -171,7 +202,7 @@ public class DxfCircle implements DxfEntity {
 	 * @return 直径
 	 */
 	public double getDiameter() {
-		return this.circle.width;
+		return this.store.diameters[this.index];
 	}
 
 	/**
@@ -184,9 +215,9 @@ public class DxfCircle implements DxfEntity {
 	 * @return 点と円の距離
 	 */
 	public double getDistSq(double x, double y) {
-		double dx = this.circle.x - x;
-		double dy = this.circle.y - y;
-		double radius = this.circle.width / 2;
+		double dx = this.getMinX() - x;
+		double dy = this.getMinY() - y;
+		double radius = this.getRadius();
 		return Math.abs(dx * dx + dy * dy - radius * radius);
 	}
 
@@ -201,23 +232,23 @@ public class DxfCircle implements DxfEntity {
 	}
 
 	public double getMaxX() {
-		return this.circle.x + this.circle.width;
+		return this.getMinX() + this.getDiameter();
 	}
 
 	public double getMaxY() {
-		return this.circle.y + this.circle.height;
+		return this.getMinY() + this.getDiameter();
 	}
 
 	public double getMinX() {
-		return this.circle.x;
+		return this.store.x[this.index];
 	}
 
 	public double getMinY() {
-		return this.circle.y;
+		return this.store.y[this.index];
 	}
 
 	public double getRadius() {
-		return this.circle.getWidth() / 2;
+		return this.getDiameter() / 2;
 	}
 	
 	public double getRadiusSq() {
@@ -237,10 +268,9 @@ public class DxfCircle implements DxfEntity {
 	 * @return
 	 */
 	public int getSimilarPatternCircles(int n, Set<DxfCircle> similars, Collection<DxfCircle> circles, Collection<DxfLine> centers, Collection<DxfEntity> errors) {
-		this.checked();
 		similars.add(this);
 		for (DxfCircle circle : circles) {
-			if ("CENTER".equals(circle.getStyle())) {
+			if (circle.getStyle() == SymbolTable.CENTER) {
 				if (RoundNumber.nearlyEqualsZero(circle.ptSegDistSq(this))) {
 					for (DxfCircle c : circles) {
 						if (RoundNumber.nearlyEqualsZero(circle.ptSegDistSq(c))) {
@@ -268,10 +298,10 @@ public class DxfCircle implements DxfEntity {
 		for (DxfCircle c : circles) {
 			if (c != this) {
 				if (this.equalsScrew(c) || (concentric != null && concentric.equalsScrew(c))) {
-					if (RoundNumber.nearlyEquals(c.circle.getCenterX(), this.circle.getCenterX())) {
+					if (RoundNumber.nearlyEquals(c.getX(), this.getX())) {
 						patternY.add(c);
 						n--;
-					} else if (RoundNumber.nearlyEquals(c.circle.getCenterY(), this.circle.getCenterY())) {
+					} else if (RoundNumber.nearlyEquals(c.getY(), this.getY())) {
 						patternX.add(c);
 						n--;
 					}
@@ -299,10 +329,10 @@ public class DxfCircle implements DxfEntity {
 	}
 
 	/**
-	 * @return 線種
+	 * @return 線種の識別番号
 	 */
-	public String getStyle() {
-		return this.style;
+	public int getStyle() {
+		return this.store.styles[this.index];
 	}
 
 	/**
@@ -311,7 +341,7 @@ public class DxfCircle implements DxfEntity {
 	 * @return 中心のX座標
 	 */
 	public double getX() {
-		return this.circle.getCenterX();
+		return this.store.getX(this.index);
 	}
 
 	/**
@@ -320,18 +350,36 @@ public class DxfCircle implements DxfEntity {
 	 * @return 中心のY座標
 	 */
 	public double getY() {
-		return this.circle.getCenterY();
+		return this.store.getY(this.index);
 	}
 
+	/**
+	 * 描画や判定に使う楕円を生成するメソッド
+	 * 
+	 * @return 円を表す楕円
+	 */
+	private Ellipse2D getShape() {
+		double diameter = this.getDiameter();
+		return new Ellipse2D.Double(this.getMinX(), this.getMinY(), diameter, diameter);
+	}
+
+	/**
+	 * @see java.awt.geom.Ellipse2D#hashCode()
+	 */
 	public int hashCode() {
-		return this.circle.hashCode();
+		double diameter = this.getDiameter();
+		long bits = Double.doubleToLongBits(this.getMinX());
+		bits += Double.doubleToLongBits(this.getMinY()) * 37;
+		bits += Double.doubleToLongBits(diameter) * 43;
+		bits += Double.doubleToLongBits(diameter) * 47;
+		return (((int) bits) ^ ((int) (bits >> 32)));
 	}
 
 	/**
 	 * @see dxf.section.entities.DxfEntity#intersects(java.awt.Rectangle2D)
 	 */
 	public boolean intersects(Rectangle2D rect) {
-		return this.circle.intersects(rect);
+		return this.getShape().intersects(rect);
 	}
 
 	/**
@@ -339,7 +387,16 @@ public class DxfCircle implements DxfEntity {
 	 */
 	public boolean isContained(Shape shape) {
 		// TODO 正確に包含関係を調べる必要がある
-		return shape.contains(this.circle.getBounds2D());
+		return shape.contains(this.getBounds2D());
+	}
+
+	/**
+	 * 異常の色で描画するかどうかを調べるメソッド
+	 * 
+	 * @return 異常を検出したか、チェックしていない円であればtrue
+	 */
+	boolean isHighlighted() {
+		return (this.store.flags[this.index] & (CircleStore.ERROR | CircleStore.CHECKED)) != CircleStore.CHECKED;
 	}
 
 	/**
@@ -354,9 +411,9 @@ public class DxfCircle implements DxfEntity {
 	}
 
 	public boolean onCircle(Point2D p) {
-		double dx = this.circle.x - p.getX();
-		double dy = this.circle.y - p.getY();
-		double radius = this.circle.width / 2;
+		double dx = this.getMinX() - p.getX();
+		double dy = this.getMinY() - p.getY();
+		double radius = this.getRadius();
 		return Math.floor((dx * dx + dy * dy) * 100000) == Math.floor(radius * 1000000);
 	}
 
@@ -368,8 +425,8 @@ public class DxfCircle implements DxfEntity {
 	 * @return
 	 */
 	public double ptSegDistSq(double x, double y) {
-		double dx = this.circle.getCenterX() - x;
-		double dy = this.circle.getCenterY() - y;
+		double dx = this.getX() - x;
+		double dy = this.getY() - y;
 		return (dx * dx + dy * dy) - this.getRadiusSq();
 	}
 
@@ -388,11 +445,11 @@ public class DxfCircle implements DxfEntity {
 	 * @see dxf.section.entities.DxfEntity#setError()
 	 */
 	public void setError() {
-		this.isError = true;
+		this.store.setFlag(this.index, CircleStore.ERROR, true);
 	}
 
 	public void transform(double dx, double dy) {
-		this.circle.x += dx;
-		this.circle.y += dy;
+		this.store.x[this.index] += dx;
+		this.store.y[this.index] += dy;
 	}
-}
\ No newline at end of file
+}
@@ -6,8 +6,12 @@ import gui.ViewingEnvironment;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -21,6 +25,7 @@ import util.RoundNumber;
 import util.RoundNumber2D;
 import dxf.DxfData;
 import dxf.checker.DimensionNode;
+import dxf.section.SymbolTable;
 
 /**
  * 寸法を描画するためのクラス
@@ -51,6 +56,11 @@ public class DxfDimension extends DxfEntities {
 	 */
 	private String block;
 
+	/**
+	 * ブロックの定義
+	 */
+	private DxfBlock definition;
+
 	/**
 	 * 寸法に対応する直線
 	 */
@@ -61,6 +71,9 @@ public class DxfDimension extends DxfEntities {
 	 */
 	private List<DxfLine> dimensionAssist;
 
+	/**
+	 * ブロックの図形（{@link #definition}の図形）
+	 */
 	private Collection<DxfEntity> entities;
 
 	private RoundNumber2D indicated;
@@ -78,6 +91,11 @@ public class DxfDimension extends DxfEntities {
 	 */
 	private DxfAbstText text;
 
+	/**
+	 * ブロックの座標系から図面の座標系への変換 寸法のブロックは図面の座標系で定義されているため、移動しなければ恒等変換です。
+	 */
+	private AffineTransform transform;
+
 	private int type = 0;
 
 	/** X座標 */
@@ -86,11 +104,22 @@ public class DxfDimension extends DxfEntities {
 	/** Y座標 */
 	private double y;
 
-	public DxfDimension(String block, Number x, Number y) {
+	public DxfDimension(String block, double x, double y) {
 		this.block = block;
-		this.x = x.doubleValue();
-		this.y = y.doubleValue();
+		this.x = x;
+		this.y = y;
 		this.dimensionAssist = new ArrayList<DxfLine>();
+		this.transform = new AffineTransform();
+	}
+
+	/**
+	 * {@link #write(DataOutput)}で書き出したバイト列から寸法を復元します。
+	 * 
+	 * @param in
+	 *            バイト列
+	 */
+	DxfDimension(ByteBuffer in) {
+		this(EntityCodec.getString(in), in.getDouble(), in.getDouble());
 	}
 
 	private boolean checkArcMeta(String str) {
@@ -153,16 +182,16 @@ public class DxfDimension extends DxfEntities {
 					DxfLine line = (DxfLine) entity;
 					if (line.getDirection() == DxfLine.DIRECTION_X) {
 						if (RoundNumber.nearlyEquals(Math.abs(line.getX1() - this.indicated.getX()) * scale, size)) {
-							this.dimension = new DxfLine(line.getX1(), line.getY1(), this.indicated.getX(), this.indicated.getY(), "CHECK");
+							this.dimension = new DxfLine(line.getX1(), line.getY1(), this.indicated.getX(), this.indicated.getY(), SymbolTable.CHECK);
 						} else if (RoundNumber.nearlyEquals(Math.abs(line.getX2() - this.indicated.getX()) * scale, size)) {
-							this.dimension = new DxfLine(line.getX2(), line.getY2(), this.indicated.getX(), this.indicated.getY(), "CHECK");
+							this.dimension = new DxfLine(line.getX2(), line.getY2(), this.indicated.getX(), this.indicated.getY(), SymbolTable.CHECK);
 						}
 					}
 					if (line.getDirection() == DxfLine.DIRECTION_Y) {
 						if (RoundNumber.nearlyEquals(Math.abs(line.getY1() - this.indicated.getY() * scale), size)) {
-							this.dimension = new DxfLine(line.getX1(), line.getY1(), this.indicated.getX(), this.indicated.getY(), "CHECK");
+							this.dimension = new DxfLine(line.getX1(), line.getY1(), this.indicated.getX(), this.indicated.getY(), SymbolTable.CHECK);
 						} else if (RoundNumber.nearlyEquals(Math.abs(line.getY2() - this.indicated.getY() * scale), size)) {
-							this.dimension = new DxfLine(line.getX2(), line.getY2(), this.indicated.getX(), this.indicated.getY(), "CHECK");
+							this.dimension = new DxfLine(line.getX2(), line.getY2(), this.indicated.getX(), this.indicated.getY(), SymbolTable.CHECK);
 						}
 					}
 				}
@@ -197,8 +226,17 @@ public class DxfDimension extends DxfEntities {
 			g.setColor(env.getErrorColor());
 		}
 		if (this.entities != null) {
-			for (DxfEntity entity : this.entities) {
-				entity.draw(g, env);
+			if (this.transform.isIdentity()) {
+				for (DxfEntity entity : this.entities) {
+					entity.draw(g, env);
+				}
+			} else {
+				AffineTransform transform = g.getTransform();
+				g.transform(this.transform);
+				for (DxfEntity entity : this.entities) {
+					entity.draw(g, env);
+				}
+				g.setTransform(transform);
 			}
 		}
 		if (this.isError) {
@@ -238,18 +276,13 @@ public class DxfDimension extends DxfEntities {
 	 * @see java.awt.Shape#getBounds2D()
 	 */
 	public Rectangle2D getBounds2D() {
-		Rectangle2D bounds = null;
-		for (DxfEntity entity : this.entities) {
-			Rectangle2D rect = entity.getBounds2D();
-			if (rect != null) {
-				if (bounds == null) {
-					bounds = new Rectangle2D.Double(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
-				} else {
-					bounds.add(rect);
-				}
-			}
+		Rectangle2D bounds = this.definition.getBounds2D();
+		if (bounds == null) {
+			return null;
+		} else if (this.transform.isIdentity()) {
+			return new Rectangle2D.Double(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight());
 		}
-		return bounds;
+		return this.transform.createTransformedShape(bounds).getBounds2D();
 	}
 
 	public double getCenterX() {
@@ -348,7 +381,7 @@ public class DxfDimension extends DxfEntities {
 			for (DxfEntity entity : this.entities) {
 				if (entity instanceof DxfLine) {
 					DxfLine line = (DxfLine) entity;
-					line.setStyle("DIMENSION");
+					line.setStyle(SymbolTable.DIMENSION);
 					p1 = new RoundNumber2D(line.getX1(), line.getY1());
 					Counter counter = map.get(p1);
 					if (counter == null) {
@@ -403,6 +436,13 @@ public class DxfDimension extends DxfEntities {
 		return this.entities;
 	}
 
+	/**
+	 * @see dxf.section.entities.DxfEntities#getTransform()
+	 */
+	protected AffineTransform getTransform() {
+		return this.transform;
+	}
+
 	/**
 	 * 引き出し線の示す位置を返すメソッド ねじに関係ありそうなところをピックアップ
 	 * 
@@ -444,15 +484,6 @@ public class DxfDimension extends DxfEntities {
 		return this.scale < Double.POSITIVE_INFINITY;
 	}
 
-	public boolean hasText() {
-		for (DxfEntity entity : this.entities) {
-			if (entity instanceof DxfText || entity instanceof DxfMtext) {
-				return true;
-			}
-		}
-		return false;
-	}
-
 	/**
 	 * @see dxf.section.entities.DxfEntity#intersects(java.awt.Rectangle)
 	 */
@@ -479,10 +510,11 @@ public class DxfDimension extends DxfEntities {
 	}
 
 	public boolean link(DxfData dxf) {
-		this.entities = dxf.getBlock(this.block);
-		if (this.entities == null) {
+		this.definition = dxf.getBlockDefinition(this.block);
+		if (this.definition == null) {
 			throw new RuntimeException("BLOCK: " + this.block);
 		}
+		this.entities = this.definition.getEntities();
 		for (DxfEntity entity : this.entities) {
 			if (entity instanceof DxfMtext) {
 				DxfMtext mtext = (DxfMtext) entity;
@@ -542,10 +574,11 @@ public class DxfDimension extends DxfEntities {
 	 * @param scale
 	 */
 	public void link(DxfData dxf, double scale) {
-		this.entities = dxf.getBlock(this.block);
-		if (this.entities == null) {
+		this.definition = dxf.getBlockDefinition(this.block);
+		if (this.definition == null) {
 			throw new RuntimeException("BLOCK: " + this.block);
 		}
+		this.entities = this.definition.getEntities();
 		if (this.text instanceof DxfText) {
 			DxfText txt = (DxfText) this.text;
 			this.checkNumeric(txt.getText(), scale);
@@ -581,14 +614,40 @@ public class DxfDimension extends DxfEntities {
 		this.isError = true;
 	}
 
+	/**
+	 * 寸法を移動するメソッド ブロックの図形は移動せず、座標変換だけを合成します。
+	 * 寸法線と補助線はこの寸法が保持する複製を移動します。
+	 * 
+	 * @see dxf.section.entities.DxfEntity#transform(double, double)
+	 */
 	public void transform(double dx, double dy) {
 		this.x += dx;
 		this.y += dy;
+		this.transform.preConcatenate(AffineTransform.getTranslateInstance(dx, dy));
 		if (this.dimension != null) {
 			this.dimension.transform(dx, dy);
 		}
-		for (DxfEntity entity : this.entities) {
-			entity.transform(dx, dy);
+		for (int i = 0; i < this.dimensionAssist.size(); i++) {
+			DxfLine line = this.dimensionAssist.get(i);
+			this.dimensionAssist.set(i, new DxfLine(line.getX1() + dx, line.getY1() + dy, line.getX2() + dx, line.getY2() + dy, line.getStyle()));
+		}
+		if (this.indicated != null) {
+			this.indicated = new RoundNumber2D(this.indicated.getX() + dx, this.indicated.getY() + dy);
 		}
 	}
+
+	/**
+	 * 寸法を{@link EntityCodec}のバイト列に書き出すメソッド
+	 * ブロック名と座標だけを書き出し、寸法の値は復元した後に{@link #link(DxfData)}で求めます。
+	 * 
+	 * @param out
+	 *            出力先
+	 * @throws IOException
+	 *             書き出しに失敗した場合
+	 */
+	void write(DataOutput out) throws IOException {
+		EntityCodec.putString(out, this.block);
+		out.writeDouble(this.x);
+		out.writeDouble(this.y);
+	}
 }
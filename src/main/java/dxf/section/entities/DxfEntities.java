@@ -1,18 +1,38 @@
 package dxf.section.entities;
 
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
 import java.util.Collection;
 
 public abstract class DxfEntities implements DxfEntity {
-	protected void addEntity(DxfEntity entity) {
-		this.getEntities().add(entity);
-	}
 
+	/**
+	 * 結びつけた文字列 ブロックの図形は共有しているので、ブロックには追加せずに参照だけを保持します。
+	 */
+	private DxfAbstText joined;
+
+	/**
+	 * 点と最も近い線分との距離の2乗を求めるメソッド 線分はブロックの座標系から図面の座標系に変換して比べます。
+	 * 
+	 * @param x
+	 *            図面の座標系でのX座標
+	 * @param y
+	 *            図面の座標系でのY座標
+	 * @return 距離の2乗
+	 */
 	private double getDistance(double x, double y) {
+		AffineTransform transform = this.getTransform();
+		double[] points = new double[4];
 		double minDist = Double.MAX_VALUE;
 		for (DxfEntity entity : getEntities()) {
 			if (entity instanceof DxfLine) {
 				DxfLine line = (DxfLine) entity;
-				double d = line.ptSegDistSq(x, y);
+				points[0] = line.getX1();
+				points[1] = line.getY1();
+				points[2] = line.getX2();
+				points[3] = line.getY2();
+				transform.transform(points, 0, points, 0, 2);
+				double d = Line2D.ptSegDistSq(points[0], points[1], points[2], points[3], x, y);
 				if (minDist > d) {
 					minDist = d;
 				}
@@ -23,7 +43,26 @@ public abstract class DxfEntities implements DxfEntity {
 
 	protected abstract Collection<DxfEntity> getEntities();
 
+	/**
+	 * 結びつけた文字列を取得するメソッド
+	 * 
+	 * @return 結びつけた文字列、結びつけていなければnull
+	 */
+	public DxfAbstText getJoinedText() {
+		return this.joined;
+	}
+
+	/**
+	 * ブロックの座標系から図面の座標系への変換を取得するメソッド
+	 * 
+	 * @return 座標変換
+	 */
+	protected abstract AffineTransform getTransform();
+
 	public boolean hasText() {
+		if (this.joined != null) {
+			return true;
+		}
 		for (DxfEntity entity : this.getEntities()) {
 			if (entity instanceof DxfText || entity instanceof DxfMtext) {
 				return true;
@@ -43,7 +82,7 @@ public abstract class DxfEntities implements DxfEntity {
 			}
 		}
 		if (nearest != null) {
-			addEntity(nearest);
+			this.joined = nearest;
 		}
 	}
 }
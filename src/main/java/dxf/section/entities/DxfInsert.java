@@ -6,9 +6,13 @@ import gui.ViewingEnvironment;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,9 +22,11 @@ import java.util.regex.Pattern;
 import util.Counter;
 import dxf.DxfData;
 import dxf.checker.DimensionNode;
+import dxf.section.SymbolTable;
 
 /**
  * ブロックセクションのデータを挿入するためのクラス
+ * ブロックの図形は移動せず、ブロックの定義への参照と座標変換だけを保持し、描画するときに座標変換を適用します。
  * 
  * @author FUJIWARA Masayasu
  * @since 0.01
@@ -42,7 +48,10 @@ public class DxfInsert extends DxfEntities {
 	 */
 	private String block;
 
-	private Collection<DxfEntity> entities;
+	/**
+	 * ブロックの定義
+	 */
+	private DxfBlock definition;
 
 	/**
 	 * 挿入が指し示す位置
@@ -53,6 +62,11 @@ public class DxfInsert extends DxfEntities {
 
 	private double size;
 
+	/**
+	 * ブロックの座標系から図面の座標系への変換
+	 */
+	private AffineTransform transform;
+
 	/**
 	 * テキスト
 	 */
@@ -81,14 +95,21 @@ public class DxfInsert extends DxfEntities {
 	 * @param y
 	 *            Y座標
 	 */
-	public DxfInsert(String block, Number x, Number y) {
+	public DxfInsert(String block, double x, double y) {
 		this.block = block;
-		this.x = x.doubleValue();
-		this.y = y.doubleValue();
+		this.x = x;
+		this.y = y;
+		this.transform = AffineTransform.getTranslateInstance(x, y);
 	}
 
-	protected void addEntity(DxfEntity entity) {
-		this.entities.add(entity);
+	/**
+	 * {@link #write(DataOutput)}で書き出したバイト列から挿入を復元します。
+	 * 
+	 * @param in
+	 *            バイト列
+	 */
+	DxfInsert(ByteBuffer in) {
+		this(EntityCodec.getString(in), in.getDouble(), in.getDouble());
 	}
 
 	private boolean checkArcMeta(String str) {
@@ -159,10 +180,13 @@ public class DxfInsert extends DxfEntities {
 		if (this.isError) {
 			g.setColor(env.getErrorColor());
 		}
-		if (this.entities != null) {
-			for (DxfEntity entity : this.entities) {
+		if (this.definition != null) {
+			AffineTransform transform = g.getTransform();
+			g.transform(this.transform);
+			for (DxfEntity entity : this.definition.getEntities()) {
 				entity.draw(g, env);
 			}
+			g.setTransform(transform);
 			if (DxfViewer.debug && this.indicated != null) {
 				double size = 5 / env.getScale();
 				g.draw(new Ellipse2D.Double(this.indicated.getX() - size, this.indicated.getY() - size, size * 2, size * 2));
@@ -177,18 +201,8 @@ public class DxfInsert extends DxfEntities {
 	 * @see dxf.section.entities.DxfEntity#getBounds2D()
 	 */
 	public Rectangle2D getBounds2D() {
-		Rectangle2D bounds = null;
-		for (DxfEntity entity : this.entities) {
-			Rectangle2D rect = entity.getBounds2D();
-			if (rect != null) {
-				if (bounds == null) {
-					bounds = (Rectangle2D) rect.clone();
-				} else {
-					bounds.add(rect);
-				}
-			}
-		}
-		return bounds;
+		Rectangle2D bounds = this.definition.getBounds2D();
+		return bounds == null ? null : this.transform.createTransformedShape(bounds).getBounds2D();
 	}
 
 	/**
@@ -199,7 +213,14 @@ public class DxfInsert extends DxfEntities {
 	}
 
 	protected Collection<DxfEntity> getEntities() {
-		return this.entities;
+		return this.definition.getEntities();
+	}
+
+	/**
+	 * @see dxf.section.entities.DxfEntities#getTransform()
+	 */
+	protected AffineTransform getTransform() {
+		return this.transform;
 	}
 
 	/**
@@ -254,13 +275,12 @@ public class DxfInsert extends DxfEntities {
 	}
 
 	public boolean link(DxfData dxf) {
-		this.entities = dxf.getBlock(this.block);
-		assert this.entities != null : "BLOCK: " + this.block;
+		this.definition = dxf.getBlockDefinition(this.block);
+		assert this.definition != null : "BLOCK: " + this.block;
+		this.definition.link(dxf);
 		Map<Point2D, Counter> map = new HashMap<Point2D, Counter>();
 		StringBuilder sb = new StringBuilder();
-		for (DxfEntity entity : this.entities) {
-			entity.transform(this.x, this.y);
-			entity.link(dxf);
+		for (DxfEntity entity : this.definition.getEntities()) {
 			if (entity instanceof DxfMtext) {
 				DxfMtext mtext = (DxfMtext) entity;
 				for (String str : mtext.getMultiTexts()) {
@@ -277,15 +297,15 @@ public class DxfInsert extends DxfEntities {
 				this.checkCircleMeta(text.getText());
 			} else if (entity instanceof DxfLine) {
 				DxfLine line = (DxfLine) entity;
-				line.setStyle("INSERT");
-				Point2D.Double p1 = new Point2D.Double(line.getX1(), line.getY1());
+				line.setStyle(SymbolTable.INSERT);
+				Point2D p1 = this.transform.transform(new Point2D.Double(line.getX1(), line.getY1()), null);
 				Counter counter = map.get(p1);
 				if (counter == null) {
 					counter = new Counter();
 					map.put(p1, counter);
 				}
 				counter.up();
-				Point2D.Double p2 = new Point2D.Double(line.getX2(), line.getY2());
+				Point2D p2 = this.transform.transform(new Point2D.Double(line.getX2(), line.getY2()), null);
 				counter = map.get(p2);
 				if (counter == null) {
 					counter = new Counter();
@@ -314,8 +334,32 @@ public class DxfInsert extends DxfEntities {
 		this.isError = true;
 	}
 
+	/**
+	 * 挿入位置を移動するメソッド ブロックの図形は移動せず、座標変換だけを合成します。
+	 * 
+	 * @see dxf.section.entities.DxfEntity#transform(double, double)
+	 */
 	public void transform(double dx, double dy) {
 		this.x += dx;
 		this.y += dy;
+		this.transform.preConcatenate(AffineTransform.getTranslateInstance(dx, dy));
+		if (this.indicated != null) {
+			this.indicated.setLocation(this.indicated.getX() + dx, this.indicated.getY() + dy);
+		}
+	}
+
+	/**
+	 * 挿入を{@link EntityCodec}のバイト列に書き出すメソッド
+	 * ブロック名と座標だけを書き出し、引き出し線の値は復元した後に{@link #link(DxfData)}で求めます。
+	 * 
+	 * @param out
+	 *            出力先
+	 * @throws IOException
+	 *             書き出しに失敗した場合
+	 */
+	void write(DataOutput out) throws IOException {
+		EntityCodec.putString(out, this.block);
+		out.writeDouble(this.x);
+		out.writeDouble(this.y);
 	}
 }
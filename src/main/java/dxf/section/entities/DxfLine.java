@@ -16,6 +16,7 @@ import util.RoundNumber2D;
 
 import dxf.DxfData;
 import dxf.checker.DimensionNode;
+import dxf.section.SymbolTable;
 
 /**
  * DXFファイルの線分を扱うクラス
@@ -30,25 +31,32 @@ public class DxfLine implements DxfEntity {
 	public static Point2D getCrossPoint(DxfLine l1, DxfLine l2) {
 		double x = 0;
 		double y = 0;
-		double a1 = (l1.line.y2 - l1.line.y1) / (l1.line.x2 - l1.line.x1);
-		double a2 = (l2.line.y2 - l2.line.y1) / (l2.line.x2 - l2.line.x1);
+		double a1 = (l1.getY2() - l1.getY1()) / (l1.getX2() - l1.getX1());
+		double a2 = (l2.getY2() - l2.getY1()) / (l2.getX2() - l2.getX1());
 		if (a1 == a2) return null; // 平行
 	
-		if( ( l1.line.x1 != l1.line.x2 ) && ( l2.line.x1 != l2.line.x2 ) ){
-			x = ((l1.line.x1 * a1) - l1.line.y1 - (l2.line.x1 * a2) + l2.line.y1) / (a1 - a2);
-			y = a1 * ( x-l1.line.x1 ) + l1.line.y1;
+		if( ( l1.getX1() != l1.getX2() ) && ( l2.getX1() != l2.getX2() ) ){
+			x = ((l1.getX1() * a1) - l1.getY1() - (l2.getX1() * a2) + l2.getY1()) / (a1 - a2);
+			y = a1 * ( x-l1.getX1() ) + l1.getY1();
 		// l1が垂直
-		} else if( ( l1.line.x1 == l1.line.x2 ) && ( l2.line.x1 != l2.line.x2 ) ){
-			x = l1.line.x1;
-			y = a2 * ( x-l2.line.x1 ) + l2.line.y1;
+		} else if( ( l1.getX1() == l1.getX2() ) && ( l2.getX1() != l2.getX2() ) ){
+			x = l1.getX1();
+			y = a2 * ( x-l2.getX1() ) + l2.getY1();
 		// l2が垂直
-		} else if( ( l1.line.x1 != l1.line.x2 ) && ( l2.line.x1 == l2.line.x2 ) ){
-			x = l2.line.x1;
-			y = a1 * (x -l1.line.x1 ) + l1.line.y1;
+		} else if( ( l1.getX1() != l1.getX2() ) && ( l2.getX1() == l2.getX2() ) ){
+			x = l2.getX1();
+			y = a1 * (x -l1.getX1() ) + l1.getY1();
 		}
 		return new Point2D.Double(x, y);
 	}
 	
+	/**
+	 * 方向と選択の可否を設定せずに線分を複製するメソッド
+	 */
+	private static DxfLine copy(double x1, double y1, double x2, double y2) {
+		return new DxfLine(new LineStore(1), x1, y1, x2, y2, SymbolTable.BYLAYER, (byte) 0);
+	}
+
 	public Point2D getCrossPoint(DxfLine l) {
 		return getCrossPoint(this, l);
 	}
@@ -56,55 +64,46 @@ public class DxfLine implements DxfEntity {
 	public static final int DIRECTION_Y = -1;
 	
 	public boolean equalsLine(DxfLine line) {
-		return RoundNumber.nearlyEqualsZero(this.line.ptLineDist(line.getX1(), line.getY1()))
-		&& RoundNumber.nearlyEqualsZero(this.line.ptLineDist(line.getX2(), line.getY2()));
+		return RoundNumber.nearlyEqualsZero(Line2D.ptLineDist(this.getX1(), this.getY1(), this.getX2(), this.getY2(), line.getX1(), line.getY1()))
+		&& RoundNumber.nearlyEqualsZero(Line2D.ptLineDist(this.getX1(), this.getY1(), this.getX2(), this.getY2(), line.getX2(), line.getY2()));
 	}
 
 	/**
-	 * 線分の方向
+	 * 線分を保持する配列での位置
 	 */
-	private byte direction;
-
-	private boolean isError;
+	int index;
 
 	/**
-	 * 線分の実体
+	 * 線分を保持する配列
 	 */
-	private Line2D.Double line;
-
-	private boolean selectable;
+	LineStore store;
 
 	/**
-	 * 線種
+	 * 線分を1つだけ保持する配列を用意して線分を生成します。 多数の線分を読み込む場合は{@link LineStore#add(double, double, double, double, int)}を使うこと。
 	 */
-	private String style;
-
-	public DxfLine(double x1, double y1, double x2, double y2, String type) {
-		this.line = new Line2D.Double(x1, y1, x2, y2);
-		this.style = type;
-		this.selectable = !"CENTER".equals(this.style);
-		if (RoundNumber.nearlyEquals(x1, x2)) {
-			this.direction += DIRECTION_Y;
-		}
-		if (RoundNumber.nearlyEquals(y1, y2)) {
-			this.direction += DIRECTION_X;
-		}
+	public DxfLine(double x1, double y1, double x2, double y2, int type) {
+		this(new LineStore(1), x1, y1, x2, y2, type, LineStore.getFlag(x1, y1, x2, y2, type));
 	}
 
-	private DxfLine(Line2D.Double line) {
-		this.line = line;
-	}
-
-	public DxfLine(Number x1, Number y1, Number x2, Number y2, String type) {
-		this(x1.doubleValue(), y1.doubleValue(), x2.doubleValue(), y2.doubleValue(), type);
+	/**
+	 * 配列に線分を追加して、その行を参照する線分を生成します。
+	 * 
+	 * @param store
+	 *            線分を保持する配列
+	 * @param flag
+	 *            フラグ
+	 */
+	DxfLine(LineStore store, double x1, double y1, double x2, double y2, int type, byte flag) {
+		this.store = store;
+		this.index = store.append(this, x1, y1, x2, y2, type, flag);
 	}
 
 	public DxfLine(Point2D p1, Point2D p2) {
-		this(p1.getX(), p1.getY(), p2.getX(), p2.getY(), "CHECK");
+		this(p1.getX(), p1.getY(), p2.getX(), p2.getY(), SymbolTable.CHECK);
 	}
 
 	public DxfLine(RoundNumber2D p1, RoundNumber2D p2) {
-		this(p1.getX(), p1.getY(), p2.getX(), p2.getY(), "CHECK");
+		this(p1.getX(), p1.getY(), p2.getX(), p2.getY(), SymbolTable.CHECK);
 	}
 
 	/**
@@ -113,11 +112,11 @@ public class DxfLine implements DxfEntity {
 	 * @return 角度
 	 */
 	public boolean checkAngle(DxfLine line) {
-		double dx1 = -this.line.y1 + this.line.y2;
-		double dy1 = this.line.x1 - this.line.x2;
+		double dx1 = -this.getY1() + this.getY2();
+		double dy1 = this.getX1() - this.getX2();
 
-		double dx2 = line.line.x1 - line.line.x2;
-		double dy2 = line.line.y1 - line.line.y2;
+		double dx2 = line.getX1() - line.getX2();
+		double dy2 = line.getY1() - line.getY2();
 		double inner = dx1 * dx2 + dy1 * dy2;
 		return RoundNumber.nearlyAbsEquals(inner, 0);
 	}
@@ -127,22 +126,23 @@ public class DxfLine implements DxfEntity {
 	 */
 
 	public void clearError() {
-		this.isError = false;
+		this.store.setFlag(this.index, LineStore.ERROR, false);
 	}
 
 	public void draw(Graphics2D g, ViewingEnvironment env) {
 		Color color = g.getColor();
-		if (this.isError) {
+		boolean isError = this.isError();
+		if (isError) {
 			g.setColor(env.getErrorColor());
 		}
-		Stroke stroke = env.getStroke(this.style);
+		Stroke stroke = env.getStroke(this.getStyle());
 		if (stroke != null) {
 			Stroke defaultStroke = g.getStroke();
 			g.setStroke(stroke);
-			g.draw(this.line);
+			g.draw(new Line2D.Double(this.getX1(), this.getY1(), this.getX2(), this.getY2()));
 			g.setStroke(defaultStroke);
 		}
-		if (this.isError) {
+		if (isError) {
 			g.setColor(color);
 		}
 	}
@@ -150,10 +150,10 @@ public class DxfLine implements DxfEntity {
 	public boolean equals(Object obj) {
 		if (obj instanceof DxfLine) {
 			DxfLine l = (DxfLine) obj;
-			return (RoundNumber.nearlyEquals(this.line.x1, l.line.x1) && RoundNumber.nearlyEquals(this.line.x2, l.line.x2)
-					&& RoundNumber.nearlyEquals(this.line.y1, l.line.y1) && RoundNumber.nearlyEquals(this.line.y2, l.line.y2))
-					|| (RoundNumber.nearlyEquals(this.line.x1, l.line.x2) && RoundNumber.nearlyEquals(this.line.x2, l.line.x1)
-							&& RoundNumber.nearlyEquals(this.line.y1, l.line.y2) && RoundNumber.nearlyEquals(this.line.y2, l.line.y1));
+			return (RoundNumber.nearlyEquals(this.getX1(), l.getX1()) && RoundNumber.nearlyEquals(this.getX2(), l.getX2())
+					&& RoundNumber.nearlyEquals(this.getY1(), l.getY1()) && RoundNumber.nearlyEquals(this.getY2(), l.getY2()))
+					|| (RoundNumber.nearlyEquals(this.getX1(), l.getX2()) && RoundNumber.nearlyEquals(this.getX2(), l.getX1())
+							&& RoundNumber.nearlyEquals(this.getY1(), l.getY2()) && RoundNumber.nearlyEquals(this.getY2(), l.getY1()));
 		}
 		return false;
 	}
@@ -167,10 +167,10 @@ public class DxfLine implements DxfEntity {
 	 */
 	public boolean equalsShape(DxfLine line) {
 		// TODO もう少し厳密な対象性などの比較をしたほうがいいんだと思う。
-		RoundNumber w1 = new RoundNumber(Math.abs(this.line.x1 - this.line.x2));
-		RoundNumber h1 = new RoundNumber(Math.abs(this.line.y1 - this.line.y2));
-		RoundNumber w2 = new RoundNumber(Math.abs(line.line.x1 - line.line.x2));
-		RoundNumber h2 = new RoundNumber(Math.abs(line.line.y1 - line.line.y2));
+		RoundNumber w1 = new RoundNumber(Math.abs(this.getX1() - this.getX2()));
+		RoundNumber h1 = new RoundNumber(Math.abs(this.getY1() - this.getY2()));
+		RoundNumber w2 = new RoundNumber(Math.abs(line.getX1() - line.getX2()));
+		RoundNumber h2 = new RoundNumber(Math.abs(line.getY1() - line.getY2()));
 		if (!w1.equals(w2) || !h1.equals(h2)) {
 			return false;
 		}
@@ -183,15 +183,19 @@ public class DxfLine implements DxfEntity {
 	 */
 
 	public Rectangle2D getBounds2D() {
-		return this.line.getBounds2D();
+		double x1 = this.getX1();
+		double y1 = this.getY1();
+		double x2 = this.getX2();
+		double y2 = this.getY2();
+		return new Rectangle2D.Double(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x2 - x1), Math.abs(y2 - y1));
 	}
 
 	public double getCenterPointX() {
-		return (this.line.x1 + this.line.x2) / 2;
+		return (this.getX1() + this.getX2()) / 2;
 	}
 
 	public double getCenterPointY() {
-		return (this.line.y1 + this.line.y2) / 2;
+		return (this.getY1() + this.getY2()) / 2;
 	}
 
 	/**
@@ -200,39 +204,41 @@ public class DxfLine implements DxfEntity {
 	 */
 
 	public void getCheckPoints(Collection<DimensionNode> pointsX, Collection<DimensionNode> pointsY) {
-		if ("CONTINUOUS".equals(this.style) || "BYBLOCK".equals(this.style)) {
-			if (this.direction == DIRECTION_Y) {
-				pointsX.add(new DimensionNode(this.line.x1));
-				pointsY.add(new DimensionNode(this.line.y1));
-				pointsY.add(new DimensionNode(this.line.y2));
-			} else if (this.direction == DIRECTION_X) {
-				pointsX.add(new DimensionNode(this.line.x1));
-				pointsX.add(new DimensionNode(this.line.x2));
-				pointsY.add(new DimensionNode(this.line.y1));
+		int style = this.getStyle();
+		int direction = this.getDirection();
+		if (style == SymbolTable.CONTINUOUS || style == SymbolTable.BYBLOCK) {
+			if (direction == DIRECTION_Y) {
+				pointsX.add(new DimensionNode(this.getX1()));
+				pointsY.add(new DimensionNode(this.getY1()));
+				pointsY.add(new DimensionNode(this.getY2()));
+			} else if (direction == DIRECTION_X) {
+				pointsX.add(new DimensionNode(this.getX1()));
+				pointsX.add(new DimensionNode(this.getX2()));
+				pointsY.add(new DimensionNode(this.getY1()));
 			} else {
-				pointsX.add(new DimensionNode(this.line.x1));
-				pointsX.add(new DimensionNode(this.line.x2));
-				pointsY.add(new DimensionNode(this.line.y1));
-				pointsY.add(new DimensionNode(this.line.y2));
+				pointsX.add(new DimensionNode(this.getX1()));
+				pointsX.add(new DimensionNode(this.getX2()));
+				pointsY.add(new DimensionNode(this.getY1()));
+				pointsY.add(new DimensionNode(this.getY2()));
 			}
 		} else {
-			if (!"CENTER".equals(this.style)) {
-				if (this.direction == DIRECTION_Y) {
-					pointsX.add(new DimensionNode(this.line.x1, false));
-					pointsY.add(new DimensionNode(this.line.y1, false));
-					pointsY.add(new DimensionNode(this.line.y2, false));
-				} else if (this.direction == DIRECTION_X) {
-					pointsX.add(new DimensionNode(this.line.x1, false));
-					pointsX.add(new DimensionNode(this.line.x2, false));
-					pointsY.add(new DimensionNode(this.line.y1, false));
+			if (style != SymbolTable.CENTER) {
+				if (direction == DIRECTION_Y) {
+					pointsX.add(new DimensionNode(this.getX1(), false));
+					pointsY.add(new DimensionNode(this.getY1(), false));
+					pointsY.add(new DimensionNode(this.getY2(), false));
+				} else if (direction == DIRECTION_X) {
+					pointsX.add(new DimensionNode(this.getX1(), false));
+					pointsX.add(new DimensionNode(this.getX2(), false));
+					pointsY.add(new DimensionNode(this.getY1(), false));
 				} else {
 
 				}
 			} else {
-				pointsX.add(new DimensionNode(this.line.x1));
-				pointsX.add(new DimensionNode(this.line.x2));
-				pointsY.add(new DimensionNode(this.line.y1));
-				pointsY.add(new DimensionNode(this.line.y2));
+				pointsX.add(new DimensionNode(this.getX1()));
+				pointsX.add(new DimensionNode(this.getX2()));
+				pointsY.add(new DimensionNode(this.getY1()));
+				pointsY.add(new DimensionNode(this.getY2()));
 			}
 		}
 	}
@@ -243,51 +249,45 @@ public class DxfLine implements DxfEntity {
 	 * @return DIRECTION_X or DIRECTION_Y or 0
 	 */
 	public int getDirection() {
-		return this.direction;
+		byte flag = this.store.flags[this.index];
+		int direction = 0;
+		if ((flag & LineStore.DIRECTION_X) != 0) {
+			direction += DIRECTION_X;
+		}
+		if ((flag & LineStore.DIRECTION_Y) != 0) {
+			direction += DIRECTION_Y;
+		}
+		return direction;
 	}
 
 	public Point2D.Double getG() {
-		return new Point2D.Double((this.line.getX1() + this.line.getX2()) / 2, (this.line.getY1() + this.line.getY2()) / 2);
+		return new Point2D.Double((this.getX1() + this.getX2()) / 2, (this.getY1() + this.getY2()) / 2);
 	}
 
 	/**
 	 * 線種を取得するメソッド
 	 * 
-	 * @return 線種
+	 * @return 線種の識別番号
+	 * @see SymbolTable
 	 */
-	public String getStyle() {
-		return this.style;
+	public int getStyle() {
+		return this.store.styles[this.index];
 	}
 
 	public DxfLine getSymmetry(double x, double y) {
-		Line2D.Double line = new Line2D.Double();
 		double dx = x * 2;
 		double dy = y * 2;
-		line.x1 = dx - this.line.x1;
-		line.x2 = dx - this.line.x2;
-		line.y1 = dy - this.line.y1;
-		line.y2 = dy - this.line.y2;
-		return new DxfLine(line);
+		return DxfLine.copy(dx - this.getX1(), dy - this.getY1(), dx - this.getX2(), dy - this.getY2());
 	}
 
 	public DxfLine getSymmetryX(double x) {
-		Line2D.Double line = new Line2D.Double();
 		double dx = x * 2;
-		line.x1 = dx - this.line.x1;
-		line.x2 = dx - this.line.x2;
-		line.y1 = this.line.y1;
-		line.y2 = this.line.y2;
-		return new DxfLine(line);
+		return DxfLine.copy(dx - this.getX1(), this.getY1(), dx - this.getX2(), this.getY2());
 	}
 
 	public DxfLine getSymmetryY(double y) {
-		Line2D.Double line = new Line2D.Double();
 		double dy = y * 2;
-		line.x1 = this.line.x1;
-		line.x2 = this.line.x2;
-		line.y1 = dy - this.line.y1;
-		line.y2 = dy - this.line.y2;
-		return new DxfLine(line);
+		return DxfLine.copy(this.getX1(), dy - this.getY1(), this.getX2(), dy - this.getY2());
 	}
 
 	/**
@@ -296,7 +296,7 @@ public class DxfLine implements DxfEntity {
 	 * @return
 	 */
 	public double getX1() {
-		return this.line.x1;
+		return this.store.x1[this.index];
 	}
 
 	/**
@@ -305,7 +305,7 @@ public class DxfLine implements DxfEntity {
 	 * @return
 	 */
 	public double getX2() {
-		return this.line.x2;
+		return this.store.x2[this.index];
 	}
 
 	/**
@@ -314,7 +314,7 @@ public class DxfLine implements DxfEntity {
 	 * @return
 	 */
 	public double getY1() {
-		return this.line.y1;
+		return this.store.y1[this.index];
 	}
 
 	/**
@@ -323,18 +323,18 @@ public class DxfLine implements DxfEntity {
 	 * @return
 	 */
 	public double getY2() {
-		return this.line.y2;
+		return this.store.y2[this.index];
 	}
 
 	public int hashCode() {
-		return this.line.hashCode();
+		return super.hashCode();
 	}
 
 	public boolean isParallel(DxfLine l) {
-		double dx1 = this.line.x1 - this.line.x2;
-		double dy1 = this.line.y1 - this.line.y2;
-		double dx2 = l.line.x1 - l.line.x2;
-		double dy2 = l.line.y1 - l.line.y2;
+		double dx1 = this.getX1() - this.getX2();
+		double dy1 = this.getY1() - this.getY2();
+		double dx2 = l.getX1() - l.getX2();
+		double dy2 = l.getY1() - l.getY2();
 		return RoundNumber.nearlyAbsEquals(dx1 * dy2, dx2 * dy1);
 	}
 	/**
@@ -344,10 +344,10 @@ public class DxfLine implements DxfEntity {
 	 * @return 計算した内積の値
 	 */
 	public double innerProduct(DxfLine line) {
-		double v1x = this.line.x1 - this.line.x2;
-		double v2x = line.line.x1 - line.line.x2;
-		double v1y = this.line.y1 - this.line.y2;
-		double v2y = line.line.y1 - line.line.y2;
+		double v1x = this.getX1() - this.getX2();
+		double v2x = line.getX1() - line.getX2();
+		double v1y = this.getY1() - this.getY2();
+		double v2y = line.getY1() - line.getY2();
 		return v1x * v2x + v1y * v2y;
 	}
 
@@ -356,11 +356,11 @@ public class DxfLine implements DxfEntity {
 	 */
 
 	public boolean intersects(Rectangle2D rect) {
-		return this.isSelectable() && this.line.intersects(rect);
+		return this.isSelectable() && rect.intersectsLine(this.getX1(), this.getY1(), this.getX2(), this.getY2());
 	}
 
 	public boolean intersectsLine(double x1, double y1, double x2, double y2) {
-		return this.line.intersectsLine(x1, y1, x2, y2);
+		return Line2D.linesIntersect(x1, y1, x2, y2, this.getX1(), this.getY1(), this.getX2(), this.getY2());
 	}
 
 	/**
@@ -371,11 +371,11 @@ public class DxfLine implements DxfEntity {
 	 * @return 交差していればtrue、交差していなければfalseを返す。
 	 */
 	public boolean intersectsLine(DxfLine line) {
-		return this.line.intersectsLine(line.line);
+		return this.intersectsLine(line.getX1(), line.getY1(), line.getX2(), line.getY2());
 	}
 
 	public boolean intersectsLine(Line2D line) {
-		return this.line.intersectsLine(line);
+		return this.intersectsLine(line.getX1(), line.getY1(), line.getX2(), line.getY2());
 	}
 
 	/**
@@ -383,33 +383,38 @@ public class DxfLine implements DxfEntity {
 	 */
 
 	public boolean isContained(Shape shape) {
-		return shape.contains(this.line.x1, this.line.y1) && shape.contains(this.line.x2, this.line.y2);
+		return shape.contains(this.getX1(), this.getY1()) && shape.contains(this.getX2(), this.getY2());
 	}
 
 	/**
 	 * @see dxf.section.entities.DxfEntity#isSelectable()
 	 */
 
+	boolean isError() {
+		return (this.store.flags[this.index] & LineStore.ERROR) != 0;
+	}
+
 	public boolean isSelectable() {
-		return this.selectable;
+		return this.store.isSelectable(this.index);
 	}
 
 	public double length() {
 		double length = 0;
-		if (this.direction == DxfLine.DIRECTION_X) {
-			length = Math.abs(this.line.x1 - this.line.x2);
-		} else if (this.direction == DxfLine.DIRECTION_Y) {
-			length = Math.abs(this.line.y1 - this.line.y2);
+		int direction = this.getDirection();
+		if (direction == DxfLine.DIRECTION_X) {
+			length = Math.abs(this.getX1() - this.getX2());
+		} else if (direction == DxfLine.DIRECTION_Y) {
+			length = Math.abs(this.getY1() - this.getY2());
 		} else {
-			double dx = this.line.x1 - this.line.x2;
-			double dy = this.line.y1 - this.line.y2;
+			double dx = this.getX1() - this.getX2();
+			double dy = this.getY1() - this.getY2();
 			length = Math.sqrt(dx * dx + dy * dy);
 		}
 		return length;
 	}
 
 	public double lineDistSq(DxfCircle circle) {
-		return this.line.ptLineDistSq(circle.getX(), circle.getY());
+		return this.ptLineDistSq(circle.getX(), circle.getY());
 	}
 
 	public boolean link(DxfData dxf) {
@@ -417,7 +422,7 @@ public class DxfLine implements DxfEntity {
 	}
 
 	public double ptLineDistSq(double x, double y) {
-		return this.line.ptLineDistSq(x, y);
+		return Line2D.ptLineDistSq(this.getX1(), this.getY1(), this.getX2(), this.getY2(), x, y);
 	}
 
 	/**
@@ -430,7 +435,7 @@ public class DxfLine implements DxfEntity {
 	 * @return 距離
 	 */
 	public double ptSegDistSq(double x, double y) {
-		return this.line.ptSegDistSq(x, y);
+		return Line2D.ptSegDistSq(this.getX1(), this.getY1(), this.getX2(), this.getY2(), x, y);
 	}
 
 	/**
@@ -441,11 +446,11 @@ public class DxfLine implements DxfEntity {
 	 * @return 距離
 	 */
 	public double ptSegDistSq(Point2D pt) {
-		return this.line.ptSegDistSq(pt);
+		return this.ptSegDistSq(pt.getX(), pt.getY());
 	}
 
 	public double ptSegDistSq(DxfCircle c) {
-		return this.line.ptSegDistSq(c.getX(), c.getY());
+		return this.ptSegDistSq(c.getX(), c.getY());
 	}
 
 	/**
@@ -453,27 +458,27 @@ public class DxfLine implements DxfEntity {
 	 */
 
 	public void setError() {
-		this.isError = true;
+		this.store.setFlag(this.index, LineStore.ERROR, true);
 	}
 
 	public void setSelectable(boolean flag) {
-		this.selectable = flag;
+		this.store.setSelectable(this.index, flag);
 	}
 
 	/**
 	 * 線種を設定するメソッド
 	 * 
 	 * @param style
-	 *            線種
+	 *            線種の識別番号
 	 */
-	public void setStyle(String style) {
-		this.style = style;
+	public void setStyle(int style) {
+		this.store.styles[this.index] = style;
 	}
 
 	public void transform(double dx, double dy) {
-		this.line.x1 += dx;
-		this.line.y1 += dy;
-		this.line.x2 += dx;
-		this.line.y2 += dy;
+		this.store.x1[this.index] += dx;
+		this.store.y1[this.index] += dy;
+		this.store.x2[this.index] += dx;
+		this.store.y2[this.index] += dy;
 	}
 }
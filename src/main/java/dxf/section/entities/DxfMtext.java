@@ -7,9 +7,10 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.font.GlyphVector;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -102,6 +103,24 @@ public class DxfMtext implements DxfAbstText {
 		this.height = height.doubleValue();
 	}
 
+	/**
+	 * {@link #write(DataOutput)}で書き出したバイト列から文字列を復元します。
+	 * 
+	 * @param in
+	 *            バイト列
+	 */
+	DxfMtext(ByteBuffer in) {
+		this.mtext = new String[in.getInt()];
+		for (int i = 0; i < this.mtext.length; i++) {
+			this.mtext[i] = EntityCodec.getString(in);
+		}
+		this.x = in.getDouble();
+		this.y = in.getDouble();
+		this.height = in.getDouble();
+		this.align = in.get();
+		this.valign = in.get();
+	}
+
 	/**
 	 * @see dxf.section.entities.DxfEntity#clearError()
 	 */
@@ -116,11 +135,11 @@ public class DxfMtext implements DxfAbstText {
 			g.setColor(env.getErrorColor());
 		}
 		Font font = g.getFont();
-		FontMetrics metrics = g.getFontMetrics(font);
+		FontMetrics metrics = env.getFontMetrics(g, font);
 		int size = (int) (font.getSize() * this.height / metrics.getAscent());
-		Font newFont = size == font.getSize() ? font : new Font(font.getName(), font.getStyle(), size);
+		Font newFont = env.getFont(font, size);
 		g.setFont(newFont);
-		metrics = g.getFontMetrics(newFont);
+		metrics = env.getFontMetrics(g, newFont);
 
 		float lineHeight = metrics.getHeight();
 		float y = (float) this.y - metrics.getAscent();
@@ -133,8 +152,8 @@ public class DxfMtext implements DxfAbstText {
 			Matcher match = DxfMtext.PATTERN.matcher(this.mtext[i]);
 			if (match.matches()) {
 				int smallSize = (int) (font.getSize() * this.height / metrics.getAscent() / 2f + 0.5f);
-				Font smallFont = new Font(font.getName(), font.getStyle(), smallSize);
-				FontMetrics smallMetrics = g.getFontMetrics(smallFont);
+				Font smallFont = env.getFont(font, smallSize);
+				FontMetrics smallMetrics = env.getFontMetrics(g, smallFont);
 
 				String mainStr = match.group(1);
 				String underStr = match.group(2);
@@ -148,24 +167,11 @@ public class DxfMtext implements DxfAbstText {
 				} else if (this.align == 1) {
 					x -= metrics.stringWidth(mainStr) + (upperWidth > underWidth ? upperWidth : underWidth);
 				}
-				AffineTransform matrix = new AffineTransform(1, 0, 0, -1, 0, 0);
-				GlyphVector vector = newFont.createGlyphVector(g.getFontRenderContext(), mainStr);
-				for (int j = 0; j < vector.getNumGlyphs(); j++) {
-					vector.setGlyphTransform(j, matrix);
-				}
-				g.drawGlyphVector(vector, x, y);
+				g.drawGlyphVector(env.getGlyphVector(g, newFont, mainStr), x, y);
 				int subX = (int) (x + metrics.stringWidth(mainStr) + smallMetrics.charWidth(' '));
 				int subY = (int) (y + metrics.getHeight() / 2f + 0.5f);
-				vector = smallFont.createGlyphVector(g.getFontRenderContext(), underStr);
-				for (int j = 0; j < vector.getNumGlyphs(); j++) {
-					vector.setGlyphTransform(j, matrix);
-				}
-				g.drawGlyphVector(vector, subX, subY);
-				vector = smallFont.createGlyphVector(g.getFontRenderContext(), upperStr);
-				for (int j = 0; j < vector.getNumGlyphs(); j++) {
-					vector.setGlyphTransform(j, matrix);
-				}
-				g.drawGlyphVector(vector, subX, y);
+				g.drawGlyphVector(env.getGlyphVector(g, smallFont, underStr), subX, subY);
+				g.drawGlyphVector(env.getGlyphVector(g, smallFont, upperStr), subX, y);
 			} else {
 				float x = (float) this.x;
 				if (this.align == 0) {
@@ -173,12 +179,7 @@ public class DxfMtext implements DxfAbstText {
 				} else if (this.align == 1) {
 					x -= metrics.stringWidth(this.mtext[i]);
 				}
-				GlyphVector vector = newFont.createGlyphVector(g.getFontRenderContext(), this.mtext[i]);
-				AffineTransform matrix = new AffineTransform(1, 0, 0, -1, 0, 0);
-				for (int j = 0; j < vector.getNumGlyphs(); j++) {
-					vector.setGlyphTransform(j, matrix);
-				}
-				g.drawGlyphVector(vector, x, y);
+				g.drawGlyphVector(env.getGlyphVector(g, newFont, this.mtext[i]), x, y);
 			}
 		}
 		if (this.isError) {
@@ -205,6 +206,13 @@ public class DxfMtext implements DxfAbstText {
 
 	}
 
+	/**
+	 * @see dxf.section.entities.DxfAbstText#getHeight()
+	 */
+	public double getHeight() {
+		return this.height;
+	}
+
 	/**
 	 * 複数行のテキストを配列で取得するメソッド
 	 * 
@@ -295,4 +303,24 @@ public class DxfMtext implements DxfAbstText {
 		this.x += dx;
 		this.y += dy;
 	}
+
+	/**
+	 * 文字列を{@link EntityCodec}のバイト列に書き出すメソッド 置換して行に分けた後の文字列を書き出します。
+	 * 
+	 * @param out
+	 *            出力先
+	 * @throws IOException
+	 *             書き出しに失敗した場合
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeInt(this.mtext.length);
+		for (String str : this.mtext) {
+			EntityCodec.putString(out, str);
+		}
+		out.writeDouble(this.x);
+		out.writeDouble(this.y);
+		out.writeDouble(this.height);
+		out.writeByte(this.align);
+		out.writeByte(this.valign);
+	}
 }
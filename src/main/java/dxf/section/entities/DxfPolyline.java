@@ -9,6 +9,9 @@ import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 
 import dxf.DxfData;
@@ -29,6 +32,16 @@ public class DxfPolyline implements DxfEntity {
 		this.polyline = polyline;
 	}
 
+	/**
+	 * {@link #write(DataOutput)}で書き出したバイト列からポリラインを復元します。
+	 * 
+	 * @param in
+	 *            バイト列
+	 */
+	DxfPolyline(ByteBuffer in) {
+		this.polyline = new GeneralPath(EntityCodec.getPath(in));
+	}
+
 	/**
 	 * @see dxf.section.entities.DxfEntity#clearError()
 	 */
@@ -55,6 +68,15 @@ public class DxfPolyline implements DxfEntity {
 		return this.polyline.getBounds2D();
 	}
 
+	/**
+	 * 描画に使うパスを取得するメソッド
+	 * 
+	 * @return ポリラインのパス
+	 */
+	Shape getShape() {
+		return this.polyline;
+	}
+
 	/**
 	 * @see dxf.section.entities.DxfEntity#getCheckPoints(java.util.Collection,
 	 *      java.util.Collection)
@@ -113,4 +135,16 @@ public class DxfPolyline implements DxfEntity {
 
 	public void transform(double dx, double dy) {
 	}
+
+	/**
+	 * ポリラインを{@link EntityCodec}のバイト列に書き出すメソッド
+	 * 
+	 * @param out
+	 *            出力先
+	 * @throws IOException
+	 *             書き出しに失敗した場合
+	 */
+	void write(DataOutput out) throws IOException {
+		EntityCodec.putPath(out, this.polyline);
+	}
 }
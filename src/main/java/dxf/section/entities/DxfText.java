@@ -7,9 +7,10 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.font.GlyphVector;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 
 import dxf.DxfData;
@@ -96,6 +97,21 @@ public class DxfText implements DxfAbstText {
 		this.height = height.doubleValue();
 	}
 
+	/**
+	 * {@link #write(DataOutput)}で書き出したバイト列から文字列を復元します。
+	 * 
+	 * @param in
+	 *            バイト列
+	 */
+	DxfText(ByteBuffer in) {
+		this.text = EntityCodec.getString(in);
+		this.x = in.getDouble();
+		this.y = in.getDouble();
+		this.height = in.getDouble();
+		this.align = in.get();
+		this.valign = in.get();
+	}
+
 	/**
 	 * @see dxf.section.entities.DxfEntity#clearError()
 	 */
@@ -110,11 +126,11 @@ public class DxfText implements DxfAbstText {
 			g.setColor(env.getErrorColor());
 		}
 		Font font = g.getFont();
-		FontMetrics metrics = g.getFontMetrics(font);
+		FontMetrics metrics = env.getFontMetrics(g, font);
 		int size = (int) (font.getSize() * this.height / metrics.getAscent());
-		Font newFont = size == font.getSize() ? font : new Font(font.getName(), font.getStyle(), size);
+		Font newFont = env.getFont(font, size);
 		g.setFont(newFont);
-		metrics = g.getFontMetrics(newFont);
+		metrics = env.getFontMetrics(g, newFont);
 
 		float lineHeight = metrics.getHeight();
 		float y = (float) this.y - metrics.getDescent();
@@ -127,12 +143,7 @@ public class DxfText implements DxfAbstText {
 		if (this.align == 1) {
 			x -= metrics.stringWidth(this.text);
 		}
-		GlyphVector vector = newFont.createGlyphVector(g.getFontRenderContext(), this.text);
-		AffineTransform matrix = new AffineTransform(1, 0, 0, -1, 0, 0);
-		for (int j = 0; j < vector.getNumGlyphs(); j++) {
-			vector.setGlyphTransform(j, matrix);
-		}
-		g.drawGlyphVector(vector, x, y);
+		g.drawGlyphVector(env.getGlyphVector(g, newFont, this.text), x, y);
 		if (this.isError) {
 			g.setColor(color);
 		}
@@ -155,6 +166,13 @@ public class DxfText implements DxfAbstText {
 	public void getCheckPoints(Collection<DimensionNode> pointsX, Collection<DimensionNode> pointsY) {
 	}
 
+	/**
+	 * @see dxf.section.entities.DxfAbstText#getHeight()
+	 */
+	public double getHeight() {
+		return this.height;
+	}
+
 	/**
 	 * @return テキスト
 	 */
@@ -233,4 +251,21 @@ public class DxfText implements DxfAbstText {
 		this.x += dx;
 		this.y += dy;
 	}
+
+	/**
+	 * 文字列を{@link EntityCodec}のバイト列に書き出すメソッド 置換した後の文字列を書き出します。
+	 * 
+	 * @param out
+	 *            出力先
+	 * @throws IOException
+	 *             書き出しに失敗した場合
+	 */
+	void write(DataOutput out) throws IOException {
+		EntityCodec.putString(out, this.text);
+		out.writeDouble(this.x);
+		out.writeDouble(this.y);
+		out.writeDouble(this.height);
+		out.writeByte(this.align);
+		out.writeByte(this.valign);
+	}
 }
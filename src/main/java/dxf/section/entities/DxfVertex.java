@@ -27,9 +27,9 @@ public class DxfVertex implements DxfEntity {
 	 * @param y
 	 *            Y座標
 	 */
-	public DxfVertex(Number x, Number y) {
-		this.x = x.doubleValue();
-		this.y = y.doubleValue();
+	public DxfVertex(double x, double y) {
+		this.x = x;
+		this.y = y;
 	}
 
 	/**
@@ -0,0 +1,398 @@
+package dxf.section.entities;
+
+import gui.ViewingEnvironment;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 線分、円、円弧、ポリラインを線種ごとにまとめて描画するためのクラス
+ *
+ * 図形を外接長方形の中心で格子状の区画に分け、区画ごとに線種と異常の有無が同じ図形をまとめます。
+ * まとまりごとに色とストロークを一度だけ設定し、描画する範囲と重なる図形を続けて描画します。
+ * 線分の座標と円などの図形は図面の座標で保持するため、平行移動や表示倍率を変えても作り直す必要はありません。
+ * 線種を表示しない設定であれば、そのまとまりを描画しないだけです。
+ * 描画するときに区画の図形の異常の有無を調べ、作成したときから変わった区画だけまとめ直します。
+ * 図形の座標を変更した場合は作り直すこと。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class EntityBatch {
+
+	/**
+	 * ポリラインを表す線種 ポリラインは描画するときのストロークで描画します。
+	 */
+	private static final int POLYLINE = -1;
+
+	/**
+	 * 区画に含める図形の数の目安
+	 */
+	private static final int TILE_SIZE = 256;
+
+	/**
+	 * 図形の線種を取得するメソッド
+	 *
+	 * @param entity
+	 *            まとめて描画する図形
+	 * @return 線種の識別番号、ポリラインであれば{@link #POLYLINE}
+	 */
+	private static int getStyle(DxfEntity entity) {
+		if (entity instanceof DxfLine) {
+			return ((DxfLine) entity).getStyle();
+		} else if (entity instanceof DxfCircle) {
+			return ((DxfCircle) entity).getStyle();
+		} else if (entity instanceof DxfArc) {
+			return ((DxfArc) entity).getType();
+		}
+		return EntityBatch.POLYLINE;
+	}
+
+	/**
+	 * 外接長方形が描画する範囲と重なるかどうかを調べるメソッド
+	 * 水平や垂直な線分の外接長方形は幅や高さが0になるため、{@link Rectangle2D#intersects(Rectangle2D)}は使わないこと。
+	 *
+	 * @param clip
+	 *            描画する範囲
+	 * @param minX
+	 *            最小のX座標
+	 * @param minY
+	 *            最小のY座標
+	 * @param maxX
+	 *            最大のX座標
+	 * @param maxY
+	 *            最大のY座標
+	 * @return 重なるか接していればtrue
+	 */
+	private static boolean intersects(Rectangle2D clip, double minX, double minY, double maxX, double maxY) {
+		return minX <= clip.getMaxX() && maxX >= clip.getMinX() && minY <= clip.getMaxY() && maxY >= clip.getMinY();
+	}
+
+	/**
+	 * まとめて描画する図形かどうかを調べるメソッド
+	 *
+	 * @param entity
+	 *            図形
+	 * @return 線分、円、円弧、ポリラインであればtrue
+	 */
+	public static boolean isBatched(DxfEntity entity) {
+		return entity instanceof DxfLine || entity instanceof DxfCircle || entity instanceof DxfArc || entity instanceof DxfPolyline;
+	}
+
+	/**
+	 * 図形を異常の色で描画するかどうかを調べるメソッド
+	 *
+	 * @param entity
+	 *            まとめて描画する図形
+	 * @return 異常の色で描画する場合はtrue
+	 */
+	private static boolean isHighlighted(DxfEntity entity) {
+		if (entity instanceof DxfLine) {
+			return ((DxfLine) entity).isError();
+		} else if (entity instanceof DxfCircle) {
+			return ((DxfCircle) entity).isHighlighted();
+		} else if (entity instanceof DxfArc) {
+			return ((DxfArc) entity).isError();
+		}
+		return false;
+	}
+
+	/**
+	 * 区画
+	 */
+	private final Tile[] tiles;
+
+	/**
+	 * @param entities
+	 *            図形のリスト、まとめて描画しない図形は無視します
+	 */
+	public EntityBatch(List<? extends DxfEntity> entities) {
+		List<DxfEntity> batched = new ArrayList<DxfEntity>();
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (DxfEntity entity : entities) {
+			if (EntityBatch.isBatched(entity)) {
+				Rectangle2D rect = entity.getBounds2D();
+				batched.add(entity);
+				minX = Math.min(minX, rect.getCenterX());
+				minY = Math.min(minY, rect.getCenterY());
+				maxX = Math.max(maxX, rect.getCenterX());
+				maxY = Math.max(maxY, rect.getCenterY());
+			}
+		}
+		int size = batched.size();
+		int n = Math.max(1, (int) Math.ceil(Math.sqrt((double) size / EntityBatch.TILE_SIZE)));
+		double width = (maxX - minX) / n;
+		double height = (maxY - minY) / n;
+
+		// 中心の区画ごとに数えてから詰める
+		int[] cells = new int[size];
+		int[] counts = new int[n * n + 1];
+		for (int i = 0; i < size; i++) {
+			Rectangle2D rect = batched.get(i).getBounds2D();
+			int col = width > 0 ? Math.min(n - 1, (int) ((rect.getCenterX() - minX) / width)) : 0;
+			int row = height > 0 ? Math.min(n - 1, (int) ((rect.getCenterY() - minY) / height)) : 0;
+			cells[i] = row * n + col;
+			counts[cells[i] + 1]++;
+		}
+		for (int c = 0; c < n * n; c++) {
+			counts[c + 1] += counts[c];
+		}
+		DxfEntity[] sorted = new DxfEntity[size];
+		int[] next = Arrays.copyOf(counts, n * n);
+		for (int i = 0; i < size; i++) {
+			sorted[next[cells[i]]++] = batched.get(i);
+		}
+		List<Tile> tiles = new ArrayList<Tile>();
+		for (int c = 0; c < n * n; c++) {
+			if (counts[c] < counts[c + 1]) {
+				tiles.add(new Tile(Arrays.copyOfRange(sorted, counts[c], counts[c + 1])));
+			}
+		}
+		this.tiles = tiles.toArray(new Tile[tiles.size()]);
+	}
+
+	/**
+	 * 図形を描画するメソッド
+	 *
+	 * @param g
+	 * @param env
+	 *            描画する環境
+	 * @param clip
+	 *            描画する範囲（図面の座標）、すべて描画する場合はnull
+	 */
+	public void draw(Graphics2D g, ViewingEnvironment env, Rectangle2D clip) {
+		Color color = g.getColor();
+		Stroke defaultStroke = g.getStroke();
+		Line2D.Double segment = new Line2D.Double();
+		for (Tile tile : this.tiles) {
+			if (clip == null || EntityBatch.intersects(clip, tile.bounds.getMinX(), tile.bounds.getMinY(), tile.bounds.getMaxX(), tile.bounds.getMaxY())) {
+				tile.draw(g, env, clip, color, defaultStroke, segment);
+			}
+		}
+		g.setColor(color);
+		g.setStroke(defaultStroke);
+	}
+
+	/**
+	 * 区画の図形を線種と異常の有無ごとにまとめたもの
+	 */
+	private static class Tile {
+
+		/**
+		 * 図形の外接長方形をすべて含む長方形
+		 */
+		final Rectangle2D bounds;
+
+		/**
+		 * まとめた線分以外の図形（まとまりごと、なければnull）
+		 */
+		private Shape[][] curves;
+
+		/**
+		 * まとめた線分以外の図形の外接長方形（まとまりごとに、図形ごとに最小のX座標、最小のY座標、最大のX座標、最大のY座標の順）
+		 */
+		private double[][] curveBounds;
+
+		/**
+		 * まとめた線分以外の図形の数（まとまりごと）
+		 */
+		private int[] curveCounts;
+
+		/**
+		 * 区画の図形
+		 */
+		private final DxfEntity[] entities;
+
+		/**
+		 * まとめを作成したときの図形ごとの異常の有無
+		 */
+		private final boolean[] highlights;
+
+		/**
+		 * まとまりごとの異常の有無
+		 */
+		private boolean[] keyHighlights;
+
+		/**
+		 * まとまりごとの線種
+		 */
+		private int[] keyStyles;
+
+		/**
+		 * まとめた線分の始点と終点の座標（まとまりごとに、線分ごとにx1, y1, x2, y2の順）
+		 */
+		private double[][] lines;
+
+		/**
+		 * まとめた線分の数（まとまりごと）
+		 */
+		private int[] lineCounts;
+
+		Tile(DxfEntity[] entities) {
+			this.entities = entities;
+			this.highlights = new boolean[entities.length];
+			Rectangle2D bounds = null;
+			for (DxfEntity entity : entities) {
+				if (bounds == null) {
+					bounds = entity.getBounds2D();
+				} else {
+					bounds.add(entity.getBounds2D());
+				}
+			}
+			this.bounds = bounds;
+			for (int i = 0; i < entities.length; i++) {
+				this.highlights[i] = EntityBatch.isHighlighted(entities[i]);
+			}
+			this.build();
+		}
+
+		/**
+		 * 線種と異常の有無ごとに図形をまとめるメソッド
+		 */
+		private void build() {
+			int size = 0;
+			int[] styles = new int[4];
+			boolean[] highlights = new boolean[4];
+			double[][] lines = new double[4][];
+			int[] lineCounts = new int[4];
+			Shape[][] curves = new Shape[4][];
+			double[][] curveBounds = new double[4][];
+			int[] curveCounts = new int[4];
+			for (int i = 0; i < this.entities.length; i++) {
+				DxfEntity entity = this.entities[i];
+				int style = EntityBatch.getStyle(entity);
+				boolean highlight = this.highlights[i];
+				int k = 0;
+				while (k < size && (styles[k] != style || highlights[k] != highlight)) {
+					k++;
+				}
+				if (k == size) {
+					if (k == styles.length) {
+						styles = Arrays.copyOf(styles, k * 2);
+						highlights = Arrays.copyOf(highlights, k * 2);
+						lines = Arrays.copyOf(lines, k * 2);
+						lineCounts = Arrays.copyOf(lineCounts, k * 2);
+						curves = Arrays.copyOf(curves, k * 2);
+						curveBounds = Arrays.copyOf(curveBounds, k * 2);
+						curveCounts = Arrays.copyOf(curveCounts, k * 2);
+					}
+					styles[k] = style;
+					highlights[k] = highlight;
+					size++;
+				}
+				if (entity instanceof DxfLine) {
+					DxfLine line = (DxfLine) entity;
+					int offset = lineCounts[k] * 4;
+					if (lines[k] == null) {
+						lines[k] = new double[64];
+					} else if (offset == lines[k].length) {
+						lines[k] = Arrays.copyOf(lines[k], offset * 2);
+					}
+					lines[k][offset] = line.getX1();
+					lines[k][offset + 1] = line.getY1();
+					lines[k][offset + 2] = line.getX2();
+					lines[k][offset + 3] = line.getY2();
+					lineCounts[k]++;
+				} else {
+					if (curves[k] == null) {
+						curves[k] = new Shape[16];
+						curveBounds[k] = new double[64];
+					} else if (curveCounts[k] == curves[k].length) {
+						curves[k] = Arrays.copyOf(curves[k], curveCounts[k] * 2);
+						curveBounds[k] = Arrays.copyOf(curveBounds[k], curveCounts[k] * 8);
+					}
+					Shape shape;
+					if (entity instanceof DxfCircle) {
+						DxfCircle circle = (DxfCircle) entity;
+						double diameter = circle.getDiameter();
+						shape = new Ellipse2D.Double(circle.getMinX(), circle.getMinY(), diameter, diameter);
+					} else if (entity instanceof DxfArc) {
+						shape = ((DxfArc) entity).getShape();
+					} else {
+						shape = ((DxfPolyline) entity).getShape();
+					}
+					Rectangle2D rect = entity.getBounds2D();
+					int offset = curveCounts[k] * 4;
+					curveBounds[k][offset] = rect.getMinX();
+					curveBounds[k][offset + 1] = rect.getMinY();
+					curveBounds[k][offset + 2] = rect.getMaxX();
+					curveBounds[k][offset + 3] = rect.getMaxY();
+					curves[k][curveCounts[k]++] = shape;
+				}
+			}
+			this.keyStyles = Arrays.copyOf(styles, size);
+			this.keyHighlights = Arrays.copyOf(highlights, size);
+			this.lines = Arrays.copyOf(lines, size);
+			this.lineCounts = Arrays.copyOf(lineCounts, size);
+			this.curves = Arrays.copyOf(curves, size);
+			this.curveBounds = Arrays.copyOf(curveBounds, size);
+			this.curveCounts = Arrays.copyOf(curveCounts, size);
+		}
+
+		/**
+		 * 区画の図形を描画するメソッド 異常の有無が変わった図形があればまとめ直します。
+		 * 図面を区画ごとに別のスレッドで描画するとき、まとめ直している間に描画しないように同期します。
+		 * 線分は1本ずつ描画すると太さのある線を平行四辺形として塗る速い経路を通るため、1つのパスにはまとめません。
+		 * 多数の図形を1つのパスにまとめると走査線ごとに並べ替える辺が増えて遅くなるため、円なども1つずつ描画します。
+		 *
+		 * @param g
+		 * @param env
+		 *            描画する環境
+		 * @param clip
+		 *            描画する範囲（図面の座標）、すべて描画する場合はnull
+		 * @param color
+		 *            異常のない図形の色
+		 * @param defaultStroke
+		 *            ポリラインのストローク
+		 * @param segment
+		 *            線分を描画するときに使い回す線分
+		 */
+		synchronized void draw(Graphics2D g, ViewingEnvironment env, Rectangle2D clip, Color color, Stroke defaultStroke, Line2D.Double segment) {
+			boolean changed = false;
+			for (int i = 0; i < this.entities.length; i++) {
+				boolean highlight = EntityBatch.isHighlighted(this.entities[i]);
+				if (highlight != this.highlights[i]) {
+					this.highlights[i] = highlight;
+					changed = true;
+				}
+			}
+			if (changed) {
+				this.build();
+			}
+			boolean contained = clip == null || clip.contains(this.bounds);
+			for (int k = 0; k < this.keyStyles.length; k++) {
+				Stroke stroke = this.keyStyles[k] == EntityBatch.POLYLINE ? defaultStroke : env.getStroke(this.keyStyles[k]);
+				if (stroke == null) {
+					continue;
+				}
+				g.setColor(this.keyHighlights[k] ? env.getErrorColor() : color);
+				g.setStroke(stroke);
+				double[] line = this.lines[k];
+				for (int i = 0; i < this.lineCounts[k] * 4; i += 4) {
+					if (contained || clip.intersectsLine(line[i], line[i + 1], line[i + 2], line[i + 3])) {
+						segment.setLine(line[i], line[i + 1], line[i + 2], line[i + 3]);
+						g.draw(segment);
+					}
+				}
+				Shape[] curve = this.curves[k];
+				double[] rect = this.curveBounds[k];
+				for (int i = 0; i < this.curveCounts[k]; i++) {
+					if (contained || EntityBatch.intersects(clip, rect[i * 4], rect[i * 4 + 1], rect[i * 4 + 2], rect[i * 4 + 3])) {
+						g.draw(curve[i]);
+					}
+				}
+			}
+		}
+	}
+}
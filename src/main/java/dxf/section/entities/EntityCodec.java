@@ -0,0 +1,289 @@
+package dxf.section.entities;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 図形をバイト列に書き出し、バイト列から復元するためのクラス
+ *
+ * 線分と円は配列の1行をそのまま書き出し、復元した行はこのクラスが保持する配列にまとめます。
+ * 挿入と寸法はブロック名と座標だけを書き出すため、復元した後に{@link DxfEntity#link(dxf.DxfData)}で補完すること。
+ * 数値はビッグエンディアンで書き出します。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class EntityCodec {
+
+	private static final byte ARC = 1;
+
+	private static final byte CIRCLE = 2;
+
+	private static final byte DIMENSION = 3;
+
+	private static final byte INSERT = 4;
+
+	private static final byte LINE = 5;
+
+	private static final byte MTEXT = 6;
+
+	private static final byte POLYLINE = 7;
+
+	private static final byte TEXT = 8;
+
+	/**
+	 * パスの終端を表す区分
+	 */
+	private static final int END_OF_PATH = -1;
+
+	/**
+	 * パスを読み込むメソッド
+	 *
+	 * @param in
+	 *            {@link #putPath(DataOutput, Shape)}で書き出したバイト列
+	 * @return パス
+	 */
+	public static Path2D getPath(ByteBuffer in) {
+		Path2D path = new Path2D.Double(in.getInt());
+		for (int type = in.getInt(); type != EntityCodec.END_OF_PATH; type = in.getInt()) {
+			switch (type) {
+			case PathIterator.SEG_MOVETO:
+				path.moveTo(in.getDouble(), in.getDouble());
+				break;
+			case PathIterator.SEG_LINETO:
+				path.lineTo(in.getDouble(), in.getDouble());
+				break;
+			case PathIterator.SEG_QUADTO:
+				path.quadTo(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+				break;
+			case PathIterator.SEG_CUBICTO:
+				path.curveTo(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+				break;
+			case PathIterator.SEG_CLOSE:
+				path.closePath();
+				break;
+			default:
+				throw new IllegalArgumentException("パスの区分が不正です: " + type);
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * 文字列を読み込むメソッド
+	 *
+	 * @param in
+	 *            {@link #putString(DataOutput, String)}で書き出したバイト列
+	 * @return 文字列、nullを書き出した場合はnull
+	 */
+	public static String getString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * パスを書き出すメソッド 曲線は分割せずにそのまま書き出します。
+	 *
+	 * @param out
+	 *            出力先
+	 * @param shape
+	 *            図形
+	 * @throws IOException
+	 *             書き出しに失敗した場合
+	 */
+	public static void putPath(DataOutput out, Shape shape) throws IOException {
+		PathIterator itr = shape.getPathIterator(null);
+		out.writeInt(itr.getWindingRule());
+		double[] coords = new double[6];
+		for (; !itr.isDone(); itr.next()) {
+			int type = itr.currentSegment(coords);
+			out.writeInt(type);
+			int n;
+			switch (type) {
+			case PathIterator.SEG_MOVETO:
+			case PathIterator.SEG_LINETO:
+				n = 2;
+				break;
+			case PathIterator.SEG_QUADTO:
+				n = 4;
+				break;
+			case PathIterator.SEG_CUBICTO:
+				n = 6;
+				break;
+			default:
+				n = 0;
+			}
+			for (int i = 0; i < n; i++) {
+				out.writeDouble(coords[i]);
+			}
+		}
+		out.writeInt(EntityCodec.END_OF_PATH);
+	}
+
+	/**
+	 * 文字列を長さとUTF-8のバイト列で書き出すメソッド
+	 *
+	 * @param out
+	 *            出力先
+	 * @param str
+	 *            文字列、nullでもよい
+	 * @throws IOException
+	 *             書き出しに失敗した場合
+	 */
+	public static void putString(DataOutput out, String str) throws IOException {
+		if (str == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * 復元した円を保持する配列
+	 */
+	private final CircleStore circleStore;
+
+	/**
+	 * 復元した線分を保持する配列
+	 */
+	private final LineStore lineStore;
+
+	public EntityCodec() {
+		this.circleStore = new CircleStore();
+		this.lineStore = new LineStore();
+	}
+
+	/**
+	 * 復元した円を保持する配列を取得するメソッド
+	 *
+	 * @return 円を復元した順に保持する配列
+	 */
+	public CircleStore getCircleStore() {
+		return this.circleStore;
+	}
+
+	/**
+	 * 復元した線分を保持する配列を取得するメソッド
+	 *
+	 * @return 線分を復元した順に保持する配列
+	 */
+	public LineStore getLineStore() {
+		return this.lineStore;
+	}
+
+	/**
+	 * 図形のリストを読み込むメソッド
+	 *
+	 * @param in
+	 *            {@link #write(DataOutput, List)}で書き出したバイト列
+	 * @return 図形のリスト
+	 */
+	public List<DxfEntity> read(ByteBuffer in) {
+		int size = in.getInt();
+		List<DxfEntity> entities = new ArrayList<DxfEntity>(size);
+		for (int i = 0; i < size; i++) {
+			byte tag = in.get();
+			switch (tag) {
+			case LINE:
+				entities.add(new DxfLine(this.lineStore, in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(), in.getInt(), in.get()));
+				break;
+			case CIRCLE:
+				entities.add(new DxfCircle(this.circleStore, in.getDouble(), in.getDouble(), in.getDouble(), in.getInt(), in.get()));
+				break;
+			case ARC:
+				entities.add(new DxfArc(in));
+				break;
+			case TEXT:
+				entities.add(new DxfText(in));
+				break;
+			case MTEXT:
+				entities.add(new DxfMtext(in));
+				break;
+			case POLYLINE:
+				entities.add(new DxfPolyline(in));
+				break;
+			case INSERT:
+				entities.add(new DxfInsert(in));
+				break;
+			case DIMENSION:
+				entities.add(new DxfDimension(in));
+				break;
+			default:
+				throw new IllegalArgumentException("図形の種類が不正です: " + tag);
+			}
+		}
+		return entities;
+	}
+
+	/**
+	 * 図形のリストを書き出すメソッド
+	 *
+	 * @param out
+	 *            出力先
+	 * @param entities
+	 *            図形のリスト
+	 * @throws IOException
+	 *             書き出しに失敗した場合、または書き出せない種類の図形を含む場合
+	 */
+	public void write(DataOutput out, List<? extends DxfEntity> entities) throws IOException {
+		out.writeInt(entities.size());
+		for (DxfEntity entity : entities) {
+			if (entity instanceof DxfLine) {
+				DxfLine line = (DxfLine) entity;
+				LineStore store = line.store;
+				int i = line.index;
+				out.writeByte(EntityCodec.LINE);
+				out.writeDouble(store.x1[i]);
+				out.writeDouble(store.y1[i]);
+				out.writeDouble(store.x2[i]);
+				out.writeDouble(store.y2[i]);
+				out.writeInt(store.styles[i]);
+				out.writeByte(store.flags[i]);
+			} else if (entity instanceof DxfCircle) {
+				DxfCircle circle = (DxfCircle) entity;
+				CircleStore store = circle.store;
+				int i = circle.index;
+				out.writeByte(EntityCodec.CIRCLE);
+				out.writeDouble(store.x[i]);
+				out.writeDouble(store.y[i]);
+				out.writeDouble(store.diameters[i]);
+				out.writeInt(store.styles[i]);
+				out.writeByte(store.flags[i]);
+			} else if (entity instanceof DxfArc) {
+				out.writeByte(EntityCodec.ARC);
+				((DxfArc) entity).write(out);
+			} else if (entity instanceof DxfText) {
+				out.writeByte(EntityCodec.TEXT);
+				((DxfText) entity).write(out);
+			} else if (entity instanceof DxfMtext) {
+				out.writeByte(EntityCodec.MTEXT);
+				((DxfMtext) entity).write(out);
+			} else if (entity instanceof DxfPolyline) {
+				out.writeByte(EntityCodec.POLYLINE);
+				((DxfPolyline) entity).write(out);
+			} else if (entity instanceof DxfInsert) {
+				out.writeByte(EntityCodec.INSERT);
+				((DxfInsert) entity).write(out);
+			} else if (entity instanceof DxfDimension) {
+				out.writeByte(EntityCodec.DIMENSION);
+				((DxfDimension) entity).write(out);
+			} else {
+				throw new IOException("書き出せない図形です: " + entity.getClass().getName());
+			}
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package dxf.section.entities;
 
+import dxf.section.DxfValue;
+
 /**
  * 図形データを読み込むためのクラス
  * 
@@ -48,8 +50,8 @@ public interface EntityReader {
 	 * 
 	 * @param groupCode
 	 *            グループコード
-	 * @param line
+	 * @param value
 	 *            対応するデータ
 	 */
-	public void readFigure(int groupCode, String line);
+	public void readFigure(int groupCode, DxfValue value);
 }
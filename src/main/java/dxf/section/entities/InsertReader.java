@@ -3,6 +3,8 @@
  */
 package dxf.section.entities;
 
+import dxf.section.DxfValue;
+
 /**
  * DXFファイルからINSERTを読み込むためのクラス
  * 
@@ -11,6 +13,20 @@ package dxf.section.entities;
  */
 public class InsertReader implements EntityReader {
 
+	private static final int X = 1;
+
+	private static final int Y = 2;
+
+	/**
+	 * 挿入を作るのに必要な、挿入位置のX座標とY座標のビット ブロック名は別に確認します。
+	 */
+	private static final int FIGURE = X | Y;
+
+	/**
+	 * 現在の挿入で読み込んだ挿入位置の座標のビット
+	 */
+	private int flags;
+
 	/**
 	 * 挿入するブロック名
 	 */
@@ -19,21 +35,20 @@ public class InsertReader implements EntityReader {
 	/**
 	 * ブロックの挿入位置のX座標
 	 */
-	private Number x;
+	private double x;
 
 	/**
 	 * ブロックの挿入位置のY座標
 	 */
-	private Number y;
+	private double y;
 
 	/**
 	 * @see dxf.section.entities.EntityReader#clear()
 	 */
 	@Override
 	public void clear() {
+		this.flags = 0;
 		this.block = null;
-		this.x = null;
-		this.y = null;
 	}
 
 	/**
@@ -41,7 +56,7 @@ public class InsertReader implements EntityReader {
 	 */
 	@Override
 	public boolean hasFigure() {
-		return this.block != null && this.x != null && this.y != null;
+		return this.block != null && (this.flags & FIGURE) == FIGURE;
 	}
 
 	/**
@@ -53,19 +68,21 @@ public class InsertReader implements EntityReader {
 	}
 
 	/**
-	 * @see dxf.section.entities.EntityReader#readFigure(int, java.lang.String)
+	 * @see dxf.section.entities.EntityReader#readFigure(int, dxf.section.DxfValue)
 	 */
 	@Override
-	public void readFigure(int groupCode, String line) {
+	public void readFigure(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 2: // 名前
-			this.block = line;
+			this.block = value.toString();
 			break;
 		case 10: // X座標値
-			this.x = Double.valueOf(line);
+			this.x = value.parseDouble();
+			this.flags |= X;
 			break;
 		case 20: // Y座標値
-			this.y = Double.valueOf(line);
+			this.y = value.parseDouble();
+			this.flags |= Y;
 			break;
 		}
 	}
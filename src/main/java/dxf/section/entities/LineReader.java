@@ -1,5 +1,8 @@
 package dxf.section.entities;
 
+import dxf.section.DxfValue;
+import dxf.section.SymbolTable;
+
 /**
  * DXFファイルから直線を読み込むためのクラス
  * 
@@ -9,72 +12,119 @@ package dxf.section.entities;
 public class LineReader implements EntityReader {
 
 	/**
-	 * 線種
+	 * 1つの配列に保持する線分の数
+	 * 配列が一杯になると新しい配列に追加するため、図形を保持しない場合は古い配列ごと破棄されます。
 	 */
-	private String lineType;
+	private static final int STORE_SIZE = 4096;
+
+	private static final int X1 = 1;
+
+	private static final int Y1 = 2;
+
+	private static final int X2 = 4;
+
+	private static final int Y2 = 8;
+
+	/**
+	 * 線分を作るのに必要な、始点と終点のX座標とY座標のビット
+	 */
+	private static final int FIGURE = X1 | Y1 | X2 | Y2;
+
+	/**
+	 * 現在の線分で読み込んだ始点と終点の座標のビット
+	 */
+	private int flags;
+
+	/**
+	 * 線種の識別番号
+	 */
+	private int lineType;
+
+	/**
+	 * 読み込んだ線分を保持する配列
+	 */
+	private LineStore store;
+
+	/**
+	 * 線種名を登録する名前の表
+	 */
+	private final SymbolTable symbols;
 
 	/**
 	 * 始点のX座標
 	 */
-	private Number x1;
+	private double x1;
 
 	/**
 	 * 終点のX座標
 	 */
-	private Number x2;
+	private double x2;
 
 	/**
 	 * 始点のY座標
 	 */
-	private Number y1;
+	private double y1;
 
 	/**
 	 * 終点のY座標
 	 */
-	private Number y2;
+	private double y2;
+
+	/**
+	 * @param symbols
+	 *            線種名を登録する名前の表
+	 */
+	public LineReader(SymbolTable symbols) {
+		this.symbols = symbols;
+		this.store = new LineStore(LineReader.STORE_SIZE);
+	}
 
 	/**
 	 * DXFから読み込んだ図形を消去するメソッド
 	 */
 	@Override
 	public void clear() {
-		this.x1 = null;
-		this.y1 = null;
-		this.x2 = null;
-		this.y2 = null;
-		this.lineType = null;
+		this.flags = 0;
+		this.lineType = SymbolTable.BYLAYER;
 	}
 
 	@Override
 	public boolean hasFigure() {
-		return this.x1 != null && this.y1 != null && this.x2 != null & this.y2 != null;
+		return (this.flags & FIGURE) == FIGURE;
 	}
 
 	@Override
 	public DxfEntity makeFigure() {
-		return new DxfLine(this.x1, this.y1, this.x2, this.y2, this.lineType);
+		if (this.store.size() == LineReader.STORE_SIZE) {
+			this.store = new LineStore(LineReader.STORE_SIZE);
+		}
+		return this.store.add(this.x1, this.y1, this.x2, this.y2, this.lineType);
 	}
 
 	/**
 	 * DXFから図形を読み込むためのメソッド
 	 */
 	@Override
-	public void readFigure(int groupCode, String line) {
+	public void readFigure(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 6: // 線種
-			this.lineType = line;
+			this.lineType = this.symbols.intern(value);
 			break;
 		case 10: // 始点のX座標
-			this.x1 = Double.valueOf(line);
+			this.x1 = value.parseDouble();
+			this.flags |= X1;
 			break;
 		case 20: // 始点のY座標
-			this.y1 = Double.valueOf(line);
+			this.y1 = value.parseDouble();
+			this.flags |= Y1;
 			break;
 		case 11: // 終点のY座標
-			this.x2 = Double.valueOf(line);
+			this.x2 = value.parseDouble();
+			this.flags |= X2;
 			break;
 		case 21:// 終点のY座標
-			this.y2 = Double.valueOf(line);
+			this.y2 = value.parseDouble();
+			this.flags |= Y2;
 			break;
 		// TODO Z座標、Z座標軸を考慮しなければならない。
 		}
@@ -0,0 +1,273 @@
+package dxf.section.entities;
+
+import java.util.Arrays;
+import java.util.List;
+
+import util.RoundNumber;
+
+import dxf.section.SymbolTable;
+
+/**
+ * 線分の座標と属性を配列にまとめて保持するためのクラス
+ *
+ * 始点と終点の座標、線種の識別番号、フラグをそれぞれ配列で保持します。
+ * {@link DxfLine}はこの配列の1行を参照するビューで、座標やフラグを変更するとこの配列に反映されます。
+ * チェッカーや選択は図形の同一性に頼るため、ビューは線分ごとに1つ作って保持し続けます。
+ * そのためメモリはあまり減りませんが、多数の線分を走査する場合はビューを経由せずに配列を順に読むことができます。
+ * 追加は1つのスレッドから行うこと。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class LineStore {
+
+	/**
+	 * X軸方向の線分を表すフラグ
+	 */
+	static final byte DIRECTION_X = 1;
+
+	/**
+	 * Y軸方向の線分を表すフラグ
+	 */
+	static final byte DIRECTION_Y = 2;
+
+	/**
+	 * 異常を検出した線分を表すフラグ
+	 */
+	static final byte ERROR = 4;
+
+	/**
+	 * 選択できる線分を表すフラグ
+	 */
+	static final byte SELECTABLE = 8;
+
+	/**
+	 * 線分のリストを1つの配列にまとめるメソッド 各線分は新しい配列を参照するビューになります。
+	 *
+	 * @param entities
+	 *            線分のリスト
+	 * @return 線分をリストの順に保持する配列
+	 */
+	public static LineStore pack(List<? extends DxfEntity> entities) {
+		LineStore store = new LineStore(entities.size());
+		for (DxfEntity entity : entities) {
+			DxfLine line = (DxfLine) entity;
+			LineStore from = line.store;
+			int i = line.index;
+			line.index = store.append(line, from.x1[i], from.y1[i], from.x2[i], from.y2[i], from.styles[i], from.flags[i]);
+			line.store = store;
+		}
+		return store;
+	}
+
+	/**
+	 * 線分のフラグを求めるメソッド 線分の方向と、選択できるかどうか（中心線以外）を設定します。
+	 *
+	 * @return フラグ
+	 */
+	static byte getFlag(double x1, double y1, double x2, double y2, int style) {
+		byte flag = style == SymbolTable.CENTER ? 0 : SELECTABLE;
+		if (RoundNumber.nearlyEquals(x1, x2)) {
+			flag |= DIRECTION_Y;
+		}
+		if (RoundNumber.nearlyEquals(y1, y2)) {
+			flag |= DIRECTION_X;
+		}
+		return flag;
+	}
+
+	/**
+	 * フラグ
+	 */
+	byte[] flags;
+
+	/**
+	 * 線分のビュー
+	 */
+	private DxfLine[] lines;
+
+	/**
+	 * 保持している線分の数
+	 */
+	private int size;
+
+	/**
+	 * 線種の識別番号
+	 */
+	int[] styles;
+
+	/**
+	 * 始点のX座標
+	 */
+	double[] x1;
+
+	/**
+	 * 終点のX座標
+	 */
+	double[] x2;
+
+	/**
+	 * 始点のY座標
+	 */
+	double[] y1;
+
+	/**
+	 * 終点のY座標
+	 */
+	double[] y2;
+
+	public LineStore() {
+		this(16);
+	}
+
+	/**
+	 * @param capacity
+	 *            初期容量
+	 */
+	public LineStore(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.x1 = new double[capacity];
+		this.y1 = new double[capacity];
+		this.x2 = new double[capacity];
+		this.y2 = new double[capacity];
+		this.styles = new int[capacity];
+		this.flags = new byte[capacity];
+		this.lines = new DxfLine[capacity];
+	}
+
+	/**
+	 * 線分を追加するメソッド 線分の方向と、選択できるかどうか（中心線以外）を設定します。
+	 *
+	 * @param x1
+	 *            始点のX座標
+	 * @param y1
+	 *            始点のY座標
+	 * @param x2
+	 *            終点のX座標
+	 * @param y2
+	 *            終点のY座標
+	 * @param style
+	 *            線種の識別番号
+	 * @return 追加した線分のビュー
+	 */
+	public DxfLine add(double x1, double y1, double x2, double y2, int style) {
+		return new DxfLine(this, x1, y1, x2, y2, style, LineStore.getFlag(x1, y1, x2, y2, style));
+	}
+
+	/**
+	 * 配列の末尾に線分のデータを追加するメソッド 容量が足りなければ配列を拡張します。
+	 *
+	 * @param line
+	 *            追加する行を参照するビュー
+	 * @return 追加した位置
+	 */
+	int append(DxfLine line, double x1, double y1, double x2, double y2, int style, byte flag) {
+		if (this.size == this.x1.length) {
+			int capacity = this.size + (this.size >> 1) + 1;
+			this.x1 = Arrays.copyOf(this.x1, capacity);
+			this.y1 = Arrays.copyOf(this.y1, capacity);
+			this.x2 = Arrays.copyOf(this.x2, capacity);
+			this.y2 = Arrays.copyOf(this.y2, capacity);
+			this.styles = Arrays.copyOf(this.styles, capacity);
+			this.flags = Arrays.copyOf(this.flags, capacity);
+			this.lines = Arrays.copyOf(this.lines, capacity);
+		}
+		int index = this.size++;
+		this.x1[index] = x1;
+		this.y1[index] = y1;
+		this.x2[index] = x2;
+		this.y2[index] = y2;
+		this.styles[index] = style;
+		this.flags[index] = flag;
+		this.lines[index] = line;
+		return index;
+	}
+
+	/**
+	 * 線分のビューを取得するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @return 線分
+	 */
+	public DxfLine getLine(int index) {
+		return this.lines[index];
+	}
+
+	/**
+	 * 線種の識別番号を取得するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @return 線種の識別番号
+	 */
+	public int getStyle(int index) {
+		return this.styles[index];
+	}
+
+	public double getX1(int index) {
+		return this.x1[index];
+	}
+
+	public double getX2(int index) {
+		return this.x2[index];
+	}
+
+	public double getY1(int index) {
+		return this.y1[index];
+	}
+
+	public double getY2(int index) {
+		return this.y2[index];
+	}
+
+	/**
+	 * 線分が選択できるかどうかを取得するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @return 選択できればtrue
+	 */
+	public boolean isSelectable(int index) {
+		return (this.flags[index] & SELECTABLE) != 0;
+	}
+
+	/**
+	 * 線分が選択できるかどうかを設定するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @param flag
+	 *            選択できればtrue
+	 */
+	public void setSelectable(int index, boolean flag) {
+		this.setFlag(index, SELECTABLE, flag);
+	}
+
+	/**
+	 * フラグを設定するメソッド
+	 *
+	 * @param index
+	 *            位置
+	 * @param mask
+	 *            フラグ
+	 * @param flag
+	 *            設定する場合true、解除する場合false
+	 */
+	void setFlag(int index, byte mask, boolean flag) {
+		if (flag) {
+			this.flags[index] |= mask;
+		} else {
+			this.flags[index] &= ~mask;
+		}
+	}
+
+	/**
+	 * 保持している線分の数を取得するメソッド
+	 *
+	 * @return 線分の数
+	 */
+	public int size() {
+		return this.size;
+	}
+}
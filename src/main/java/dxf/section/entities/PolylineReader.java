@@ -7,6 +7,7 @@ import java.awt.geom.GeneralPath;
 import java.util.HashMap;
 import java.util.Map;
 
+import dxf.section.DxfValue;
 import dxf.section.SectionReader;
 
 /**
@@ -62,7 +63,7 @@ public class PolylineReader implements EntityReader {
 	/**
 	 * @see dxf.section.entities.EntityReader#readFigure(int, java.lang.String)
 	 */
-	public void readFigure(int groupCode, String line) {
+	public void readFigure(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 0:
 			if (this.reader != null) {
@@ -74,19 +75,19 @@ public class PolylineReader implements EntityReader {
 					this.polyline.moveTo((float) vertex.getX(), (float) vertex.getY());
 				}
 			}
-			if ("SEQEND".equals(line)) {
+			if (value.contentEquals("SEQEND")) {
 				this.close();
 			}
-			this.reader = this.map.get(line);
+			this.reader = SectionReader.select(this.map, value);
 			break;
 		case 70:
 			if (this.reader == null) {
-				this.polylineFlag = SectionReader.parseInt(line);
+				this.polylineFlag = value.parseInt();
 				break;
 			}
 		default:
 			if (this.reader != null) {
-				this.reader.readFigure(groupCode, line);
+				this.reader.readFigure(groupCode, value);
 			}
 			break;
 		}
@@ -1,5 +1,7 @@
 package dxf.section.entities;
 
+import dxf.section.DxfValue;
+
 /**
  * DXFファイルからマルチテキストを読み込むためのクラス
  * 
@@ -51,26 +53,26 @@ public class TextReader implements EntityReader {
 	}
 
 	@Override
-	public void readFigure(int groupCode, String line) {
+	public void readFigure(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 1: // 文字列
-			this.text = line;
+			this.text = value.toString();
 			break;
 		case 10:
-			this.x = Double.valueOf(line);
+			this.x = Double.valueOf(value.parseDouble());
 			break;
 		case 20:
-			this.y = Double.valueOf(line);
+			this.y = Double.valueOf(value.parseDouble());
 			break;
 		// TODO Z座標、Z座標軸を考慮しなければならない。
 		case 40: // 文字高さ
-			this.height = Double.valueOf(line);
+			this.height = Double.valueOf(value.parseDouble());
 			break;
 		case 72: // アタッチされる点
-			this.align = Byte.valueOf(line.replaceFirst("\\s+", ""));
+			this.align = Byte.valueOf((byte) value.parseInt());
 			break;
 		case 73: // 垂直方向の文字位置あわせ
-			this.valign = Byte.valueOf(line.replaceFirst("\\s+", ""));
+			this.valign = Byte.valueOf((byte) value.parseInt());
 			break;
 		}
 	}
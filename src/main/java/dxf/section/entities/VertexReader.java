@@ -1,21 +1,36 @@
 package dxf.section.entities;
 
+import dxf.section.DxfValue;
+
 /**
  * @author FUJIWARA Masayasu
  */
 public class VertexReader implements EntityReader {
 
-	private Number x;
+	private static final int X = 1;
+
+	private static final int Y = 2;
+
+	/**
+	 * 頂点を作るのに必要な、X座標とY座標のビット
+	 */
+	private static final int FIGURE = X | Y;
+
+	/**
+	 * 現在の頂点で読み込んだ座標のビット
+	 */
+	private int flags;
+
+	private double x;
 
-	private Number y;
+	private double y;
 
 	/**
 	 * @see dxf.section.entities.EntityReader#clear()
 	 */
 	@Override
 	public void clear() {
-		this.x = null;
-		this.y = null;
+		this.flags = 0;
 	}
 
 	/**
@@ -23,7 +38,7 @@ public class VertexReader implements EntityReader {
 	 */
 	@Override
 	public boolean hasFigure() {
-		return this.x != null && this.y != null;
+		return (this.flags & FIGURE) == FIGURE;
 	}
 
 	/**
@@ -35,16 +50,18 @@ public class VertexReader implements EntityReader {
 	}
 
 	/**
-	 * @see dxf.section.entities.EntityReader#readFigure(int, java.lang.String)
+	 * @see dxf.section.entities.EntityReader#readFigure(int, dxf.section.DxfValue)
 	 */
 	@Override
-	public void readFigure(int groupCode, String line) {
+	public void readFigure(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 10:
-			this.x = Double.valueOf(line);
+			this.x = value.parseDouble();
+			this.flags |= X;
 			break;
 		case 20:
-			this.y = Double.valueOf(line);
+			this.y = value.parseDouble();
+			this.flags |= Y;
 			break;
 		}
 	}
@@ -1,5 +1,7 @@
 package dxf.section.header;
 
+import dxf.section.DxfValue;
+
 /**
  * パラメータ読み込むためのクラス
  * 
@@ -46,8 +48,8 @@ public abstract class ParameterReader {
 	 * 
 	 * @param groupCode
 	 *            グループコード
-	 * @param line
+	 * @param value
 	 *            対応するデータ
 	 */
-	public abstract void readParameter(int groupCode, String line);
+	public abstract void readParameter(int groupCode, DxfValue value);
 }
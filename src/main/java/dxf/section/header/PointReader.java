@@ -1,5 +1,7 @@
 package dxf.section.header;
 
+import dxf.section.DxfValue;
+
 /**
  * DXFファイルからPointを読み込むためのクラス
  * 
@@ -27,12 +29,12 @@ public class PointReader extends ParameterReader {
 	}
 
 	@Override
-	public void readParameter(int groupCode, String line) {
+	public void readParameter(int groupCode, DxfValue value) {
 		switch (groupCode) {
 		case 10:
-			this.x = Double.valueOf(line);
+			this.x = Double.valueOf(value.parseDouble());
 		case 20:
-			this.y = Double.valueOf(line);
+			this.y = Double.valueOf(value.parseDouble());
 		}
 	}
 }
@@ -10,6 +10,7 @@ import java.awt.geom.Rectangle2D;
 import java.util.Observable;
 import java.util.Observer;
 
+import dxf.section.SymbolTable;
 import dxf.section.entities.DxfCircle;
 import dxf.section.entities.DxfDimension;
 import dxf.section.entities.DxfEntity;
@@ -85,9 +86,9 @@ public class DimensionComponent extends ExportableComponent implements Observer
 			if (pt != null) {
 				System.out.println("OK");
 				g.setColor(Color.RED);
-				DxfCircle circle = new DxfCircle(15 / env.getScale(), pt.getX(), pt.getY(), "CHECK");
+				DxfCircle circle = new DxfCircle(15 / env.getScale(), pt.getX(), pt.getY(), SymbolTable.CHECK);
 				circle.draw(g, env);
-				circle = new DxfCircle(10 / env.getScale(), pt.getX(), pt.getY(), "CHECK");
+				circle = new DxfCircle(10 / env.getScale(), pt.getX(), pt.getY(), SymbolTable.CHECK);
 				circle.draw(g, env);
 			}
 		}
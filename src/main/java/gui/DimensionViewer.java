@@ -31,11 +31,8 @@ import javax.swing.KeyStroke;
 import javax.swing.WindowConstants;
 
 import util.GeneralFileFilter;
-import util.MapList;
 import dxf.DxfData;
 import dxf.DxfReader;
-import dxf.section.entities.DxfDimension;
-import dxf.section.entities.DxfInsert;
 import dxf.section.entities.DxfEntity;
 
 /**
@@ -319,11 +316,8 @@ public class DimensionViewer extends JFrame {
 		try {
 			DxfData dxf = this.reader.readDXF(file);
 			this.setTitle(DimensionViewer.TITLE + " - " + file.getName());
-			MapList<String, DxfEntity> map = dxf.getDxfData();
-			List<DxfEntity> dimensions = map.get(DxfDimension.class.getName());
-			List<DxfEntity> inserts = map.get(DxfInsert.class.getName());
-			this.entities.addAll(dimensions);
-			this.entities.addAll(inserts);
+			this.entities.addAll(dxf.getDxfDimensions());
+			this.entities.addAll(dxf.getDxfInserts());
 			this.index = 0;
 			if (this.entities.size() > 0) {
 				this.setEntity(this.entities.get(this.index));
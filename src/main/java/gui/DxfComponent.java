@@ -7,6 +7,7 @@ import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Stroke;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Observable;
@@ -14,6 +15,7 @@ import java.util.Observer;
 
 import util.ExportableComponent;
 import dxf.DxfData;
+import dxf.checker.CheckResult;
 import dxf.section.entities.DxfEntity;
 
 /**
@@ -24,6 +26,28 @@ import dxf.section.entities.DxfEntity;
  */
 public class DxfComponent extends ExportableComponent implements Observer {
 
+	/**
+	 * 図面の構成要素を描画するためにグラフィックスを設定するメソッド
+	 * 
+	 * @param g
+	 * @param env
+	 *            表示環境
+	 * @param x
+	 *            原点を表示するX座標
+	 * @param y
+	 *            原点を表示するY座標
+	 */
+	static void initGraphics(Graphics2D g, ViewingEnvironment env, double x, double y) {
+		double scale = env.getScale();
+		g.setFont(env.getFont());
+		g.setColor(Color.BLACK);
+		if (env.getParam(ViewingEnvironment.labelAntialiasing) > 0) {
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		}
+		g.setStroke(new BasicStroke((float) (.5f / scale)));
+		g.setTransform(new AffineTransform(scale, 0f, 0f, -scale, x, y));
+	}
+
 	/**
 	 * DXFファイルから読み込んだデータ
 	 */
@@ -39,11 +63,36 @@ public class DxfComponent extends ExportableComponent implements Observer {
 	 */
 	private Collection<DxfEntity> errors;
 
+	/**
+	 * 図面の構成要素を描画した画像 選択範囲や、異常を検出した図形とチェックの補助線の表示を変更しても描画し直しません。
+	 */
+	private BufferedImage frame;
+
+	/**
+	 * 画像を描画したときの表示の設定を変更した回数
+	 */
+	private int frameRevision;
+
+	/**
+	 * 画像を描画したときに原点を表示したX座標
+	 */
+	private double frameX;
+
+	/**
+	 * 画像を描画したときに原点を表示したY座標
+	 */
+	private double frameY;
+
 	/**
 	 * 選択範囲
 	 */
 	private MouseSelection selection;
 
+	/**
+	 * 図面の構成要素を描画した区画の画像
+	 */
+	private TileCache tiles;
+
 	public DxfComponent(ViewingEnvironment env) {
 		this.env = env;
 		this.env.addObserver(this);
@@ -52,6 +101,12 @@ public class DxfComponent extends ExportableComponent implements Observer {
 		this.selection.addObserver(this);
 
 		this.errors = new ArrayList<DxfEntity>();
+
+		// 上限はシステムプロパティdxf.tile.limit（MB単位、なければ128MB）とする
+		this.tiles = new TileCache(Long.getLong("dxf.tile.limit", 128) << 20, () -> {
+			this.frame = null;
+			this.repaint();
+		});
 	}
 
 	/**
@@ -64,6 +119,19 @@ public class DxfComponent extends ExportableComponent implements Observer {
 		this.errors.addAll(entities);
 	}
 
+	/**
+	 * チェックの結果を表示に反映するメソッド 図形のフラグと補助線を設定し、異常を検出した図形を追加します。
+	 * 
+	 * @param result
+	 *            チェックの結果
+	 */
+	public void addCheckResult(CheckResult result) {
+		result.apply(this.dxf);
+		this.errors.addAll(result.getErrorEntities());
+		this.tiles.clear();
+		this.frame = null;
+	}
+
 	/**
 	 * 構成要素のエラーを解除するメソッド
 	 */
@@ -72,6 +140,8 @@ public class DxfComponent extends ExportableComponent implements Observer {
 			entity.clearError();
 		}
 		this.errors.clear();
+		this.tiles.clear();
+		this.frame = null;
 	}
 
 	public void clearSelection() {
@@ -116,27 +186,76 @@ public class DxfComponent extends ExportableComponent implements Observer {
 	}
 
 	protected void paintComponent(Graphics2D g) {
-		this.paintComponent(g, this.env, this.getWidth(), this.getHeight());
+		int width = this.getWidth();
+		int height = this.getHeight();
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		if (this.frame == null || this.frame.getWidth() != width || this.frame.getHeight() != height || this.frameRevision != this.env.getRevision()
+				|| this.frameX != this.env.getX() || this.frameY != this.env.getY()) {
+			if (this.frame == null || this.frame.getWidth() != width || this.frame.getHeight() != height) {
+				this.frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			}
+			Graphics2D frameGraphics = this.frame.createGraphics();
+			try {
+				this.paintBase(frameGraphics, this.env, width, height, this.tiles);
+			} finally {
+				frameGraphics.dispose();
+			}
+			this.frameRevision = this.env.getRevision();
+			this.frameX = this.env.getX();
+			this.frameY = this.env.getY();
+		}
+		g.drawImage(this.frame, 0, 0, null);
+		this.paintOverlay(g, this.env, height);
 	}
 
 	protected void paintComponent(Graphics2D g, ViewingEnvironment env, int width, int height) {
-		g.setFont(env.getFont());
+		this.paintBase(g, env, width, height, null);
+		this.paintOverlay(g, env, height);
+	}
+
+	/**
+	 * 図面の構成要素を描画するメソッド
+	 * 
+	 * @param g
+	 * @param env
+	 *            表示環境
+	 * @param width
+	 *            描画する幅
+	 * @param height
+	 *            描画する高さ
+	 * @param tiles
+	 *            図面の構成要素を描画した区画の画像、直接描画する場合はnull
+	 */
+	private void paintBase(Graphics2D g, ViewingEnvironment env, int width, int height, TileCache tiles) {
 		g.setColor(env.getBackground());
 		g.fillRect(0, 0, width, height);
-		g.setColor(Color.BLACK);
-
-		double scale = env.getScale();
-		if (env.getParam(ViewingEnvironment.labelAntialiasing) > 0) {
-			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		if (this.dxf != null) {
+			if (tiles != null) {
+				tiles.draw(g, this.dxf, env, width, height);
+			} else {
+				DxfComponent.initGraphics(g, env, env.getX(), env.getY() + height);
+				this.dxf.drawEntities(g, env);
+			}
 		}
-		g.setStroke(new BasicStroke((float) (.5f / scale)));
-		g.setTransform(new AffineTransform(scale, 0f, 0f, -scale, env.getX(), env.getY() + height));
+	}
+
+	/**
+	 * 異常を検出した図形とチェックの補助線、選択範囲と投影図の外接長方形を描画するメソッド
+	 * 選択範囲や表示の切り替えのたびに呼び出すため、図面の大きさによらず軽い処理に限ること。
+	 * 
+	 * @param g
+	 * @param env
+	 *            表示環境
+	 * @param height
+	 *            描画する高さ
+	 */
+	private void paintOverlay(Graphics2D g, ViewingEnvironment env, int height) {
+		DxfComponent.initGraphics(g, env, env.getX(), env.getY() + height);
 
 		Stroke stroke = g.getStroke();
 		if (this.dxf != null) {
-
-			this.dxf.drawEntities(g, env);
-
 			if (env.getParam(ViewingEnvironment.labelError) == 1) {
 				Color color = g.getColor();
 				g.setColor(Color.BLUE);
@@ -217,6 +336,8 @@ public class DxfComponent extends ExportableComponent implements Observer {
 	 */
 	public void set(DxfData dxf) {
 		this.errors.clear();
+		this.tiles.clear();
+		this.frame = null;
 		this.env.clear();
 		this.dxf = dxf;
 		this.setDefaultView();
@@ -243,6 +364,7 @@ public class DxfComponent extends ExportableComponent implements Observer {
 	 */
 
 	public void update(Observable o, Object arg) {
+		// 図面の構成要素の表示を変える設定は表示環境の変更回数で判別できるため、ここでは画像を破棄しない
 		this.repaint();
 	}
 
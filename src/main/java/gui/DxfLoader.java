@@ -0,0 +1,174 @@
+package gui;
+
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.swing.SwingWorker;
+
+import dxf.DxfData;
+import dxf.DxfProgressListener;
+import dxf.DxfReader;
+import dxf.checker.CheckResult;
+import dxf.checker.CheckRunner;
+
+/**
+ * DXFファイルをバックグラウンドで読み込むためのタスク
+ *
+ * 読み込み、最適化、チェックを別のスレッドで行い（チェッカーどうしはさらに並行して実行します）、終了するとイベントディスパッチスレッドで{@link DxfViewer}に通知します。
+ * 進捗は読み込んだバイト数の割合（0から100）を{@link #getProgress()}で、処理の段階を{@link #process(List)}で通知します。
+ * {@link #cancel(boolean)}で割り込むと、読み込みを中止します。
+ * チェックに失敗しても読み込んだ図面は返し、失敗の原因は{@link #getCheckFailure()}で通知します。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+class DxfLoader extends SwingWorker<DxfData, String> implements DxfProgressListener {
+
+	/**
+	 * チェックの段階
+	 */
+	static final String STAGE_CHECK = "チェック";
+
+	/**
+	 * チェックに失敗した原因
+	 */
+	private Throwable checkFailure;
+
+	/**
+	 * DXFファイルを読み込む処理
+	 */
+	private final Callable<DxfData> loader;
+
+	/**
+	 * 図面の名前
+	 */
+	private final String name;
+
+	/**
+	 * DXFファイルリーダ
+	 */
+	private final DxfReader reader;
+
+	/**
+	 * チェッカーごとの結果
+	 */
+	private List<CheckResult> results;
+
+	/**
+	 * DXF Checker
+	 */
+	private final CheckRunner runner;
+
+	/**
+	 * 現在の処理の段階
+	 */
+	private String stage;
+
+	/**
+	 * 通知先のビューア
+	 */
+	private final DxfViewer viewer;
+
+	/**
+	 * @param viewer
+	 *            通知先のビューア
+	 * @param runner
+	 *            図面をチェックするチェッカー
+	 * @param name
+	 *            図面の名前
+	 * @param loader
+	 *            DXFファイルを読み込む処理（readerで読み込むこと）
+	 */
+	DxfLoader(DxfViewer viewer, CheckRunner runner, String name, Callable<DxfData> loader) {
+		this.viewer = viewer;
+		this.reader = viewer.reader;
+		this.runner = runner;
+		this.name = name;
+		this.loader = loader;
+		this.results = Collections.emptyList();
+	}
+
+	/**
+	 * @see javax.swing.SwingWorker#doInBackground()
+	 */
+	@Override
+	protected DxfData doInBackground() throws Exception {
+		this.progress(DxfReader.STAGE_READ, 0);
+		this.reader.setProgressListener(this);
+		DxfData dxf;
+		try {
+			dxf = this.loader.call();
+		} finally {
+			this.reader.setProgressListener(null);
+		}
+		this.progress(DxfLoader.STAGE_CHECK, -1);
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InterruptedIOException("読み込みを中止しました。");
+		}
+		try {
+			this.results = this.runner.check(dxf.getSnapshot());
+		} catch (RuntimeException e) {
+			this.checkFailure = e;
+		}
+		return dxf;
+	}
+
+	/**
+	 * @see javax.swing.SwingWorker#done()
+	 */
+	@Override
+	protected void done() {
+		this.viewer.loaded(this);
+	}
+
+	/**
+	 * チェックに失敗した原因を取得するメソッド
+	 *
+	 * @return チェックに失敗した原因、チェックできた場合はnull
+	 */
+	Throwable getCheckFailure() {
+		return this.checkFailure;
+	}
+
+	/**
+	 * 図面の名前を取得するメソッド
+	 *
+	 * @return 図面の名前
+	 */
+	String getName() {
+		return this.name;
+	}
+
+	/**
+	 * チェッカーごとの結果を取得するメソッド
+	 *
+	 * @return チェッカーの順の結果
+	 */
+	List<CheckResult> getResults() {
+		return this.results;
+	}
+
+	/**
+	 * @see javax.swing.SwingWorker#process(java.util.List)
+	 */
+	@Override
+	protected void process(List<String> stages) {
+		this.viewer.showProgress(this, stages.get(stages.size() - 1));
+	}
+
+	/**
+	 * @see dxf.DxfProgressListener#progress(java.lang.String, double)
+	 */
+	@Override
+	public void progress(String stage, double ratio) {
+		if (!stage.equals(this.stage)) {
+			this.stage = stage;
+			this.publish(stage);
+		}
+		if (ratio >= 0) {
+			this.setProgress((int) Math.min(100, ratio * 100));
+		}
+	}
+}
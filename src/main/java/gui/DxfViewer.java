@@ -19,7 +19,12 @@ import java.awt.event.KeyEvent;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFileChooser;
@@ -28,14 +33,20 @@ import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
 import javax.swing.KeyStroke;
 import javax.swing.WindowConstants;
 
 import util.GeneralFileFilter;
+import dxf.DxfCache;
 import dxf.DxfData;
 import dxf.DxfReader;
+import dxf.checker.CheckResult;
+import dxf.checker.CheckRunner;
 import dxf.checker.DimensionChecker;
 import dxf.checker.DxfChecker;
+import dxf.checker.PositionChecker;
+import dxf.checker.ScrewChecker;
 
 /**
  * DXF Viewer
@@ -53,20 +64,35 @@ public class DxfViewer extends JFrame {
 	private static final String TITLE = "DXF Checker";
 
 	/**
-	 * DXF Checker
+	 * DXFファイル表示のためのコンポーネント
 	 */
-	private List<DxfChecker> checkers;
+	final DxfComponent comp;
 
 	/**
-	 * DXFファイル表示のためのコンポーネント
+	 * DXFファイルを読み込むスレッド 読み込みは1つずつ順に行います。
 	 */
-	final DxfComponent comp;
+	private final ExecutorService executor;
+
+	/**
+	 * 読み込み中のタスク、読み込んでいなければnull
+	 */
+	private DxfLoader loader;
+
+	/**
+	 * 読み込みの進捗を表示するプログレスバー
+	 */
+	private final JProgressBar progressBar;
 
 	/**
 	 * DXFファイルリーダ
 	 */
 	final DxfReader reader;
 
+	/**
+	 * DXF Checker 並行してチェックします。
+	 */
+	private final CheckRunner runner;
+
 	final Sidebar sidebar;
 
 	/**
@@ -90,10 +116,11 @@ public class DxfViewer extends JFrame {
 			}
 		};
 
-		this.checkers = new ArrayList<DxfChecker>();
-		// this.checkers.add(new ScrewChecker());
-		this.checkers.add(new DimensionChecker());
-		// this.checkers.add(new PositionChecker());
+		List<DxfChecker> checkers = new ArrayList<DxfChecker>();
+		checkers.add(new ScrewChecker());
+		checkers.add(new DimensionChecker());
+		checkers.add(new PositionChecker());
+		this.runner = new CheckRunner(checkers);
 
 		JMenuBar menubar = new JMenuBar();
 		JMenu menuFile = new JMenu("File");
@@ -279,11 +306,11 @@ public class DxfViewer extends JFrame {
 
 		menuInspection.addSeparator();
 
-		for (int i = 0; i < this.checkers.size(); i++) {
-			final DxfChecker checker = this.checkers.get(i);
+		for (DxfChecker checker : checkers) {
 			JMenuItem item = new JMenuItem(checker.toString());
 			item.addActionListener(e -> {
 				DxfData dxf = this.comp.getDXF();
+				this.comp.clearErrorEntities();
 				this.checkDrawing(dxf, checker);
 				this.comp.repaint();
 			});
@@ -330,24 +357,39 @@ public class DxfViewer extends JFrame {
 
 		this.sizeScreen();
 
+		this.progressBar = new JProgressBar(0, 100);
+		this.progressBar.setStringPainted(true);
+		this.progressBar.setVisible(false);
+
 		this.add(this.sidebar, BorderLayout.WEST);
 		this.add(this.comp, BorderLayout.CENTER);
+		this.add(this.progressBar, BorderLayout.SOUTH);
 		this.setVisible(true);
 
 		this.reader = new DxfReader();
+		this.reader.setParallel(true);
+		this.reader.setCache(DxfCache.getDefault());
+		this.executor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "DxfLoader");
+			thread.setDaemon(true);
+			return thread;
+		});
 	}
 
 	/**
-	 * すべてのチェッカーで図面をチェックします
+	 * すべてのチェッカーで図面を並行してチェックします
 	 * 
 	 * @param dxf DXFファイルデータ
 	 */
 	void checkDrawing(DxfData dxf) {
-		boolean result = true;
-		for (DxfChecker checker : this.checkers) {
-			result &= this.checkDrawing(dxf, checker);
+		List<CheckResult> results;
+		try {
+			results = this.runner.check(dxf.getSnapshot());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
 		}
-		if (result) {
+		if (this.showResults(results)) {
 			JOptionPane.showMessageDialog(this.comp, "異常は検出できませんでした。");
 		}
 	}
@@ -360,12 +402,7 @@ public class DxfViewer extends JFrame {
 	 * @return 異常がなければtrue、異常があればfalseを返します。
 	 */
 	boolean checkDrawing(DxfData dxf, DxfChecker checker) {
-		boolean result = checker.check(dxf);
-		if (!result) {
-			this.comp.addErrorEntities(checker.getErrorEntities());
-			JOptionPane.showMessageDialog(this, checker.getErrorMessage());
-		}
-		return result;
+		return this.showResults(Collections.singletonList(checker.check(dxf.getSnapshot())));
 	}
 
 	public void openDirectory(File dir) {
@@ -377,6 +414,62 @@ public class DxfViewer extends JFrame {
 		this.openDirectory(new File(path));
 	}
 
+	/**
+	 * バックグラウンドでの読み込みが終了したときに呼び出されるメソッド イベントディスパッチスレッドで呼び出されます。
+	 * 読み込んだ図面を表示して、チェックの結果を通知します。
+	 * 
+	 * @param loader 終了したタスク
+	 */
+	void loaded(DxfLoader loader) {
+		if (loader != this.loader) {
+			return;
+		}
+		this.loader = null;
+		this.progressBar.setVisible(false);
+		if (loader.isCancelled()) {
+			return;
+		}
+		DxfData dxf;
+		try {
+			dxf = loader.get();
+		} catch (InterruptedException e) {
+			return;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			cause.printStackTrace();
+			JOptionPane.showMessageDialog(this, new String[] { "指定されたファイルを開くことができませんでした。", String.valueOf(cause.getMessage()) });
+			return;
+		}
+		this.setTitle(DxfViewer.TITLE + " - " + loader.getName());
+		this.comp.set(dxf);
+		if (loader.getCheckFailure() != null) {
+			this.showCheckFailure(loader.getCheckFailure());
+		} else if (this.showResults(loader.getResults())) {
+			JOptionPane.showMessageDialog(this.comp, "異常は検出できませんでした。");
+		}
+	}
+
+	/**
+	 * ファイルをバックグラウンドで読み込むメソッド 読み込み中のファイルがあれば中止します。
+	 * 
+	 * @param name 図面の名前
+	 * @param loader ファイルを読み込む処理
+	 */
+	private void load(String name, Callable<DxfData> loader) {
+		if (this.loader != null) {
+			this.loader.cancel(true);
+		}
+		this.loader = new DxfLoader(this, this.runner, name, loader);
+		this.loader.addPropertyChangeListener(e -> {
+			if (e.getSource() == this.loader && "progress".equals(e.getPropertyName())) {
+				this.progressBar.setValue((Integer) e.getNewValue());
+			}
+		});
+		this.progressBar.setValue(0);
+		this.showProgress(this.loader, DxfReader.STAGE_READ);
+		this.executor.execute(this.loader);
+	}
+
 	/**
 	 * ファイルを開くメソッド
 	 * 
@@ -384,16 +477,18 @@ public class DxfViewer extends JFrame {
 	 */
 	public void openFile(File file) {
 		System.out.println(DxfViewer.class.getName() + " # open file: " + file.getName());
-		try {
-			DxfData dxf = this.reader.readDXF(file);
-			this.setTitle(DxfViewer.TITLE + " - " + file.getName());
-			this.comp.set(dxf);
-			this.checkDrawing(dxf);
-			this.comp.repaint();
-		} catch (IOException e) {
-			JOptionPane.showMessageDialog(this, new String[] { "指定されたファイルを開くことができませんでした。", e.getMessage() });
-			System.exit(1);
-		}
+		this.load(file.getName(), () -> this.reader.readDXF(file));
+	}
+
+	/**
+	 * zipファイルに含まれるファイルを開くメソッド
+	 * 
+	 * @param zip zipファイル
+	 * @param name 開くファイルのエントリ名
+	 */
+	public void openFile(File zip, String name) {
+		System.out.println(DxfViewer.class.getName() + " # open file: " + zip.getName() + File.separatorChar + name);
+		this.load(zip.getName() + File.separatorChar + name, () -> this.reader.readDXF(zip, name));
 	}
 
 	/**
@@ -405,6 +500,53 @@ public class DxfViewer extends JFrame {
 		this.openFile(new File(path));
 	}
 
+	/**
+	 * 読み込みの段階を表示するメソッド イベントディスパッチスレッドで呼び出します。
+	 * 
+	 * @param loader 読み込み中のタスク
+	 * @param stage 処理の段階
+	 */
+	void showProgress(DxfLoader loader, String stage) {
+		if (loader == this.loader) {
+			this.progressBar.setIndeterminate(!DxfReader.STAGE_READ.equals(stage));
+			this.progressBar.setString(loader.getName() + " : " + stage);
+			this.progressBar.setVisible(true);
+			this.revalidate();
+		}
+	}
+
+	/**
+	 * チェックに失敗したことを表示するメソッド イベントディスパッチスレッドで呼び出します。
+	 * 
+	 * @param cause 失敗の原因
+	 */
+	private void showCheckFailure(Throwable cause) {
+		cause.printStackTrace();
+		JOptionPane.showMessageDialog(this, new String[] { "図面をチェックできませんでした。", String.valueOf(cause.getMessage()) });
+	}
+
+	/**
+	 * チェックの結果を表示するメソッド イベントディスパッチスレッドで呼び出します。
+	 * 異常を検出した図形をすべて表示してから、異常を検出したチェッカーごとにエラーメッセージを表示します。
+	 * 
+	 * @param results チェッカーの順の結果
+	 * @return すべてのチェッカーで異常がなければtrue
+	 */
+	private boolean showResults(List<CheckResult> results) {
+		for (CheckResult result : results) {
+			this.comp.addCheckResult(result);
+		}
+		this.comp.repaint();
+		boolean passed = true;
+		for (CheckResult result : results) {
+			if (!result.isPassed()) {
+				JOptionPane.showMessageDialog(this, result.getErrorMessage());
+				passed = false;
+			}
+		}
+		return passed;
+	}
+
 	/**
 	 * フレームをスクリーンいっぱいに表示させるためのメソッド
 	 */
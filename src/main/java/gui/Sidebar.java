@@ -8,6 +8,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
 import java.io.IOException;
+import java.util.Locale;
 
 import javax.swing.DefaultListModel;
 import javax.swing.JButton;
@@ -22,6 +23,8 @@ import javax.swing.SwingConstants;
 
 import util.GeneralFileFilter;
 
+import dxf.DxfReader;
+
 public class Sidebar extends JPanel {
 	private File dir;
 	private final TextField field;
@@ -30,6 +33,11 @@ public class Sidebar extends JPanel {
 	private final DefaultListModel<String> model = new DefaultListModel<>();
 	private final DxfViewer viewer;
 
+	/**
+	 * 表示しているzipファイル、ディレクトリを表示している場合はnull
+	 */
+	private File zip;
+
 	public Sidebar(DxfViewer viewer) {
 		this.viewer = viewer;
 		this.list = new JList<>(this.model);
@@ -70,9 +78,19 @@ public class Sidebar extends JPanel {
 				if (e.getClickCount() == 2) {
 					String selection = Sidebar.this.list.getSelectedValue();
 					try {
+						if (Sidebar.this.zip != null) {
+							if ("../".equals(selection)) {
+								Sidebar.this.openDirectry(Sidebar.this.dir);
+							} else {
+								Sidebar.this.viewer.openFile(Sidebar.this.zip, selection);
+							}
+							return;
+						}
 						File file = new File(Sidebar.this.dir.getCanonicalPath() + File.separatorChar + selection);
 						if (file.isDirectory()) {
 							Sidebar.this.openDirectry(file);
+						} else if (file.getName().toLowerCase(Locale.ENGLISH).endsWith(".zip")) {
+							Sidebar.this.openZip(file);
 						} else {
 							Sidebar.this.viewer.openFile(file);
 						}
@@ -188,6 +206,7 @@ public class Sidebar extends JPanel {
 		if (dir.isDirectory()) {
 			this.model.clear();
 			this.dir = dir;
+			this.zip = null;
 			try {
 				if (!"/".equals(this.dir.getCanonicalPath())) {
 					this.model.addElement("../");
@@ -195,9 +214,28 @@ public class Sidebar extends JPanel {
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
-			for (File f : dir.listFiles(new GeneralFileFilter("dxf", "DXF", true))) {
+			for (File f : dir.listFiles(new GeneralFileFilter(new String[] { "dxf", "dxf.gz", "zip" }, "DXF", true))) {
 				this.model.addElement(f.getName());
 			}
 		}
 	}
+
+	/**
+	 * zipファイルに含まれるDXFファイルを一覧に表示するメソッド
+	 * 
+	 * @param zip
+	 *            zipファイル
+	 */
+	void openZip(File zip) {
+		try {
+			this.model.clear();
+			this.zip = zip;
+			this.model.addElement("../");
+			for (String name : DxfReader.getEntries(zip)) {
+				this.model.addElement(name);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
 }
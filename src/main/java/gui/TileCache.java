@@ -0,0 +1,335 @@
+package gui;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.SwingUtilities;
+
+import dxf.DxfData;
+
+/**
+ * 図面を一定の大きさの区画に分けて画像に描画し、平行移動するときに再利用するためのキャッシュ
+ *
+ * 区画の画像は表示の設定（{@link ViewingEnvironment#getRevision()}）と、原点を表示する位置の1画素未満の端数ごとに作成します。
+ * マウスのドラッグによる平行移動は1画素単位なので、作成した画像を並べ直すだけで描画できます。
+ * 足りない区画はバックグラウンドのスレッドで描画し、描画が終わるとイベントディスパッチスレッドでリスナを呼び出します。
+ * 画像の合計の大きさが上限を超えると、使った時刻の古い画像から破棄します。
+ * 描画と破棄はイベントディスパッチスレッドから呼び出すこと。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class TileCache {
+
+	/**
+	 * 区画の一辺の画素数
+	 */
+	public static final int TILE_SIZE = 256;
+
+	/**
+	 * 区画の画像1枚の大きさ（バイト）
+	 */
+	private static final long TILE_BYTES = (long) TileCache.TILE_SIZE * TileCache.TILE_SIZE * 4;
+
+	/**
+	 * 区画を描画するスレッド
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * 画像を破棄した回数
+	 */
+	private int generation;
+
+	/**
+	 * 現在の表示の設定 描画を待つ間に設定が変わった区画は描画しません。
+	 */
+	private volatile Level level;
+
+	/**
+	 * 区画の描画が終わったときにイベントディスパッチスレッドで呼び出す処理
+	 */
+	private final Runnable listener;
+
+	/**
+	 * 描画中の区画
+	 */
+	private final Set<Key> pending;
+
+	/**
+	 * 区画ごとの画像（使った時刻の古い順）
+	 */
+	private final Map<Key, BufferedImage> tiles;
+
+	/**
+	 * 表示している区画の範囲 描画を待つ間に表示しなくなった区画は描画しません。
+	 */
+	private volatile Rectangle visible;
+
+	/**
+	 * @param limit
+	 *            画像の合計の大きさの上限（バイト）
+	 * @param listener
+	 *            区画の描画が終わったときにイベントディスパッチスレッドで呼び出す処理
+	 */
+	public TileCache(long limit, Runnable listener) {
+		this.listener = listener;
+		final int capacity = (int) Math.max(1, limit / TileCache.TILE_BYTES);
+		this.tiles = new LinkedHashMap<Key, BufferedImage>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+				return this.size() > capacity;
+			}
+		};
+		this.pending = new HashSet<Key>();
+		this.visible = new Rectangle();
+		this.executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()), r -> {
+			Thread thread = new Thread(r, "TileRenderer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * すべての画像を破棄するメソッド 図面や図形の異常の表示を変更したときに呼び出します。
+	 * 描画中の区画は描画が終わっても使いません。
+	 */
+	public void clear() {
+		this.generation++;
+		this.level = null;
+		this.tiles.clear();
+		this.pending.clear();
+	}
+
+	/**
+	 * 図面の構成要素を描画するメソッド 画像のない区画は描画せずに、バックグラウンドで描画を始めます。
+	 *
+	 * @param g
+	 *            変換行列を設定していないグラフィックス
+	 * @param dxf
+	 *            図面
+	 * @param env
+	 *            表示環境
+	 * @param width
+	 *            描画する幅
+	 * @param height
+	 *            描画する高さ
+	 */
+	public void draw(Graphics2D g, DxfData dxf, ViewingEnvironment env, int width, int height) {
+		double originX = env.getX();
+		double originY = env.getY() + height;
+		int x = (int) Math.floor(originX);
+		int y = (int) Math.floor(originY);
+		Level level = this.level;
+		if (level == null || !level.matches(dxf, env, this.generation, originX - x, originY - y)) {
+			level = new Level(dxf, env.copy(), this.generation, originX - x, originY - y);
+			this.level = level;
+		}
+
+		int minColumn = Math.floorDiv(-x, TileCache.TILE_SIZE);
+		int minRow = Math.floorDiv(-y, TileCache.TILE_SIZE);
+		int maxColumn = Math.floorDiv(width - 1 - x, TileCache.TILE_SIZE);
+		int maxRow = Math.floorDiv(height - 1 - y, TileCache.TILE_SIZE);
+		this.visible = new Rectangle(minColumn, minRow, maxColumn - minColumn + 1, maxRow - minRow + 1);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				Key key = new Key(level, column, row);
+				BufferedImage image = this.tiles.get(key);
+				if (image != null) {
+					g.drawImage(image, x + column * TileCache.TILE_SIZE, y + row * TileCache.TILE_SIZE, null);
+				} else if (this.pending.add(key)) {
+					this.executor.execute(() -> this.render(key));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 区画を描画するメソッド バックグラウンドのスレッドで実行します。
+	 *
+	 * @param key
+	 *            区画
+	 */
+	private void render(Key key) {
+		BufferedImage image = null;
+		try {
+			if (key.level.equals(this.level) && this.visible.contains(key.column, key.row)) {
+				image = key.level.draw(key.column, key.row);
+			}
+		} finally {
+			BufferedImage tile = image;
+			SwingUtilities.invokeLater(() -> this.store(key, tile));
+		}
+	}
+
+	/**
+	 * 描画した区画の画像を保持するメソッド
+	 *
+	 * @param key
+	 *            区画
+	 * @param image
+	 *            画像、描画しなかった場合はnull
+	 */
+	private void store(Key key, BufferedImage image) {
+		if (key.level.generation != this.generation) {
+			return;
+		}
+		this.pending.remove(key);
+		if (image != null) {
+			this.tiles.put(key, image);
+			this.listener.run();
+		}
+	}
+
+	/**
+	 * 区画を識別するキー
+	 */
+	private static final class Key {
+
+		/**
+		 * 区画の列
+		 */
+		final int column;
+
+		/**
+		 * 区画を描画する設定
+		 */
+		final Level level;
+
+		/**
+		 * 区画の行
+		 */
+		final int row;
+
+		Key(Level level, int column, int row) {
+			this.level = level;
+			this.column = column;
+			this.row = row;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key key = (Key) obj;
+				return this.column == key.column && this.row == key.row && this.level.equals(key.level);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.level.hashCode() * 31 + this.column) * 31 + this.row;
+		}
+	}
+
+	/**
+	 * 区画を描画する設定 表示の設定と原点の端数が同じであれば、平行移動しても同じ画像を使えます。
+	 */
+	private static final class Level {
+
+		/**
+		 * 図面
+		 */
+		private final DxfData dxf;
+
+		/**
+		 * 表示環境の複製 描画するときはさらに複製して使います。
+		 */
+		private final ViewingEnvironment env;
+
+		/**
+		 * 作成したときに画像を破棄した回数
+		 */
+		final int generation;
+
+		/**
+		 * 表示の設定を変更した回数
+		 */
+		private final int revision;
+
+		/**
+		 * 原点を表示するX座標の端数
+		 */
+		private final double x;
+
+		/**
+		 * 原点を表示するY座標の端数
+		 */
+		private final double y;
+
+		Level(DxfData dxf, ViewingEnvironment env, int generation, double x, double y) {
+			this.dxf = dxf;
+			this.env = env;
+			this.generation = generation;
+			this.revision = env.getRevision();
+			this.x = x;
+			this.y = y;
+		}
+
+		/**
+		 * 区画を画像に描画するメソッド 複数のスレッドで同時に描画できるように、表示環境は区画ごとに複製します。
+		 *
+		 * @param column
+		 *            区画の列
+		 * @param row
+		 *            区画の行
+		 * @return 画像
+		 */
+		BufferedImage draw(int column, int row) {
+			ViewingEnvironment env = this.env.copy();
+			BufferedImage image = new BufferedImage(TileCache.TILE_SIZE, TileCache.TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = image.createGraphics();
+			try {
+				g.setColor(env.getBackground());
+				g.fillRect(0, 0, TileCache.TILE_SIZE, TileCache.TILE_SIZE);
+				g.clipRect(0, 0, TileCache.TILE_SIZE, TileCache.TILE_SIZE);
+				DxfComponent.initGraphics(g, env, this.x - column * TileCache.TILE_SIZE, this.y - row * TileCache.TILE_SIZE);
+				this.dxf.drawEntities(g, env);
+			} finally {
+				g.dispose();
+			}
+			return image;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Level) {
+				Level level = (Level) obj;
+				return this.dxf == level.dxf && this.generation == level.generation && this.revision == level.revision && this.x == level.x
+						&& this.y == level.y;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.generation * 31 + this.revision) * 31 + Double.hashCode(this.x) * 17 + Double.hashCode(this.y);
+		}
+
+		/**
+		 * 同じ設定で描画するかどうかを調べるメソッド
+		 *
+		 * @param dxf
+		 *            図面
+		 * @param env
+		 *            表示環境
+		 * @param generation
+		 *            画像を破棄した回数
+		 * @param x
+		 *            原点を表示するX座標の端数
+		 * @param y
+		 *            原点を表示するY座標の端数
+		 * @return 同じ設定であればtrue
+		 */
+		boolean matches(DxfData dxf, ViewingEnvironment env, int generation, double x, double y) {
+			return this.dxf == dxf && this.generation == generation && this.revision == env.getRevision() && this.x == x && this.y == y;
+		}
+	}
+}
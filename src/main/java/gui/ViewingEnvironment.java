@@ -3,14 +3,25 @@ package gui;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
 import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Observable;
 
+import dxf.section.SymbolTable;
+
 /**
  * 表示関係の設定を扱うクラス
  * 
+ * 描画のたびに同じストロークやフォントを作らないように、表示倍率ごとに作成したものを保持します。
+ * 文字のグリフは描画の設定（変換行列とヒント）が変わるか、表示倍率を変更すると作り直します。
+ * 
  * @author FUJIWARA Masayasu
  */
 public class ViewingEnvironment extends Observable implements Cloneable {
@@ -41,6 +52,16 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 
 	public static final String labelSelectionAlways = "選択範囲を常に表示";
 
+	/**
+	 * フォントごとに保持するグリフの最大数
+	 */
+	private static final int MAX_GLYPHS = 1 << 14;
+
+	/**
+	 * 線種のストロークの種類の数
+	 */
+	private static final int STROKE_SIZE = 4;
+
 	/**
 	 * 表示の最大尺度
 	 */
@@ -51,24 +72,74 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	 */
 	public final static float MIN_SCALE = 0.5f;
 
+	/**
+	 * 図面に重ねて表示するものだけを切り替えるパラメータかどうかを調べるメソッド
+	 * 
+	 * @param name
+	 *            パラメータ名
+	 * @return 異常、チェック補助線、選択範囲の表示を切り替えるパラメータであればtrue
+	 */
+	private static boolean isOverlayParam(String name) {
+		return ViewingEnvironment.labelCheckline.equals(name) || ViewingEnvironment.labelError.equals(name)
+				|| ViewingEnvironment.labelSelectionAlways.equals(name);
+	}
+
 	/**
 	 * 背景色
 	 */
 	private Color background = Color.WHITE;
 
-	private Map<String, Boolean> drawFlag;
+	/**
+	 * グリフとフォントの寸法を作成したときの描画の設定
+	 */
+	private FontRenderContext context;
+
+	/**
+	 * 線種の識別番号ごとの表示フラグ
+	 */
+	private boolean[] drawFlag;
 
 	private Color errorColor = Color.RED;
 
+	/**
+	 * エラー表示のストローク
+	 */
+	private Stroke errorStroke;
+
 	/**
 	 * フォント
 	 */
 	private Font font = new Font("ＭＳ ゴシック", Font.PLAIN, 8);
 
 	/**
-	 * 線種
+	 * フォントごとの寸法
 	 */
-	public Map<String, Integer> lineType = new HashMap<String, Integer>();
+	private final Map<Font, FontMetrics> fontMetrics;
+
+	/**
+	 * 大きさごとに作成したフォント
+	 */
+	private final Map<Integer, Font> fonts;
+
+	/**
+	 * フォントごとの、上下を反転した文字列のグリフ
+	 */
+	private final Map<Font, Map<String, GlyphVector>> glyphs;
+
+	/**
+	 * 線種の識別番号ごとのストロークの種類
+	 */
+	public int[] lineType;
+
+	/**
+	 * 細い破線のストローク
+	 */
+	private Stroke narrowDashStroke;
+
+	/**
+	 * 細い線のストローク
+	 */
+	private Stroke narrowStroke;
 
 	/**
 	 * フォント
@@ -80,11 +151,26 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	 */
 	public final Map<String, Integer> parameter;
 
+	/**
+	 * 平行移動のほかに表示の設定を変更した回数
+	 */
+	private int revision;
+
 	/**
 	 * 表示倍率
 	 */
 	private double scale = 1;
 
+	/**
+	 * 選択範囲のストローク
+	 */
+	private Stroke selectionStroke;
+
+	/**
+	 * ストロークの種類ごとのストローク
+	 */
+	private final Stroke[] strokes;
+
 	/**
 	 * X座標
 	 */
@@ -102,34 +188,30 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 		this.parameter.put(ViewingEnvironment.labelInsert, 1);
 		this.parameter.put(ViewingEnvironment.labelError, 1);
 		this.parameter.put(ViewingEnvironment.labelCheckline, 1);
-		this.lineType = new HashMap<String, Integer>();
-		this.lineType.put("PHANTOM", 2);
-		this.lineType.put("CONTINUOUS", 2);
-		this.lineType.put("HIDDEN", 1);
-		this.lineType.put("BYBLOCK", 0);
-		this.lineType.put("CENTER", 1); // 中心線
-		this.lineType.put("DASHED", 1);
-		this.lineType.put("DIMENSION", 0); // 寸法線の線種を独自に設定
-		this.lineType.put("INSERT", 0); // 引き出し線の線種を独自に設定
-		this.lineType.put("CHECK", 3); // チェック用の線種を独自に設定
-		this.lineType.put(null, 0);
-
-		this.drawFlag = new HashMap<String, Boolean>();
-		this.drawFlag.put("PHANTOM", true);
-		this.drawFlag.put("CONTINUOUS", true);
-		this.drawFlag.put("HIDDEN", true);
-		this.drawFlag.put("BYBLOCK", true);
-		this.drawFlag.put("CENTER", true); // 中心線
-		this.drawFlag.put("DASHED", true);
-		this.drawFlag.put("DIMENSION", true); // 寸法線の線種を独自に設定
-		this.drawFlag.put("INSERT", true); // 引き出し線の線種を独自に設定
-		this.drawFlag.put("CHECK", true); // チェック用の線種を独自に設定
-		this.drawFlag.put(null, true);
+		this.lineType = new int[SymbolTable.PREDEFINED_SIZE];
+		this.lineType[SymbolTable.PHANTOM] = 2;
+		this.lineType[SymbolTable.CONTINUOUS] = 2;
+		this.lineType[SymbolTable.HIDDEN] = 1;
+		this.lineType[SymbolTable.BYBLOCK] = 0;
+		this.lineType[SymbolTable.CENTER] = 1; // 中心線
+		this.lineType[SymbolTable.DASHED] = 1;
+		this.lineType[SymbolTable.DIMENSION] = 0; // 寸法線の線種を独自に設定
+		this.lineType[SymbolTable.INSERT] = 0; // 引き出し線の線種を独自に設定
+		this.lineType[SymbolTable.CHECK] = 3; // チェック用の線種を独自に設定
+		this.lineType[SymbolTable.BYLAYER] = 0;
+
+		this.drawFlag = new boolean[SymbolTable.PREDEFINED_SIZE];
+		Arrays.fill(this.drawFlag, true);
+
+		this.strokes = new Stroke[ViewingEnvironment.STROKE_SIZE];
+		this.fonts = new HashMap<Integer, Font>();
+		this.fontMetrics = new HashMap<Font, FontMetrics>();
+		this.glyphs = new HashMap<Font, Map<String, GlyphVector>>();
 	}
 
 	public boolean checkLineVisuble(String style) {
-		Boolean flag = this.drawFlag.get(style);
-		return flag != null && flag;
+		int id = SymbolTable.getPredefinedId(style);
+		return id >= 0 && this.drawFlag[id];
 	}
 
 	/**
@@ -139,6 +221,29 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 		this.x = 0;
 		this.y = 0;
 		this.scale = 1;
+		this.revision++;
+		this.clearCache();
+	}
+
+	/**
+	 * 表示倍率ごとに作成したストロークとグリフを破棄するメソッド
+	 */
+	private void clearCache() {
+		Arrays.fill(this.strokes, null);
+		this.errorStroke = null;
+		this.narrowDashStroke = null;
+		this.narrowStroke = null;
+		this.selectionStroke = null;
+		this.clearGlyphs();
+	}
+
+	/**
+	 * グリフとフォントの寸法を破棄するメソッド
+	 */
+	private void clearGlyphs() {
+		this.context = null;
+		this.fontMetrics.clear();
+		this.glyphs.clear();
 	}
 
 	@Override
@@ -150,6 +255,44 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 		return env;
 	}
 
+	/**
+	 * 描画に使う設定をすべて複製するメソッド 別のスレッドで描画するときに使います。
+	 * 作成したストロークとグリフは複製しません。
+	 * 
+	 * @return 位置、表示倍率、パラメータ、線種の設定、色とフォントが同じ表示環境
+	 */
+	ViewingEnvironment copy() {
+		ViewingEnvironment env = (ViewingEnvironment) this.clone();
+		env.background = this.background;
+		env.drawFlag = this.drawFlag.clone();
+		env.errorColor = this.errorColor;
+		env.font = this.font;
+		env.lineType = this.lineType.clone();
+		env.revision = this.revision;
+		env.scale = this.scale;
+		return env;
+	}
+
+	/**
+	 * 現在の表示倍率でストロークを作成するメソッド
+	 * 
+	 * @param stroke
+	 *            ストロークの種類
+	 * @return ストローク
+	 */
+	private Stroke createStroke(int stroke) {
+		switch (stroke) {
+		case 1:
+			return new BasicStroke((float) (.5f / this.scale), BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER, 1, new float[] { 4f, 0.9f, 0.9f, 0.6f }, 2f);
+		case 2:
+			return new BasicStroke((float) (1.25f / this.scale));
+		case 3:
+			return new BasicStroke((float) (2f / this.scale));
+		default:
+			return new BasicStroke((float) (1f / this.scale));
+		}
+	}
+
 	/**
 	 * 背景色を取得するメソッド
 	 * 
@@ -169,7 +312,10 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	 * @return ストローク
 	 */
 	public Stroke getErrorStroke() {
-		return new BasicStroke((float) (2 / this.scale));
+		if (this.errorStroke == null) {
+			this.errorStroke = new BasicStroke((float) (2 / this.scale));
+		}
+		return this.errorStroke;
 	}
 
 	/**
@@ -181,12 +327,92 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 		return this.font;
 	}
 
+	/**
+	 * フォントの大きさを変えたフォントを取得するメソッド
+	 * 
+	 * @param font
+	 *            元のフォント
+	 * @param size
+	 *            大きさ
+	 * @return 名前とスタイルが元のフォントと同じで、指定した大きさのフォント
+	 */
+	public Font getFont(Font font, int size) {
+		if (size == font.getSize()) {
+			return font;
+		}
+		Font sized = this.fonts.get(size);
+		if (sized == null || sized.getStyle() != font.getStyle() || !sized.getName().equals(font.getName())) {
+			sized = new Font(font.getName(), font.getStyle(), size);
+			this.fonts.put(size, sized);
+		}
+		return sized;
+	}
+
+	/**
+	 * フォントの寸法を取得するメソッド
+	 * 
+	 * @param g
+	 *            描画するグラフィックス
+	 * @param font
+	 *            フォント
+	 * @return フォントの寸法
+	 */
+	public FontMetrics getFontMetrics(Graphics2D g, Font font) {
+		this.validateContext(g);
+		FontMetrics metrics = this.fontMetrics.get(font);
+		if (metrics == null) {
+			metrics = g.getFontMetrics(font);
+			this.fontMetrics.put(font, metrics);
+		}
+		return metrics;
+	}
+
+	/**
+	 * 上下を反転した文字列のグリフを取得するメソッド Y軸が上向きの座標系にそのまま描画できます。
+	 * 
+	 * @param g
+	 *            描画するグラフィックス
+	 * @param font
+	 *            フォント
+	 * @param text
+	 *            文字列
+	 * @return グリフ
+	 */
+	public GlyphVector getGlyphVector(Graphics2D g, Font font, String text) {
+		this.validateContext(g);
+		Map<String, GlyphVector> map = this.glyphs.get(font);
+		if (map == null) {
+			map = new HashMap<String, GlyphVector>();
+			this.glyphs.put(font, map);
+		}
+		GlyphVector vector = map.get(text);
+		if (vector == null) {
+			vector = font.createGlyphVector(this.context, text);
+			AffineTransform matrix = new AffineTransform(1, 0, 0, -1, 0, 0);
+			for (int j = 0; j < vector.getNumGlyphs(); j++) {
+				vector.setGlyphTransform(j, matrix);
+			}
+			if (map.size() >= ViewingEnvironment.MAX_GLYPHS) {
+				map.clear();
+			}
+			map.put(text, vector);
+		}
+		return vector;
+	}
+
 	public Stroke getNarrowDashStroke() {
-		return new BasicStroke((float) (.2f / this.scale), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0.5f, new float[] { 1, 1 }, 0f);
+		if (this.narrowDashStroke == null) {
+			this.narrowDashStroke = new BasicStroke((float) (.2f / this.scale), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0.5f, new float[] { 1, 1 },
+					0f);
+		}
+		return this.narrowDashStroke;
 	}
 
 	public Stroke getNarrowStroke() {
-		return new BasicStroke((float) (.2f / this.scale), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL);
+		if (this.narrowStroke == null) {
+			this.narrowStroke = new BasicStroke((float) (.2f / this.scale), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL);
+		}
+		return this.narrowStroke;
 	}
 
 	/**
@@ -210,6 +436,16 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 		return value != null ? value.intValue() : 0;
 	}
 
+	/**
+	 * 平行移動のほかに表示の設定を変更した回数を取得するメソッド
+	 * 回数が同じであれば、平行移動しても図面を同じように描画します。
+	 * 
+	 * @return 変更した回数
+	 */
+	public int getRevision() {
+		return this.revision;
+	}
+
 	/**
 	 * 表示倍率を取得するメソッド
 	 * 
@@ -220,35 +456,34 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	}
 
 	public Stroke getSelectionStroke() {
-		float dash = (float) (5 / this.scale);
-		return new BasicStroke((float) (1f / this.scale), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0.5f, new float[] { dash, dash }, 0);
+		if (this.selectionStroke == null) {
+			float dash = (float) (5 / this.scale);
+			this.selectionStroke = new BasicStroke((float) (1f / this.scale), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0.5f, new float[] { dash, dash },
+					0);
+		}
+		return this.selectionStroke;
 	}
 
 	/**
 	 * ストロークを取得するメソッド
 	 * 
 	 * @param type
-	 *            線種
-	 * @return ストローク
+	 *            線種の識別番号
+	 * @return ストローク、表示しない線種であればnull
 	 */
-	public Stroke getStroke(String type) {
-		Boolean flag = this.drawFlag.get(type);
-		if (flag == null) {
+	public Stroke getStroke(int type) {
+		if (type < 0 || type >= this.drawFlag.length) {
 			System.out.println("Stroke Type Unsuppert: " + type);
-		} else if (flag) {
-			Integer stroke = this.lineType.get(type);
-			if (stroke != null && stroke >= 0) {
-				switch (stroke) {
-				case 1:
-					return new BasicStroke((float) (.5f / this.scale), BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER, 1, new float[] { 4f, 0.9f, 0.9f, 0.6f },
-							2f);
-				case 2:
-					return new BasicStroke((float) (1.25f / this.scale));
-				case 3:
-					return new BasicStroke((float) (2f / this.scale));
-				default:
-					return new BasicStroke((float) (1f / this.scale));
+		} else if (this.drawFlag[type]) {
+			int stroke = this.lineType[type];
+			if (stroke >= 0) {
+				if (stroke >= ViewingEnvironment.STROKE_SIZE) {
+					stroke = 0;
+				}
+				if (this.strokes[stroke] == null) {
+					this.strokes[stroke] = this.createStroke(stroke);
 				}
+				return this.strokes[stroke];
 			}
 		}
 		return null;
@@ -295,6 +530,7 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	 */
 	public void setBackground(Color color) {
 		this.background = color;
+		this.revision++;
 		this.setChanged();
 		this.notifyObservers();
 	}
@@ -306,10 +542,11 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	 */
 	public void setFont(Font font) {
 		this.font = font;
+		this.revision++;
 	}
 
 	/**
-	 * パラメータを設定するメソッド
+	 * パラメータを設定するメソッド 図面に重ねて表示するものだけを切り替える場合は、表示の設定を変更した回数を増やしません。
 	 * 
 	 * @param name
 	 *            名前
@@ -318,6 +555,11 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	 */
 	public void setParam(String name, int value) {
 		this.parameter.put(name, value);
+		if (!ViewingEnvironment.isOverlayParam(name)) {
+			this.revision++;
+		}
+		this.setChanged();
+		this.notifyObservers();
 	}
 
 	/**
@@ -328,6 +570,8 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	 */
 	public void setScale(double scale) {
 		this.scale = scale;
+		this.revision++;
+		this.clearCache();
 		this.setChanged();
 		this.notifyObservers();
 	}
@@ -353,7 +597,11 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 	}
 
 	public void switchLineVisible(String style, boolean flag) {
-		this.drawFlag.put(style, flag);
+		int id = SymbolTable.getPredefinedId(style);
+		if (id >= 0) {
+			this.drawFlag[id] = flag;
+			this.revision++;
+		}
 	}
 
 	/**
@@ -370,7 +618,24 @@ public class ViewingEnvironment extends Observable implements Cloneable {
 		this.x += x * (1 - newScale / this.scale);
 		this.y += y * (1 - newScale / this.scale);
 		this.scale = newScale;
+		this.revision++;
+		this.clearCache();
 		this.setChanged();
 		this.notifyObservers();
 	}
+
+	/**
+	 * グリフとフォントの寸法を作成したときと描画の設定が変わっていれば破棄するメソッド
+	 * 平行移動だけであれば描画の設定は変わりません。
+	 * 
+	 * @param g
+	 *            描画するグラフィックス
+	 */
+	private void validateContext(Graphics2D g) {
+		FontRenderContext context = g.getFontRenderContext();
+		if (!context.equals(this.context)) {
+			this.clearGlyphs();
+			this.context = context;
+		}
+	}
 }
@@ -21,6 +21,8 @@ public abstract class ExportableComponent extends JComponent implements Printabl
 	protected void paintComponent(Graphics g) {
 		Image image = this.createImage(this.getWidth(), this.getHeight());
 		Graphics2D g2 = (Graphics2D) image.getGraphics();
+		// 再描画が必要な範囲だけを描画できるように、クリップを引き継ぐ
+		g2.setClip(g.getClip());
 		this.paintComponent(g2);
 		g.drawImage(image, 0, 0, null);
 	}
@@ -49,7 +49,7 @@ public class GeneralFileFilter extends FileFilter implements java.io.FileFilter
 	private boolean dir;
 
 	/**
-	 * 許可する拡張子
+	 * 許可する拡張子 「dxf.gz」のように複数の拡張子を続けて指定できます。
 	 */
 	private final String[] extensions;
 
@@ -137,10 +137,10 @@ public class GeneralFileFilter extends FileFilter implements java.io.FileFilter
 		if (file.isDirectory()) {
 			return this.dir;
 		}
-		String path = file.getPath();
-		String format = path.substring(path.lastIndexOf('.') + 1, path.length());
+		String name = file.getName();
 		for (String extension : this.extensions) {
-			if (extension.compareToIgnoreCase(format) == 0) {
+			int offset = name.length() - extension.length();
+			if (offset > 0 && name.charAt(offset - 1) == '.' && name.regionMatches(true, offset, extension, 0, extension.length())) {
 				return true;
 			}
 		}
@@ -0,0 +1,207 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * 丸めた座標から位置を引くためのハッシュ表
+ *
+ * 座標は{@link RoundNumber#ACCURACY}倍して丸めたlong値をキーとし、{@link RoundNumber}と同じ精度で同値を判定します。
+ * キーと値はプリミティブの配列で保持するため、登録や検索のたびにオブジェクトを生成しません。
+ * 要素は追加した順に保持し、{@link #getKey(int)}と{@link #getValue(int)}で順に参照できます。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ */
+public class RoundIndex {
+
+	/**
+	 * 座標を丸めたキーを求めるメソッド
+	 *
+	 * @param value
+	 *            座標
+	 * @return キー
+	 */
+	public static long key(double value) {
+		return Math.round(value * RoundNumber.ACCURACY);
+	}
+
+	/**
+	 * 隣り合う座標が同じ位置に集まらないようにキーを攪拌するメソッド
+	 *
+	 * @param key
+	 *            キー
+	 * @return ハッシュ値
+	 */
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * 追加した順のキー
+	 */
+	private long[] keys;
+
+	/**
+	 * ハッシュ表の位置を求めるためのビットマスク
+	 */
+	private int mask;
+
+	/**
+	 * 保持している要素の数
+	 */
+	private int size;
+
+	/**
+	 * ハッシュ表 要素の位置に1を加えた値を保持し、0は空きを表します。
+	 */
+	private int[] slots;
+
+	/**
+	 * 追加した順の値
+	 */
+	private int[] values;
+
+	public RoundIndex() {
+		this(16);
+	}
+
+	/**
+	 * @param capacity
+	 *            初期容量
+	 */
+	public RoundIndex(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.keys = new long[capacity];
+		this.values = new int[capacity];
+		int length = Integer.highestOneBit(capacity * 2 - 1) << 1;
+		this.slots = new int[length];
+		this.mask = length - 1;
+	}
+
+	/**
+	 * すべての要素を削除するメソッド
+	 */
+	public void clear() {
+		Arrays.fill(this.slots, 0);
+		this.size = 0;
+	}
+
+	/**
+	 * 座標に対応する値を取得するメソッド
+	 *
+	 * @param value
+	 *            座標
+	 * @return 値、登録されていなければ-1
+	 */
+	public int get(double value) {
+		return this.get(RoundIndex.key(value));
+	}
+
+	/**
+	 * キーに対応する値を取得するメソッド
+	 *
+	 * @param key
+	 *            キー
+	 * @return 値、登録されていなければ-1
+	 */
+	public int get(long key) {
+		int slot = this.find(key);
+		int entry = this.slots[slot];
+		return entry == 0 ? -1 : this.values[entry - 1];
+	}
+
+	/**
+	 * 追加した順で要素のキーを取得するメソッド
+	 *
+	 * @param index
+	 *            追加した順の位置
+	 * @return キー
+	 */
+	public long getKey(int index) {
+		return this.keys[index];
+	}
+
+	/**
+	 * 追加した順で要素の値を取得するメソッド
+	 *
+	 * @param index
+	 *            追加した順の位置
+	 * @return 値
+	 */
+	public int getValue(int index) {
+		return this.values[index];
+	}
+
+	/**
+	 * キーが登録されていなければ値を登録するメソッド 登録済みのキーの値は上書きしません。
+	 *
+	 * @param key
+	 *            キー
+	 * @param value
+	 *            0以上の値
+	 * @return 登録済みであればその値、新たに登録した場合は-1
+	 */
+	public int putIfAbsent(long key, int value) {
+		int slot = this.find(key);
+		int entry = this.slots[slot];
+		if (entry != 0) {
+			return this.values[entry - 1];
+		}
+		if (this.size == this.keys.length) {
+			int capacity = this.size + (this.size >> 1) + 1;
+			this.keys = Arrays.copyOf(this.keys, capacity);
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+		this.keys[this.size] = key;
+		this.values[this.size] = value;
+		this.slots[slot] = ++this.size;
+		if (this.size * 2 > this.slots.length) {
+			this.rehash();
+		}
+		return -1;
+	}
+
+	/**
+	 * 保持している要素の数を取得するメソッド
+	 *
+	 * @return 要素の数
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * キーを保持している、またはキーを登録すべきハッシュ表の位置を求めるメソッド
+	 *
+	 * @param key
+	 *            キー
+	 * @return ハッシュ表の位置
+	 */
+	private int find(long key) {
+		int slot = RoundIndex.hash(key) & this.mask;
+		while (true) {
+			int entry = this.slots[slot];
+			if (entry == 0 || this.keys[entry - 1] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+	}
+
+	/**
+	 * ハッシュ表を2倍に広げて要素を登録し直すメソッド
+	 */
+	private void rehash() {
+		int length = this.slots.length << 1;
+		this.slots = new int[length];
+		this.mask = length - 1;
+		for (int i = 0; i < this.size; i++) {
+			int slot = RoundIndex.hash(this.keys[i]) & this.mask;
+			while (this.slots[slot] != 0) {
+				slot = (slot + 1) & this.mask;
+			}
+			this.slots[slot] = i + 1;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package util;
+
+/**
+ * 丸めた座標で重複を除く{@link ListSet}の実装
+ *
+ * 要素の位置は{@link RoundIndex}で引くため、{@link #indexOf(double)}は座標からオブジェクトを生成せずに位置を求めます。
+ *
+ * @author FUJIWARA Masayasu
+ * @since 0.03
+ * @param <E>
+ *            要素
+ */
+public class RoundListSet<E extends RoundNumber> extends ListSet<E> {
+
+	/**
+	 * 丸めた座標から要素の位置を引くハッシュ表
+	 */
+	private final RoundIndex index;
+
+	public RoundListSet() {
+		this.index = new RoundIndex();
+	}
+
+	@Override
+	public boolean add(E entry) {
+		if (this.index.putIfAbsent(RoundIndex.key(entry.getValue()), this.list.size()) < 0) {
+			this.list.add(entry);
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		this.list.clear();
+		this.index.clear();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return this.indexOf(o) >= 0;
+	}
+
+	/**
+	 * 座標が要素に含まれるか確認するメソッド
+	 *
+	 * @param value
+	 *            座標
+	 * @return 含まれればtrue
+	 */
+	public boolean contains(double value) {
+		return this.index.get(value) >= 0;
+	}
+
+	@Override
+	public E get(Object obj) {
+		int i = this.indexOf(obj);
+		return i < 0 ? null : this.list.get(i);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		if (o instanceof RoundNumber) {
+			return this.index.get(((RoundNumber) o).getValue());
+		}
+		return -1;
+	}
+
+	/**
+	 * 座標と同値の要素の位置を取得するメソッド
+	 *
+	 * @param value
+	 *            座標
+	 * @return 位置、含まれなければ-1
+	 */
+	public int indexOf(double value) {
+		return this.index.get(value);
+	}
+}